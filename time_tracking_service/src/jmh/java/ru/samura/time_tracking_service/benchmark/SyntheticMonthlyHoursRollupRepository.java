@@ -0,0 +1,74 @@
+package ru.samura.time_tracking_service.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import ru.samura.time_tracking_service.entity.MonthlyHoursRollup;
+import ru.samura.time_tracking_service.repository.MonthlyHoursRollupRepository;
+
+/**
+ * In-memory заглушка {@link MonthlyHoursRollupRepository} для бенчмарков.
+ * <p>
+ * Агрегаты хранятся в {@link ConcurrentHashMap}; инкремент и вставка заменяют запись новой.
+ * Для полноты набора данных агрегат сотрудника за месяц без записей строится по
+ * {@link SyntheticTimeEntryRepository} — {@link SyntheticTimeEntryRepository#SHIFTS_PER_MONTH} смен по 9 часов.
+ *
+ */
+public final class SyntheticMonthlyHoursRollupRepository implements InvocationHandler {
+
+    private final Map<MonthlyHoursRollup.Key, MonthlyHoursRollup> rollups = new ConcurrentHashMap<>();
+
+    private SyntheticMonthlyHoursRollupRepository() {
+    }
+
+    /**
+     * Создаёт заглушку репозитория агрегатов.
+     *
+     * @return прокси, реализующий {@link MonthlyHoursRollupRepository}
+     */
+    public static MonthlyHoursRollupRepository create() {
+        return (MonthlyHoursRollupRepository) Proxy.newProxyInstance(MonthlyHoursRollupRepository.class.getClassLoader(),
+                                                                     new Class<?>[] {MonthlyHoursRollupRepository.class},
+                                                                     new SyntheticMonthlyHoursRollupRepository());
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.isDefault()) {
+            return InvocationHandler.invokeDefault(proxy, method, args);
+        }
+
+        return switch (method.getName()) {
+            case "findById" -> Optional.of(rollups.computeIfAbsent((MonthlyHoursRollup.Key) args[0], this::synthetic));
+            case "increment" -> {
+                // Запись заменяется новой, а не меняется под synchronized — без закрепления виртуальных потоков
+                rollups.compute(new MonthlyHoursRollup.Key((UUID) args[0], (String) args[1]), (key, rollup) -> {
+                    MonthlyHoursRollup current = rollup != null ? rollup : synthetic(key);
+                    return new MonthlyHoursRollup(key.getEmployeeId(), key.getYearMonth(),
+                                                  current.getTotalMinutes() + (long) args[2],
+                                                  current.getTotalHours() + (long) args[3],
+                                                  current.getShiftCount() + (int) args[4]);
+                });
+                yield 1;
+            }
+            // Агрегат без записи строится синтетически, поэтому строка месяца всегда есть
+            case "insertEmpty" -> 0;
+            // Агрегаты всех месяцев считаются построенными
+            case "isMonthBuilt" -> true;
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> "SyntheticMonthlyHoursRollupRepository";
+            default -> throw new UnsupportedOperationException(method.getName());
+        };
+    }
+
+    private MonthlyHoursRollup synthetic(MonthlyHoursRollup.Key key) {
+        int shifts = SyntheticTimeEntryRepository.SHIFTS_PER_MONTH;
+        return new MonthlyHoursRollup(key.getEmployeeId(), key.getYearMonth(), shifts * 9 * 60L, shifts * 9L, shifts);
+    }
+}
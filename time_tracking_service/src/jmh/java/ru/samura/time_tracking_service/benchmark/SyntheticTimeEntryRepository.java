@@ -0,0 +1,180 @@
+package ru.samura.time_tracking_service.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import ru.samura.time_tracking_service.DTO.ShiftPeriod;
+import ru.samura.time_tracking_service.DTO.ShiftView;
+import ru.samura.time_tracking_service.entity.Employee;
+import ru.samura.time_tracking_service.entity.TimeEntry;
+import ru.samura.time_tracking_service.repository.TimeEntryRepository;
+
+/**
+ * In-memory заглушка {@link TimeEntryRepository} для бенчмарков — без БД и Spring Data.
+ * <p>
+ * Смены не хранятся, а генерируются детерминированно по номеру сотрудника: у каждого сотрудника
+ * {@link #SHIFTS_PER_MONTH} смен в каждом месяце истории (с 9:00, длительностью 8–10 часов).
+ * Поэтому память не зависит от размера набора и 100k сотрудников × месяцы смен помещаются в обычную кучу.
+ *
+ * <p>
+ * Реализованы только методы, которые вызывает {@link ru.samura.time_tracking_service.service.TimeEntryService};
+ * {@code default}-методы интерфейса выполняются как есть (через
+ * {@link InvocationHandler#invokeDefault(Object, Method, Object...)}), остальные бросают
+ * {@link UnsupportedOperationException}.
+ *
+ */
+public final class SyntheticTimeEntryRepository implements InvocationHandler {
+
+    /**
+     * Количество смен сотрудника в месяце.
+     */
+    public static final int SHIFTS_PER_MONTH = 20;
+
+    private final List<UUID> employeeIds;
+    private final Map<UUID, Integer> seeds = new HashMap<>();
+    private final YearMonth firstMonth;
+    private final YearMonth lastMonth;
+    private final boolean everyoneHasOpenShift;
+
+    private SyntheticTimeEntryRepository(List<UUID> employeeIds, YearMonth lastMonth, int months, boolean everyoneHasOpenShift) {
+        this.employeeIds = employeeIds;
+        for (int i = 0; i < employeeIds.size(); i++) {
+            seeds.put(employeeIds.get(i), i);
+        }
+        this.firstMonth = lastMonth.minusMonths(months - 1L);
+        this.lastMonth = lastMonth;
+        this.everyoneHasOpenShift = everyoneHasOpenShift;
+    }
+
+    /**
+     * Создаёт заглушку репозитория.
+     *
+     * @param employeeIds сотрудники набора данных
+     * @param lastMonth последний месяц истории смен
+     * @param months глубина истории в месяцах
+     * @param everyoneHasOpenShift {@code true} — у каждого сотрудника есть открытая смена (для {@code clockOut}),
+     *                             {@code false} — открытых смен нет (для {@code clockIn})
+     * @return прокси, реализующий {@link TimeEntryRepository}
+     */
+    public static TimeEntryRepository create(List<UUID> employeeIds, YearMonth lastMonth, int months, boolean everyoneHasOpenShift) {
+        return (TimeEntryRepository) Proxy.newProxyInstance(TimeEntryRepository.class.getClassLoader(),
+                                                            new Class<?>[] {TimeEntryRepository.class},
+                                                            new SyntheticTimeEntryRepository(employeeIds, lastMonth,
+                                                                                             months, everyoneHasOpenShift));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.isDefault()) {
+            return InvocationHandler.invokeDefault(proxy, method, args);
+        }
+
+        return switch (method.getName()) {
+            case "findOpenShiftByEmployee" -> everyoneHasOpenShift ? Optional.of(openShift()) : Optional.empty();
+            case "findLatestShiftByEmployee" -> Optional.empty();
+            case "saveAndFlush", "save" -> assignId((TimeEntry) args[0]);
+            case "closeOpenShift" -> everyoneHasOpenShift ? 1 : 0;
+            case "findShiftsForPaymentByEmployeeBetween" ->
+                shiftsBetween((UUID) args[0], (LocalDateTime) args[1], (LocalDateTime) args[2]);
+            case "streamClosedShiftsBetween" -> streamShiftsBetween(employeeIds, (LocalDateTime) args[0], (LocalDateTime) args[1]);
+            case "streamClosedShiftsByEmployeesBetween" ->
+                streamShiftsBetween((Collection<UUID>) args[0], (LocalDateTime) args[1], (LocalDateTime) args[2]);
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> "SyntheticTimeEntryRepository";
+            default -> throw new UnsupportedOperationException(method.getName());
+        };
+    }
+
+    private ShiftView openShift() {
+        return new ShiftView(UUID.randomUUID(), LocalDateTime.now().withHour(9).withMinute(0), null, false);
+    }
+
+    private TimeEntry assignId(TimeEntry timeEntry) {
+        if (timeEntry.getId() == null) {
+            timeEntry.setId(UUID.randomUUID());
+        }
+        return timeEntry;
+    }
+
+    private List<TimeEntry> shiftsBetween(UUID employeeId, LocalDateTime from, LocalDateTime to) {
+        Employee employee = new Employee();
+        employee.setId(employeeId);
+
+        List<TimeEntry> shifts = new ArrayList<>();
+        int seed = seeds.getOrDefault(employeeId, 0);
+        for (YearMonth month : monthsBetween(from, to)) {
+            for (int day = 1; day <= SHIFTS_PER_MONTH; day++) {
+                TimeEntry shift = new TimeEntry();
+                shift.setId(UUID.randomUUID());
+                shift.setEmployee(employee);
+                shift.setCheckIn(checkIn(month, day));
+                shift.setCheckOut(checkOut(month, day, seed));
+                shifts.add(shift);
+            }
+        }
+        return shifts;
+    }
+
+    private Stream<ShiftPeriod> streamShiftsBetween(Collection<UUID> employees, LocalDateTime from, LocalDateTime to) {
+        return monthsBetween(from, to).stream()
+            .flatMap(month -> employees.stream()
+                .flatMap(employeeId -> IntStream.rangeClosed(1, SHIFTS_PER_MONTH)
+                    .mapToObj(day -> shiftPeriod(employeeId, checkIn(month, day),
+                                                 checkOut(month, day, seeds.getOrDefault(employeeId, 0))))));
+    }
+
+    /**
+     * Месяцы истории, попадающие в полуоткрытый диапазон {@code [from, to)}.
+     * Границы всегда совпадают с началом месяца — так их формируют методы репозитория по {@link YearMonth}.
+     */
+    private List<YearMonth> monthsBetween(LocalDateTime from, LocalDateTime to) {
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth month = YearMonth.from(from); month.atDay(1).atStartOfDay().isBefore(to); month = month.plusMonths(1)) {
+            if (!month.isBefore(firstMonth) && !month.isAfter(lastMonth)) {
+                months.add(month);
+            }
+        }
+        return months;
+    }
+
+    private static LocalDateTime checkIn(YearMonth month, int day) {
+        return month.atDay(day).atTime(9, 0);
+    }
+
+    private static LocalDateTime checkOut(YearMonth month, int day, int seed) {
+        return checkIn(month, day).plusHours(8 + (seed + day) % 3);
+    }
+
+    private static ShiftPeriod shiftPeriod(UUID employeeId, LocalDateTime checkIn, LocalDateTime checkOut) {
+        return new ShiftPeriod() {
+            @Override
+            public UUID getEmployeeId() {
+                return employeeId;
+            }
+
+            @Override
+            public LocalDateTime getCheckIn() {
+                return checkIn;
+            }
+
+            @Override
+            public LocalDateTime getCheckOut() {
+                return checkOut;
+            }
+        };
+    }
+}
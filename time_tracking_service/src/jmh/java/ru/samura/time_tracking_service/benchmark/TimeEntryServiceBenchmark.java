@@ -0,0 +1,166 @@
+package ru.samura.time_tracking_service.benchmark;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import ru.samura.time_tracking_service.DTO.CalculationPayment;
+import ru.samura.time_tracking_service.DTO.EmployeeDTO;
+import ru.samura.time_tracking_service.DTO.TimeEntryDTO;
+import ru.samura.time_tracking_service.archive.TimeEntryArchive;
+import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.repository.MonthlyHoursRollupRepository;
+import ru.samura.time_tracking_service.repository.TimeEntryRepository;
+import ru.samura.time_tracking_service.response.TotalPaymentEmployeeResponse;
+import ru.samura.time_tracking_service.service.MonthlyHoursRollupService;
+import ru.samura.time_tracking_service.service.TimeEntryService;
+
+/**
+ * JMH-бенчмарки горячих путей {@link TimeEntryService}: открытие и закрытие смены,
+ * расчёт оплаты одного сотрудника и отчёт по всем сотрудникам.
+ * <p>
+ * Сервис поднимается в минимальном Spring-контексте (внедрение полей как в приложении,
+ * без кешей, транзакции — {@link NoOpTransactionManager}) поверх {@link SyntheticTimeEntryRepository} и
+ * {@link SyntheticMonthlyHoursRollupRepository}, поэтому замеряется
+ * код сервиса, а не БД. Наборы данных: 10, 1k и 100k сотрудников × {@code months} месяцев смен.
+ * Отчёт по всем сотрудникам замеряется и в параллельном режиме ({@code parallelism=4}, части по 1000 сотрудников).
+ *
+ * <p>
+ * Запуск: {@code mvn -Pbenchmark compile exec:exec}; параметры JMH передаются через
+ * {@code -Djmh.args="..."}, например {@code -Djmh.args="-p employees=1000 totalPayment"}.
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimeEntryServiceBenchmark {
+
+    /**
+     * Набор данных: сотрудники и сервисы поверх заглушек репозитория.
+     */
+    @State(Scope.Benchmark)
+    public static class DataSet {
+
+        @Param({"10", "1000", "100000"})
+        int employees;
+
+        @Param({"12"})
+        int months;
+
+        final YearMonth payrollMonth = YearMonth.of(2025, 12);
+
+        final List<EmployeeDTO> employeeDTOs = new ArrayList<>();
+
+        TimeEntryService withoutOpenShifts;
+        TimeEntryService withOpenShifts;
+        TimeEntryService parallelPayroll;
+
+        private final List<AnnotationConfigApplicationContext> contexts = new ArrayList<>();
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            List<UUID> employeeIds = new ArrayList<>(employees);
+            for (int i = 0; i < employees; i++) {
+                EmployeeDTO dto = new EmployeeDTO();
+                dto.setId(UUID.randomUUID());
+                dto.setFullName("Сотрудник " + i);
+                dto.setEmail("employee" + i + "@company.com");
+                dto.setHourlyRate(1000);
+                dto.setWorkHoursPerDay(8);
+                dto.setRole(Role.EMPLOYEE);
+                employeeDTOs.add(dto);
+                employeeIds.add(dto.getId());
+            }
+
+            withoutOpenShifts = service(SyntheticTimeEntryRepository.create(employeeIds, payrollMonth, months, false), 1);
+            withOpenShifts = service(SyntheticTimeEntryRepository.create(employeeIds, payrollMonth, months, true), 1);
+            parallelPayroll = service(SyntheticTimeEntryRepository.create(employeeIds, payrollMonth, months, false), 4);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            contexts.forEach(AnnotationConfigApplicationContext::close);
+        }
+
+        private TimeEntryService service(TimeEntryRepository repository, int payrollParallelism) {
+            AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+            context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", Map.of(
+                "time-tracking.payroll.parallelism", payrollParallelism,
+                "time-tracking.payroll.chunk-size", 1000)));
+            context.registerBean(TimeEntryRepository.class, () -> repository);
+            context.registerBean(PlatformTransactionManager.class, NoOpTransactionManager::new);
+            context.registerBean(MonthlyHoursRollupRepository.class, SyntheticMonthlyHoursRollupRepository::create);
+            // Пустой архив: месяцы не перенесены, смены читаются только из репозитория
+            context.registerBean(TimeEntryArchive.class);
+            context.registerBean(MonthlyHoursRollupService.class);
+            context.registerBean(TimeEntryService.class);
+            context.refresh();
+            contexts.add(context);
+            return context.getBean(TimeEntryService.class);
+        }
+    }
+
+    /**
+     * Перебор сотрудников по кругу — каждый вызов работает со следующим сотрудником.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int next;
+
+        EmployeeDTO next(DataSet dataSet) {
+            EmployeeDTO employeeDTO = dataSet.employeeDTOs.get(next);
+            next = (next + 1) % dataSet.employeeDTOs.size();
+            return employeeDTO;
+        }
+    }
+
+    @Benchmark
+    public TimeEntryDTO clockIn(DataSet dataSet, Cursor cursor) {
+        return dataSet.withoutOpenShifts.clockIn(cursor.next(dataSet));
+    }
+
+    @Benchmark
+    public TimeEntryDTO clockOut(DataSet dataSet, Cursor cursor) {
+        return dataSet.withOpenShifts.clockOut(cursor.next(dataSet), false);
+    }
+
+    @Benchmark
+    public CalculationPayment totalPaymentEmployee(DataSet dataSet, Cursor cursor) {
+        return dataSet.withoutOpenShifts.totalPaymentEmployee(cursor.next(dataSet), dataSet.payrollMonth);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<TotalPaymentEmployeeResponse> getTotalPaymentsForEmployees(DataSet dataSet) {
+        return dataSet.withoutOpenShifts.getTotalPaymentsForEmployees(dataSet.employeeDTOs, dataSet.payrollMonth);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<TotalPaymentEmployeeResponse> getTotalPaymentsForEmployeesParallel(DataSet dataSet) {
+        return dataSet.parallelPayroll.getTotalPaymentsForEmployees(dataSet.employeeDTOs, dataSet.payrollMonth);
+    }
+}
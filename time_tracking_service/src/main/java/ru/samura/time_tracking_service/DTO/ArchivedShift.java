@@ -0,0 +1,37 @@
+package ru.samura.time_tracking_service.DTO;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Завершённая смена, прочитанная из архива месяца ({@link ru.samura.time_tracking_service.archive.TimeEntryArchive}).
+ * <p>
+ * Идентификатор смены в архиве не хранится: на архивные смены ничто не ссылается.
+ *
+ * @param employeeId идентификатор сотрудника
+ * @param checkIn    начало смены
+ * @param checkOut   окончание смены
+ * @param manual     смена закрыта вручную
+ */
+public record ArchivedShift(
+    UUID employeeId,
+    LocalDateTime checkIn,
+    LocalDateTime checkOut,
+    boolean manual
+) implements ShiftPeriod {
+
+    @Override
+    public UUID getEmployeeId() {
+        return employeeId;
+    }
+
+    @Override
+    public LocalDateTime getCheckIn() {
+        return checkIn;
+    }
+
+    @Override
+    public LocalDateTime getCheckOut() {
+        return checkOut;
+    }
+}
@@ -0,0 +1,56 @@
+package ru.samura.time_tracking_service.DTO;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.samura.time_tracking_service.event.ClockEvent;
+
+/**
+ * Одно событие прохода от турникета или считывателя бейджей в пакетном запросе
+ * ({@code POST /time-entry/employees/{hrId}/batch}).
+ * <p>
+ * Шлюзы буферизуют проходы, поэтому событие несёт собственное время {@link #timestamp} —
+ * смена открывается и закрывается по нему, а не по времени обработки запроса.
+ *
+ *
+ * @see ru.samura.time_tracking_service.service.BatchClockService
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClockEventRequest {
+
+    /**
+     * Идентификатор сотрудника, приложившего бейдж.
+     */
+    private UUID employeeId;
+
+    /**
+     * Тип события: приход ({@code CLOCK_IN}) или уход ({@code CLOCK_OUT}).
+     */
+    private ClockEvent.Type type;
+
+    /**
+     * Время прохода. Если не указано — используется время обработки запроса.
+     */
+    private LocalDateTime timestamp;
+
+    /**
+     * Уход зафиксирован вручную (HR закрывает смену сотрудника) — смена помечается как ручная.
+     * Для прихода не используется: ручной приход определяется ролью сотрудника.
+     * <p>
+     * Задаётся только сервером (журнал отложенной записи, {@code WriteBehindClockService}) и не читается
+     * из запроса: шлюз не может пометить смену ручной.
+     */
+    @JsonIgnore
+    private boolean manual;
+
+    public ClockEventRequest(UUID employeeId, ClockEvent.Type type, LocalDateTime timestamp) {
+        this(employeeId, type, timestamp, false);
+    }
+}
@@ -0,0 +1,63 @@
+package ru.samura.time_tracking_service.DTO;
+
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import ru.samura.time_tracking_service.response.TotalPaymentEmployeeResponse;
+
+/**
+ * Отчёт по оплате за закрытый месяц, восстановленный из снимка
+ * ({@link ru.samura.time_tracking_service.entity.ReportSnapshot}).
+ * <p>
+ * Неизменяем и хранится в кеше {@code reportSnapshotCache}; поиск сотрудника — по индексу, без перебора.
+ *
+ * @param month закрытый месяц
+ * @param etag версия снимка
+ * @param payments расчёт оплаты всех сотрудников в порядке снимка
+ * @param byEmployee тот же расчёт по идентификатору сотрудника
+ */
+public record ClosedMonthReport(
+    YearMonth month,
+    String etag,
+    List<TotalPaymentEmployeeResponse> payments,
+    Map<UUID, TotalPaymentEmployeeResponse> byEmployee
+) {
+
+    /**
+     * Создаёт отчёт и индекс по сотрудникам.
+     *
+     * @param month закрытый месяц
+     * @param etag версия снимка
+     * @param payments расчёт оплаты всех сотрудников
+     * @return отчёт за закрытый месяц
+     */
+    public static ClosedMonthReport of(YearMonth month, String etag, List<TotalPaymentEmployeeResponse> payments) {
+        Map<UUID, TotalPaymentEmployeeResponse> byEmployee = new LinkedHashMap<>();
+        for (TotalPaymentEmployeeResponse payment : payments) {
+            byEmployee.put(payment.employeeDTO().getId(), payment);
+        }
+        return new ClosedMonthReport(month, etag, List.copyOf(payments), byEmployee);
+    }
+
+    /**
+     * @param employeeId идентификатор сотрудника
+     * @return расчёт оплаты сотрудника или пусто, если сотрудника не было в организации на момент закрытия
+     */
+    public Optional<TotalPaymentEmployeeResponse> find(UUID employeeId) {
+        return Optional.ofNullable(byEmployee.get(employeeId));
+    }
+
+    /**
+     * Версия отчёта одного сотрудника: меняется вместе со снимком, но различается у разных сотрудников.
+     *
+     * @param employeeId идентификатор сотрудника
+     * @return значение {@code ETag} для отчёта сотрудника
+     */
+    public String etag(UUID employeeId) {
+        return etag + "-" + employeeId;
+    }
+}
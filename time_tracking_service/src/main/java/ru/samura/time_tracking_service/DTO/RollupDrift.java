@@ -0,0 +1,38 @@
+package ru.samura.time_tracking_service.DTO;
+
+import java.time.YearMonth;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Расхождение месячного агрегата ({@code monthly_hours_rollup}) с исходными сменами ({@code time_entry}),
+ * найденное при сверке.
+ * <p>
+ * Значения {@code expected*} пересчитаны по сменам, {@code actual*} — были сохранены в агрегате
+ * до исправления (нули, если строки агрегата не было).
+ *
+ *
+ * @see ru.samura.time_tracking_service.service.MonthlyHoursRollupService#reconcile(YearMonth)
+ */
+@Value
+@AllArgsConstructor
+public class RollupDrift {
+
+    UUID employeeId;
+
+    YearMonth month;
+
+    long expectedMinutes;
+
+    long actualMinutes;
+
+    long expectedHours;
+
+    long actualHours;
+
+    int expectedShifts;
+
+    int actualShifts;
+}
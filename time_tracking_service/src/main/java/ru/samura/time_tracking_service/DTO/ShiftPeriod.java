@@ -0,0 +1,31 @@
+package ru.samura.time_tracking_service.DTO;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Проекция завершённой смены для агрегирующих запросов (расчёт оплаты по всем сотрудникам).
+ * <p>
+ * Содержит только идентификатор сотрудника и временные метки — без загрузки сущностей
+ * {@link ru.samura.time_tracking_service.entity.TimeEntry} и связанного {@link ru.samura.time_tracking_service.entity.Employee}.
+ *
+ *
+ * @see ru.samura.time_tracking_service.repository.TimeEntryRepository#streamClosedShiftsByMonth(String)
+ */
+public interface ShiftPeriod {
+
+    /**
+     * @return идентификатор сотрудника, которому принадлежит смена
+     */
+    UUID getEmployeeId();
+
+    /**
+     * @return время начала смены
+     */
+    LocalDateTime getCheckIn();
+
+    /**
+     * @return время окончания смены (для выборок по оплате всегда не {@code null})
+     */
+    LocalDateTime getCheckOut();
+}
@@ -0,0 +1,29 @@
+package ru.samura.time_tracking_service.DTO;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Проекция смены для путей чтения (история смен, поиск открытой и последней смены).
+ * <p>
+ * Содержит только столбцы {@code id, register, check_out, is_manual}: сотрудник смены известен
+ * вызывающему коду, поэтому ни {@link ru.samura.time_tracking_service.entity.TimeEntry},
+ * ни {@link ru.samura.time_tracking_service.entity.Employee} не создаются и не попадают
+ * в контекст персистентности. Сущности используются только на путях записи.
+ *
+ * <p>
+ * Неизменяема — безопасно хранится в {@code shiftCache} и передаётся между потоками.
+ *
+ *
+ * @param id       идентификатор смены
+ * @param checkIn  время начала смены
+ * @param checkOut время окончания смены; {@code null}, если смена открыта
+ * @param manual   флаг ручного завершения смены
+ * @see ru.samura.time_tracking_service.repository.TimeEntryRepository#findShiftsByEmployee(UUID)
+ */
+public record ShiftView(
+    UUID id,
+    LocalDateTime checkIn,
+    LocalDateTime checkOut,
+    boolean manual
+) {}
@@ -82,6 +82,10 @@ public class TimeEntryDTO {
      * </ul>
      * Для production-кода рекомендуется добавить проверки или использовать {@code Optional}.
      * 
+     * <p>
+     * ⚠️ Сотрудник смены загружается лениво: для управляемой сущности вызывать внутри транзакции.
+     * Если сотрудник уже известен, используйте {@link #fromEntity(TimeEntry, EmployeeDTO)}.
+     * 
      *
      * @param timeEntry сущность записи времени, не может быть {@code null}
      * @return новый экземпляр {@link TimeEntryDTO}
@@ -104,6 +108,52 @@ public class TimeEntryDTO {
         return dto;
     }
 
+    /**
+     * Создаёт DTO на основе сущности {@link TimeEntry} с уже известным сотрудником.
+     * <p>
+     * Используется на путях записи (открытие смены): вызывающий код уже держит {@link EmployeeDTO},
+     * поэтому связанный сотрудник сущности не читается и не копируется.
+     * 
+     *
+     * @param timeEntry сущность записи времени, не может быть {@code null}
+     * @param employee сотрудник смены
+     * @return новый экземпляр {@link TimeEntryDTO}
+     */
+    public static TimeEntryDTO fromEntity(TimeEntry timeEntry, EmployeeDTO employee) {
+        if (timeEntry == null) {
+            throw new IllegalArgumentException("TimeEntry entity must not be null");
+        }
+        return of(timeEntry.getId(), employee, timeEntry.getCheckIn(), timeEntry.getCheckOut(), timeEntry.isManual());
+    }
+
+    /**
+     * Создаёт DTO на основе проекции {@link ShiftView} и сотрудника смены.
+     * <p>
+     * Один и тот же {@link EmployeeDTO} может использоваться для всех смен сотрудника —
+     * копия на каждую смену не создаётся.
+     * 
+     *
+     * @param shift проекция смены, не может быть {@code null}
+     * @param employee сотрудник смены
+     * @return новый экземпляр {@link TimeEntryDTO}
+     */
+    public static TimeEntryDTO fromView(ShiftView shift, EmployeeDTO employee) {
+        if (shift == null) {
+            throw new IllegalArgumentException("ShiftView must not be null");
+        }
+        return of(shift.id(), employee, shift.checkIn(), shift.checkOut(), shift.manual());
+    }
+
+    private static TimeEntryDTO of(UUID id, EmployeeDTO employee, LocalDateTime checkIn, LocalDateTime checkOut, boolean manual) {
+        TimeEntryDTO dto = new TimeEntryDTO();
+        dto.setId(id);
+        dto.setEmployee(employee);
+        dto.setCheckIn(checkIn);
+        dto.setCheckOut(checkOut);
+        dto.setManual(manual);
+        return dto;
+    }
+
     /**
      * Преобразует DTO обратно в сущность {@link TimeEntry}.
      * <p>
@@ -0,0 +1,311 @@
+package ru.samura.time_tracking_service.archive;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+import ru.samura.time_tracking_service.DTO.ArchivedShift;
+
+/**
+ * Столбцовый двоичный формат смен одного месяца.
+ * <p>
+ * Смены упорядочены по началу и хранятся столбцами:
+ * <ul>
+ *   <li>сотрудник — номер в словаре идентификаторов (1, 2 или 4 байта в зависимости от размера словаря);</li>
+ *   <li>начало смены — секунды эпохи: первое значение целиком, далее разности с предыдущим (varint);</li>
+ *   <li>окончание смены — разность с началом в секундах (varint);</li>
+ *   <li>микросекунды начала и окончания (varint) — только если в месяце есть дробные секунды;</li>
+ *   <li>признак ручного закрытия — битовая карта.</li>
+ * </ul>
+ * Заголовок содержит смещения столбцов, поэтому при чтении столбцы разбираются параллельными курсорами
+ * без промежуточных массивов. Файл заканчивается CRC32C всего содержимого.
+ * Смена без дробных секунд занимает 6–8 байт против строки и индексов {@code time_entry}.
+ * <p>
+ * Метки времени без зоны переводятся в секунды как UTC — только для нумерации, значения не сдвигаются.
+ *
+ */
+final class ColumnarShiftFile {
+
+    /**
+     * {@code TEC1} — time entry columns.
+     */
+    static final int MAGIC = 0x54454331;
+
+    static final short FORMAT_VERSION = 1;
+
+    private static final short FLAG_MICROS = 1;
+
+    /**
+     * Магическое число, версия, флаги, месяц, строки, размер словаря, ширина номера, смещения пяти столбцов.
+     */
+    private static final int HEADER_BYTES = 4 + 2 + 2 + 4 + 4 + 4 + 4 + 5 * 4;
+
+    private static final int MAX_VARINT_BYTES = 10;
+
+    private ColumnarShiftFile() {
+    }
+
+    /**
+     * Кодирует смены месяца.
+     *
+     * @param month месяц окончания смен
+     * @param shifts смены в любом порядке
+     * @return буфер с содержимым файла (от позиции до границы)
+     */
+    static ByteBuffer encode(YearMonth month, Collection<ArchivedShift> shifts) {
+        List<ArchivedShift> rows = new ArrayList<>(shifts);
+        rows.sort(Comparator.comparing(ArchivedShift::checkIn));
+
+        Map<UUID, Integer> dictionary = new HashMap<>();
+        List<UUID> employees = new ArrayList<>();
+        boolean micros = false;
+        for (ArchivedShift row : rows) {
+            if (dictionary.putIfAbsent(row.employeeId(), employees.size()) == null) {
+                employees.add(row.employeeId());
+            }
+            micros |= row.checkIn().getNano() != 0 || row.checkOut().getNano() != 0;
+        }
+        int width = employees.size() <= 1 << 8 ? 1 : employees.size() <= 1 << 16 ? 2 : 4;
+
+        int size = rows.size();
+        int capacity = HEADER_BYTES + employees.size() * 16 + size * width + size * 2 * MAX_VARINT_BYTES
+            + (micros ? size * 2 * MAX_VARINT_BYTES : 0) + ((size + 63) / 64) * 8 + 4;
+        ByteBuffer buffer = ByteBuffer.allocate(capacity);
+
+        buffer.putInt(MAGIC)
+              .putShort(FORMAT_VERSION)
+              .putShort(micros ? FLAG_MICROS : 0)
+              .putInt(month.getYear() * 12 + month.getMonthValue() - 1)
+              .putInt(size)
+              .putInt(employees.size())
+              .putInt(width);
+        int offsets = buffer.position();
+        buffer.position(HEADER_BYTES);
+
+        for (UUID employee : employees) {
+            buffer.putLong(employee.getMostSignificantBits()).putLong(employee.getLeastSignificantBits());
+        }
+
+        int employeeColumn = buffer.position();
+        for (ArchivedShift row : rows) {
+            int index = dictionary.get(row.employeeId());
+            switch (width) {
+                case 1 -> buffer.put((byte) index);
+                case 2 -> buffer.putShort((short) index);
+                default -> buffer.putInt(index);
+            }
+        }
+
+        int checkInColumn = buffer.position();
+        long previous = 0;
+        for (ArchivedShift row : rows) {
+            long seconds = row.checkIn().toEpochSecond(ZoneOffset.UTC);
+            // Первое значение — разность с нулём; отрицательной может быть только она (до 1970 года)
+            putVarLong(buffer, zigZag(seconds - previous));
+            previous = seconds;
+        }
+
+        int durationColumn = buffer.position();
+        for (ArchivedShift row : rows) {
+            putVarLong(buffer, row.checkOut().toEpochSecond(ZoneOffset.UTC) - row.checkIn().toEpochSecond(ZoneOffset.UTC));
+        }
+
+        int microsColumn = micros ? buffer.position() : 0;
+        if (micros) {
+            for (ArchivedShift row : rows) {
+                putVarLong(buffer, row.checkIn().getNano() / 1000);
+                putVarLong(buffer, row.checkOut().getNano() / 1000);
+            }
+        }
+
+        int manualColumn = buffer.position();
+        long[] manual = new long[(size + 63) / 64];
+        for (int i = 0; i < size; i++) {
+            if (rows.get(i).manual()) {
+                manual[i >>> 6] |= 1L << i;
+            }
+        }
+        for (long word : manual) {
+            buffer.putLong(word);
+        }
+
+        buffer.putInt(offsets, employeeColumn)
+              .putInt(offsets + 4, checkInColumn)
+              .putInt(offsets + 8, durationColumn)
+              .putInt(offsets + 12, microsColumn)
+              .putInt(offsets + 16, manualColumn);
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        return buffer.flip();
+    }
+
+    /**
+     * Проверяет файл и открывает его для чтения.
+     *
+     * @param buffer содержимое файла (например, отображённое в память), от позиции до границы
+     * @return читатель смен
+     * @throws IllegalStateException если файл повреждён или другой версии
+     */
+    static Reader open(ByteBuffer buffer) {
+        ByteBuffer data = buffer.slice();
+        if (data.limit() < HEADER_BYTES + 4 || data.getInt(0) != MAGIC) {
+            throw new IllegalStateException("Не файл архива смен");
+        }
+        if (data.getShort(4) != FORMAT_VERSION) {
+            throw new IllegalStateException("Неподдерживаемая версия архива смен: " + data.getShort(4));
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(data.slice(0, data.limit() - 4));
+        if ((int) crc.getValue() != data.getInt(data.limit() - 4)) {
+            throw new IllegalStateException("Контрольная сумма архива смен не совпадает");
+        }
+        return new Reader(data);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Проверенный файл архива.
+     */
+    static final class Reader {
+
+        private final ByteBuffer data;
+        private final YearMonth month;
+        private final int rows;
+        private final UUID[] employees;
+        private final int width;
+        private final boolean micros;
+
+        private Reader(ByteBuffer data) {
+            this.data = data;
+            this.micros = (data.getShort(6) & FLAG_MICROS) != 0;
+            int monthIndex = data.getInt(8);
+            this.month = YearMonth.of(monthIndex / 12, monthIndex % 12 + 1);
+            this.rows = data.getInt(12);
+            this.employees = new UUID[data.getInt(16)];
+            this.width = data.getInt(20);
+            for (int i = 0; i < employees.length; i++) {
+                employees[i] = new UUID(data.getLong(HEADER_BYTES + i * 16), data.getLong(HEADER_BYTES + i * 16 + 8));
+            }
+        }
+
+        YearMonth month() {
+            return month;
+        }
+
+        int rows() {
+            return rows;
+        }
+
+        /**
+         * Смены файла по возрастанию начала.
+         *
+         * @param employeeIds сотрудники, смены которых нужны; {@code null} — все
+         * @return последовательный итератор смен
+         */
+        Spliterator<ArchivedShift> spliterator(Collection<UUID> employeeIds) {
+            boolean[] wanted = null;
+            if (employeeIds != null) {
+                wanted = new boolean[employees.length];
+                for (int i = 0; i < employees.length; i++) {
+                    wanted[i] = employeeIds.contains(employees[i]);
+                }
+            }
+            return new Cursor(wanted);
+        }
+
+        /**
+         * Курсоры по столбцам: каждый столбец читается со своей позиции.
+         */
+        private final class Cursor extends Spliterators.AbstractSpliterator<ArchivedShift> {
+
+            private static final int CHECK_IN = 0;
+            private static final int DURATION = 1;
+            private static final int MICROS = 2;
+
+            private final boolean[] wanted;
+            private final int manualPosition = data.getInt(40);
+            private int employeePosition = data.getInt(24);
+            /**
+             * Позиции столбцов переменной длины: начало, длительность, микросекунды.
+             */
+            private final int[] positions = {data.getInt(28), data.getInt(32), data.getInt(36)};
+            private int row;
+            private long checkIn;
+
+            private Cursor(boolean[] wanted) {
+                super(rows, ORDERED | NONNULL | IMMUTABLE);
+                this.wanted = wanted;
+            }
+
+            @Override
+            public boolean tryAdvance(Consumer<? super ArchivedShift> action) {
+                while (row < rows) {
+                    int index = switch (width) {
+                        case 1 -> Byte.toUnsignedInt(data.get(employeePosition));
+                        case 2 -> Short.toUnsignedInt(data.getShort(employeePosition));
+                        default -> data.getInt(employeePosition);
+                    };
+                    employeePosition += width;
+                    checkIn += unZigZag(nextVarLong(CHECK_IN));
+                    long duration = nextVarLong(DURATION);
+                    long checkInMicros = micros ? nextVarLong(MICROS) : 0;
+                    long checkOutMicros = micros ? nextVarLong(MICROS) : 0;
+                    int current = row++;
+
+                    if (wanted == null || wanted[index]) {
+                        boolean manual = (data.getLong(manualPosition + (current >>> 6) * 8) & (1L << current)) != 0;
+                        action.accept(new ArchivedShift(employees[index],
+                            LocalDateTime.ofEpochSecond(checkIn, (int) checkInMicros * 1000, ZoneOffset.UTC),
+                            LocalDateTime.ofEpochSecond(checkIn + duration, (int) checkOutMicros * 1000, ZoneOffset.UTC),
+                            manual));
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            private long nextVarLong(int column) {
+                int position = positions[column];
+                long value = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data.get(position++);
+                    value |= (long) (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                positions[column] = position;
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package ru.samura.time_tracking_service.archive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import ru.samura.time_tracking_service.DTO.ArchivedShift;
+import ru.samura.time_tracking_service.DTO.ShiftPeriod;
+
+/**
+ * Файлы архива смен на локальном диске — по одному на месяц окончания смен ({@link ColumnarShiftFile}).
+ * <p>
+ * Чтение — через отображение файла в память: страницы подгружает ОС, повторные чтения месяца
+ * обслуживаются из кеша страниц без копирования в кучу. Читаются только месяцы, отмеченные
+ * как действующие ({@link #activate}): файл, запись которого не была подтверждена в БД, не виден.
+ * <p>
+ * Каталог — {@code time-tracking.archive.directory}; при нескольких экземплярах приложения
+ * он должен быть общим (сетевым), иначе архивные месяцы видны только экземпляру, который их перенёс.
+ *
+ *
+ * @see ru.samura.time_tracking_service.service.TimeEntryArchiveService
+ */
+@Component
+public class TimeEntryArchive {
+
+    private static final String FILE_PREFIX = "time-entry-";
+
+    private static final String FILE_SUFFIX = ".col";
+
+    @Value("${time-tracking.archive.directory:./data/time-entry-archive}")
+    private Path directory;
+
+    private final Set<YearMonth> months = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param month месяц окончания смен
+     * @return {@code true}, если смены месяца читаются из архива
+     */
+    public boolean isArchived(YearMonth month) {
+        return months.contains(month);
+    }
+
+    /**
+     * @return месяцы, смены которых читаются из архива
+     */
+    public Set<YearMonth> archivedMonths() {
+        return new TreeSet<>(months);
+    }
+
+    /**
+     * Завершённые смены месяца из архива.
+     *
+     * @param month месяц окончания смен
+     * @return смены по возрастанию начала; пустой поток, если месяц не в архиве
+     */
+    public Stream<ArchivedShift> streamShifts(YearMonth month) {
+        return streamShifts(month, null);
+    }
+
+    /**
+     * Завершённые смены сотрудников за месяц из архива.
+     *
+     * @param month месяц окончания смен
+     * @param employeeIds сотрудники; {@code null} — все
+     * @return смены по возрастанию начала; пустой поток, если месяц не в архиве
+     * @throws IllegalStateException если файл месяца повреждён
+     */
+    public Stream<ArchivedShift> streamShifts(YearMonth month, Collection<UUID> employeeIds) {
+        if (!months.contains(month)) {
+            return Stream.empty();
+        }
+        ColumnarShiftFile.Reader reader = ColumnarShiftFile.open(map(file(month)));
+        return StreamSupport.stream(reader.spliterator(employeeIds), false);
+    }
+
+    /**
+     * Дополняет смены месяца из {@code time_entry} сменами из архива.
+     * <p>
+     * Обычно месяц целиком либо в таблице, либо в архиве; обе части непусты, если архивный месяц
+     * открыли заново и в нём появились новые смены.
+     *
+     * @param shifts смены месяца из таблицы; закрываются вместе с результатом
+     * @param month месяц окончания смен
+     * @param employeeIds сотрудники; {@code null} — все
+     * @return смены таблицы, затем смены архива
+     */
+    public Stream<ShiftPeriod> withArchived(Stream<ShiftPeriod> shifts, YearMonth month, Collection<UUID> employeeIds) {
+        if (!months.contains(month)) {
+            return shifts;
+        }
+        return Stream.concat(shifts, streamShifts(month, employeeIds));
+    }
+
+    /**
+     * Записывает файл месяца и дожидается его сохранения на диск. Файл ещё не читается — до {@link #activate}.
+     *
+     * @param month месяц окончания смен
+     * @param shifts смены месяца
+     * @return размер файла в байтах
+     */
+    public long write(YearMonth month, List<ArchivedShift> shifts) {
+        ByteBuffer content = ColumnarShiftFile.encode(month, shifts);
+        Path target = file(month);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                        StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (content.hasRemaining()) {
+                    channel.write(content);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            try (FileChannel directoryChannel = FileChannel.open(directory, StandardOpenOption.READ)) {
+                // Переименование сохраняется вместе с каталогом
+                directoryChannel.force(true);
+            }
+            return Files.size(target);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Делает файл месяца видимым для чтения.
+     *
+     * @param month месяц окончания смен
+     * @return {@code false}, если файла нет
+     */
+    public boolean activate(YearMonth month) {
+        if (!Files.isRegularFile(file(month))) {
+            return false;
+        }
+        months.add(month);
+        return true;
+    }
+
+    /**
+     * Скрывает и удаляет файл месяца (например, если перенос не подтвердился в БД).
+     *
+     * @param month месяц окончания смен
+     */
+    public void discard(YearMonth month) {
+        months.remove(month);
+        try {
+            Files.deleteIfExists(file(month));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return месяцы, для которых в каталоге есть файлы (в том числе ещё не подтверждённые)
+     */
+    public Set<YearMonth> storedMonths() {
+        Set<YearMonth> stored = new TreeSet<>();
+        if (!Files.isDirectory(directory)) {
+            return stored;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                 .filter(name -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX))
+                 .forEach(name -> {
+                     try {
+                         stored.add(YearMonth.parse(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length())));
+                     } catch (DateTimeParseException e) {
+                         // Посторонний файл
+                     }
+                 });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return stored;
+    }
+
+    private Path file(YearMonth month) {
+        return directory.resolve(FILE_PREFIX + month + FILE_SUFFIX);
+    }
+
+    private static ByteBuffer map(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // Отображение остаётся действительным после закрытия канала
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
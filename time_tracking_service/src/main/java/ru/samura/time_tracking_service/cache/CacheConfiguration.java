@@ -0,0 +1,146 @@
+package ru.samura.time_tracking_service.cache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PreDestroy;
+
+import ru.samura.time_tracking_service.DTO.EmployeeDTO;
+import ru.samura.time_tracking_service.repository.EmployeeRepository;
+import ru.samura.time_tracking_service.repository.TimeEntryRepository;
+
+/**
+ * Конфигурация кешей на базе Caffeine.
+ * <p>
+ * Заменяет кеш по умолчанию ({@code ConcurrentMapCache}: без ограничения размера, TTL и статистики).
+ * Каждый кеш получает собственный размер, время жизни и, при необходимости, фоновое обновление
+ * из {@link CacheSettings}. Статистика (попадания, промахи, вытеснения) включена для всех кешей
+ * и публикуется Actuator/Micrometer как метрики {@code cache.gets}, {@code cache.puts},
+ * {@code cache.evictions} с тегом {@code cache=<имя>}.
+ *
+ * <p>
+ * Для фонового обновления ({@code refresh-after-write}) Caffeine нужен загрузчик значения по ключу —
+ * он описан ниже для каждого кеша и должен возвращать то же, что соответствующий {@code @Cacheable}-метод.
+ *
+ * <p>
+ * В режиме виртуальных потоков ({@code spring.threads.virtual.enabled=true}) кеши строятся асинхронными.
+ * История смен ({@code shiftCache},
+ * {@link ru.samura.time_tracking_service.service.TimeEntryService#findShiftByEmployee}) читается
+ * с {@code @Cacheable(sync = true)}, и синхронный Caffeine выполняет её загрузку внутри
+ * {@code ConcurrentHashMap.compute} — под {@code synchronized}-блокировкой, так что виртуальный поток
+ * на время JDBC-запроса закрепляется за потоком-носителем. Асинхронный кеш под блокировкой только
+ * регистрирует {@code CompletableFuture}, а сам запрос выполняется в отдельном виртуальном потоке
+ * ({@link #loadExecutor}); вызывающий поток ждёт результат, не блокируя носитель.
+ *
+ */
+@Configuration
+@EnableConfigurationProperties(CacheSettings.class)
+public class CacheConfiguration {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private TimeEntryRepository timeEntryRepository;
+
+    /**
+     * Обработка запросов в виртуальных потоках (профиль {@code virtual-threads}).
+     */
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    /**
+     * Исполнитель загрузок асинхронных кешей: новый виртуальный поток на каждую загрузку.
+     */
+    private final ExecutorService loadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @PreDestroy
+    void stopLoadExecutor() {
+        loadExecutor.shutdownNow();
+    }
+
+    @Bean
+    public CacheManager cacheManager(CacheSettings cacheSettings) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(builder(cacheSettings.getDefaults()));
+        cacheManager.setAsyncCacheMode(virtualThreads);
+
+        Map<String, CacheLoader<Object, Object>> loaders = loaders();
+
+        cacheSettings.getCaches().forEach((name, spec) -> {
+            Caffeine<Object, Object> builder = builder(spec);
+            CacheLoader<Object, Object> loader = spec.getRefreshAfterWrite() != null ? loaders.get(name) : null;
+
+            if (loader != null) {
+                builder.refreshAfterWrite(spec.getRefreshAfterWrite());
+            }
+
+            if (virtualThreads) {
+                cacheManager.registerCustomCache(name, loader != null ? builder.buildAsync(loader) : builder.buildAsync());
+            } else if (loader != null) {
+                cacheManager.registerCustomCache(name, builder.build(loader));
+            } else {
+                cacheManager.registerCustomCache(name, builder.build());
+            }
+        });
+
+        return cacheManager;
+    }
+
+    /**
+     * Строит Caffeine-кеш по параметрам: размер, время жизни, сбор статистики.
+     * В режиме виртуальных потоков загрузки и фоновые обновления выполняются в {@link #loadExecutor}.
+     *
+     * @param spec параметры кеша
+     * @return настроенный builder
+     */
+    private Caffeine<Object, Object> builder(CacheSettings.Spec spec) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+            .maximumSize(spec.getMaximumSize())
+            .recordStats();
+
+        if (spec.getExpireAfterWrite() != null) {
+            builder.expireAfterWrite(spec.getExpireAfterWrite());
+        }
+        if (virtualThreads) {
+            builder.executor(loadExecutor);
+        }
+        return builder;
+    }
+
+    /**
+     * Загрузчики значений для фонового обновления, по имени кеша.
+     * <p>
+     * Возврат {@code null} удаляет запись — следующее обращение пройдёт через {@code @Cacheable}-метод.
+     *
+     * @return загрузчики по имени кеша
+     */
+    private Map<String, CacheLoader<Object, Object>> loaders() {
+        return Map.of(
+            "employeeCache", key -> employeeRepository.findById((UUID) key)
+                                                      .map(EmployeeDTO::fromEntity)
+                                                      .orElse(null),
+            "shiftCache", key -> timeEntryRepository.findShiftsByEmployee((UUID) key),
+            "getInfoAboutAllEmployee", key -> {
+                List<EmployeeDTO> employees = employeeRepository.findAll().stream()
+                                                                .map(EmployeeDTO::fromEntity)
+                                                                .collect(Collectors.toList());
+                return employees.isEmpty() ? null : employees;
+            });
+    }
+}
@@ -0,0 +1,61 @@
+package ru.samura.time_tracking_service.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Настройки кешей приложения (префикс {@code time-tracking.cache}).
+ * <p>
+ * Для каждого именованного кеша задаются собственные ограничения, например:
+ * <pre>
+ * time-tracking.cache.caches.employeeCache.maximum-size=10000
+ * time-tracking.cache.caches.employeeCache.expire-after-write=30m
+ * time-tracking.cache.caches.employeeCache.refresh-after-write=5m
+ * </pre>
+ * Кеши, не перечисленные в настройках, создаются по параметрам {@link #defaults}.
+ *
+ *
+ * @see CacheConfiguration
+ */
+@Data
+@ConfigurationProperties(prefix = "time-tracking.cache")
+public class CacheSettings {
+
+    /**
+     * Параметры кеша по умолчанию — для имён, не описанных в {@link #caches}.
+     */
+    private Spec defaults = new Spec();
+
+    /**
+     * Параметры по имени кеша (имя совпадает со значением {@code @Cacheable(value = ...)}).
+     */
+    private Map<String, Spec> caches = new LinkedHashMap<>();
+
+    /**
+     * Ограничения одного кеша.
+     */
+    @Data
+    public static class Spec {
+
+        /**
+         * Максимальное количество записей; при превышении Caffeine вытесняет редко используемые.
+         */
+        private long maximumSize = 1_000;
+
+        /**
+         * Время жизни записи после записи в кеш; {@code null} — без ограничения.
+         */
+        private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+        /**
+         * Через какое время после записи значение перечитывается из БД в фоне при следующем обращении;
+         * {@code null} — фоновое обновление выключено. Должно быть меньше {@link #expireAfterWrite}.
+         */
+        private Duration refreshAfterWrite;
+    }
+}
@@ -0,0 +1,39 @@
+package ru.samura.time_tracking_service.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import ru.samura.time_tracking_service.event.ClockEvent;
+
+/**
+ * Поддерживает согласованность {@code shiftCache} с БД при записи смен.
+ * <p>
+ * На каждое {@link ClockEvent} удаляется запись кеша ровно того сотрудника, чья смена изменилась.
+ * Удаление выполняется после фиксации транзакции (или сразу, если транзакции нет), поэтому
+ * следующее чтение гарантированно видит сохранённые данные.
+ * 
+ * <p>
+ * Гонку «чтение началось до фиксации, а значение попало в кеш после удаления» закрывает
+ * {@code @Cacheable(sync = true)} на чтении: Caffeine выполняет загрузку под блокировкой ключа,
+ * и удаление дожидается её окончания, поэтому устаревшее значение в кеше не остаётся.
+ * В режиме виртуальных потоков кеш асинхронный ({@link CacheConfiguration}): удаление снимает
+ * из кеша ещё не завершённую загрузку, и её результат туда уже не попадает — гарантия та же.
+ * 
+ */
+@Component
+public class ShiftCacheEvictionListener {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClockEvent(ClockEvent event) {
+        Cache cache = cacheManager.getCache("shiftCache");
+        if (cache != null) {
+            cache.evict(event.employeeId());
+        }
+    }
+}
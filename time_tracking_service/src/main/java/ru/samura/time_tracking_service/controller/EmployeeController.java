@@ -1,6 +1,5 @@
 package ru.samura.time_tracking_service.controller;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -11,9 +10,14 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import ru.samura.time_tracking_service.DTO.EmployeeDTO;
+import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.response.EmployeePageResponse;
+import ru.samura.time_tracking_service.response.OnShiftResponse;
 import ru.samura.time_tracking_service.service.EmployeeService;
+import ru.samura.time_tracking_service.service.PresenceBoardService;
 
 /**
  * Контроллер для получения информации о сотрудниках.
@@ -29,6 +33,9 @@ public class EmployeeController {
     @Autowired
     EmployeeService employeeService;
 
+    @Autowired
+    PresenceBoardService presenceBoardService;
+
     /**
      * Возвращает информацию о сотруднике по его уникальному идентификатору.
      * <p>
@@ -48,7 +55,7 @@ public class EmployeeController {
     }
 
     /**
-     * Возвращает список всех сотрудников.
+     * Возвращает страницу списка сотрудников.
      * <p>
      * Доступ разрешён только при наличии прав (проверка через {@link EmployeeService#hasAccess}).
      * В текущей реализации {@code hasAccess} требует, чтобы:
@@ -58,23 +65,61 @@ public class EmployeeController {
      * </ul>
      * То есть — только HR может запросить список, и только указав <strong>свой собственный</strong> ID в пути.
      * 
+     * <p>
+     * Список отдаётся страницами (keyset-пагинация, см. {@link EmployeeService#getEmployeesPage}):
+     * следующая страница запрашивается с {@code cursor} из ответа и тем же {@code sort}.
+     * 
      *
      * @param employeeId ID сотрудника, запрашивающего список (обычно — его собственный)
-     * @return {@code 200 OK} + список всех сотрудников, <strong>или</strong>
-     *         {@code 403 Forbidden} + пустой список, если доступ запрещён
+     * @param sort порядок: {@code id} (по умолчанию) или {@code fullName}
+     * @param limit размер страницы (по умолчанию 100, не больше {@code time-tracking.employees.max-page-size})
+     * @param cursor курсор следующей страницы из предыдущего ответа; без него — первая страница
+     * @return {@code 200 OK} + страница сотрудников, <strong>или</strong>
+     *         {@code 400 Bad Request} для неизвестной сортировки или некорректного курсора, <strong>или</strong>
+     *         {@code 403 Forbidden} + пустая страница, если доступ запрещён
      */
     @GetMapping("/{employee_id}/all-info")
-    public ResponseEntity<List<EmployeeDTO>> getInfoAboutAllEmployee(@PathVariable("employee_id") UUID employeeId) {
+    public ResponseEntity<EmployeePageResponse> getInfoAboutAllEmployee(@PathVariable("employee_id") UUID employeeId,
+                                                                        @RequestParam(defaultValue = "id") String sort,
+                                                                        @RequestParam(required = false) Integer limit,
+                                                                        @RequestParam(required = false) String cursor) {
         EmployeeDTO employeeDTO = employeeService.getEmployeeInfo(employeeId);
 
         if (!employeeService.hasAccess(employeeDTO, employeeId)) {
             return ResponseEntity
                 .status(HttpStatus.FORBIDDEN)
-                .body(new ArrayList<>());
+                .body(new EmployeePageResponse(List.of(), null));
+        }
+
+        EmployeePageResponse page;
+        try {
+            page = employeeService.getEmployeesPage(EmployeeService.SortKey.fromValue(sort), cursor, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * Табло присутствия: сотрудники, у которых сейчас открыта смена, и их количество.
+     * <p>
+     * Отдаётся из памяти ({@link PresenceBoardService}) без запросов к БД. Доступно только HR.
+     *
+     * @param employeeId ID сотрудника, запрашивающего табло
+     * @return {@code 200 OK} + сотрудники на смене, <strong>или</strong>
+     *         {@code 403 Forbidden} + пустое табло, если запрашивает не HR
+     */
+    @GetMapping("/{employee_id}/on-shift")
+    public ResponseEntity<OnShiftResponse> getOnShift(@PathVariable("employee_id") UUID employeeId) {
+        EmployeeDTO employeeDTO = employeeService.getEmployeeInfo(employeeId);
+
+        if (!Role.HR.equals(employeeDTO.getRole())) {
+            return ResponseEntity
+                .status(HttpStatus.FORBIDDEN)
+                .body(new OnShiftResponse(0, List.of()));
         }
 
-        List<EmployeeDTO> employeeDTOs = employeeService.getInfoAboutAllEmployee();
-        
-        return ResponseEntity.ok(employeeDTOs);
+        return ResponseEntity.ok(presenceBoardService.getOnShift());
     }
-}
\ No newline at end of file
+}
@@ -1,24 +1,43 @@
 package ru.samura.time_tracking_service.controller;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import ru.samura.time_tracking_service.DTO.CalculationPayment;
+import ru.samura.time_tracking_service.DTO.ClosedMonthReport;
 import ru.samura.time_tracking_service.DTO.EmployeeDTO;
+import ru.samura.time_tracking_service.custom_exception.MonthAlreadyArchivedException;
+import ru.samura.time_tracking_service.custom_exception.MonthAlreadyClosedException;
+import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.response.ArchivedMonthResult;
+import ru.samura.time_tracking_service.response.TimeEntryImportResult;
 import ru.samura.time_tracking_service.response.TotalPaymentEmployeeResponse;
 import ru.samura.time_tracking_service.service.EmployeeService;
+import ru.samura.time_tracking_service.service.PaymentReportCoalescer;
+import ru.samura.time_tracking_service.service.ReportSnapshotService;
+import ru.samura.time_tracking_service.service.TimeEntryArchiveService;
+import ru.samura.time_tracking_service.service.TimeEntryExportService;
+import ru.samura.time_tracking_service.service.TimeEntryImportService;
 import ru.samura.time_tracking_service.service.TimeEntryService;
 
 
@@ -35,21 +54,53 @@ public class ReportController {
     @Autowired
     TimeEntryService timeEntryService;
 
+    @Autowired
+    TimeEntryExportService timeEntryExportService;
+
+    @Autowired
+    ReportSnapshotService reportSnapshotService;
+
+    @Autowired
+    TimeEntryImportService timeEntryImportService;
+
+    @Autowired
+    TimeEntryArchiveService timeEntryArchiveService;
+
+    @Autowired
+    PaymentReportCoalescer paymentReportCoalescer;
+
 
     /**
      * Метод который возвращает информацию о выплате в текущем или выбранном месяце для 1го пользователя
      * @param employeeId идентификатор пользователя
-     * @param month месяц за который получит отчет пользователь (month - может быть пустым)
+     * @param month месяц в формате {@code yyyy-MM}, за который получит отчет пользователь (month - может быть пустым, тогда текущий)
+     * <p>
+     * За закрытый месяц отчет берется из снимка с заголовком {@code ETag}; при совпадающем
+     * {@code If-None-Match} возвращается {@code 304 Not Modified} без тела.
+     *
+     * @param webRequest текущий запрос (условные заголовки)
      * @return возвращает отчет о выплате текущего пользователя
      */
     @GetMapping("/{employee_id}/payment")
     public ResponseEntity<TotalPaymentEmployeeResponse> getPayment(@PathVariable("employee_id") UUID employeeId, 
-                                                                    @RequestParam(required = false) String month) {
+                                                                    @RequestParam(required = false) YearMonth month,
+                                                                    WebRequest webRequest) {
         EmployeeDTO employeeDTO = employeeService.getEmployeeInfo(employeeId);
-        if(month == null || month.isEmpty()){
-            LocalDate now = LocalDate.now();
-            month = now.format(DateTimeFormatter.ofPattern("yyyy-MM"));
+        if(month == null){
+            month = YearMonth.now();
+        }
+
+        Optional<ClosedMonthReport> closedMonth = reportSnapshotService.findClosedMonth(month);
+        Optional<TotalPaymentEmployeeResponse> snapshot = closedMonth.flatMap(report -> report.find(employeeId));
+        if (snapshot.isPresent()) {
+            String etag = closedMonth.get().etag(employeeId);
+            if (webRequest.checkNotModified(etag)) {
+                return null;
+            }
+            return ResponseEntity.ok().eTag(etag).body(snapshot.get());
         }
+
+        // Открытый месяц или сотрудник, принятый после закрытия, — расчет по сменам
         CalculationPayment calculationPayment = timeEntryService.totalPaymentEmployee(employeeDTO, month);
 
         String message = "Отчет за месяц: " + month;
@@ -67,12 +118,18 @@ public class ReportController {
     /**
      * Метод который возвращает информацию о выплате в текущем или выбранном месяце о всех пользователях если смотрит HR
       * @param employeeId идентификатор HR
-     * @param month месяц за который получит отчет пользователь (month - может быть пустым)
+     * @param month месяц в формате {@code yyyy-MM}, за который получит отчет пользователь (month - может быть пустым, тогда текущий)
+     * <p>
+     * За закрытый месяц отчет берется из снимка с заголовком {@code ETag} (см. {@link #getPayment}).
+     * За открытый — рассчитывается; одновременные запросы за один месяц разделяют один расчёт ({@link PaymentReportCoalescer}).
+     *
+     * @param webRequest текущий запрос (условные заголовки)
      * @return возвращает отчет о выплате всех пользователей
      */
     @GetMapping("/{employee_id}/payment-all")
     public ResponseEntity<List<TotalPaymentEmployeeResponse>> getPaymentAllEmployee(@PathVariable("employee_id") UUID employeeId, 
-                                                                                    @RequestParam(required = false) String month) {
+                                                                                    @RequestParam(required = false) YearMonth month,
+                                                                                    WebRequest webRequest) {
         EmployeeDTO employeeDTO = employeeService.getEmployeeInfo(employeeId);
 
         if(!employeeService.hasAccess(employeeDTO, employeeId)){
@@ -81,15 +138,172 @@ public class ReportController {
             .body(new ArrayList<>());
         }
 
-        if(month == null || month.isEmpty()){
-            LocalDate now = LocalDate.now();
-            month = now.format(DateTimeFormatter.ofPattern("yyyy-MM"));
+        if(month == null){
+            month = YearMonth.now();
         }
 
+        Optional<ClosedMonthReport> closedMonth = reportSnapshotService.findClosedMonth(month);
+        if (closedMonth.isPresent()) {
+            String etag = closedMonth.get().etag();
+            if (webRequest.checkNotModified(etag)) {
+                return null;
+            }
+            return ResponseEntity.ok().eTag(etag).body(closedMonth.get().payments());
+        }
 
-        List<TotalPaymentEmployeeResponse> totalPaymentEmployeeResponses = timeEntryService.getTotalPaymentsForEmployees(employeeService.getInfoAboutAllEmployee(), month);
+        // Одновременные запросы за тот же месяц получают результат одного расчёта
+        List<TotalPaymentEmployeeResponse> totalPaymentEmployeeResponses = paymentReportCoalescer.paymentsForAllEmployees(month);
         
 
         return ResponseEntity.ok(totalPaymentEmployeeResponses);
     }
+
+    /**
+     * Закрывает месяц: оплата всех сотрудников рассчитывается один раз и сохраняется снимком,
+     * отчеты за месяц далее отдаются из него. Доступно только HR.
+     *
+     * @param employeeId идентификатор HR
+     * @param month прошедший месяц в формате {@code yyyy-MM}
+     * @return {@code 201 Created} с {@code ETag} снимка, {@code 400 Bad Request} для текущего или будущего месяца,
+     *         {@code 403 Forbidden}, если закрывает не HR, {@code 409 Conflict}, если месяц уже закрыт
+     */
+    @PostMapping("/{employee_id}/close")
+    public ResponseEntity<Void> closeMonth(@PathVariable("employee_id") UUID employeeId,
+                                           @RequestParam YearMonth month) {
+        EmployeeDTO employeeDTO = employeeService.getEmployeeInfo(employeeId);
+
+        if (!Role.HR.equals(employeeDTO.getRole())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        try {
+            ClosedMonthReport report = reportSnapshotService.closeMonth(month);
+            return ResponseEntity.status(HttpStatus.CREATED).eTag(report.etag()).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (MonthAlreadyClosedException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    /**
+     * Открывает закрытый месяц заново (например, для исправления смен): снимок удаляется,
+     * отчеты снова рассчитываются по сменам. Доступно только HR.
+     *
+     * @param employeeId идентификатор HR
+     * @param month месяц в формате {@code yyyy-MM}
+     * @return {@code 204 No Content}, {@code 403 Forbidden}, если открывает не HR,
+     *         {@code 404 Not Found}, если месяц не был закрыт
+     */
+    @DeleteMapping("/{employee_id}/close")
+    public ResponseEntity<Void> reopenMonth(@PathVariable("employee_id") UUID employeeId,
+                                            @RequestParam YearMonth month) {
+        EmployeeDTO employeeDTO = employeeService.getEmployeeInfo(employeeId);
+
+        if (!Role.HR.equals(employeeDTO.getRole())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return reportSnapshotService.reopenMonth(month)
+            ? ResponseEntity.noContent().build()
+            : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Потоковая выгрузка всех записей времени за месяц (для импорта во внешнюю систему расчёта зарплаты).
+     * <p>
+     * Доступна только HR. Строки передаются клиенту по мере чтения из БД
+     * ({@link StreamingResponseBody}), без накопления всего месяца в памяти.
+     *
+     * @param employeeId идентификатор HR, запрашивающего выгрузку
+     * @param month месяц в формате {@code yyyy-MM} (month - может быть пустым, тогда текущий)
+     * @param format формат выгрузки: {@code csv} (по умолчанию) или {@code ndjson}
+     * @return {@code 200 OK} с потоком строк, {@code 400 Bad Request} для неизвестного формата,
+     *         {@code 403 Forbidden}, если запрашивает не HR
+     */
+    @GetMapping("/{employee_id}/export")
+    public ResponseEntity<StreamingResponseBody> exportTimeEntries(@PathVariable("employee_id") UUID employeeId,
+                                                                   @RequestParam(required = false) YearMonth month,
+                                                                   @RequestParam(defaultValue = "csv") String format) {
+        EmployeeDTO employeeDTO = employeeService.getEmployeeInfo(employeeId);
+
+        if (!Role.HR.equals(employeeDTO.getRole())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        TimeEntryExportService.Format exportFormat;
+        try {
+            exportFormat = TimeEntryExportService.Format.fromValue(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        YearMonth exportMonth = month == null ? YearMonth.now() : month;
+        StreamingResponseBody body = outputStream -> timeEntryExportService.export(exportMonth, exportFormat, outputStream);
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                    "attachment; filename=time-entries-" + exportMonth + "." + exportFormat.getExtension())
+            .body(body);
+    }
+
+    /**
+     * Массовая загрузка исторических смен из CSV (формат выгрузки {@code /export}) при подключении площадки.
+     * <p>
+     * Доступна только HR. Тело запроса читается потоково и загружается частями ({@link TimeEntryImportService});
+     * ошибочные строки отклоняются и перечисляются в ответе, остальные загружаются.
+     * <pre>
+     * curl -X POST -H 'Content-Type: text/csv' --data-binary @legacy.csv http://host/report/{hrId}/import
+     * </pre>
+     *
+     * @param employeeId идентификатор HR, выполняющего импорт
+     * @param body тело запроса — CSV в UTF-8
+     * @return {@code 200 OK} с итогом импорта, {@code 400 Bad Request}, если в заголовке нет обязательных столбцов,
+     *         {@code 403 Forbidden}, если загружает не HR
+     * @throws IOException ошибка чтения тела запроса
+     */
+    @PostMapping(path = "/{employee_id}/import", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<TimeEntryImportResult> importTimeEntries(@PathVariable("employee_id") UUID employeeId,
+                                                                   InputStream body) throws IOException {
+        EmployeeDTO employeeDTO = employeeService.getEmployeeInfo(employeeId);
+
+        if (!Role.HR.equals(employeeDTO.getRole())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        try {
+            return ResponseEntity.ok(timeEntryImportService.importCsv(body));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Переносит смены закрытого месяца из таблицы в столбцовый файл архива ({@link TimeEntryArchiveService}).
+     * Отчеты, выгрузка и сверка агрегатов за месяц продолжают работать — смены читаются из файла. Доступно только HR.
+     *
+     * @param employeeId идентификатор HR
+     * @param month прошедший закрытый месяц в формате {@code yyyy-MM}
+     * @return {@code 201 Created} с количеством смен и размером файла, {@code 400 Bad Request}, если месяц
+     *         не прошёл или не закрыт, {@code 403 Forbidden}, если переносит не HR,
+     *         {@code 409 Conflict}, если месяц уже в архиве
+     */
+    @PostMapping("/{employee_id}/archive")
+    public ResponseEntity<ArchivedMonthResult> archiveMonth(@PathVariable("employee_id") UUID employeeId,
+                                                            @RequestParam YearMonth month) {
+        EmployeeDTO employeeDTO = employeeService.getEmployeeInfo(employeeId);
+
+        if (!Role.HR.equals(employeeDTO.getRole())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(timeEntryArchiveService.archiveMonth(month));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (MonthAlreadyArchivedException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
 }
@@ -1,29 +1,48 @@
 package ru.samura.time_tracking_service.controller;
 
+import java.util.List;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import ru.samura.time_tracking_service.DTO.ClockEventRequest;
 import ru.samura.time_tracking_service.DTO.EmployeeDTO;
+import ru.samura.time_tracking_service.DTO.ShiftView;
 import ru.samura.time_tracking_service.DTO.TimeEntryDTO;
 import ru.samura.time_tracking_service.custom_exception.ActiveShiftTodayException;
 import ru.samura.time_tracking_service.custom_exception.NoShiftFoundException;
+import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.event.ClockEvent;
+import ru.samura.time_tracking_service.event.ClockEventStream;
+import ru.samura.time_tracking_service.response.BatchClockEventResult;
 import ru.samura.time_tracking_service.response.ClockInResponse;
 import ru.samura.time_tracking_service.response.ClockOutResponse;
+import ru.samura.time_tracking_service.service.BatchClockService;
 import ru.samura.time_tracking_service.service.EmployeeService;
 import ru.samura.time_tracking_service.service.TimeEntryService;
+import ru.samura.time_tracking_service.service.WriteBehindClockService;
 
 /**
  * Контроллер для управления сменами: открытие (clock-in) и закрытие (clock-out) рабочего дня.
  * <p>
  * Поддерживает как самостоятельные действия сотрудника, так и вмешательство HR.
  * 
+ * <p>
+ * При включённой отложенной записи ({@code time-tracking.clock-log.enabled}) приход и уход только
+ * записываются в локальный журнал ({@link WriteBehindClockService}) и возвращают {@code 202 Accepted}
+ * без идентификатора смены; правила смен проверяются при применении журнала.
+ * 
  */
 @RestController
 @RequestMapping("/time-entry")
@@ -35,6 +54,15 @@ public class TimeEntryController {
     @Autowired
     EmployeeService employeeService;
 
+    @Autowired
+    BatchClockService batchClockService;
+
+    @Autowired
+    WriteBehindClockService writeBehindClockService;
+
+    @Autowired
+    ClockEventStream clockEventStream;
+
     /**
      * Регистрирует начало смены («приход») для указанного сотрудника.
      * <p>
@@ -47,7 +75,8 @@ public class TimeEntryController {
      * 
      *
      * @param employeeId идентификатор сотрудника, для которого открывается смена
-     * @return {@code 200 OK} + ответ с данными смены, <strong>или</strong>
+     * @return {@code 200 OK} + ответ с данными смены, {@code 202 Accepted} + время прихода без ID смены
+     *         при отложенной записи, <strong>или</strong>
      *         {@code 403 Forbidden} + заглушка {@link ClockInResponse} с {@code null}-полями, если доступ запрещён
      * @throws ru.samura.time_tracking_service.custom_exception.ActiveShiftTodayException если смена уже активна → {@code 500} (без @ControllerAdvice)
      */
@@ -61,6 +90,13 @@ public class TimeEntryController {
                 .body(new ClockInResponse(null, employeeDTO.getId(), null, false));
         }
 
+        if (writeBehindClockService.isEnabled()) {
+            ClockEventRequest event = writeBehindClockService.record(employeeId, ClockEvent.Type.CLOCK_IN, false);
+            return ResponseEntity
+                .status(HttpStatus.ACCEPTED)
+                .body(new ClockInResponse(null, employeeId, event.getTimestamp(), true));
+        }
+
         TimeEntryDTO timeEntryDTO = timeEntryService.clockIn(employeeDTO);
 
         ClockInResponse response = new ClockInResponse(timeEntryDTO.getId(), 
@@ -79,8 +115,8 @@ public class TimeEntryController {
      * 
      *
      * @param employeeId идентификатор сотрудника
-     * @return {@code 200 OK} + {@link ClockOutResponse}, <strong>или</strong>
-     *         {@code 403 Forbidden} + заглушка при отсутствии доступа
+     * @return {@code 200 OK} + {@link ClockOutResponse}, {@code 202 Accepted} при отложенной записи,
+     *         <strong>или</strong> {@code 403 Forbidden} + заглушка при отсутствии доступа
      * @throws ru.samura.time_tracking_service.custom_exception.NoShiftFoundException если смен нет
      * @throws ru.samura.time_tracking_service.custom_exception.ClosedShiftTodayException если смена уже закрыта
      */
@@ -93,6 +129,10 @@ public class TimeEntryController {
                 .body(new ClockOutResponse(null, employeeDTO.getId(), null, false));
         }
 
+        if (writeBehindClockService.isEnabled()) {
+            return acceptClockOut(employeeId, false);
+        }
+
         TimeEntryDTO timeEntryDTO = timeEntryService.clockOut(employeeDTO, false);
 
         ClockOutResponse response = new ClockOutResponse(timeEntryDTO.getId(), 
@@ -113,8 +153,8 @@ public class TimeEntryController {
      *
      * @param hrId       идентификатор HR-пользователя
      * @param employeeId идентификатор сотрудника, чью смену закрывает HR
-     * @return {@code 200 OK} + {@link ClockOutResponse}, <strong>или</strong>
-     *         {@code 403 Forbidden} + заглушка, если HR не имеет доступа к сотруднику
+     * @return {@code 200 OK} + {@link ClockOutResponse}, {@code 202 Accepted} при отложенной записи,
+     *         <strong>или</strong> {@code 403 Forbidden} + заглушка, если HR не имеет доступа к сотруднику
      * @throws ActiveShiftTodayException если у сотрудника уже есть активная смена
      * @throws NoShiftFoundException если смены для закрытия не найдены
      */
@@ -129,6 +169,10 @@ public class TimeEntryController {
                 .body(new ClockOutResponse(null, hrDTO.getId(), null, false));
         }
         
+        if (writeBehindClockService.isEnabled()) {
+            return acceptClockOut(employeeId, true);
+        }
+
         TimeEntryDTO timeEntryDTO = timeEntryService.clockOut(employeeDTO, true);
 
         ClockOutResponse response = new ClockOutResponse(timeEntryDTO.getId(), 
@@ -138,4 +182,91 @@ public class TimeEntryController {
         
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    /**
+     * Возвращает историю смен сотрудника (открытых и завершённых) от новых к старым.
+     * <p>
+     * Проверяет доступ через {@code hasAccess(requesterDTO, employeeId)}: сотрудник видит только свои смены,
+     * HR — смены любого сотрудника. История читается через {@code shiftCache}
+     * ({@link TimeEntryService#findShiftByEmployee}); смены месяцев, перенесённых в архив, в неё не входят.
+     * 
+     *
+     * @param requesterId идентификатор запрашивающего (сотрудник или HR)
+     * @param employeeId  идентификатор сотрудника, чья история запрашивается
+     * @return {@code 200 OK} + список смен, <strong>или</strong> {@code 403 Forbidden}, если доступа нет
+     */
+    @GetMapping("/employees/{requesterId}/{employeeId}/shifts")
+    public ResponseEntity<List<ShiftView>> getShifts(@PathVariable("requesterId") UUID requesterId,
+                                                     @PathVariable("employeeId") UUID employeeId) {
+        EmployeeDTO requesterDTO = employeeService.getEmployeeInfo(requesterId);
+
+        if (!employeeService.hasAccess(requesterDTO, employeeId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.ok(timeEntryService.findShiftByEmployee(employeeId));
+    }
+
+    /**
+     * Принимает пакет событий прихода/ухода от турникетов и считывателей бейджей.
+     * <p>
+     * Шлюз передаёт буферизованные проходы одним запросом вместо отдельного GET на каждый,
+     * от имени учётной записи HR. Сотрудники, открытые смены и запись обрабатываются пакетно
+     * ({@link BatchClockService}), а результат возвращается по каждому событию: ошибка одного события
+     * не отменяет остальные.
+     * 
+     *
+     * @param hrId   идентификатор HR, от имени которого работает шлюз
+     * @param events события прохода (сотрудник, тип, время прохода)
+     * @return {@code 200 OK} + результаты в порядке событий, {@code 403 Forbidden}, если пакет передаёт не HR,
+     *         <strong>или</strong> {@code 413 Payload Too Large}, если событий больше {@code time-tracking.batch.max-events}
+     */
+    @PostMapping("/employees/{hrId}/batch")
+    public ResponseEntity<List<BatchClockEventResult>> clockBatch(@PathVariable("hrId") UUID hrId,
+                                                                  @RequestBody List<ClockEventRequest> events) {
+        EmployeeDTO hrDTO = employeeService.getEmployeeInfo(hrId);
+
+        if (!Role.HR.equals(hrDTO.getRole())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (events.size() > batchClockService.maxEvents()) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+
+        return ResponseEntity.ok(batchClockService.process(events));
+    }
+
+    /**
+     * Поток событий прихода/ухода всех сотрудников (Server-Sent Events) для панелей HR и интеграций.
+     * <p>
+     * События {@code clock-in}/{@code clock-out} отправляются после фиксации смены; данные — {@link ClockEvent}
+     * в JSON, {@code id} — номер события. При переподключении клиент передаёт {@code Last-Event-ID}
+     * и получает пропущенные события ({@link ClockEventStream}). Событие {@code gap} сообщает о диапазоне
+     * номеров, которые клиент не получил (не успевал читать или они вытеснены из буфера повтора).
+     *
+     * @param hrId идентификатор HR, подписывающегося на поток
+     * @param lastEventId номер последнего полученного события при переподключении
+     * @return {@code 200 OK} + поток событий, <strong>или</strong> {@code 403 Forbidden}, если подписывается не HR
+     */
+    @GetMapping(path = "/employees/{hrId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamClockEvents(@PathVariable("hrId") UUID hrId,
+                                                        @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        EmployeeDTO hrDTO = employeeService.getEmployeeInfo(hrId);
+
+        if (!Role.HR.equals(hrDTO.getRole())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.ok(clockEventStream.subscribe(lastEventId));
+    }
+
+    /**
+     * Записывает уход в журнал отложенной записи: смена закрывается при применении журнала.
+     */
+    private ResponseEntity<ClockOutResponse> acceptClockOut(UUID employeeId, boolean manual) {
+        ClockEventRequest event = writeBehindClockService.record(employeeId, ClockEvent.Type.CLOCK_OUT, manual);
+        return ResponseEntity
+            .status(HttpStatus.ACCEPTED)
+            .body(new ClockOutResponse(null, employeeId, event.getTimestamp(), true));
+    }
+}
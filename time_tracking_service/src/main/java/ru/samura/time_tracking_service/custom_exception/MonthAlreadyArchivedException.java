@@ -0,0 +1,25 @@
+package ru.samura.time_tracking_service.custom_exception;
+
+/**
+ * Исключение, выбрасываемое при попытке перенести в архив месяц, который уже перенесён.
+ * <p>
+ * Типичный сценарий: перенос по расписанию и ручной перенос HR (или два экземпляра приложения)
+ * запущены для одного месяца — файл архива пишет первый, второй получает это исключение.
+ * 
+ * <p>
+ * Обычно обрабатывается как {@code 409 Conflict}.
+ * 
+ */
+public class MonthAlreadyArchivedException extends RuntimeException {
+    public MonthAlreadyArchivedException(String message) {
+        super(message);
+    }
+
+    public MonthAlreadyArchivedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public MonthAlreadyArchivedException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,25 @@
+package ru.samura.time_tracking_service.custom_exception;
+
+/**
+ * Исключение, выбрасываемое при попытке закрыть месяц, снимок отчёта которого уже сохранён.
+ * <p>
+ * Типичный сценарий: два HR одновременно закрывают один и тот же месяц — снимок сохраняет первый,
+ * второй получает это исключение, а не перезаписывает снимок.
+ * 
+ * <p>
+ * Обычно обрабатывается как {@code 409 Conflict}.
+ * 
+ */
+public class MonthAlreadyClosedException extends RuntimeException {
+    public MonthAlreadyClosedException(String message) {
+        super(message);
+    }
+
+    public MonthAlreadyClosedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public MonthAlreadyClosedException(Throwable cause) {
+        super(cause);
+    }
+}
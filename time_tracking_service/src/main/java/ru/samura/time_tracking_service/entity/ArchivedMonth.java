@@ -0,0 +1,58 @@
+package ru.samura.time_tracking_service.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Месяц, смены которого перенесены из {@code time_entry} в файл архива.
+ * <p>
+ * Строка создаётся в той же транзакции, что и удаление смен из {@code time_entry}, поэтому файл архива
+ * действителен, только если для его месяца есть строка: файл без строки (сбой до фиксации) не читается
+ * и перезаписывается при следующем переносе месяца.
+ *
+ *
+ * @see ru.samura.time_tracking_service.service.TimeEntryArchiveService
+ */
+@Entity
+@Table(name = "archived_month")
+@NoArgsConstructor
+@AllArgsConstructor
+@Setter
+@Getter
+@ToString
+public class ArchivedMonth {
+
+    /**
+     * Месяц окончания смен в формате {@code yyyy-MM}.
+     */
+    @Id
+    @Column(name = "year_month", nullable = false, length = 7)
+    private String yearMonth;
+
+    /**
+     * Момент переноса в архив.
+     */
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    /**
+     * Количество смен в файле.
+     */
+    @Column(name = "shift_count", nullable = false)
+    private int shiftCount;
+
+    /**
+     * Размер файла в байтах.
+     */
+    @Column(name = "file_bytes", nullable = false)
+    private long fileBytes;
+}
@@ -0,0 +1,44 @@
+package ru.samura.time_tracking_service.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Отметка о применённых событиях локального журнала ({@link ru.samura.time_tracking_service.event.ClockEventLog}).
+ * <p>
+ * Одна строка на экземпляр сервиса. Номер последнего применённого события обновляется в той же транзакции,
+ * что и смены в {@code time_entry}: после падения сервис продолжает применять журнал с этой отметки,
+ * и ни одно событие не применяется дважды.
+ *
+ *
+ * @see ru.samura.time_tracking_service.service.WriteBehindClockService
+ */
+@Entity
+@Table(name = "clock_event_log_checkpoint")
+@NoArgsConstructor
+@AllArgsConstructor
+@Setter
+@Getter
+@ToString
+public class ClockEventLogCheckpoint {
+
+    /**
+     * Идентификатор экземпляра сервиса ({@code time-tracking.clock-log.node-id}), владеющего журналом.
+     */
+    @Id
+    @Column(name = "node_id", nullable = false, length = 64)
+    private String nodeId;
+
+    /**
+     * Номер последнего применённого события журнала ({@code 0} — ни одного).
+     */
+    @Column(name = "applied_sequence", nullable = false)
+    private long appliedSequence;
+}
@@ -0,0 +1,93 @@
+package ru.samura.time_tracking_service.entity;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Агрегат отработанного времени сотрудника за месяц.
+ * <p>
+ * Одна строка на пару (сотрудник, месяц). Поддерживается инкрементально при закрытии смены
+ * (см. {@link ru.samura.time_tracking_service.service.MonthlyHoursRollupService}), поэтому расчёт оплаты
+ * за месяц читает одну строку вместо всех смен месяца.
+ *
+ * <p>
+ * Смена относится к месяцу своего окончания ({@code check_out}) — так же, как в выборках для расчёта оплаты.
+ *
+ * <p>
+ * ⚠️ Агрегат — производные данные. Источником истины остаётся {@code time_entry};
+ * расхождения исправляются сверкой ({@link ru.samura.time_tracking_service.service.MonthlyHoursRollupService#reconcile}).
+ *
+ *
+ * @see TimeEntry
+ */
+@Entity
+@Table(name = "monthly_hours_rollup")
+@IdClass(MonthlyHoursRollup.Key.class)
+@NoArgsConstructor
+@AllArgsConstructor
+@Setter
+@Getter
+@ToString
+public class MonthlyHoursRollup {
+
+    /**
+     * Идентификатор сотрудника (часть составного ключа).
+     */
+    @Id
+    @Column(name = "employee_id", nullable = false)
+    private UUID employeeId;
+
+    /**
+     * Месяц в формате {@code yyyy-MM} (часть составного ключа), например {@code 2025-11}.
+     */
+    @Id
+    @Column(name = "year_month", nullable = false, length = 7)
+    private String yearMonth;
+
+    /**
+     * Суммарная длительность закрытых смен месяца в минутах.
+     */
+    @Column(name = "total_minutes", nullable = false)
+    private long totalMinutes;
+
+    /**
+     * Сумма полных часов по каждой смене — минуты каждой смены отбрасываются,
+     * как при расчёте оплаты ({@link java.time.Duration#toHours()} для каждой смены).
+     * <p>
+     * Хранится отдельно от {@link #totalMinutes}: {@code totalMinutes / 60} может быть больше,
+     * так как неполные часы разных смен в сумме дают полные.
+     */
+    @Column(name = "total_hours", nullable = false)
+    private long totalHours;
+
+    /**
+     * Количество закрытых смен месяца.
+     */
+    @Column(name = "shift_count", nullable = false)
+    private int shiftCount;
+
+    /**
+     * Составной ключ агрегата: сотрудник и месяц.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private UUID employeeId;
+
+        private String yearMonth;
+    }
+}
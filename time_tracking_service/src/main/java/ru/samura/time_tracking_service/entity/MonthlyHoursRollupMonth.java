@@ -0,0 +1,47 @@
+package ru.samura.time_tracking_service.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Месяц, агрегаты которого ({@link MonthlyHoursRollup}) построены по всем его сменам.
+ * <p>
+ * Строка создаётся пересчётом месяца ({@link ru.samura.time_tracking_service.service.MonthlyHoursRollupService#reconcile},
+ * {@link ru.samura.time_tracking_service.service.MonthlyHoursRollupService#rebuild}); после него агрегаты
+ * поддерживаются инкрементально. Для месяца без строки агрегаты могут быть неполными — например, смены
+ * закрыты до появления агрегатов или загружены в обход сервиса, — и расчёт оплаты читает смены.
+ *
+ *
+ * @see ru.samura.time_tracking_service.service.MonthlyHoursRollupService
+ */
+@Entity
+@Table(name = "monthly_hours_rollup_month")
+@NoArgsConstructor
+@AllArgsConstructor
+@Setter
+@Getter
+@ToString
+public class MonthlyHoursRollupMonth {
+
+    /**
+     * Месяц в формате {@code yyyy-MM}.
+     */
+    @Id
+    @Column(name = "year_month", nullable = false, length = 7)
+    private String yearMonth;
+
+    /**
+     * Момент первого пересчёта месяца.
+     */
+    @Column(name = "built_at", nullable = false)
+    private LocalDateTime builtAt;
+}
@@ -0,0 +1,68 @@
+package ru.samura.time_tracking_service.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Снимок отчёта по оплате за закрытый месяц.
+ * <p>
+ * При закрытии месяца расчёт оплаты всех сотрудников выполняется один раз и сохраняется
+ * в компактном двоичном виде ({@code payload}); отчёты за закрытый месяц читаются из снимка
+ * без обращения к {@code time_entry}. Снимок не меняется, пока месяц не открыт заново,
+ * поэтому его {@code etag} — валидатор для условных запросов ({@code If-None-Match}).
+ *
+ *
+ * @see ru.samura.time_tracking_service.service.ReportSnapshotService
+ */
+@Entity
+@Table(name = "report_snapshot")
+@NoArgsConstructor
+@AllArgsConstructor
+@Setter
+@Getter
+@ToString(exclude = "payload")
+public class ReportSnapshot {
+
+    /**
+     * Закрытый месяц в формате {@code yyyy-MM}.
+     */
+    @Id
+    @Column(name = "year_month", nullable = false, length = 7)
+    private String yearMonth;
+
+    /**
+     * Момент закрытия месяца.
+     */
+    @Column(name = "closed_at", nullable = false)
+    private LocalDateTime closedAt;
+
+    /**
+     * Количество сотрудников в снимке.
+     */
+    @Column(name = "employee_count", nullable = false)
+    private int employeeCount;
+
+    /**
+     * Версия снимка для заголовка {@code ETag}: месяц и контрольная сумма {@code payload}.
+     */
+    @Column(name = "etag", nullable = false, length = 64)
+    private String etag;
+
+    /**
+     * Расчёт оплаты всех сотрудников, сжатый GZIP (формат — {@code ReportSnapshotService#encode}).
+     * <p>
+     * В PostgreSQL — {@code bytea} без ограничения длины; {@code length} — предельный размер
+     * {@code varbinary} в H2 (тесты), при большей длине Hibernate выбрал бы {@code blob}.
+     */
+    @Column(name = "payload", nullable = false, length = 1024 * 1024)
+    private byte[] payload;
+}
@@ -5,12 +5,15 @@ import java.util.UUID;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -32,11 +35,21 @@ import lombok.ToString;
  * Предполагается, что все операции выполняются в единой временной зоне (например, UTC или локальной зоне сервера).
  * Для распределённых систем рекомендуется использовать {@link java.time.ZonedDateTime} или {@link java.time.Instant}.
  * 
+ * <p>
+ * Составной индекс {@code (employee_id, check_out)} обслуживает месячные выборки для расчёта оплаты
+ * (см. {@link ru.samura.time_tracking_service.repository.TimeEntryRepository#findShiftsForPaymentByEmployeeAndMonth}).
+ * Уникальное ограничение {@code (employee_id, open_shift)} не даёт сотруднику открыть вторую смену,
+ * пока первая не закрыта, даже при одновременных запросах (см. {@link #openShift}).
+ * 
  *
  * @see Employee
  */
 @Entity
-@Table(name = "time_entry")
+@Table(name = "time_entry", indexes = {
+    @Index(name = "idx_time_entry_employee_check_out", columnList = "employee_id, check_out")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uq_time_entry_open_shift", columnNames = {"employee_id", "open_shift"})
+})
 @NoArgsConstructor
 @AllArgsConstructor
 @Setter
@@ -61,10 +74,15 @@ public class TimeEntry {
      * Обязательное поле. Связь "многие к одному" — один сотрудник может иметь множество записей времени.
      * Внешний ключ {@code employee_id} ссылается на таблицу {@code employees}.
      * 
+     * <p>
+     * Загружается лениво: при чтении смен сотрудник обычно уже известен, а {@code employee.getId()}
+     * берётся из внешнего ключа без запроса. Исключён из {@code toString}, чтобы не инициировать загрузку.
+     * 
      *
      * @see Employee
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
     @JoinColumn(name = "employee_id", nullable = false)
     private Employee employee;
 
@@ -104,4 +122,20 @@ public class TimeEntry {
      */
     @Column(name = "is_manual")
     private boolean isManual;
-}
\ No newline at end of file
+
+    /**
+     * Признак открытой смены — служебное поле для ограничения на уровне БД.
+     * <p>
+     * Пока смена открыта, равно {@code true}; при закрытии смены сбрасывается в {@code null}.
+     * Уникальное ограничение {@code uq_time_entry_open_shift (employee_id, open_shift)}
+     * гарантирует не более одной открытой смены сотрудника — в том числе начатой в другой день:
+     * {@code NULL} в уникальных ограничениях не сравниваются, поэтому закрытые смены ограничение не затрагивают.
+     * 
+     * <p>
+     * Выполняет роль частичного уникального индекса {@code WHERE check_out IS NULL},
+     * но переносимо между PostgreSQL и H2.
+     * 
+     */
+    @Column(name = "open_shift")
+    private Boolean openShift;
+}
@@ -0,0 +1,38 @@
+package ru.samura.time_tracking_service.event;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Событие изменения смены: открытие (clock-in) или закрытие (clock-out).
+ * <p>
+ * Публикуется {@link ru.samura.time_tracking_service.service.TimeEntryService} после сохранения смены
+ * через {@link org.springframework.context.ApplicationEventPublisher}. Слушатели, которым важна
+ * согласованность с БД (например, инвалидация кешей), подписываются через
+ * {@code @TransactionalEventListener} и получают событие только после фиксации транзакции.
+ * 
+ *
+ * @param type        тип события
+ * @param timeEntryId идентификатор записи времени (смены)
+ * @param employeeId  идентификатор сотрудника
+ * @param timestamp   время события: {@code checkIn} для открытия, {@code checkOut} для закрытия
+ * @param manual      {@code true}, если смена отмечена вручную (HR)
+ */
+public record ClockEvent(
+    Type type,
+    UUID timeEntryId,
+    UUID employeeId,
+    LocalDateTime timestamp,
+    boolean manual
+) {
+
+    /**
+     * Тип события смены.
+     */
+    public enum Type {
+        /** Открытие смены («приход»). */
+        CLOCK_IN,
+        /** Закрытие смены («уход»). */
+        CLOCK_OUT
+    }
+}
@@ -0,0 +1,415 @@
+package ru.samura.time_tracking_service.event;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.samura.time_tracking_service.DTO.ClockEventRequest;
+
+/**
+ * Локальный журнал событий прихода/ухода: файл только для дозаписи с записями фиксированной длины.
+ * <p>
+ * {@link #append} возвращает управление после {@code fsync} записи, поэтому принятое событие
+ * переживает падение процесса и сервера. Одновременные вызовы объединяются в групповую фиксацию:
+ * один поток выполняет {@code fsync} за всех, чьи записи уже в файле, — при пиковом потоке
+ * «приходов» число {@code fsync} намного меньше числа событий.
+ *
+ * <p>
+ * Каждой записи присваивается порядковый номер (начиная с {@code 1}); запись содержит номер,
+ * событие и контрольную сумму CRC32C. При открытии журнал проверяет записи и отбрасывает хвост,
+ * недописанный при падении. Журнал состоит из сегментов {@code clock-events-<номер первой записи>.log};
+ * новый сегмент начинается ({@link #compact}), только когда все записи текущего применены,
+ * после чего старые сегменты удаляются.
+ *
+ * <p>
+ * Ошибка {@code fsync} закрывает журнал для записи: состояние незафиксированных страниц файла после неё
+ * неизвестно, и повтор {@code fsync} может «успешно» зафиксировать записи, о которых клиенты уже получили
+ * ошибку. Поэтому файл обрезается до последней зафиксированной записи (повтор события клиентом не создаёт
+ * дубликат после перезапуска), а все последующие {@link #append} завершаются ошибкой до переоткрытия журнала.
+ * Чтение и применение зафиксированных записей продолжаются.
+ *
+ * <p>
+ * Блокировки — {@link ReentrantLock}, а не {@code synchronized}: ожидание {@code fsync}
+ * не закрепляет виртуальный поток за потоком-носителем.
+ *
+ *
+ * @see ru.samura.time_tracking_service.service.WriteBehindClockService
+ */
+@Slf4j
+public final class ClockEventLog implements Closeable {
+
+    /**
+     * Размер записи: номер (8), тип (1), ручная (1), сотрудник (16), секунды (8), наносекунды (4), CRC32C (4).
+     */
+    static final int RECORD_SIZE = 42;
+
+    private static final int PAYLOAD_SIZE = RECORD_SIZE - Integer.BYTES;
+
+    private static final String SEGMENT_PREFIX = "clock-events-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+
+    /**
+     * Защищает выделение номеров и запись в файл — записи лежат в файле в порядке номеров.
+     */
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    /**
+     * Один {@code fsync} за раз; ожидающие потоки проверяют, не зафиксировал ли их запись предыдущий.
+     */
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    private FileChannel channel;
+    private long segmentBase;
+    private long nextSequence;
+    private volatile long durableSequence;
+
+    /**
+     * Ошибка {@code fsync}, после которой журнал не принимает записи; {@code null} — журнал исправен.
+     */
+    private volatile IOException failure;
+
+    private ClockEventLog(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Открывает журнал в каталоге (создаёт при отсутствии) и восстанавливает его после падения.
+     * <p>
+     * Если применённых записей больше, чем осталось в журнале (журнал удалён или повреждён),
+     * начинается новый сегмент после {@code appliedSequence}, чтобы новые записи не получили
+     * номера уже применённых.
+     *
+     * @param directory каталог журнала
+     * @param appliedSequence номер последней применённой записи ({@code 0} — ни одной)
+     * @return открытый журнал
+     */
+    public static ClockEventLog open(Path directory, long appliedSequence) {
+        ClockEventLog log = new ClockEventLog(directory);
+        try {
+            Files.createDirectories(directory);
+            log.recover(appliedSequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return log;
+    }
+
+    /**
+     * Дописывает событие и дожидается его {@code fsync}.
+     *
+     * @param event событие с заполненными сотрудником, типом и временем
+     * @return номер записи
+     * @throws UncheckedIOException если запись или {@code fsync} не удались или журнал закрыт после ошибки
+     *         {@code fsync} — событие не принято
+     */
+    public long append(ClockEventRequest event) {
+        long sequence;
+        appendLock.lock();
+        try {
+            checkNotFailed();
+            sequence = nextSequence;
+            ByteBuffer record = encode(sequence, event);
+            long position = (sequence - segmentBase) * RECORD_SIZE;
+            while (record.hasRemaining()) {
+                position += channel.write(record, position);
+            }
+            nextSequence++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            appendLock.unlock();
+        }
+
+        awaitDurable(sequence);
+        return sequence;
+    }
+
+    /**
+     * Читает зафиксированные записи начиная с {@code fromSequence}.
+     *
+     * @param fromSequence номер первой записи
+     * @param max максимальное количество записей
+     * @return записи по возрастанию номеров; пустой список, если новых зафиксированных записей нет
+     */
+    public List<Entry> read(long fromSequence, int max) {
+        List<Entry> entries = new ArrayList<>();
+        appendLock.lock();
+        try {
+            long from = Math.max(fromSequence, segmentBase);
+            long to = Math.min(durableSequence, from + max - 1);
+            if (to < from) {
+                return entries;
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate((int) (to - from + 1) * RECORD_SIZE);
+            long position = (from - segmentBase) * RECORD_SIZE;
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position + buffer.position());
+                if (read < 0) {
+                    throw new IOException("Журнал событий короче зафиксированной позиции " + durableSequence);
+                }
+            }
+            buffer.flip();
+            for (long sequence = from; sequence <= to; sequence++) {
+                entries.add(decode(buffer, sequence));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            appendLock.unlock();
+        }
+        return entries;
+    }
+
+    /**
+     * Начинает новый сегмент и удаляет текущий, если все его записи применены и он больше {@code maxSegmentBytes}.
+     * На время переключения дозапись приостанавливается.
+     *
+     * @param appliedSequence номер последней применённой записи
+     * @param maxSegmentBytes размер сегмента, после которого он заменяется новым
+     * @return {@code true}, если сегмент заменён
+     */
+    public boolean compact(long appliedSequence, long maxSegmentBytes) {
+        appendLock.lock();
+        syncLock.lock();
+        try {
+            if (appliedSequence < nextSequence - 1 || (nextSequence - segmentBase) * RECORD_SIZE <= maxSegmentBytes) {
+                return false;
+            }
+            Path previous = segment(segmentBase);
+            startSegment(nextSequence);
+            Files.deleteIfExists(previous);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            syncLock.unlock();
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * @return номер последней зафиксированной записи ({@code 0}, если записей не было)
+     */
+    public long durableSequence() {
+        return durableSequence;
+    }
+
+    @Override
+    public void close() throws IOException {
+        appendLock.lock();
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Групповая фиксация: первый поток, захвативший {@link #syncLock}, выполняет {@code fsync}
+     * за все записанные к этому моменту записи; остальные находят свою запись уже зафиксированной.
+     * Если {@code fsync} не удался, ошибку получают все потоки с незафиксированными записями.
+     */
+    private void awaitDurable(long sequence) {
+        if (durableSequence >= sequence) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (durableSequence >= sequence) {
+                return;
+            }
+            checkNotFailed();
+            long written;
+            appendLock.lock();
+            try {
+                written = nextSequence - 1;
+            } finally {
+                appendLock.unlock();
+            }
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                fail(e);
+                throw new UncheckedIOException(e);
+            }
+            durableSequence = written;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Закрывает журнал для записи после ошибки {@code fsync} и обрезает файл до последней
+     * зафиксированной записи. Вызывается под {@link #syncLock}.
+     */
+    private void fail(IOException e) {
+        appendLock.lock();
+        try {
+            failure = e;
+            long durableSize = (durableSequence - segmentBase + 1) * RECORD_SIZE;
+            try {
+                channel.truncate(durableSize);
+                channel.force(true);
+            } catch (IOException truncateFailure) {
+                e.addSuppressed(truncateFailure);
+            }
+            nextSequence = durableSequence + 1;
+            log.error("Журнал событий {}: ошибка fsync, записи после {} отброшены, журнал закрыт для записи",
+                      segment(segmentBase), durableSequence, e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void checkNotFailed() {
+        if (failure != null) {
+            throw new UncheckedIOException("Журнал событий закрыт для записи после ошибки fsync", failure);
+        }
+    }
+
+    private void recover(long appliedSequence) throws IOException {
+        List<Long> bases;
+        try (Stream<Path> files = Files.list(directory)) {
+            bases = files.map(path -> path.getFileName().toString())
+                         .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                         .map(name -> Long.parseLong(name, SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length(), 10))
+                         .sorted()
+                         .toList();
+        }
+
+        if (bases.isEmpty()) {
+            startSegment(appliedSequence + 1);
+            return;
+        }
+
+        // Сегмент заменяется только после применения всех записей — более старые сегменты не нужны
+        for (long base : bases.subList(0, bases.size() - 1)) {
+            Files.deleteIfExists(segment(base));
+        }
+
+        segmentBase = bases.get(bases.size() - 1);
+        channel = FileChannel.open(segment(segmentBase), StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        long valid = validRecords();
+        if (channel.size() > valid * RECORD_SIZE) {
+            log.warn("Журнал событий {}: отброшен недописанный хвост ({} байт)", segment(segmentBase),
+                     channel.size() - valid * RECORD_SIZE);
+            channel.truncate(valid * RECORD_SIZE);
+        }
+        channel.force(true);
+
+        nextSequence = segmentBase + valid;
+        durableSequence = nextSequence - 1;
+
+        if (appliedSequence >= nextSequence) {
+            log.warn("Журнал событий заканчивается записью {}, а применены записи до {} — начинается новый сегмент",
+                     nextSequence - 1, appliedSequence);
+            channel.close();
+            startSegment(appliedSequence + 1);
+        }
+    }
+
+    /**
+     * Количество подряд идущих целых записей с ожидаемыми номерами от начала сегмента.
+     */
+    private long validRecords() throws IOException {
+        long records = channel.size() / RECORD_SIZE;
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+        for (long i = 0; i < records; i++) {
+            buffer.clear();
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, i * RECORD_SIZE + buffer.position()) < 0) {
+                    return i;
+                }
+            }
+            buffer.flip();
+            if (!checksumMatches(buffer) || buffer.getLong(0) != segmentBase + i) {
+                return i;
+            }
+        }
+        return records;
+    }
+
+    private void startSegment(long base) throws IOException {
+        FileChannel created = FileChannel.open(segment(base), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                               StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        if (channel != null && channel.isOpen()) {
+            channel.close();
+        }
+        channel = created;
+        channel.force(true);
+        segmentBase = base;
+        nextSequence = base;
+        durableSequence = base - 1;
+    }
+
+    private Path segment(long base) {
+        return directory.resolve(SEGMENT_PREFIX + String.format("%020d", base) + SEGMENT_SUFFIX);
+    }
+
+    private static ByteBuffer encode(long sequence, ClockEventRequest event) {
+        LocalDateTime timestamp = event.getTimestamp();
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE)
+            .putLong(sequence)
+            .put((byte) event.getType().ordinal())
+            .put((byte) (event.isManual() ? 1 : 0))
+            .putLong(event.getEmployeeId().getMostSignificantBits())
+            .putLong(event.getEmployeeId().getLeastSignificantBits())
+            .putLong(timestamp.toEpochSecond(ZoneOffset.UTC))
+            .putInt(timestamp.getNano());
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, PAYLOAD_SIZE);
+        buffer.putInt((int) crc.getValue());
+        return buffer.flip();
+    }
+
+    private static Entry decode(ByteBuffer buffer, long expectedSequence) throws IOException {
+        ByteBuffer record = buffer.slice(buffer.position(), RECORD_SIZE);
+        buffer.position(buffer.position() + RECORD_SIZE);
+
+        if (!checksumMatches(record) || record.getLong(0) != expectedSequence) {
+            throw new IOException("Повреждена запись журнала событий " + expectedSequence);
+        }
+
+        record.position(Long.BYTES);
+        ClockEvent.Type type = ClockEvent.Type.values()[record.get()];
+        boolean manual = record.get() == 1;
+        UUID employeeId = new UUID(record.getLong(), record.getLong());
+        LocalDateTime timestamp = LocalDateTime.ofEpochSecond(record.getLong(), record.getInt(), ZoneOffset.UTC);
+        return new Entry(expectedSequence, new ClockEventRequest(employeeId, type, timestamp, manual));
+    }
+
+    private static boolean checksumMatches(ByteBuffer record) {
+        CRC32C crc = new CRC32C();
+        crc.update(record.slice(0, PAYLOAD_SIZE));
+        return (int) crc.getValue() == record.getInt(PAYLOAD_SIZE);
+    }
+
+    /**
+     * Запись журнала.
+     *
+     * @param sequence номер записи
+     * @param event событие
+     */
+    public record Entry(long sequence, ClockEventRequest event) {}
+}
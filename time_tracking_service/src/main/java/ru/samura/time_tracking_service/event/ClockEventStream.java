@@ -0,0 +1,401 @@
+package ru.samura.time_tracking_service.event;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Поток событий прихода/ухода для подписчиков Server-Sent Events — вместо частого опроса
+ * {@code /time-entry} и {@code /report}.
+ * <p>
+ * Каждое {@link ClockEvent} после фиксации транзакции получает номер (поле {@code id} события SSE)
+ * и попадает в кольцевой буфер последних {@code time-tracking.clock-stream.replay-size} событий
+ * и в очередь каждого подписчика. Переподключившийся клиент передаёт {@code Last-Event-ID}
+ * и получает пропущенные события из кольцевого буфера.
+ * <p>
+ * Очередь подписчика ограничена ({@code time-tracking.clock-stream.subscriber-buffer}): если клиент
+ * не успевает читать, новые события для него отбрасываются, а вместо них отправляется одно событие
+ * {@code gap} с диапазоном пропущенных номеров — клиент может переподключиться с {@code Last-Event-ID}
+ * или перечитать данные запросом.
+ * <p>
+ * Соединение не занимает поток: ожидающие подписчики — асинхронные запросы сервлет-контейнера.
+ * Очередь подписчика отправляется в виртуальном потоке, который существует, только пока в ней есть события;
+ * медленная запись одному клиенту не задерживает остальных.
+ * <p>
+ * Номера событий начинаются с момента старта приложения в микросекундах и поэтому растут и между перезапусками:
+ * {@code Last-Event-ID} предыдущего процесса приводит к событию {@code gap}, а не к повтору чужих номеров.
+ *
+ */
+@Slf4j
+@Component
+public class ClockEventStream {
+
+    /**
+     * Имя события SSE о пропущенных событиях.
+     */
+    static final String GAP_EVENT = "gap";
+
+    /**
+     * Количество последних событий, доступных для повтора по {@code Last-Event-ID}.
+     */
+    @Value("${time-tracking.clock-stream.replay-size:10000}")
+    private int replaySize;
+
+    /**
+     * Максимум неотправленных событий одного подписчика.
+     */
+    @Value("${time-tracking.clock-stream.subscriber-buffer:256}")
+    private int subscriberBuffer;
+
+    /**
+     * Время жизни соединения; после него клиент переподключается с {@code Last-Event-ID}.
+     */
+    @Value("${time-tracking.clock-stream.timeout:30m}")
+    private Duration timeout;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Защищает кольцевой буфер и нумерацию; под ней же событие раздаётся подписчикам и регистрируется
+     * новый подписчик, поэтому каждый получает события строго по возрастанию номеров и без пропусков
+     * между повтором и потоком.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private Entry[] ring;
+
+    private long firstSequence;
+
+    private long nextSequence;
+
+    @PostConstruct
+    void init() {
+        ring = new Entry[replaySize];
+        firstSequence = System.currentTimeMillis() * 1000;
+        nextSequence = firstSequence;
+    }
+
+    @PreDestroy
+    void close() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        sender.shutdownNow();
+    }
+
+    /**
+     * Нумерует событие, сохраняет в кольцевом буфере и ставит в очереди подписчиков.
+     *
+     * @param event событие смены
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClockEvent(ClockEvent event) {
+        lock.lock();
+        try {
+            Entry entry = new Entry(nextSequence++, event);
+            ring[slot(entry.id())] = entry;
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Подписывает клиента на поток событий.
+     *
+     * @param lastEventId номер последнего полученного клиентом события (заголовок {@code Last-Event-ID});
+     *                    {@code null} — только новые события
+     * @return соединение SSE
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, new SubscriberQueue(subscriberBuffer));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+
+        lock.lock();
+        try {
+            Long lastId = parseId(lastEventId);
+            if (lastId != null) {
+                replay(subscriber.queue, lastId);
+            }
+            subscribers.add(subscriber);
+        } finally {
+            lock.unlock();
+        }
+
+        subscriber.schedule();
+        return emitter;
+    }
+
+    /**
+     * Раз в {@code time-tracking.clock-stream.heartbeat-ms} отправляет простаивающим подписчикам комментарий:
+     * соединение не закрывается прокси по бездействию, а отключившиеся клиенты обнаруживаются и удаляются.
+     */
+    @Scheduled(fixedDelayString = "${time-tracking.clock-stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeat();
+        }
+    }
+
+    /**
+     * @return количество подключённых подписчиков
+     */
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * @return номер последнего опубликованного события; меньше первого номера, если событий ещё не было
+     */
+    long lastSequence() {
+        lock.lock();
+        try {
+            return nextSequence - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ставит в очередь подписчика события кольцевого буфера после {@code lastId}; если часть из них
+     * уже вытеснена из буфера, перед ними ставится событие {@code gap}. Вызывается под {@link #lock}.
+     */
+    private void replay(SubscriberQueue queue, long lastId) {
+        long oldest = Math.max(firstSequence, nextSequence - ring.length);
+        if (lastId + 1 < oldest) {
+            queue.replay(new Gap(lastId + 1, oldest - 1));
+        }
+        for (long id = Math.max(lastId + 1, oldest); id < nextSequence; id++) {
+            queue.replay(ring[slot(id)]);
+        }
+    }
+
+    private int slot(long id) {
+        return (int) Math.floorMod(id, (long) ring.length);
+    }
+
+    private static Long parseId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Пронумерованное событие.
+     *
+     * @param id    номер события (поле {@code id} SSE)
+     * @param event событие смены
+     */
+    record Entry(long id, ClockEvent event) { }
+
+    /**
+     * Пропущенные подписчиком события — данные события {@code gap}.
+     *
+     * @param from первый пропущенный номер
+     * @param to   последний пропущенный номер
+     */
+    record Gap(long from, long to) { }
+
+    /**
+     * Ограниченная очередь подписчика: события ({@link Entry}) и отметки пропусков ({@link Gap}).
+     * <p>
+     * Если очередь заполнена, новое событие отбрасывается и учитывается в отметке пропуска в конце очереди;
+     * идущие подряд пропуски объединяются в одну отметку. Не потокобезопасна — синхронизируется владельцем.
+     */
+    static final class SubscriberQueue {
+
+        private final int capacity;
+
+        private final ArrayDeque<Object> items = new ArrayDeque<>();
+
+        /**
+         * Количество событий ({@link Entry}) в очереди — отметки пропусков не учитываются.
+         */
+        private int entries;
+
+        SubscriberQueue(int capacity) {
+            this.capacity = capacity;
+        }
+
+        /**
+         * Ставит событие в очередь или, если она заполнена, отмечает его как пропущенное.
+         *
+         * @param entry событие
+         * @return {@code false}, если событие отброшено
+         */
+        boolean offer(Entry entry) {
+            if (entries >= capacity) {
+                if (items.peekLast() instanceof Gap gap) {
+                    items.pollLast();
+                    items.add(new Gap(gap.from(), entry.id()));
+                } else {
+                    items.add(new Gap(entry.id(), entry.id()));
+                }
+                return false;
+            }
+            items.add(entry);
+            entries++;
+            return true;
+        }
+
+        /**
+         * Ставит в очередь повторяемое событие или отметку без ограничения размера:
+         * повтор ограничен размером кольцевого буфера.
+         */
+        void replay(Object item) {
+            items.add(item);
+            if (item instanceof Entry) {
+                entries++;
+            }
+        }
+
+        /**
+         * @return следующее событие или отметка пропуска; {@code null}, если очередь пуста
+         */
+        Object poll() {
+            Object item = items.poll();
+            if (item instanceof Entry) {
+                entries--;
+            }
+            return item;
+        }
+
+        boolean isEmpty() {
+            return items.isEmpty();
+        }
+    }
+
+    /**
+     * Подписчик: соединение SSE и его очередь. Очередь отправляет не больше одного потока одновременно.
+     * <p>
+     * Очередь защищена {@link ReentrantLock}, а не {@code synchronized}: её читает виртуальный поток отправки,
+     * и ожидание монитора закрепило бы его за потоком-носителем.
+     */
+    private final class Subscriber implements Runnable {
+
+        private static final Object HEARTBEAT = new Object();
+
+        private final SseEmitter emitter;
+
+        private final SubscriberQueue queue;
+
+        private final ReentrantLock queueLock = new ReentrantLock();
+
+        private boolean sending;
+
+        Subscriber(SseEmitter emitter, SubscriberQueue queue) {
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+
+        void offer(Entry entry) {
+            queueLock.lock();
+            try {
+                queue.offer(entry);
+                schedule();
+            } finally {
+                queueLock.unlock();
+            }
+        }
+
+        void heartbeat() {
+            queueLock.lock();
+            try {
+                if (queue.isEmpty() && !sending) {
+                    queue.replay(HEARTBEAT);
+                    schedule();
+                }
+            } finally {
+                queueLock.unlock();
+            }
+        }
+
+        /**
+         * Запускает отправку очереди, если она ещё не идёт.
+         */
+        void schedule() {
+            queueLock.lock();
+            try {
+                if (sending || queue.isEmpty()) {
+                    return;
+                }
+                sending = true;
+                try {
+                    sender.execute(this);
+                } catch (RejectedExecutionException e) {
+                    // Приложение останавливается
+                    sending = false;
+                }
+            } finally {
+                queueLock.unlock();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Object item;
+                queueLock.lock();
+                try {
+                    item = queue.poll();
+                    if (item == null) {
+                        sending = false;
+                        return;
+                    }
+                } finally {
+                    queueLock.unlock();
+                }
+                try {
+                    send(item);
+                } catch (IOException | IllegalStateException e) {
+                    // Клиент отключился или соединение уже завершено
+                    log.debug("Подписчик потока событий отключён: {}", e.getMessage());
+                    subscribers.remove(this);
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+
+        private void send(Object item) throws IOException {
+            if (item instanceof Entry entry) {
+                emitter.send(SseEmitter.event()
+                                       .id(Long.toString(entry.id()))
+                                       .name(entry.event().type() == ClockEvent.Type.CLOCK_IN ? "clock-in" : "clock-out")
+                                       .data(entry.event(), MediaType.APPLICATION_JSON));
+            } else if (item instanceof Gap gap) {
+                emitter.send(SseEmitter.event().name(GAP_EVENT).data(gap, MediaType.APPLICATION_JSON));
+            } else {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+        }
+    }
+}
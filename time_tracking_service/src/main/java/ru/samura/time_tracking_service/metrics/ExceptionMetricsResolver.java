@@ -0,0 +1,66 @@
+package ru.samura.time_tracking_service.metrics;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import ru.samura.time_tracking_service.custom_exception.ActiveShiftTodayException;
+import ru.samura.time_tracking_service.custom_exception.ClosedShiftTodayException;
+import ru.samura.time_tracking_service.custom_exception.NoShiftFoundException;
+import ru.samura.time_tracking_service.custom_exception.UserNotFoundException;
+
+/**
+ * Считает исключения, выброшенные контроллерами: {@code time_tracking.exceptions{exception=<класс>}}.
+ * <p>
+ * Выполняется первым среди обработчиков исключений Spring MVC и ничего не обрабатывает
+ * (возвращает {@code null}) — ответ по-прежнему формируют стандартные обработчики.
+ * Счётчики исключений из {@code custom_exception} создаются при старте, чтобы ряд с нулём был виден
+ * в Prometheus до первого исключения.
+ *
+ */
+@Component
+public class ExceptionMetricsResolver implements HandlerExceptionResolver, Ordered {
+
+    static final String METRIC = "time_tracking.exceptions";
+
+    private static final List<Class<? extends RuntimeException>> CUSTOM_EXCEPTIONS = List.of(
+        ActiveShiftTodayException.class,
+        ClosedShiftTodayException.class,
+        NoShiftFoundException.class,
+        UserNotFoundException.class);
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @PostConstruct
+    public void registerCustomExceptions() {
+        CUSTOM_EXCEPTIONS.forEach(this::counter);
+    }
+
+    @Override
+    public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        counter(ex.getClass()).increment();
+        return null;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private Counter counter(Class<?> exception) {
+        return Counter.builder(METRIC)
+                      .tag("exception", exception.getSimpleName())
+                      .description("Исключения, выброшенные контроллерами")
+                      .register(registry);
+    }
+}
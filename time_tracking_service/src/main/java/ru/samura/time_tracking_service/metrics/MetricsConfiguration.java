@@ -0,0 +1,51 @@
+package ru.samura.time_tracking_service.metrics;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Метрики приложения поверх автоконфигурации Actuator/Micrometer.
+ * <p>
+ * Из коробки (и в {@code /actuator/prometheus}) публикуются:
+ * <ul>
+ *   <li>{@code http.server.requests} — задержки каждого эндпоинта (теги {@code uri}, {@code method},
+ *       {@code status}, {@code exception}) с гистограммой для квантилей;</li>
+ *   <li>{@code time_tracking.service} — {@code @Timed}-методы {@link ru.samura.time_tracking_service.service.TimeEntryService}
+ *       (теги {@code class}, {@code method}, {@code exception});</li>
+ *   <li>{@code cache.gets}, {@code cache.puts}, {@code cache.evictions} — статистика Caffeine
+ *       ({@link ru.samura.time_tracking_service.cache.CacheConfiguration});</li>
+ *   <li>{@code hikaricp.connections.active}/{@code pending}/{@code max} и {@code hikaricp.connections.acquire} —
+ *       занятость пула соединений и ожидание соединения.</li>
+ * </ul>
+ * Здесь добавляются доля попаданий в кеши и счётчики исключений ({@link ExceptionMetricsResolver}).
+ * Расчёты отчёта по оплате и сэкономленные объединением запросов расчёты публикует
+ * {@link ru.samura.time_tracking_service.service.PaymentReportCoalescer}.
+ *
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    /**
+     * Доля попаданий каждого кеша с момента старта: {@code cache.hit.ratio{cache=<имя>}}.
+     * Для доли за окно — {@code rate(cache_gets_total{result="hit"}) / rate(cache_gets_total)}.
+     *
+     * @param cacheManager менеджер кешей Caffeine
+     * @return регистрация метрик
+     */
+    @Bean
+    public MeterBinder cacheHitRatioMetrics(CacheManager cacheManager) {
+        return registry -> cacheManager.getCacheNames().forEach(name -> {
+            if (cacheManager.getCache(name) instanceof CaffeineCache cache) {
+                Gauge.builder("cache.hit.ratio", cache.getNativeCache(), nativeCache -> nativeCache.stats().hitRate())
+                     .tag("cache", name)
+                     .description("Доля попаданий в кеш с момента старта")
+                     .register(registry);
+            }
+        });
+    }
+}
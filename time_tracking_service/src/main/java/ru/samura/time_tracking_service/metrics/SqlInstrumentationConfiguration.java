@@ -0,0 +1,56 @@
+package ru.samura.time_tracking_service.metrics;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Инструментирование SQL вместо {@code spring.jpa.show-sql} ({@code time-tracking.sql.instrumentation.enabled}).
+ * <p>
+ * Пул соединений оборачивается прокси datasource-proxy: каждый запрос замеряется
+ * ({@link SqlStatementListener}), в лог попадают только запросы дольше {@code time-tracking.sql.slow-query-ms}.
+ * Повторяющиеся в одном HTTP-запросе запросы (N+1) выводятся предупреждением ({@link SqlRequestScopeFilter}).
+ * Сам пул (HikariCP) не меняется: метрики и настройки {@code spring.datasource.hikari.*} работают как прежде.
+ *
+ */
+@Configuration
+@ConditionalOnProperty(name = "time-tracking.sql.instrumentation.enabled", havingValue = "true")
+public class SqlInstrumentationConfiguration {
+
+    /**
+     * Оборачивает каждый {@link DataSource} контекста прокси с {@link SqlStatementListener}.
+     * Статический — постпроцессор создаётся раньше остальных бинов конфигурации.
+     *
+     * @param slowQueryMillis порог медленного запроса в миллисекундах
+     * @return постпроцессор источников данных
+     */
+    @Bean
+    public static BeanPostProcessor sqlInstrumentationPostProcessor(@Value("${time-tracking.sql.slow-query-ms:200}") long slowQueryMillis) {
+        SqlStatementListener listener = new SqlStatementListener(slowQueryMillis);
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(beanName, dataSource)
+                                                 .listener(listener)
+                                                 .proxyResultSet(listener)
+                                                 .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public SqlRequestScopeFilter sqlRequestScopeFilter(@Value("${time-tracking.sql.n-plus-one-threshold:10}") int threshold) {
+        return new SqlRequestScopeFilter(threshold);
+    }
+}
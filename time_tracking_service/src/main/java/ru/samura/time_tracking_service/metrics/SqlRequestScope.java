@@ -0,0 +1,88 @@
+package ru.samura.time_tracking_service.metrics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Учёт SQL-запросов в пределах одного HTTP-запроса для поиска N+1: один и тот же запрос
+ * (с точностью до параметров), выполненный {@code threshold} и более раз, — признак запроса в цикле
+ * вместо одного запроса на всё множество.
+ * <p>
+ * Область привязана к потоку ({@link ThreadLocal}) и открывается фильтром {@link SqlRequestScopeFilter};
+ * запросы вне HTTP-запросов (задачи по расписанию, части параллельного расчёта оплаты в своих потоках)
+ * не учитываются.
+ *
+ */
+final class SqlRequestScope {
+
+    private static final ThreadLocal<SqlRequestScope> CURRENT = new ThreadLocal<>();
+
+    private final int threshold;
+
+    private final Map<String, RepeatedStatement> statements = new HashMap<>();
+
+    private SqlRequestScope(int threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Открывает область в текущем потоке.
+     *
+     * @param threshold количество выполнений одного запроса, с которого он считается повторяющимся
+     * @return открытая область
+     */
+    static SqlRequestScope begin(int threshold) {
+        SqlRequestScope scope = new SqlRequestScope(threshold);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * Учитывает выполненный запрос в области текущего потока, если она открыта.
+     * Вызывающий метод определяется один раз — когда запрос достигает порога.
+     *
+     * @param sql текст запроса с параметрами-заполнителями
+     */
+    static void record(String sql) {
+        SqlRequestScope scope = CURRENT.get();
+        if (scope == null) {
+            return;
+        }
+        RepeatedStatement statement = scope.statements.computeIfAbsent(sql, RepeatedStatement::new);
+        if (++statement.count == scope.threshold) {
+            statement.caller = SqlStatementListener.caller();
+        }
+    }
+
+    /**
+     * Закрывает область.
+     *
+     * @return запросы, выполненные не меньше порога раз
+     */
+    List<RepeatedStatement> end() {
+        CURRENT.remove();
+        List<RepeatedStatement> repeated = new ArrayList<>();
+        for (RepeatedStatement statement : statements.values()) {
+            if (statement.count >= threshold) {
+                repeated.add(statement);
+            }
+        }
+        return repeated;
+    }
+
+    /**
+     * Запрос и количество его выполнений в области.
+     */
+    static final class RepeatedStatement {
+
+        final String sql;
+        int count;
+        String caller;
+
+        private RepeatedStatement(String sql) {
+            this.sql = sql;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package ru.samura.time_tracking_service.metrics;
+
+import java.io.IOException;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Открывает {@link SqlRequestScope} на время HTTP-запроса и после ответа предупреждает
+ * о запросах, повторённых {@code time-tracking.sql.n-plus-one-threshold} и более раз.
+ *
+ */
+@Slf4j
+public class SqlRequestScopeFilter extends OncePerRequestFilter {
+
+    private final int threshold;
+
+    /**
+     * @param threshold количество выполнений одного запроса, с которого выводится предупреждение
+     */
+    public SqlRequestScopeFilter(int threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        SqlRequestScope scope = SqlRequestScope.begin(threshold);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            for (SqlRequestScope.RepeatedStatement statement : scope.end()) {
+                log.warn("Возможный N+1: {} {} выполнил запрос {} раз, вызов: {}\n{}", request.getMethod(),
+                         request.getRequestURI(), statement.count, statement.caller, statement.sql);
+            }
+        }
+    }
+}
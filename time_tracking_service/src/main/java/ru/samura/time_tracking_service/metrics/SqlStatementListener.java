@@ -0,0 +1,236 @@
+package ru.samura.time_tracking_service.metrics;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ConnectionInfo;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import net.ttddyy.dsproxy.proxy.ResultSetProxyLogic;
+import net.ttddyy.dsproxy.proxy.ResultSetProxyLogicFactory;
+import net.ttddyy.dsproxy.proxy.SimpleResultSetProxyLogic;
+
+/**
+ * Замеряет каждый SQL-запрос, выполненный через прокси {@code DataSource} (datasource-proxy),
+ * и пишет в лог запросы дольше порога: время, количество строк и вызывающий метод.
+ * <p>
+ * Время запроса — выполнение и, для выборок, чтение результата драйвером: суммарное время вызовов
+ * {@link ResultSet} ({@code next()}, {@code getXxx()}). Обработка строк вызывающим кодом между вызовами
+ * (потоковая выгрузка, расчёт оплаты по сменам) в него не входит и в лог выводится отдельно — как время,
+ * пока результат был открыт. Порог применяется к выполнению и чтению.
+ * Строки выборки — количество успешных {@code next()}; для изменений — количество изменённых строк.
+ * Вызывающий метод определяется по стеку только для медленных и повторяющихся запросов:
+ * метод репозитория (например, {@code TimeEntryRepository.findOpenShiftByEmployee}) и ближайший
+ * метод приложения вне репозиториев.
+ *
+ * <p>
+ * Каждый запрос также учитывается в {@link SqlRequestScope} текущего HTTP-запроса — для поиска N+1.
+ *
+ *
+ * @see SqlInstrumentationConfiguration
+ */
+@Slf4j
+public class SqlStatementListener implements QueryExecutionListener, ResultSetProxyLogicFactory {
+
+    private static final String APPLICATION_PACKAGE = "ru.samura.time_tracking_service.";
+    private static final String REPOSITORY_PACKAGE = APPLICATION_PACKAGE + "repository.";
+
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+    /**
+     * Результат выборки, открытый последним в этом потоке: datasource-proxy создаёт прокси {@link ResultSet}
+     * перед вызовом {@link #afterQuery} того же запроса.
+     */
+    private final ThreadLocal<RowCountingResultSetLogic> openedResultSet = new ThreadLocal<>();
+
+    private final long slowQueryMillis;
+
+    /**
+     * @param slowQueryMillis порог времени запроса, начиная с которого запрос пишется в лог
+     */
+    public SqlStatementListener(long slowQueryMillis) {
+        this.slowQueryMillis = slowQueryMillis;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        openedResultSet.remove();
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        String sql = sql(queryInfoList);
+        SqlRequestScope.record(sql);
+
+        RowCountingResultSetLogic resultSet = openedResultSet.get();
+        openedResultSet.remove();
+
+        if (execInfo.getResult() instanceof ResultSet && resultSet != null) {
+            // Время и строки выборки известны только после чтения результата
+            resultSet.track(sql, execInfo.getElapsedTime());
+            return;
+        }
+        completed(sql, execInfo.getElapsedTime(), 0, -1, rows(execInfo.getResult()));
+    }
+
+    @Override
+    public ResultSetProxyLogic create(ResultSet resultSet, ConnectionInfo connectionInfo, ProxyConfig proxyConfig) {
+        RowCountingResultSetLogic logic = new RowCountingResultSetLogic(resultSet, connectionInfo, proxyConfig);
+        openedResultSet.set(logic);
+        return logic;
+    }
+
+    /**
+     * Вызывающий метод приложения по текущему стеку.
+     *
+     * @return {@code Репозиторий.метод <- Класс.метод:строка}, только метод приложения
+     *         или {@code "?"}, если запрос выполнен вне кода приложения
+     */
+    static String caller() {
+        return STACK_WALKER.walk(frames -> {
+            String repository = null;
+            for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                Class<?> type = frame.getDeclaringClass();
+                if (type == SqlStatementListener.class || type.getEnclosingClass() == SqlStatementListener.class
+                    || type == SqlRequestScope.class) {
+                    continue;
+                }
+                if (repository == null) {
+                    repository = repositoryMethod(frame);
+                    if (repository != null) {
+                        continue;
+                    }
+                }
+                if (type.getName().startsWith(APPLICATION_PACKAGE) && !type.getName().startsWith(REPOSITORY_PACKAGE)) {
+                    String method = type.getSimpleName() + "." + frame.getMethodName() + ":" + frame.getLineNumber();
+                    return repository != null ? repository + " <- " + method : method;
+                }
+            }
+            return repository != null ? repository : "?";
+        });
+    }
+
+    /**
+     * Метод репозитория Spring Data: вызов через JDK-прокси интерфейса или default-метод самого интерфейса.
+     */
+    private static String repositoryMethod(StackWalker.StackFrame frame) {
+        Class<?> type = frame.getDeclaringClass();
+        if (type.getName().startsWith(REPOSITORY_PACKAGE)) {
+            return type.getSimpleName() + "." + frame.getMethodName();
+        }
+        if (Proxy.isProxyClass(type)) {
+            for (Class<?> repository : type.getInterfaces()) {
+                if (repository.getName().startsWith(REPOSITORY_PACKAGE)) {
+                    return repository.getSimpleName() + "." + frame.getMethodName();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param executeMillis время выполнения запроса
+     * @param fetchMillis   время чтения результата драйвером; {@code 0} для изменений
+     * @param openMillis    время, пока результат был открыт, включая обработку строк вызывающим кодом;
+     *                      {@code -1} для изменений
+     * @param rows          прочитанные или изменённые строки; {@code -1}, если неизвестно
+     */
+    private void completed(String sql, long executeMillis, long fetchMillis, long openMillis, long rows) {
+        if (executeMillis + fetchMillis < slowQueryMillis) {
+            return;
+        }
+        if (openMillis < 0) {
+            log.warn("Медленный SQL-запрос: {} мс, строк: {}, вызов: {}\n{}", executeMillis,
+                     rows < 0 ? "?" : rows, caller(), sql);
+        } else {
+            log.warn("Медленный SQL-запрос: {} мс (выполнение {} мс, чтение {} мс, результат открыт {} мс), строк: {}, вызов: {}\n{}",
+                     executeMillis + fetchMillis, executeMillis, fetchMillis, openMillis, rows, caller(), sql);
+        }
+    }
+
+    private static String sql(List<QueryInfo> queryInfoList) {
+        if (queryInfoList.size() == 1) {
+            return queryInfoList.get(0).getQuery();
+        }
+        return queryInfoList.stream().map(QueryInfo::getQuery).distinct().collect(Collectors.joining(";\n"));
+    }
+
+    /**
+     * Количество изменённых строк по результату {@code executeUpdate}/{@code executeBatch};
+     * {@code -1}, если драйвер его не сообщил.
+     */
+    private static long rows(Object result) {
+        if (result instanceof Number count) {
+            return count.longValue();
+        }
+        if (result instanceof int[] counts) {
+            long rows = 0;
+            for (int count : counts) {
+                if (count < 0) {
+                    return -1;
+                }
+                rows += count;
+            }
+            return rows;
+        }
+        return -1;
+    }
+
+    /**
+     * Прокси результата выборки: считает прочитанные строки и время в вызовах драйвера,
+     * при закрытии передаёт итог запроса.
+     */
+    private class RowCountingResultSetLogic extends SimpleResultSetProxyLogic {
+
+        private String sql;
+        private long executeMillis;
+        private long openedNanos;
+        private long fetchNanos;
+        private long rows;
+
+        RowCountingResultSetLogic(ResultSet resultSet, ConnectionInfo connectionInfo, ProxyConfig proxyConfig) {
+            super(resultSet, connectionInfo, proxyConfig);
+        }
+
+        void track(String sql, long executeMillis) {
+            this.sql = sql;
+            this.executeMillis = executeMillis;
+            this.openedNanos = System.nanoTime();
+        }
+
+        @Override
+        protected Object performProxyLogic(Object proxy, Method method, Object[] args, MethodExecutionContext context) throws Throwable {
+            long started = System.nanoTime();
+            Object result;
+            try {
+                result = super.performProxyLogic(proxy, method, args, context);
+            } finally {
+                fetchNanos += System.nanoTime() - started;
+            }
+            switch (method.getName()) {
+                case "next" -> {
+                    if (Boolean.TRUE.equals(result)) {
+                        rows++;
+                    }
+                }
+                case "close" -> {
+                    if (sql != null) {
+                        long openMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - openedNanos);
+                        completed(sql, executeMillis, TimeUnit.NANOSECONDS.toMillis(fetchNanos), openMillis, rows);
+                        sql = null;
+                    }
+                }
+                default -> { }
+            }
+            return result;
+        }
+    }
+}
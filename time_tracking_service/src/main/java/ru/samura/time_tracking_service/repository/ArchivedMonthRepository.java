@@ -0,0 +1,15 @@
+package ru.samura.time_tracking_service.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import ru.samura.time_tracking_service.entity.ArchivedMonth;
+
+/**
+ * Репозиторий месяцев, перенесённых в архив ({@link ArchivedMonth}). Ключ — месяц в формате {@code yyyy-MM}.
+ *
+ * @see ArchivedMonth
+ */
+@Repository
+public interface ArchivedMonthRepository extends JpaRepository<ArchivedMonth, String> {
+}
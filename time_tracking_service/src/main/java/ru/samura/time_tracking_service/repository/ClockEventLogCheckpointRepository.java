@@ -0,0 +1,34 @@
+package ru.samura.time_tracking_service.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import ru.samura.time_tracking_service.entity.ClockEventLogCheckpoint;
+
+/**
+ * Репозиторий отметок о применённых событиях журнала ({@link ClockEventLogCheckpoint}).
+ *
+ * @see ClockEventLogCheckpoint
+ */
+@Repository
+public interface ClockEventLogCheckpointRepository extends JpaRepository<ClockEventLogCheckpoint, String> {
+
+    /**
+     * Сдвигает отметку экземпляра вперёд. Должен вызываться в транзакции, применяющей события.
+     *
+     * @param nodeId идентификатор экземпляра
+     * @param sequence номер последнего применённого события
+     * @return {@code 1}, если отметка сдвинута; {@code 0}, если она уже не меньше {@code sequence}
+     */
+    @Modifying
+    @Query("""
+        UPDATE ClockEventLogCheckpoint c
+        SET c.appliedSequence = :sequence
+        WHERE c.nodeId = :nodeId
+          AND c.appliedSequence < :sequence
+        """)
+    int advance(@Param("nodeId") String nodeId, @Param("sequence") long sequence);
+}
@@ -1,8 +1,13 @@
 package ru.samura.time_tracking_service.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import ru.samura.time_tracking_service.entity.Employee;
@@ -13,9 +18,67 @@ import ru.samura.time_tracking_service.entity.Employee;
  * Предоставляет стандартные CRUD-операции на основе Spring Data JPA, а также позволяет
  * легко расширять функциональность через объявление методов по соглашению об именах
  * 
+ * <p>
+ * Постраничные выборки — keyset (по значению ключа последней строки предыдущей страницы, без {@code OFFSET}):
+ * каждая страница читается по индексу с нужного места, поэтому время не растёт с номером страницы и числом сотрудников.
+ * 
  * @see Employee
  */
 @Repository
 public interface EmployeeRepository extends JpaRepository<Employee, UUID> {
 
-}
\ No newline at end of file
+    /**
+     * Первая страница сотрудников в порядке {@code id}.
+     *
+     * @param limit размер страницы
+     * @return сотрудники, не больше {@code limit}
+     */
+    @Query("SELECT e FROM Employee e ORDER BY e.id")
+    List<Employee> findFirstPageOrderById(Limit limit);
+
+    /**
+     * Следующая страница сотрудников в порядке {@code id} — после сотрудника {@code afterId}.
+     *
+     * @param afterId {@code id} последнего сотрудника предыдущей страницы
+     * @param limit размер страницы
+     * @return сотрудники, не больше {@code limit}
+     */
+    @Query("SELECT e FROM Employee e WHERE e.id > :afterId ORDER BY e.id")
+    List<Employee> findPageOrderByIdAfter(@Param("afterId") UUID afterId, Limit limit);
+
+    /**
+     * Первая страница сотрудников в порядке ФИО ({@code id} — для однозначного порядка однофамильцев).
+     *
+     * @param limit размер страницы
+     * @return сотрудники, не больше {@code limit}
+     */
+    @Query("SELECT e FROM Employee e ORDER BY e.fullName, e.id")
+    List<Employee> findFirstPageOrderByFullName(Limit limit);
+
+    /**
+     * Следующая страница сотрудников в порядке ФИО — после пары {@code (fullName, id)} последнего сотрудника
+     * предыдущей страницы. Сравнение кортежей обслуживается индексом {@code idx_employees_fio_id}.
+     *
+     * @param afterFullName ФИО последнего сотрудника предыдущей страницы
+     * @param afterId {@code id} последнего сотрудника предыдущей страницы
+     * @param limit размер страницы
+     * @return сотрудники, не больше {@code limit}
+     */
+    @Query("""
+        SELECT e FROM Employee e
+        WHERE (e.fullName, e.id) > (:afterFullName, :afterId)
+        ORDER BY e.fullName, e.id
+        """)
+    List<Employee> findPageOrderByFullNameAfter(@Param("afterFullName") String afterFullName,
+                                                @Param("afterId") UUID afterId,
+                                                Limit limit);
+
+    /**
+     * Идентификаторы существующих сотрудников из переданных — проверка ссылок пакета одним запросом.
+     *
+     * @param ids проверяемые идентификаторы
+     * @return идентификаторы, которые есть в {@code employees}
+     */
+    @Query("SELECT e.id FROM Employee e WHERE e.id IN :ids")
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+}
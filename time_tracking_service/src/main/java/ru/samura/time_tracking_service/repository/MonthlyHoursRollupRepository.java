@@ -0,0 +1,115 @@
+package ru.samura.time_tracking_service.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+
+import ru.samura.time_tracking_service.entity.MonthlyHoursRollup;
+
+/**
+ * Репозиторий месячных агрегатов отработанного времени ({@link MonthlyHoursRollup}).
+ *
+ * <p>Инкремент выполняется одним {@code UPDATE ... SET x = x + :delta} — без чтения строки в приложение,
+ * поэтому одновременные закрытия смен не теряют обновления. Если строки за месяц ещё нет,
+ * сначала создаётся нулевая строка ({@link #insertEmpty}) — одновременные первые закрытия не получают
+ * ошибку ключа, а ждут вставку друг друга и прибавляют к одной строке.
+ *
+ * <p>Агрегатам месяца можно доверять, только если месяц отмечен как построенный ({@link #isMonthBuilt}):
+ * отметку ставит пересчёт месяца по сменам ({@link #markMonthBuilt}).
+ *
+ * @see MonthlyHoursRollup
+ */
+@Repository
+public interface MonthlyHoursRollupRepository extends JpaRepository<MonthlyHoursRollup, MonthlyHoursRollup.Key> {
+
+    /**
+     * Прибавляет к агрегату сотрудника за месяц длительность, часы и количество смен.
+     * Отрицательные значения вычитают ранее учтённую смену.
+     *
+     * @param employeeId идентификатор сотрудника
+     * @param yearMonth месяц в формате {@code yyyy-MM}
+     * @param minutes прибавляемые минуты
+     * @param hours прибавляемые полные часы
+     * @param shifts прибавляемое количество смен
+     * @return количество обновлённых строк: {@code 0}, если агрегата за месяц ещё нет
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE monthly_hours_rollup
+        SET total_minutes = total_minutes + :minutes,
+            total_hours = total_hours + :hours,
+            shift_count = shift_count + :shifts
+        WHERE employee_id = :employeeId
+          AND year_month = :yearMonth
+        """, nativeQuery = true)
+    int increment(@Param("employeeId") UUID employeeId,
+                  @Param("yearMonth") String yearMonth,
+                  @Param("minutes") long minutes,
+                  @Param("hours") long hours,
+                  @Param("shifts") int shifts);
+
+    /**
+     * Создаёт нулевой агрегат сотрудника за месяц, если его ещё нет ({@code ON CONFLICT DO NOTHING}).
+     * Одновременная вставка того же ключа ждёт фиксации первой и ничего не вставляет.
+     *
+     * @param employeeId идентификатор сотрудника
+     * @param yearMonth месяц в формате {@code yyyy-MM}
+     * @return количество вставленных строк: {@code 0}, если агрегат уже есть
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO monthly_hours_rollup (employee_id, year_month, total_minutes, total_hours, shift_count)
+        VALUES (:employeeId, :yearMonth, 0, 0, 0)
+        ON CONFLICT DO NOTHING
+        """, nativeQuery = true)
+    int insertEmpty(@Param("employeeId") UUID employeeId, @Param("yearMonth") String yearMonth);
+
+    /**
+     * Находит агрегаты всех сотрудников за месяц (для сверки) и блокирует их до конца транзакции
+     * ({@code SELECT ... FOR UPDATE}), чтобы одновременные инкременты не потерялись при перезаписи.
+     *
+     * @param yearMonth месяц в формате {@code yyyy-MM}
+     * @return агрегаты за месяц (может быть пустым)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<MonthlyHoursRollup> findByYearMonth(String yearMonth);
+
+    /**
+     * @param yearMonth месяц в формате {@code yyyy-MM}
+     * @return {@code true}, если агрегаты месяца построены по всем его сменам
+     */
+    @Query(value = """
+        SELECT COUNT(*) > 0 FROM monthly_hours_rollup_month WHERE year_month = :yearMonth
+        """, nativeQuery = true)
+    boolean isMonthBuilt(@Param("yearMonth") String yearMonth);
+
+    /**
+     * Отмечает агрегаты месяца как построенные; повторная отметка ничего не меняет.
+     *
+     * @param yearMonth месяц в формате {@code yyyy-MM}
+     * @param builtAt момент пересчёта
+     * @return количество вставленных строк: {@code 0}, если месяц уже отмечен
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO monthly_hours_rollup_month (year_month, built_at)
+        VALUES (:yearMonth, :builtAt)
+        ON CONFLICT DO NOTHING
+        """, nativeQuery = true)
+    int markMonthBuilt(@Param("yearMonth") String yearMonth, @Param("builtAt") LocalDateTime builtAt);
+
+    /**
+     * @return месяцы в формате {@code yyyy-MM}, агрегаты которых построены
+     */
+    @Query(value = "SELECT year_month FROM monthly_hours_rollup_month", nativeQuery = true)
+    List<String> findBuiltMonths();
+}
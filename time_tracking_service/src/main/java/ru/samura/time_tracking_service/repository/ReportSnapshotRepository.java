@@ -0,0 +1,50 @@
+package ru.samura.time_tracking_service.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import ru.samura.time_tracking_service.entity.ReportSnapshot;
+
+/**
+ * Репозиторий снимков отчёта по оплате за закрытые месяцы ({@link ReportSnapshot}).
+ * Ключ — месяц в формате {@code yyyy-MM}.
+ *
+ * @see ReportSnapshot
+ */
+@Repository
+public interface ReportSnapshotRepository extends JpaRepository<ReportSnapshot, String> {
+
+    /**
+     * Закрытые месяцы — без чтения содержимого снимков.
+     *
+     * @return месяцы в формате {@code yyyy-MM}
+     */
+    @Query("SELECT s.yearMonth FROM ReportSnapshot s")
+    List<String> findClosedMonths();
+
+    /**
+     * Сохраняет снимок, если месяц ещё не закрыт ({@code ON CONFLICT DO NOTHING}).
+     * <p>
+     * В отличие от {@link #save}, существующий снимок не перезаписывается: одновременная вставка
+     * того же месяца ждёт фиксации первой и ничего не вставляет.
+     *
+     * @return количество вставленных строк: {@code 0}, если месяц уже закрыт
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO report_snapshot (year_month, closed_at, employee_count, etag, payload)
+        VALUES (:yearMonth, :closedAt, :employeeCount, :etag, :payload)
+        ON CONFLICT DO NOTHING
+        """, nativeQuery = true)
+    int insertIfAbsent(@Param("yearMonth") String yearMonth,
+                       @Param("closedAt") LocalDateTime closedAt,
+                       @Param("employeeCount") int employeeCount,
+                       @Param("etag") String etag,
+                       @Param("payload") byte[] payload);
+}
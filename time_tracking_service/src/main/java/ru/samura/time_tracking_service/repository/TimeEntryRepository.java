@@ -1,14 +1,25 @@
 package ru.samura.time_tracking_service.repository;
 
+import java.time.LocalDateTime;
+import java.time.Period;
 import java.time.YearMonth;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import ru.samura.time_tracking_service.DTO.ShiftPeriod;
+import ru.samura.time_tracking_service.DTO.ShiftView;
 import ru.samura.time_tracking_service.entity.TimeEntry;
 
 /**
@@ -17,13 +28,27 @@ import ru.samura.time_tracking_service.entity.TimeEntry;
  * <p>Предоставляет стандартные CRUD-операции и кастомные методы для:
  * <ul>
  *   <li>Получения всех смен сотрудника (для личного кабинета, истории).</li>
+ *   <li>Поиска текущей открытой смены (для открытия/закрытия смены).</li>
  *   <li>Фильтрации смен по месяцу — для расчёта заработной платы.</li>
  * </ul>
  *
- * <p>⚠️ Важно: текущая реализация использует <strong>native SQL-запросы</strong>.
+ * <p>Месячные выборки принимают {@link YearMonth} и фильтруют по полуинтервалу {@code [начало, конец)} —
+ * без функций над столбцами, чтобы СУБД могла использовать индексы.
+ *
+ * <p>В PostgreSQL {@code time_entry} секционирована по месяцам {@code register}
+ * ({@code db/time_entry_partitioning.sql}). Выборки по {@code check_out} дополнительно ограничивают
+ * {@code register} диапазоном {@code [from - MAX_SHIFT_SPAN, to)}: смена не может начаться после своего
+ * окончания и длится не дольше {@link #MAX_SHIFT_SPAN} (это обеспечивают все пути записи смен),
+ * поэтому результат не меняется, а планировщик читает только секции этого диапазона (partition pruning)
+ * вместо всех.
+ *
+ * <p>История смен, открытая и последняя смена сотрудника и выборки для расчёта оплаты по организации
+ * возвращают проекции ({@link ShiftView}, {@link ShiftPeriod}), а не сущности: сущности {@link TimeEntry}
+ * загружаются там, где смены изменяются (пакетная обработка событий).
+ *
+ * <p>⚠️ Важно: часть методов использует <strong>native SQL-запросы</strong>.
  * Это даёт гибкость, но влечёт риски:
  * <ul>
- *   <li>Зависимость от СУБД (функция {@code TO_CHAR} — PostgreSQL/Oracle; в H2/MySQL — не сработает).</li>
  *   <li>Отсутствие типобезопасности и проверки на этапе компиляции.</li>
  *   <li>Уязвимость к SQL-инъекциям при неправильной передаче параметров (но {@code @Param} защищает от этого).</li>
  * </ul>
@@ -34,61 +59,327 @@ import ru.samura.time_tracking_service.entity.TimeEntry;
 @Repository
 public interface TimeEntryRepository extends JpaRepository<TimeEntry, UUID> {
 
+    /**
+     * Наибольшая длительность смены.
+     * <p>
+     * Смена, начатая раньше {@code from - MAX_SHIFT_SPAN}, в выборку за период {@code [from, to)}
+     * не попала бы, поэтому более длинные смены не записываются: закрытие смены (в том числе пакетное)
+     * закрывает такую смену нулевой длительностью для проверки HR, импорт такие смены отклоняет.
+     */
+    Period MAX_SHIFT_SPAN = Period.ofMonths(1);
+
     /**
      * Находит все записи времени (смены) для указанного сотрудника.
      *
-     * <p>Возвращает как завершённые, так и активные (без {@code check_out}) смены.
-     * Результат не упорядочен — для UI рекомендуется сортировка по {@code checkIn DESC} (см. примечание).
+     * <p>Возвращает как завершённые, так и активные (без {@code check_out}) смены,
+     * отсортированные от новых к старым ({@code register DESC}).
      *
-     * <p>💡 Оптимизация: можно добавить {@code ORDER BY check_in DESC} в запрос
-     * или использовать JPQL с {@code @Query("SELECT t FROM TimeEntry t WHERE t.employee.id = :employeeId ORDER BY t.checkIn DESC")}.
+     * <p>Выбирает только проекции {@link ShiftView} — сущности {@link TimeEntry} и {@code Employee}
+     * не создаются, соединения с {@code employees} нет. Источник истории смен
+     * ({@code GET /time-entry/employees/{requesterId}/{employeeId}/shifts}) через {@code shiftCache}.
+     *
+     * <p>⚠️ Загружает всю историю сотрудника — не использовать на горячем пути
+     * (открытие/закрытие смены); для этого есть {@link #findOpenShiftByEmployee(UUID)}.
      *
      * @param employeeId идентификатор сотрудника, не должен быть {@code null}
-     * @return список записей времени (может быть пустым); {@code null} не возвращается
+     * @return список смен (может быть пустым); {@code null} не возвращается
      */
-    @Query(value = "SELECT * FROM time_entry WHERE employee_id = :employeeId ORDER BY check_in DESC", nativeQuery = true)
-    List<TimeEntry> findShiftsByEmployee(@Param("employeeId") UUID employeeId);
+    @Query("""
+        SELECT new ru.samura.time_tracking_service.DTO.ShiftView(t.id, t.checkIn, t.checkOut, t.isManual)
+        FROM TimeEntry t
+        WHERE t.employee.id = :employeeId
+        ORDER BY t.checkIn DESC
+        """)
+    List<ShiftView> findShiftsByEmployee(@Param("employeeId") UUID employeeId);
 
     /**
-     * Находит смены сотрудника, завершённые в указанном месяце (для расчёта оплаты).
+     * Находит текущую открытую (без {@code check_out}) смену сотрудника.
      *
-     * <p>Фильтрация происходит по дате {@code check_out} (окончание смены).
-     * Смены без {@code check_out} (активные) в результат <strong>не включаются</strong>.
+     * <p>Возвращает не более одной строки и обслуживается частичным индексом
+     * {@code idx_time_entry_open_shift ON time_entry(employee_id) WHERE check_out IS NULL},
+     * поэтому время выполнения не зависит от длины истории смен сотрудника.
+     * Если открытых смен несколько (данные до введения ограничений), возвращается самая поздняя.
      *
-     * <p>⚠️ Текущая реализация:
-     * <ul>
-     *   <li>Использует {@code TO_CHAR(check_out, 'YYYY-MM')} — работает в PostgreSQL, Oracle; не работает в H2 (в тестах может падать).</li>
-     *   <li>Принимает месяц как строку {@code "2025-11"} — уязвимо к ошибкам формата.</li>
-     * </ul>
-     *
-     * <p>✅ Рекомендуемая альтернатива (JPQL, типобезопасная, кроссплатформенная):
-     * <pre>{@code
-     * @Query("SELECT t FROM TimeEntry t " +
-     *        "WHERE t.employee.id = :employeeId " +
-     *        "  AND FUNCTION('YEAR', t.checkOut) = :year " +
-     *        "  AND FUNCTION('MONTH', t.checkOut) = :month")
-     * List<TimeEntry> findShiftsByEmployeeAndYearMonth(
-     *     @Param("employeeId") UUID employeeId,
-     *     @Param("year") int year,
-     *     @Param("month") int month
-     * );
-     * }</pre>
-     * Или ещё лучше — использовать {@link YearMonth} и Criteria API / спецификации.
+     * <p>Закрытие смены выполняется условным обновлением ({@link #closeOpenShift}), поэтому
+     * сущность не нужна — возвращается проекция {@link ShiftView}.
      *
      * @param employeeId идентификатор сотрудника
-     * @param month месяц в формате {@code "yyyy-MM"} (например, {@code "2025-11"}), не должен быть {@code null}
-     * @return список завершённых смен в указанном месяце (может быть пустым)
-     * @throws IllegalArgumentException если {@code month} не соответствует формату {@code yyyy-MM}
+     * @return открытая смена или {@link Optional#empty()}, если сотрудник не на смене
+     */
+    @Query("""
+        SELECT new ru.samura.time_tracking_service.DTO.ShiftView(t.id, t.checkIn, t.checkOut, t.isManual)
+        FROM TimeEntry t
+        WHERE t.employee.id = :employeeId
+          AND t.checkOut IS NULL
+        ORDER BY t.checkIn DESC
+        LIMIT 1
+        """)
+    Optional<ShiftView> findOpenShiftByEmployee(@Param("employeeId") UUID employeeId);
+
+    /**
+     * Находит открытые смены сразу нескольких сотрудников — одним запросом для пакетной обработки событий.
+     *
+     * <p>Связанные сотрудники подгружаются из контекста персистентности, поэтому их стоит загрузить
+     * заранее в той же транзакции (например, {@code findAllById}), иначе будет запрос на каждого.
+     *
+     * @param employeeIds идентификаторы сотрудников
+     * @return открытые смены (у сотрудника их может быть несколько для данных до введения ограничений)
+     */
+    @Query("""
+        SELECT t FROM TimeEntry t
+        WHERE t.employee.id IN :employeeIds
+          AND t.checkOut IS NULL
+        """)
+    List<TimeEntry> findOpenShiftsByEmployees(@Param("employeeIds") Collection<UUID> employeeIds);
+
+    /**
+     * Возвращает открытые смены всех сотрудников проекциями, без загрузки сущностей —
+     * для восстановления табло присутствия ({@link ru.samura.time_tracking_service.service.PresenceBoardService}).
+     *
+     * @return открытые смены ({@code checkOut} — {@code null})
+     */
+    @Query("""
+        SELECT t.employee.id AS employeeId, t.checkIn AS checkIn, t.checkOut AS checkOut
+        FROM TimeEntry t
+        WHERE t.checkOut IS NULL
+        """)
+    List<ShiftPeriod> findOpenShifts();
+
+    /**
+     * Закрывает смену, если она ещё открыта: проставляет {@code check_out}, сбрасывает {@code open_shift}
+     * и при необходимости помечает смену как ручную.
+     *
+     * <p>Условие по {@code register} (начало смены) позволяет PostgreSQL читать одну секцию
+     * секционированной {@code time_entry} вместо поиска {@code id} во всех.
+     *
+     * <p>Условие {@code check_out IS NULL} делает закрытие однократным: при одновременных запросах
+     * на закрытие одной смены строку обновит только один из них, остальные получат {@code 0}.
+     * Это важно для инкрементальных агрегатов (см. {@code MonthlyHoursRollupService}) —
+     * смена не будет учтена дважды.
+     *
+     * <p>⚠️ После выполнения контекст персистентности очищается ({@code clearAutomatically}),
+     * загруженные ранее сущности становятся отсоединёнными.
+     *
+     * @param id идентификатор смены
+     * @param checkIn начало смены — ключ секции
+     * @param checkOut время окончания смены, не позже {@code checkIn + MAX_SHIFT_SPAN}
+     * @param manual флаг ручного закрытия
+     * @return {@code 1}, если смена закрыта этим вызовом; {@code 0}, если она уже была закрыта
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("""
+        UPDATE TimeEntry t
+        SET t.checkOut = :checkOut, t.openShift = NULL, t.isManual = :manual
+        WHERE t.id = :id
+          AND t.checkIn = :checkIn
+          AND t.checkOut IS NULL
+        """)
+    int closeOpenShift(@Param("id") UUID id, @Param("checkIn") LocalDateTime checkIn,
+                       @Param("checkOut") LocalDateTime checkOut, @Param("manual") boolean manual);
+
+    /**
+     * Находит последнюю (по времени начала) смену сотрудника — открытую или закрытую.
+     *
+     * <p>Используется только для диагностики при закрытии смены, когда открытой смены нет:
+     * позволяет отличить «смена уже закрыта сегодня» от «смен нет».
+     *
+     * @param employeeId идентификатор сотрудника
+     * @return последняя смена или {@link Optional#empty()}, если смен нет
      */
-    @Query(value = """
+    @Query("""
+        SELECT new ru.samura.time_tracking_service.DTO.ShiftView(t.id, t.checkIn, t.checkOut, t.isManual)
+        FROM TimeEntry t
+        WHERE t.employee.id = :employeeId
+        ORDER BY t.checkIn DESC
+        LIMIT 1
+        """)
+    Optional<ShiftView> findLatestShiftByEmployee(@Param("employeeId") UUID employeeId);
+
+    /**
+     * Native-запрос смен сотрудника, завершённых в полуинтервале {@code [from, to)}.
+     * <p>
+     * Вынесен в константу, чтобы тесты могли проверить план выполнения ({@code EXPLAIN}) того же SQL.
+     * Условие по диапазону {@code check_out} (без функций над столбцом) позволяет использовать
+     * составной индекс {@code idx_time_entry_employee_check_out (employee_id, check_out)}.
+     */
+    String SHIFTS_FOR_PAYMENT_SQL = """
         SELECT * FROM time_entry
         WHERE employee_id = :employeeId
           AND check_out IS NOT NULL
-          AND TO_CHAR(check_out, 'YYYY-MM') = :month
-        ORDER BY check_in ASC
-        """, nativeQuery = true)
-    List<TimeEntry> findShiftsForPaymentByEmployeeAndMonth(
+          AND check_out >= :from
+          AND check_out < :to
+          AND register >= :registerFrom
+          AND register < :to
+        ORDER BY register ASC
+        """;
+
+    /**
+     * Находит смены сотрудника, завершённые в полуинтервале {@code [from, to)} и начатые
+     * не раньше {@code registerFrom} (для расчёта оплаты).
+     *
+     * <p>Фильтрация происходит по дате {@code check_out} (окончание смены).
+     * Смены без {@code check_out} (активные) в результат <strong>не включаются</strong>.
+     *
+     * @param employeeId идентификатор сотрудника
+     * @param from начало периода (включительно)
+     * @param to конец периода (не включительно)
+     * @param registerFrom самое раннее начало смены — нижняя граница секций {@code time_entry}
+     * @return список завершённых смен в периоде (может быть пустым)
+     */
+    @Query(value = SHIFTS_FOR_PAYMENT_SQL, nativeQuery = true)
+    List<TimeEntry> findShiftsForPaymentByEmployeeBetween(
         @Param("employeeId") UUID employeeId,
-        @Param("month") String month
+        @Param("from") LocalDateTime from,
+        @Param("to") LocalDateTime to,
+        @Param("registerFrom") LocalDateTime registerFrom
     );
-}
\ No newline at end of file
+
+    /**
+     * Находит смены сотрудника, завершённые в полуинтервале {@code [from, to)} (для расчёта оплаты).
+     *
+     * <p>Фильтрация происходит по дате {@code check_out} (окончание смены).
+     * Смены без {@code check_out} (активные) в результат <strong>не включаются</strong>.
+     *
+     * @param employeeId идентификатор сотрудника
+     * @param from начало периода (включительно)
+     * @param to конец периода (не включительно)
+     * @return список завершённых смен в периоде (может быть пустым)
+     */
+    default List<TimeEntry> findShiftsForPaymentByEmployeeBetween(UUID employeeId, LocalDateTime from, LocalDateTime to) {
+        return findShiftsForPaymentByEmployeeBetween(employeeId, from, to, from.minus(MAX_SHIFT_SPAN));
+    }
+
+    /**
+     * Находит смены сотрудника, завершённые в указанном месяце (для расчёта оплаты).
+     *
+     * <p>Месяц преобразуется в полуинтервал {@code [1-е число 00:00, 1-е число следующего месяца 00:00)},
+     * поэтому запрос использует индекс по {@code (employee_id, check_out)}, а не вычисляет
+     * {@code TO_CHAR(check_out, 'YYYY-MM')} для каждой строки.
+     *
+     * @param employeeId идентификатор сотрудника
+     * @param month отчётный месяц, не должен быть {@code null}
+     * @return список завершённых смен в указанном месяце (может быть пустым)
+     */
+    default List<TimeEntry> findShiftsForPaymentByEmployeeAndMonth(UUID employeeId, YearMonth month) {
+        return findShiftsForPaymentByEmployeeBetween(employeeId, month.atDay(1).atStartOfDay(),
+                                                     month.plusMonths(1).atDay(1).atStartOfDay());
+    }
+
+    /**
+     * Потоково выбирает все смены всех сотрудников, завершённые в полуинтервале {@code [from, to)}, одним запросом.
+     *
+     * <p>Используется для расчёта оплаты по всей организации: вместо одного запроса на каждого
+     * сотрудника выполняется один проход по {@code time_entry}. Возвращаются только проекции
+     * {@link ShiftPeriod} — сущности {@link TimeEntry} и {@code Employee} не создаются.
+     *
+     * <p>⚠️ {@link Stream} держит открытый курсор: вызывать внутри транзакции и закрывать
+     * (try-with-resources).
+     *
+     * @param from начало периода (включительно)
+     * @param to конец периода (не включительно)
+     * @param registerFrom самое раннее начало смены — нижняя граница секций {@code time_entry}
+     * @return поток завершённых смен за период
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+        SELECT t.employee.id AS employeeId, t.checkIn AS checkIn, t.checkOut AS checkOut
+        FROM TimeEntry t
+        WHERE t.checkOut IS NOT NULL
+          AND t.checkOut >= :from
+          AND t.checkOut < :to
+          AND t.checkIn >= :registerFrom
+          AND t.checkIn < :to
+        """)
+    Stream<ShiftPeriod> streamClosedShiftsBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                                  @Param("registerFrom") LocalDateTime registerFrom);
+
+    /**
+     * Потоково выбирает все смены всех сотрудников, завершённые в полуинтервале {@code [from, to)}.
+     *
+     * @param from начало периода (включительно)
+     * @param to конец периода (не включительно)
+     * @return поток завершённых смен за период
+     * @see #streamClosedShiftsBetween(LocalDateTime, LocalDateTime, LocalDateTime)
+     */
+    default Stream<ShiftPeriod> streamClosedShiftsBetween(LocalDateTime from, LocalDateTime to) {
+        return streamClosedShiftsBetween(from, to, from.minus(MAX_SHIFT_SPAN));
+    }
+
+    /**
+     * Возвращает окончание самой ранней завершённой смены — начало истории для построения месячных агрегатов.
+     *
+     * @return окончание самой ранней смены; пустой, если завершённых смен нет
+     */
+    @Query("SELECT MIN(t.checkOut) FROM TimeEntry t WHERE t.checkOut IS NOT NULL")
+    Optional<LocalDateTime> findEarliestCheckOut();
+
+    /**
+     * Потоково выбирает все смены всех сотрудников, завершённые в указанном месяце.
+     *
+     * @param month отчётный месяц, не должен быть {@code null}
+     * @return поток завершённых смен за месяц
+     * @see #streamClosedShiftsBetween(LocalDateTime, LocalDateTime, LocalDateTime)
+     */
+    default Stream<ShiftPeriod> streamClosedShiftsByMonth(YearMonth month) {
+        return streamClosedShiftsBetween(month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay());
+    }
+
+    /**
+     * Потоково выбирает смены указанных сотрудников, завершённые в полуинтервале {@code [from, to)}.
+     *
+     * <p>Используется параллельным расчётом оплаты: каждая часть списка сотрудников читается
+     * своим запросом в своём соединении. Условие {@code employee_id IN (...)} с диапазоном {@code check_out}
+     * обслуживается индексом {@code idx_time_entry_employee_check_out}.
+     *
+     * <p>⚠️ {@link Stream} держит открытый курсор: вызывать внутри транзакции и закрывать
+     * (try-with-resources).
+     *
+     * @param employeeIds идентификаторы сотрудников, не пустой список
+     * @param from начало периода (включительно)
+     * @param to конец периода (не включительно)
+     * @param registerFrom самое раннее начало смены — нижняя граница секций {@code time_entry}
+     * @return поток завершённых смен сотрудников за период
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+        SELECT t.employee.id AS employeeId, t.checkIn AS checkIn, t.checkOut AS checkOut
+        FROM TimeEntry t
+        WHERE t.employee.id IN :employeeIds
+          AND t.checkOut IS NOT NULL
+          AND t.checkOut >= :from
+          AND t.checkOut < :to
+          AND t.checkIn >= :registerFrom
+          AND t.checkIn < :to
+        """)
+    Stream<ShiftPeriod> streamClosedShiftsByEmployeesBetween(@Param("employeeIds") Collection<UUID> employeeIds,
+                                                             @Param("from") LocalDateTime from,
+                                                             @Param("to") LocalDateTime to,
+                                                             @Param("registerFrom") LocalDateTime registerFrom);
+
+    /**
+     * Потоково выбирает смены указанных сотрудников, завершённые в полуинтервале {@code [from, to)}.
+     *
+     * @param employeeIds идентификаторы сотрудников, не пустой список
+     * @param from начало периода (включительно)
+     * @param to конец периода (не включительно)
+     * @return поток завершённых смен сотрудников за период
+     * @see #streamClosedShiftsByEmployeesBetween(Collection, LocalDateTime, LocalDateTime, LocalDateTime)
+     */
+    default Stream<ShiftPeriod> streamClosedShiftsByEmployeesBetween(Collection<UUID> employeeIds,
+                                                                     LocalDateTime from, LocalDateTime to) {
+        return streamClosedShiftsByEmployeesBetween(employeeIds, from, to, from.minus(MAX_SHIFT_SPAN));
+    }
+
+    /**
+     * Потоково выбирает смены указанных сотрудников, завершённые в указанном месяце.
+     *
+     * @param employeeIds идентификаторы сотрудников, не пустой список
+     * @param month отчётный месяц, не должен быть {@code null}
+     * @return поток завершённых смен сотрудников за месяц
+     * @see #streamClosedShiftsByEmployeesBetween(Collection, LocalDateTime, LocalDateTime, LocalDateTime)
+     */
+    default Stream<ShiftPeriod> streamClosedShiftsByEmployeesAndMonth(Collection<UUID> employeeIds, YearMonth month) {
+        return streamClosedShiftsByEmployeesBetween(employeeIds, month.atDay(1).atStartOfDay(),
+                                                    month.plusMonths(1).atDay(1).atStartOfDay());
+    }
+}
@@ -0,0 +1,14 @@
+package ru.samura.time_tracking_service.response;
+
+/**
+ * Итог переноса месяца в архив ({@code POST /report/{id}/archive}).
+ *
+ * @param month  месяц окончания смен ({@code yyyy-MM})
+ * @param shifts количество смен, перенесённых из {@code time_entry}
+ * @param bytes  размер файла архива в байтах
+ */
+public record ArchivedMonthResult(
+    String month,
+    int shifts,
+    long bytes
+) {}
@@ -0,0 +1,50 @@
+package ru.samura.time_tracking_service.response;
+
+import java.util.UUID;
+
+import ru.samura.time_tracking_service.event.ClockEvent;
+
+/**
+ * Результат обработки одного события пакетного запроса ({@code POST /time-entry/employees/{hrId}/batch}).
+ * <p>
+ * Результаты возвращаются в порядке событий запроса; ошибка одного события не отменяет остальные.
+ *
+ *
+ * @param index       порядковый номер события в запросе (с нуля)
+ * @param employeeId  идентификатор сотрудника из события
+ * @param type        тип события
+ * @param status      итог обработки
+ * @param timeEntryId идентификатор открытой или закрытой смены; {@code null} при ошибке
+ * @param message     описание ошибки; {@code null} при успехе
+ */
+public record BatchClockEventResult(
+    int index,
+    UUID employeeId,
+    ClockEvent.Type type,
+    Status status,
+    UUID timeEntryId,
+    String message
+) {
+
+    /**
+     * Итог обработки события.
+     */
+    public enum Status {
+        /** Смена открыта или закрыта. */
+        OK,
+        /** Сотрудник не найден. */
+        USER_NOT_FOUND,
+        /** У сотрудника уже есть незакрытая смена (начатая в день события или раньше). */
+        ACTIVE_SHIFT_TODAY,
+        /** Смена в день события уже закрыта. */
+        CLOSED_SHIFT_TODAY,
+        /** Нет открытой смены для закрытия. */
+        NO_SHIFT_FOUND,
+        /** Событие без сотрудника/типа, время прохода в будущем или уход раньше прихода. */
+        INVALID_EVENT,
+        /** Смена попадает в закрытый месяц; месяц нужно открыть заново. */
+        CLOSED_MONTH,
+        /** Смена изменена параллельным запросом; событие можно повторить. */
+        CONFLICT
+    }
+}
@@ -0,0 +1,20 @@
+package ru.samura.time_tracking_service.response;
+
+import java.util.List;
+
+import ru.samura.time_tracking_service.DTO.EmployeeDTO;
+
+/**
+ * Страница списка сотрудников.
+ * <p>
+ * Чтобы получить следующую страницу, {@code nextCursor} передаётся в параметре {@code cursor}
+ * вместе с тем же {@code sort}. Курсор непрозрачен для клиента: его формат может меняться.
+ * 
+ *
+ * @param employees  сотрудники страницы в порядке сортировки
+ * @param nextCursor курсор следующей страницы; {@code null}, если это последняя страница
+ */
+public record EmployeePageResponse(
+    List<EmployeeDTO> employees,
+    String nextCursor
+) {}
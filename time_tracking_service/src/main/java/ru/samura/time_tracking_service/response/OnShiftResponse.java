@@ -0,0 +1,28 @@
+package ru.samura.time_tracking_service.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Табло присутствия: сотрудники, у которых сейчас открыта смена.
+ *
+ * @param count     количество сотрудников на смене
+ * @param employees сотрудники на смене, от пришедших раньше к пришедшим позже
+ */
+public record OnShiftResponse(
+    int count,
+    List<OnShiftEmployee> employees
+) {
+
+    /**
+     * Сотрудник на смене.
+     *
+     * @param employeeId идентификатор сотрудника
+     * @param checkIn    начало открытой смены
+     */
+    public record OnShiftEmployee(
+        UUID employeeId,
+        LocalDateTime checkIn
+    ) {}
+}
@@ -0,0 +1,31 @@
+package ru.samura.time_tracking_service.response;
+
+import java.util.List;
+
+/**
+ * Итог импорта смен из CSV ({@code POST /report/{id}/import}).
+ *
+ * @param imported      количество загруженных смен
+ * @param rejected      количество отклонённых строк
+ * @param rejectedRows  отклонённые строки с причиной; не больше {@code time-tracking.import.max-reported-rejections}
+ *                      первых, остальные учитываются только в {@code rejected}
+ * @param elapsedMillis длительность импорта в миллисекундах
+ */
+public record TimeEntryImportResult(
+    long imported,
+    long rejected,
+    List<RejectedRow> rejectedRows,
+    long elapsedMillis
+) {
+
+    /**
+     * Отклонённая строка файла.
+     *
+     * @param line   номер строки в файле (заголовок — строка 1)
+     * @param reason причина отклонения
+     */
+    public record RejectedRow(
+        long line,
+        String reason
+    ) {}
+}
@@ -0,0 +1,353 @@
+package ru.samura.time_tracking_service.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ru.samura.time_tracking_service.DTO.ClockEventRequest;
+import ru.samura.time_tracking_service.entity.Employee;
+import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.entity.TimeEntry;
+import ru.samura.time_tracking_service.event.ClockEvent;
+import ru.samura.time_tracking_service.repository.EmployeeRepository;
+import ru.samura.time_tracking_service.repository.ReportSnapshotRepository;
+import ru.samura.time_tracking_service.repository.TimeEntryRepository;
+import ru.samura.time_tracking_service.response.BatchClockEventResult;
+import ru.samura.time_tracking_service.response.BatchClockEventResult.Status;
+
+/**
+ * Пакетная обработка событий прихода/ухода от турникетов и считывателей бейджей.
+ * <p>
+ * Вместо запроса на каждое событие пакет обрабатывается за фиксированное число обращений к БД:
+ * <ol>
+ *   <li>все сотрудники пакета — одним {@code findAllById};</li>
+ *   <li>их открытые смены — одним запросом ({@link TimeEntryRepository#findOpenShiftsByEmployees});</li>
+ *   <li>события применяются в памяти в порядке времени прохода с теми же правилами, что и
+ *       {@link TimeEntryService#clockIn}/{@link TimeEntryService#clockOut};</li>
+ *   <li>закрытия ранее открытых смен — JDBC-пакетом условных {@code UPDATE}, новые смены — пакетной
+ *       вставкой Hibernate ({@code hibernate.jdbc.batch_size}, {@code order_inserts}), месячные агрегаты —
+ *       одним обновлением на сотрудника и месяц.</li>
+ * </ol>
+ * Ошибка отдельного события (неизвестный сотрудник, повторный приход, время прохода в будущем или в закрытом
+ * месяце и т.п.) попадает в его результат и не влияет на остальные. Если пакет столкнулся с параллельным изменением тех же смен (нарушение
+ * уникальности открытой смены или смена уже закрыта), пакет откатывается и события применяются
+ * по одному, каждое в своей транзакции.
+ *
+ * <p>
+ * Доступ проверяет контроллер: пакет принимается только от учётной записи HR, от имени которой работает шлюз.
+ *
+ *
+ * @see BatchClockEventResult
+ */
+@Service
+public class BatchClockService {
+
+    private static final String CLOSE_SHIFT_SQL = """
+        UPDATE time_entry
+        SET check_out = ?, open_shift = NULL, is_manual = ?
+        WHERE id = ?
+          AND register = ?
+          AND check_out IS NULL
+        """;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private TimeEntryRepository timeEntryRepository;
+
+    @Autowired
+    private ReportSnapshotRepository reportSnapshotRepository;
+
+    @Autowired
+    private MonthlyHoursRollupService monthlyHoursRollupService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Максимальное количество событий в одном пакете.
+     */
+    @Value("${time-tracking.batch.max-events:10000}")
+    private int maxEvents;
+
+    /**
+     * Допустимое расхождение часов шлюза и сервера: события позже текущего времени на большую величину
+     * отклоняются.
+     */
+    @Value("${time-tracking.batch.max-clock-skew:5m}")
+    private Duration maxClockSkew;
+
+    /**
+     * Максимальное количество событий в одном пакете ({@code time-tracking.batch.max-events}).
+     */
+    public int maxEvents() {
+        return maxEvents;
+    }
+
+    /**
+     * Обрабатывает пакет событий прихода/ухода.
+     *
+     * @param events события в порядке получения шлюзом
+     * @return результат по каждому событию, в порядке {@code events}
+     * @throws IllegalArgumentException если событий больше {@code time-tracking.batch.max-events}
+     */
+    public List<BatchClockEventResult> process(List<ClockEventRequest> events) {
+        return process(events, index -> { });
+    }
+
+    /**
+     * Обрабатывает пакет событий и в каждой транзакции, фиксирующей события, сообщает номер
+     * последнего из них.
+     * <p>
+     * {@code appliedThrough} вызывается внутри транзакции записи смен: всего пакета — с последним номером,
+     * при обработке по одному — с номером каждого события, в том числе отклонённого из-за конфликта
+     * (в отдельной транзакции). Так вызывающий код может сохранить отметку о применённых событиях
+     * атомарно со сменами ({@link WriteBehindClockService}).
+     *
+     * @param events события в порядке получения
+     * @param appliedThrough получает номер (в {@code events}) последнего зафиксированного события
+     * @return результат по каждому событию, в порядке {@code events}
+     * @throws IllegalArgumentException если событий больше {@code time-tracking.batch.max-events}
+     */
+    public List<BatchClockEventResult> process(List<ClockEventRequest> events, IntConsumer appliedThrough) {
+        if (events.size() > maxEvents) {
+            throw new IllegalArgumentException("Слишком много событий в пакете: " + events.size() + " (максимум " + maxEvents + ")");
+        }
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        try {
+            return transactionTemplate.execute(status -> {
+                List<BatchClockEventResult> results = apply(events, 0);
+                appliedThrough.accept(events.size() - 1);
+                return results;
+            });
+        } catch (DataIntegrityViolationException | ConcurrentShiftUpdateException e) {
+            List<BatchClockEventResult> results = new ArrayList<>(events.size());
+
+            for (int i = 0; i < events.size(); i++) {
+                int index = i;
+                try {
+                    results.add(transactionTemplate.execute(status -> {
+                        BatchClockEventResult result = apply(List.of(events.get(index)), index).get(0);
+                        appliedThrough.accept(index);
+                        return result;
+                    }));
+                } catch (DataIntegrityViolationException | ConcurrentShiftUpdateException conflict) {
+                    ClockEventRequest event = events.get(index);
+                    results.add(new BatchClockEventResult(index, event.getEmployeeId(), event.getType(), Status.CONFLICT, null,
+                                                          "Смена изменена параллельным запросом"));
+                    transactionTemplate.executeWithoutResult(status -> appliedThrough.accept(index));
+                }
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Применяет события в текущей транзакции.
+     *
+     * @param events события
+     * @param offset номер первого события в исходном пакете (для поля {@code index} результата)
+     * @return результаты в порядке {@code events}
+     */
+    private List<BatchClockEventResult> apply(List<ClockEventRequest> events, int offset) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime latest = now.plus(maxClockSkew);
+        Set<String> closedMonths = new HashSet<>(reportSnapshotRepository.findClosedMonths());
+
+        Set<UUID> employeeIds = new HashSet<>();
+        for (ClockEventRequest event : events) {
+            if (event.getEmployeeId() != null) {
+                employeeIds.add(event.getEmployeeId());
+            }
+        }
+
+        Map<UUID, Employee> employees = new HashMap<>();
+        Map<UUID, TimeEntry> openShifts = new HashMap<>();
+        if (!employeeIds.isEmpty()) {
+            employeeRepository.findAllById(employeeIds).forEach(employee -> employees.put(employee.getId(), employee));
+            for (TimeEntry shift : timeEntryRepository.findOpenShiftsByEmployees(employeeIds)) {
+                openShifts.merge(shift.getEmployee().getId(), shift,
+                                 (first, second) -> first.getCheckIn().isAfter(second.getCheckIn()) ? first : second);
+            }
+        }
+
+        Status[] statuses = new Status[events.size()];
+        String[] messages = new String[events.size()];
+        TimeEntry[] shifts = new TimeEntry[events.size()];
+        boolean[] manuals = new boolean[events.size()];
+
+        Map<UUID, LocalDate> closedDays = new HashMap<>();
+        List<TimeEntry> inserts = new ArrayList<>();
+        List<Object[]> closes = new ArrayList<>();
+        Map<UUID, Map<YearMonth, long[]>> rollups = new HashMap<>();
+
+        // Буферизованные проходы могут прийти не по порядку — применяем по времени прохода
+        List<Integer> order = IntStream.range(0, events.size()).boxed()
+            .sorted(Comparator.comparing(i -> Objects.requireNonNullElse(events.get(i).getTimestamp(), now)))
+            .toList();
+
+        for (int i : order) {
+            ClockEventRequest event = events.get(i);
+            LocalDateTime at = Objects.requireNonNullElse(event.getTimestamp(), now);
+
+            if (event.getEmployeeId() == null || event.getType() == null) {
+                statuses[i] = Status.INVALID_EVENT;
+                messages[i] = "Не указан сотрудник или тип события";
+                continue;
+            }
+
+            if (at.isAfter(latest)) {
+                statuses[i] = Status.INVALID_EVENT;
+                messages[i] = "Время прохода в будущем";
+                continue;
+            }
+            if (closedMonths.contains(YearMonth.from(at).toString())) {
+                statuses[i] = Status.CLOSED_MONTH;
+                messages[i] = "Месяц " + YearMonth.from(at) + " закрыт";
+                continue;
+            }
+
+            Employee employee = employees.get(event.getEmployeeId());
+            if (employee == null) {
+                statuses[i] = Status.USER_NOT_FOUND;
+                messages[i] = "Пользователь не найден";
+                continue;
+            }
+
+            TimeEntry open = openShifts.get(employee.getId());
+
+            if (event.getType() == ClockEvent.Type.CLOCK_IN) {
+                if (open != null) {
+                    statuses[i] = Status.ACTIVE_SHIFT_TODAY;
+                    messages[i] = TimeEntryService.activeShiftMessage(open.getCheckIn(), at.toLocalDate());
+                    continue;
+                }
+
+                TimeEntry shift = new TimeEntry();
+                shift.setEmployee(employee);
+                shift.setCheckIn(at);
+                shift.setOpenShift(true);
+                shift.setManual(Role.HR.equals(employee.getRole()));
+
+                inserts.add(shift);
+                openShifts.put(employee.getId(), shift);
+                statuses[i] = Status.OK;
+                shifts[i] = shift;
+                manuals[i] = shift.isManual();
+                continue;
+            }
+
+            if (open == null) {
+                boolean closedToday = at.toLocalDate().equals(closedDays.get(employee.getId()));
+                statuses[i] = closedToday ? Status.CLOSED_SHIFT_TODAY : Status.NO_SHIFT_FOUND;
+                messages[i] = closedToday ? "Нельзя перезакрыть закрытую смену" : "Нет смен для закрытия";
+                continue;
+            }
+            if (at.isBefore(open.getCheckIn())) {
+                statuses[i] = Status.INVALID_EVENT;
+                messages[i] = "Время ухода раньше времени прихода";
+                continue;
+            }
+
+            // Забытый уход: смена закрывается нулевой длительностью и помечается ручной
+            LocalDateTime checkOut = TimeEntryService.shiftEnd(open.getCheckIn(), at);
+            if (closedMonths.contains(YearMonth.from(checkOut).toString())) {
+                statuses[i] = Status.CLOSED_MONTH;
+                messages[i] = "Месяц " + YearMonth.from(checkOut) + " закрыт";
+                continue;
+            }
+            boolean manual = open.isManual() || event.isManual() || !checkOut.equals(at);
+            if (open.getId() == null) {
+                // Смена открыта в этом же пакете — вставляется сразу закрытой
+                open.setCheckOut(checkOut);
+                open.setOpenShift(null);
+                open.setManual(manual);
+            } else {
+                // Загруженная смена не изменяется: закрытие — условным UPDATE, а не через контекст персистентности
+                closes.add(new Object[] {Timestamp.valueOf(checkOut), manual, open.getId(), Timestamp.valueOf(open.getCheckIn())});
+            }
+
+            long minutes = WorkedHoursAccumulator.shiftMinutes(open.getCheckIn(), checkOut);
+            long[] totals = rollups.computeIfAbsent(employee.getId(), id -> new HashMap<>())
+                                   .computeIfAbsent(YearMonth.from(checkOut), month -> new long[3]);
+            totals[0] += minutes;
+            totals[1] += minutes / 60;
+            totals[2]++;
+
+            openShifts.remove(employee.getId());
+            closedDays.put(employee.getId(), at.toLocalDate());
+            statuses[i] = Status.OK;
+            shifts[i] = open;
+            manuals[i] = manual;
+        }
+
+        // Сначала закрытия: освобождают open_shift для новых смен тех же сотрудников
+        if (!closes.isEmpty()) {
+            for (int updated : jdbcTemplate.batchUpdate(CLOSE_SHIFT_SQL, closes)) {
+                if (updated == 0) {
+                    throw new ConcurrentShiftUpdateException();
+                }
+            }
+        }
+        if (!inserts.isEmpty()) {
+            timeEntryRepository.saveAll(inserts);
+            timeEntryRepository.flush();
+        }
+
+        rollups.forEach((employeeId, months) -> months.forEach((month, totals) ->
+            monthlyHoursRollupService.add(employeeId, month, totals[0], totals[1], (int) totals[2])));
+
+        List<BatchClockEventResult> results = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            ClockEventRequest event = events.get(i);
+
+            if (statuses[i] != Status.OK) {
+                results.add(new BatchClockEventResult(offset + i, event.getEmployeeId(), event.getType(), statuses[i], null, messages[i]));
+                continue;
+            }
+
+            LocalDateTime at = Objects.requireNonNullElse(event.getTimestamp(), now);
+            eventPublisher.publishEvent(new ClockEvent(event.getType(), shifts[i].getId(), event.getEmployeeId(), at, manuals[i]));
+            results.add(new BatchClockEventResult(offset + i, event.getEmployeeId(), event.getType(), Status.OK, shifts[i].getId(), null));
+        }
+        return results;
+    }
+
+    /**
+     * Смена, которую пакет закрывает, уже закрыта параллельным запросом — пакет откатывается
+     * и применяется по одному событию.
+     */
+    private static class ConcurrentShiftUpdateException extends RuntimeException {
+    }
+}
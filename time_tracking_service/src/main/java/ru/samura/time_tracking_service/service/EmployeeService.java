@@ -1,11 +1,15 @@
 package ru.samura.time_tracking_service.service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import ru.samura.time_tracking_service.DTO.EmployeeDTO;
@@ -13,6 +17,7 @@ import ru.samura.time_tracking_service.custom_exception.UserNotFoundException;
 import ru.samura.time_tracking_service.entity.Employee;
 import ru.samura.time_tracking_service.entity.Role;
 import ru.samura.time_tracking_service.repository.EmployeeRepository;
+import ru.samura.time_tracking_service.response.EmployeePageResponse;
 
 /**
  * Сервис для получения информации о сотрудниках и проверки прав доступа.
@@ -26,6 +31,18 @@ public class EmployeeService {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    /**
+     * Размер страницы списка сотрудников, если клиент его не указал.
+     */
+    @Value("${time-tracking.employees.default-page-size:100}")
+    private int defaultPageSize;
+
+    /**
+     * Максимальный размер страницы списка сотрудников; больший запрошенный размер уменьшается до него.
+     */
+    @Value("${time-tracking.employees.max-page-size:1000}")
+    private int maxPageSize;
+
     /**
      * Возвращает информацию о сотруднике по его уникальному идентификатору.
      * <p>
@@ -83,6 +100,10 @@ public class EmployeeService {
      * Результат кешируется в кеше с именем {@code "getInfoAboutAllEmployee"}.
      * Если в системе нет сотрудников, выбрасывается {@link UserNotFoundException}.
      * 
+     * <p>
+     * ⚠️ Загружает и держит в памяти всех сотрудников — используется только отчётом по оплате всей
+     * организации. Для просмотра списка — {@link #getEmployeesPage}.
+     * 
      *
      * @return список DTO всех сотрудников
      * @throws UserNotFoundException если ни одного сотрудника не найдено
@@ -98,4 +119,103 @@ public class EmployeeService {
 
         return employeeDTO;
     }
-}
\ No newline at end of file
+
+    /**
+     * Возвращает страницу списка сотрудников (keyset-пагинация).
+     * <p>
+     * Страница читается одним запросом «после последнего сотрудника предыдущей страницы» по индексу,
+     * без {@code OFFSET} и без загрузки всего списка, поэтому время ответа и память на запрос не зависят
+     * от числа сотрудников. Читается на одну строку больше {@code limit} — так известно, есть ли следующая страница.
+     * Страницы не кешируются.
+     * 
+     *
+     * @param sort порядок: по {@code id} или по ФИО
+     * @param cursor курсор из {@link EmployeePageResponse#nextCursor()} предыдущей страницы; {@code null} — первая страница
+     * @param limit размер страницы; {@code null} — {@code time-tracking.employees.default-page-size},
+     *              значения вне {@code [1, max-page-size]} приводятся к границам
+     * @return страница сотрудников и курсор следующей страницы
+     * @throws IllegalArgumentException если курсор повреждён или выдан для другого порядка сортировки
+     */
+    public EmployeePageResponse getEmployeesPage(SortKey sort, String cursor, Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : Math.clamp(limit, 1, maxPageSize);
+        Limit fetch = Limit.of(pageSize + 1);
+
+        List<Employee> employees;
+        if (cursor == null || cursor.isBlank()) {
+            employees = sort == SortKey.FULL_NAME
+                ? employeeRepository.findFirstPageOrderByFullName(fetch)
+                : employeeRepository.findFirstPageOrderById(fetch);
+        } else {
+            Cursor after = Cursor.decode(cursor, sort);
+            employees = sort == SortKey.FULL_NAME
+                ? employeeRepository.findPageOrderByFullNameAfter(after.fullName(), after.id(), fetch)
+                : employeeRepository.findPageOrderByIdAfter(after.id(), fetch);
+        }
+
+        String nextCursor = null;
+        if (employees.size() > pageSize) {
+            employees = employees.subList(0, pageSize);
+            Employee last = employees.get(pageSize - 1);
+            nextCursor = new Cursor(sort, last.getId(), last.getFullName()).encode();
+        }
+
+        return new EmployeePageResponse(employees.stream().map(EmployeeDTO::fromEntity).toList(), nextCursor);
+    }
+
+    /**
+     * Порядок сортировки списка сотрудников.
+     */
+    public enum SortKey {
+        ID("id"),
+        FULL_NAME("fullName");
+
+        private final String value;
+
+        SortKey(String value) {
+            this.value = value;
+        }
+
+        /**
+         * Находит порядок сортировки по значению параметра запроса (без учёта регистра).
+         *
+         * @param value {@code id} или {@code fullName}
+         * @return порядок сортировки
+         * @throws IllegalArgumentException если значение не поддерживается
+         */
+        public static SortKey fromValue(String value) {
+            for (SortKey sortKey : values()) {
+                if (sortKey.value.equalsIgnoreCase(value)) {
+                    return sortKey;
+                }
+            }
+            throw new IllegalArgumentException("Неподдерживаемая сортировка: " + value);
+        }
+    }
+
+    /**
+     * Позиция в списке: ключ сортировки последнего сотрудника страницы.
+     * <p>
+     * Кодируется в Base64 (URL-safe) строку {@code <sort>|<id>|<fullName>}; ФИО — последним,
+     * поэтому может содержать разделитель.
+     */
+    private record Cursor(SortKey sort, UUID id, String fullName) {
+
+        String encode() {
+            String value = sort.value + "|" + id + "|" + (sort == SortKey.FULL_NAME ? fullName : "");
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String token, SortKey expectedSort) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", 3);
+                SortKey sort = SortKey.fromValue(parts[0]);
+                if (parts.length != 3 || sort != expectedSort) {
+                    throw new IllegalArgumentException("Курсор выдан для другой сортировки");
+                }
+                return new Cursor(sort, UUID.fromString(parts[1]), parts[2]);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Некорректный курсор страницы", e);
+            }
+        }
+    }
+}
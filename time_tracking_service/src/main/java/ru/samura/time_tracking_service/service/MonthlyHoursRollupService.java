@@ -0,0 +1,301 @@
+package ru.samura.time_tracking_service.service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.samura.time_tracking_service.DTO.RollupDrift;
+import ru.samura.time_tracking_service.archive.TimeEntryArchive;
+import ru.samura.time_tracking_service.DTO.ShiftPeriod;
+import ru.samura.time_tracking_service.entity.MonthlyHoursRollup;
+import ru.samura.time_tracking_service.repository.MonthlyHoursRollupRepository;
+import ru.samura.time_tracking_service.repository.TimeEntryRepository;
+
+/**
+ * Сервис месячных агрегатов отработанного времени ({@link MonthlyHoursRollup}).
+ * <p>
+ * Агрегат обновляется инкрементально в той же транзакции, что и закрытие смены
+ * ({@link TimeEntryService#clockOut}), поэтому расчёт оплаты за месяц — чтение одной строки.
+ * Сверка ({@link #reconcile(YearMonth)}) пересчитывает агрегаты по исходным сменам,
+ * сообщает о расхождениях и исправляет их; выполняется по расписанию и при старте приложения
+ * для последних {@code time-tracking.rollup.reconcile-months} месяцев.
+ * <p>
+ * Агрегатам месяца доверяют, только если месяц хотя бы раз пересчитан по сменам
+ * ({@link ru.samura.time_tracking_service.entity.MonthlyHoursRollupMonth}): до этого — например, для месяцев,
+ * закрытых до появления агрегатов, — часы считаются по сменам. При старте приложения такие месяцы
+ * пересчитываются ({@link #buildMissingMonths()}), и дальше оплата за них читается из агрегата.
+ *
+ *
+ * @see MonthlyHoursRollupRepository
+ */
+@Slf4j
+@Service
+public class MonthlyHoursRollupService {
+
+    @Autowired
+    private MonthlyHoursRollupRepository monthlyHoursRollupRepository;
+
+    @Autowired
+    private TimeEntryRepository timeEntryRepository;
+
+    @Autowired
+    private TimeEntryArchive timeEntryArchive;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Сколько последних месяцев (включая текущий) сверяется по расписанию.
+     */
+    @Value("${time-tracking.rollup.reconcile-months:2}")
+    private int reconcileMonths;
+
+    /**
+     * Учитывает закрытую смену в агрегате месяца её окончания.
+     * <p>
+     * Выполняется только внутри транзакции закрытия смены: агрегат и смена фиксируются вместе.
+     *
+     * @param employeeId идентификатор сотрудника
+     * @param checkIn начало смены
+     * @param checkOut окончание смены
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addShift(UUID employeeId, LocalDateTime checkIn, LocalDateTime checkOut) {
+        long minutes = WorkedHoursAccumulator.shiftMinutes(checkIn, checkOut);
+        add(employeeId, YearMonth.from(checkOut), minutes, minutes / 60, 1);
+    }
+
+    /**
+     * Прибавляет к агрегату сотрудника за месяц уже просуммированные смены —
+     * для пакетной обработки, где смены одного месяца учитываются одним обновлением.
+     *
+     * @param employeeId идентификатор сотрудника
+     * @param month месяц окончания смен
+     * @param minutes суммарная длительность смен в минутах
+     * @param hours сумма полных часов по каждой смене
+     * @param shifts количество смен
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void add(UUID employeeId, YearMonth month, long minutes, long hours, int shifts) {
+        String yearMonth = month.toString();
+
+        if (monthlyHoursRollupRepository.increment(employeeId, yearMonth, minutes, hours, shifts) == 0) {
+            // Первая смена месяца: нулевая строка вставляется без ошибки ключа, даже если её одновременно
+            // вставляет другая транзакция, после чего инкремент находит строку
+            monthlyHoursRollupRepository.insertEmpty(employeeId, yearMonth);
+            monthlyHoursRollupRepository.increment(employeeId, yearMonth, minutes, hours, shifts);
+        }
+    }
+
+    /**
+     * Возвращает отработанные за месяц полные часы сотрудника (сумма полных часов по каждой смене).
+     *
+     * @param employeeId идентификатор сотрудника
+     * @param month отчётный месяц
+     * @return часы за месяц; {@code 0}, если закрытых смен в месяце нет
+     */
+    @Transactional(readOnly = true)
+    public long totalHours(UUID employeeId, YearMonth month) {
+        return rollup(employeeId, month).getTotalHours();
+    }
+
+    /**
+     * Возвращает суммарную длительность закрытых смен сотрудника за месяц в минутах (без округления до часов).
+     *
+     * @param employeeId идентификатор сотрудника
+     * @param month отчётный месяц
+     * @return минуты за месяц; {@code 0}, если закрытых смен в месяце нет
+     */
+    @Transactional(readOnly = true)
+    public long totalMinutes(UUID employeeId, YearMonth month) {
+        return rollup(employeeId, month).getTotalMinutes();
+    }
+
+    /**
+     * Агрегат сотрудника за месяц: строка {@code monthly_hours_rollup}, если месяц построен,
+     * иначе — сумма по сменам сотрудника за месяц.
+     */
+    private MonthlyHoursRollup rollup(UUID employeeId, YearMonth month) {
+        if (monthlyHoursRollupRepository.isMonthBuilt(month.toString())) {
+            return monthlyHoursRollupRepository.findById(new MonthlyHoursRollup.Key(employeeId, month.toString()))
+                                               .orElseGet(() -> new MonthlyHoursRollup(employeeId, month.toString(), 0, 0, 0));
+        }
+
+        List<UUID> employeeIds = List.of(employeeId);
+        try (Stream<ShiftPeriod> shifts = timeEntryArchive.withArchived(
+            timeEntryRepository.streamClosedShiftsByEmployeesAndMonth(employeeIds, month), month, employeeIds)) {
+            return accumulate(shifts, month).getOrDefault(employeeId,
+                                                          new MonthlyHoursRollup(employeeId, month.toString(), 0, 0, 0));
+        }
+    }
+
+
+    /**
+     * Пересчитывает агрегаты месяца по исходным сменам и исправляет расхождения.
+     * <p>
+     * Смены месяца читаются одним потоковым запросом
+     * ({@link TimeEntryRepository#streamClosedShiftsByMonth(YearMonth)}) и дополняются сменами из архива
+     * ({@link TimeEntryArchive}), если месяц перенесён в него. Строки агрегата, совпадающие
+     * с пересчётом, не изменяются; расходящиеся — перезаписываются, лишние — удаляются.
+     *
+     * @param month месяц для сверки
+     * @return найденные (и исправленные) расхождения; пустой список, если агрегаты верны
+     */
+    @Transactional
+    public List<RollupDrift> reconcile(YearMonth month) {
+        List<RollupDrift> drifts = recompute(month);
+
+        if (!drifts.isEmpty()) {
+            log.warn("Агрегаты отработанного времени за {} расходились со сменами у {} сотрудников и исправлены: {}",
+                     month, drifts.size(), drifts);
+        }
+        return drifts;
+    }
+
+    /**
+     * Пересчитывает агрегаты месяца по сменам после массовой загрузки ({@link TimeEntryImportService}):
+     * то же, что {@link #reconcile(YearMonth)}, но расхождения ожидаемы и не выводятся в лог.
+     *
+     * @param month месяц загруженных смен
+     * @return количество сотрудников, чьи агрегаты изменились
+     */
+    @Transactional
+    public int rebuild(YearMonth month) {
+        return recompute(month).size();
+    }
+
+    private List<RollupDrift> recompute(YearMonth month) {
+        // Строки агрегата блокируются до чтения смен: закрытие смены, не попавшее в пересчёт,
+        // дождётся конца сверки и прибавит смену к уже исправленному значению
+        List<MonthlyHoursRollup> stored = monthlyHoursRollupRepository.findByYearMonth(month.toString());
+        Map<UUID, MonthlyHoursRollup> expected;
+
+        try (Stream<ShiftPeriod> shifts = timeEntryArchive.withArchived(
+            timeEntryRepository.streamClosedShiftsByMonth(month), month, null)) {
+            expected = accumulate(shifts, month);
+        }
+
+        List<RollupDrift> drifts = new ArrayList<>();
+
+        for (MonthlyHoursRollup actual : stored) {
+            MonthlyHoursRollup recomputed = expected.remove(actual.getEmployeeId());
+
+            if (recomputed == null) {
+                drifts.add(drift(month, new MonthlyHoursRollup(actual.getEmployeeId(), month.toString(), 0, 0, 0), actual));
+                monthlyHoursRollupRepository.delete(actual);
+            } else if (!sameTotals(recomputed, actual)) {
+                drifts.add(drift(month, recomputed, actual));
+                actual.setTotalMinutes(recomputed.getTotalMinutes());
+                actual.setTotalHours(recomputed.getTotalHours());
+                actual.setShiftCount(recomputed.getShiftCount());
+            }
+        }
+
+        // Остались сотрудники со сменами, но без строки агрегата; если её одновременно вставило закрытие
+        // новой смены, пересчитанные значения прибавляются к этой смене
+        for (MonthlyHoursRollup recomputed : expected.values()) {
+            drifts.add(drift(month, recomputed, new MonthlyHoursRollup(recomputed.getEmployeeId(), month.toString(), 0, 0, 0)));
+            add(recomputed.getEmployeeId(), month, recomputed.getTotalMinutes(), recomputed.getTotalHours(),
+                recomputed.getShiftCount());
+        }
+
+        monthlyHoursRollupRepository.markMonthBuilt(month.toString(), LocalDateTime.now());
+        return drifts;
+    }
+
+    private static Map<UUID, MonthlyHoursRollup> accumulate(Stream<ShiftPeriod> shifts, YearMonth month) {
+        Map<UUID, MonthlyHoursRollup> rollups = new HashMap<>();
+        shifts.forEach(shift -> {
+            long minutes = WorkedHoursAccumulator.shiftMinutes(shift.getCheckIn(), shift.getCheckOut());
+            MonthlyHoursRollup rollup = rollups.computeIfAbsent(shift.getEmployeeId(),
+                employeeId -> new MonthlyHoursRollup(employeeId, month.toString(), 0, 0, 0));
+            rollup.setTotalMinutes(rollup.getTotalMinutes() + minutes);
+            rollup.setTotalHours(rollup.getTotalHours() + minutes / 60);
+            rollup.setShiftCount(rollup.getShiftCount() + 1);
+        });
+        return rollups;
+    }
+
+    /**
+     * Сверяет агрегаты последних месяцев: ежедневно по расписанию
+     * ({@code time-tracking.rollup.reconcile-cron}) и при старте приложения.
+     */
+    @Scheduled(cron = "${time-tracking.rollup.reconcile-cron:0 30 3 * * *}")
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void reconcileRecentMonths() {
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i < reconcileMonths; i++) {
+            reconcile(current.minusMonths(i));
+        }
+    }
+
+    /**
+     * Строит агрегаты месяцев, ещё не пересчитанных по сменам, — от месяца самой ранней смены
+     * (в таблице или в архиве) до текущего. Выполняется при старте приложения; каждый месяц —
+     * в отдельной транзакции, чтобы не держать блокировки всей истории сразу.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildMissingMonths() {
+        Set<YearMonth> history = new TreeSet<>(timeEntryArchive.archivedMonths());
+        timeEntryRepository.findEarliestCheckOut().map(YearMonth::from).ifPresent(history::add);
+        if (history.isEmpty()) {
+            return;
+        }
+
+        Set<String> built = new HashSet<>(monthlyHoursRollupRepository.findBuiltMonths());
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int rebuilt = 0;
+
+        for (YearMonth month = history.iterator().next(); !month.isAfter(YearMonth.now()); month = month.plusMonths(1)) {
+            if (built.contains(month.toString())) {
+                continue;
+            }
+            YearMonth current = month;
+            try {
+                transactionTemplate.executeWithoutResult(status -> recompute(current));
+                rebuilt++;
+            } catch (DataAccessException e) {
+                // Месяц одновременно строит другой экземпляр приложения; до отметки оплата считается по сменам
+                log.warn("Агрегаты отработанного времени за {} не построены: {}", month, e.getMessage());
+            }
+        }
+        if (rebuilt > 0) {
+            log.info("Построены агрегаты отработанного времени за {} месяцев", rebuilt);
+        }
+    }
+
+    private boolean sameTotals(MonthlyHoursRollup expected, MonthlyHoursRollup actual) {
+        return expected.getTotalMinutes() == actual.getTotalMinutes()
+            && expected.getTotalHours() == actual.getTotalHours()
+            && expected.getShiftCount() == actual.getShiftCount();
+    }
+
+    private RollupDrift drift(YearMonth month, MonthlyHoursRollup expected, MonthlyHoursRollup actual) {
+        return new RollupDrift(expected.getEmployeeId(), month,
+                               expected.getTotalMinutes(), actual.getTotalMinutes(),
+                               expected.getTotalHours(), actual.getTotalHours(),
+                               expected.getShiftCount(), actual.getShiftCount());
+    }
+}
@@ -0,0 +1,139 @@
+package ru.samura.time_tracking_service.service;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import ru.samura.time_tracking_service.response.TotalPaymentEmployeeResponse;
+
+/**
+ * Объединение одновременных одинаковых запросов отчёта по оплате (single-flight).
+ * <p>
+ * В конце месяца отчёт по всем сотрудникам за один и тот же месяц запрашивают одновременно многие руководители,
+ * и каждый запрос заново читает все смены месяца. Здесь расчёт по ключу (месяц, охват отчёта) выполняется
+ * только первым запросом — в его потоке и транзакции; запросы с тем же ключом, пришедшие во время расчёта,
+ * ждут его {@link CompletableFuture} и получают тот же результат (или то же исключение).
+ * <p>
+ * Это не кеш: после завершения расчёта ключ удаляется, и следующий запрос считает отчёт заново
+ * по актуальным сменам. Закрытые месяцы сюда не доходят — они читаются из снимка ({@link ReportSnapshotService}).
+ * <p>
+ * Метрики: {@code time_tracking.report.computations} — выполненные расчёты,
+ * {@code time_tracking.report.coalesced} — запросы, получившие чужой результат (сэкономленные расчёты),
+ * {@code time_tracking.report.in_flight} — расчёты, выполняемые сейчас; у всех тег {@code report}.
+ *
+ */
+@Service
+public class PaymentReportCoalescer {
+
+    static final String COMPUTATIONS_METRIC = "time_tracking.report.computations";
+
+    static final String COALESCED_METRIC = "time_tracking.report.coalesced";
+
+    static final String IN_FLIGHT_METRIC = "time_tracking.report.in_flight";
+
+    /**
+     * Охват отчёта по всем сотрудникам организации.
+     */
+    static final String SCOPE_ALL = "payment-all";
+
+    @Autowired
+    private TimeEntryService timeEntryService;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private final ConcurrentHashMap<Key, CompletableFuture<List<TotalPaymentEmployeeResponse>>> inFlight =
+        new ConcurrentHashMap<>();
+
+    private Counter computations;
+
+    private Counter coalesced;
+
+    @PostConstruct
+    void registerMetrics() {
+        computations = Counter.builder(COMPUTATIONS_METRIC)
+                              .tag("report", SCOPE_ALL)
+                              .description("Выполненные расчёты отчёта по оплате")
+                              .register(registry);
+        coalesced = Counter.builder(COALESCED_METRIC)
+                           .tag("report", SCOPE_ALL)
+                           .description("Запросы отчёта, получившие результат уже выполнявшегося расчёта")
+                           .register(registry);
+        Gauge.builder(IN_FLIGHT_METRIC, inFlight, ConcurrentHashMap::size)
+             .tag("report", SCOPE_ALL)
+             .description("Выполняемые сейчас расчёты отчёта по оплате")
+             .register(registry);
+    }
+
+    /**
+     * Отчёт по оплате всех сотрудников за месяц ({@link TimeEntryService#getTotalPaymentsForEmployees});
+     * одновременные запросы за один месяц разделяют один расчёт.
+     *
+     * @param month отчётный месяц
+     * @return неизменяемый список ответов — общий для всех объединённых запросов
+     */
+    public List<TotalPaymentEmployeeResponse> paymentsForAllEmployees(YearMonth month) {
+        return coalesce(new Key(month, SCOPE_ALL), () -> List.copyOf(
+            timeEntryService.getTotalPaymentsForEmployees(employeeService.getInfoAboutAllEmployee(), month)));
+    }
+
+    private List<TotalPaymentEmployeeResponse> coalesce(Key key, Supplier<List<TotalPaymentEmployeeResponse>> report) {
+        CompletableFuture<List<TotalPaymentEmployeeResponse>> own = new CompletableFuture<>();
+        CompletableFuture<List<TotalPaymentEmployeeResponse>> running = inFlight.putIfAbsent(key, own);
+
+        if (running != null) {
+            coalesced.increment();
+            return await(running);
+        }
+
+        computations.increment();
+        try {
+            List<TotalPaymentEmployeeResponse> result = report.get();
+            own.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    private static List<TotalPaymentEmployeeResponse> await(CompletableFuture<List<TotalPaymentEmployeeResponse>> running) {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание отчёта по оплате прервано", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Ошибка расчёта отчёта по оплате", e.getCause());
+        }
+    }
+
+    /**
+     * Ключ объединения: одинаковые запросы — тот же месяц и тот же охват отчёта.
+     *
+     * @param month отчётный месяц
+     * @param scope охват отчёта
+     */
+    record Key(YearMonth month, String scope) { }
+}
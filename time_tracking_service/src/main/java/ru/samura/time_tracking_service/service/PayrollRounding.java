@@ -0,0 +1,30 @@
+package ru.samura.time_tracking_service.service;
+
+/**
+ * Правило округления отработанного времени до целых часов при расчёте оплаты
+ * ({@code time-tracking.payroll.rounding}).
+ * <p>
+ * Длительность смены учитывается в целых минутах; до целых часов (в меньшую сторону) округляется
+ * сумма минут за выбранный период. Чем крупнее период, тем меньше теряется: при {@link #SHIFT}
+ * смена 7ч59м — 7 часов, и за месяц набегает до часа на каждую смену; при {@link #MONTH} за весь
+ * месяц теряется меньше часа.
+ *
+ * @see WorkedHoursAccumulator
+ */
+public enum PayrollRounding {
+
+    /**
+     * Каждая смена округляется отдельно (прежнее поведение — {@code Duration.toHours()} по смене).
+     */
+    SHIFT,
+
+    /**
+     * Округляется сумма смен за день; день смены — дата её окончания, как и месяц.
+     */
+    DAY,
+
+    /**
+     * Округляется сумма смен за месяц.
+     */
+    MONTH
+}
@@ -0,0 +1,146 @@
+package ru.samura.time_tracking_service.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.samura.time_tracking_service.DTO.ShiftPeriod;
+import ru.samura.time_tracking_service.event.ClockEvent;
+import ru.samura.time_tracking_service.repository.TimeEntryRepository;
+import ru.samura.time_tracking_service.response.OnShiftResponse;
+
+/**
+ * Табло присутствия: кто сейчас на смене, без обращения к БД.
+ * <p>
+ * В памяти хранится начало открытой смены каждого сотрудника на смене. Табло обновляется по {@link ClockEvent}
+ * после фиксации транзакции — для одиночных, пакетных и отложенных ({@link WriteBehindClockService}) отметок —
+ * и восстанавливается из открытых смен {@code time_entry} при старте и по расписанию
+ * ({@code time-tracking.presence.rebuild-cron}).
+ * <p>
+ * Каждый экземпляр сервиса видит события только своих отметок: при нескольких экземплярах
+ * отметки, сделанные на других, появляются на табло после очередного восстановления.
+ *
+ *
+ * @see TimeEntryRepository#findOpenShifts()
+ */
+@Slf4j
+@Service
+public class PresenceBoardService {
+
+    private static final Comparator<OnShiftResponse.OnShiftEmployee> BY_CHECK_IN =
+        Comparator.comparing(OnShiftResponse.OnShiftEmployee::checkIn);
+
+    @Autowired
+    private TimeEntryRepository timeEntryRepository;
+
+    /**
+     * Начало открытой смены по идентификатору сотрудника.
+     */
+    private final ConcurrentHashMap<UUID, LocalDateTime> onShift = new ConcurrentHashMap<>();
+
+    /**
+     * Закрытия смен, пришедшие во время идущих восстановлений: последнее время ухода по сотруднику.
+     */
+    private final Set<Map<UUID, LocalDateTime>> rebuildClockOuts = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Учитывает открытие или закрытие смены.
+     * <p>
+     * Закрытие снимает с табло только смену, начатую не позже закрытия: запоздавшее событие закрытия
+     * прошлой смены не снимает уже открытую новую.
+     *
+     * @param event событие смены
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClockEvent(ClockEvent event) {
+        switch (event.type()) {
+            case CLOCK_IN -> onShift.merge(event.employeeId(), event.timestamp(), PresenceBoardService::later);
+            case CLOCK_OUT -> {
+                rebuildClockOuts.forEach(clockOuts -> clockOuts.merge(event.employeeId(), event.timestamp(), PresenceBoardService::later));
+                onShift.computeIfPresent(event.employeeId(),
+                    (employeeId, checkIn) -> checkIn.isAfter(event.timestamp()) ? checkIn : null);
+            }
+        }
+    }
+
+    /**
+     * @return количество сотрудников на смене
+     */
+    public int count() {
+        return onShift.size();
+    }
+
+    /**
+     * @param employeeId идентификатор сотрудника
+     * @return {@code true}, если у сотрудника открыта смена
+     */
+    public boolean isOnShift(UUID employeeId) {
+        return onShift.containsKey(employeeId);
+    }
+
+    /**
+     * Список сотрудников на смене.
+     *
+     * @return табло присутствия, от пришедших раньше к пришедшим позже
+     */
+    public OnShiftResponse getOnShift() {
+        List<OnShiftResponse.OnShiftEmployee> employees = new ArrayList<>(onShift.size());
+        onShift.forEach((employeeId, checkIn) -> employees.add(new OnShiftResponse.OnShiftEmployee(employeeId, checkIn)));
+        employees.sort(BY_CHECK_IN);
+        return new OnShiftResponse(employees.size(), employees);
+    }
+
+    /**
+     * Восстанавливает табло по открытым сменам в БД: при старте приложения и по расписанию.
+     * <p>
+     * Табло не очищается целиком: смена, открытая во время чтения, остаётся, а снимаются только сотрудники,
+     * пришедшие раньше начала чтения и не найденные среди открытых смен. Смена, закрытая во время чтения,
+     * могла быть прочитана ещё открытой: закрытия, пришедшие с начала восстановления, запоминаются,
+     * и такая смена на табло не возвращается.
+     */
+    @Scheduled(cron = "${time-tracking.presence.rebuild-cron:0 */10 * * * *}")
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Map<UUID, LocalDateTime> clockOuts = new ConcurrentHashMap<>();
+        rebuildClockOuts.add(clockOuts);
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            Map<UUID, LocalDateTime> open = new HashMap<>();
+            for (ShiftPeriod shift : timeEntryRepository.findOpenShifts()) {
+                open.merge(shift.getEmployeeId(), shift.getCheckIn(), PresenceBoardService::later);
+            }
+
+            open.forEach((employeeId, checkIn) -> {
+                onShift.merge(employeeId, checkIn, PresenceBoardService::later);
+                // Закрытие сначала запоминается, затем снимает смену с табло: проверка после слияния его не пропустит
+                LocalDateTime clockOut = clockOuts.get(employeeId);
+                if (clockOut != null) {
+                    onShift.computeIfPresent(employeeId, (id, current) -> current.isAfter(clockOut) ? current : null);
+                }
+            });
+            onShift.entrySet().removeIf(entry -> !open.containsKey(entry.getKey()) && entry.getValue().isBefore(startedAt));
+        } finally {
+            rebuildClockOuts.remove(clockOuts);
+        }
+
+        log.debug("Табло присутствия восстановлено: на смене {}", onShift.size());
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
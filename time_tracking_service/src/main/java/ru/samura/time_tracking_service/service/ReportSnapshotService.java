@@ -0,0 +1,217 @@
+package ru.samura.time_tracking_service.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.samura.time_tracking_service.DTO.ClosedMonthReport;
+import ru.samura.time_tracking_service.DTO.EmployeeDTO;
+import ru.samura.time_tracking_service.custom_exception.MonthAlreadyClosedException;
+import ru.samura.time_tracking_service.entity.ReportSnapshot;
+import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.repository.EmployeeRepository;
+import ru.samura.time_tracking_service.repository.ReportSnapshotRepository;
+import ru.samura.time_tracking_service.response.TotalPaymentEmployeeResponse;
+
+/**
+ * Сервис закрытых месяцев: снимки отчёта по оплате ({@link ReportSnapshot}).
+ * <p>
+ * При закрытии месяца оплата всех сотрудников рассчитывается один раз
+ * ({@link TimeEntryService#getTotalPaymentsForEmployees}) и сохраняется сжатым снимком.
+ * Отчёты за закрытый месяц читаются из снимка через кеш {@code reportSnapshotCache} — без запросов к БД;
+ * повторный запрос с совпадающим {@code If-None-Match} получает {@code 304 Not Modified}.
+ * Изменения смен закрытого месяца в отчёт не попадают, пока месяц не открыт заново ({@link #reopenMonth}).
+ *
+ *
+ * @see ReportSnapshotRepository
+ */
+@Slf4j
+@Service
+public class ReportSnapshotService {
+
+    /**
+     * Версия двоичного формата снимка — первый байт {@code payload} до сжатия.
+     */
+    private static final byte FORMAT_VERSION = 1;
+
+    @Autowired
+    private ReportSnapshotRepository reportSnapshotRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private TimeEntryService timeEntryService;
+
+    /**
+     * Отчёт за закрытый месяц.
+     * <p>
+     * Результат кешируется в {@code reportSnapshotCache}; отсутствие снимка (месяц открыт) не кешируется.
+     *
+     * @param month месяц
+     * @return отчёт из снимка или пусто, если месяц не закрыт
+     */
+    @Cacheable(value = "reportSnapshotCache", key = "#month.toString()", unless = "#result == null")
+    public Optional<ClosedMonthReport> findClosedMonth(YearMonth month) {
+        return reportSnapshotRepository.findById(month.toString()).map(ReportSnapshotService::toReport);
+    }
+
+    /**
+     * Закрывает месяц: рассчитывает оплату всех сотрудников и сохраняет снимок.
+     * <p>
+     * Сотрудники читаются из БД, а не из кеша {@code getInfoAboutAllEmployee}: снимок фиксирует
+     * актуальные ставки на момент закрытия.
+     * <p>
+     * Снимок только вставляется ({@link ReportSnapshotRepository#insertIfAbsent}): из двух одновременных
+     * закрытий месяца снимок сохраняет первое, второе получает {@link MonthAlreadyClosedException}.
+     *
+     * @param month прошедший месяц
+     * @return отчёт из созданного снимка
+     * @throws IllegalArgumentException если месяц текущий или будущий
+     * @throws MonthAlreadyClosedException если месяц уже закрыт
+     */
+    @Transactional
+    @CacheEvict(value = "reportSnapshotCache", key = "#month.toString()")
+    public ClosedMonthReport closeMonth(YearMonth month) {
+        if (!month.isBefore(YearMonth.now())) {
+            throw new IllegalArgumentException("Закрыть можно только прошедший месяц: " + month);
+        }
+        // Быстрый отказ без расчёта оплаты; гарантию даёт вставка снимка
+        if (reportSnapshotRepository.existsById(month.toString())) {
+            throw new MonthAlreadyClosedException("Месяц уже закрыт: " + month);
+        }
+
+        List<EmployeeDTO> employees = employeeRepository.findAll().stream()
+                                                        .map(EmployeeDTO::fromEntity)
+                                                        .collect(Collectors.toList());
+        List<TotalPaymentEmployeeResponse> payments = timeEntryService.getTotalPaymentsForEmployees(employees, month);
+
+        byte[] payload = encode(payments);
+        ReportSnapshot snapshot = new ReportSnapshot(month.toString(), LocalDateTime.now(), payments.size(),
+                                                     etag(month, payload), payload);
+        int inserted = reportSnapshotRepository.insertIfAbsent(snapshot.getYearMonth(), snapshot.getClosedAt(),
+                                                               snapshot.getEmployeeCount(), snapshot.getEtag(),
+                                                               snapshot.getPayload());
+        if (inserted == 0) {
+            throw new MonthAlreadyClosedException("Месяц уже закрыт: " + month);
+        }
+
+        log.info("Месяц {} закрыт: сотрудников {}, снимок {} байт", month, payments.size(), payload.length);
+        return ClosedMonthReport.of(month, snapshot.getEtag(), payments);
+    }
+
+    /**
+     * Открывает закрытый месяц заново: снимок удаляется, отчёты снова рассчитываются по сменам.
+     *
+     * @param month месяц
+     * @return {@code true}, если месяц был закрыт
+     */
+    @CacheEvict(value = "reportSnapshotCache", key = "#month.toString()")
+    public boolean reopenMonth(YearMonth month) {
+        if (!reportSnapshotRepository.existsById(month.toString())) {
+            return false;
+        }
+        reportSnapshotRepository.deleteById(month.toString());
+        log.info("Месяц {} открыт заново", month);
+        return true;
+    }
+
+    private static ClosedMonthReport toReport(ReportSnapshot snapshot) {
+        YearMonth month = YearMonth.parse(snapshot.getYearMonth());
+        return ClosedMonthReport.of(month, snapshot.getEtag(), decode(month, snapshot.getPayload()));
+    }
+
+    private static String etag(YearMonth month, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return month + "-" + Long.toHexString(crc.getValue());
+    }
+
+    /**
+     * Кодирует расчёт оплаты в снимок: версия формата, количество строк и по строке на сотрудника
+     * (идентификатор, ФИО, email, ставка, норма часов, роль, часы, норматив, переработка, сумма), всё сжато GZIP.
+     * Сообщение отчёта не хранится — оно восстанавливается по месяцу.
+     *
+     * @param payments расчёт оплаты всех сотрудников
+     * @return содержимое снимка
+     */
+    static byte[] encode(List<TotalPaymentEmployeeResponse> payments) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeInt(payments.size());
+            for (TotalPaymentEmployeeResponse payment : payments) {
+                EmployeeDTO employee = payment.employeeDTO();
+                out.writeLong(employee.getId().getMostSignificantBits());
+                out.writeLong(employee.getId().getLeastSignificantBits());
+                out.writeUTF(employee.getFullName() == null ? "" : employee.getFullName());
+                out.writeUTF(employee.getEmail() == null ? "" : employee.getEmail());
+                out.writeInt(employee.getHourlyRate());
+                out.writeInt(employee.getWorkHoursPerDay());
+                out.writeByte(employee.getRole() == null ? -1 : employee.getRole().ordinal());
+                out.writeLong(payment.totalHours());
+                out.writeLong(payment.expectedHours());
+                out.writeLong(payment.overtime());
+                out.writeLong(payment.pay());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось сформировать снимок отчёта", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Восстанавливает расчёт оплаты из снимка ({@link #encode}).
+     *
+     * @param month закрытый месяц
+     * @param payload содержимое снимка
+     * @return расчёт оплаты всех сотрудников в порядке снимка
+     */
+    static List<TotalPaymentEmployeeResponse> decode(YearMonth month, byte[] payload) {
+        String message = "Отчет за месяц: " + month;
+        Role[] roles = Role.values();
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(payload)))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalStateException("Неизвестная версия снимка отчёта за " + month + ": " + version);
+            }
+            int count = in.readInt();
+            List<TotalPaymentEmployeeResponse> payments = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                EmployeeDTO employee = new EmployeeDTO();
+                employee.setId(new UUID(in.readLong(), in.readLong()));
+                employee.setFullName(in.readUTF());
+                employee.setEmail(in.readUTF());
+                employee.setHourlyRate(in.readInt());
+                employee.setWorkHoursPerDay(in.readInt());
+                byte role = in.readByte();
+                employee.setRole(role < 0 ? null : roles[role]);
+                payments.add(new TotalPaymentEmployeeResponse(message, employee, in.readLong(), in.readLong(),
+                                                              in.readLong(), in.readLong()));
+            }
+            return payments;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Снимок отчёта за " + month + " повреждён", e);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package ru.samura.time_tracking_service.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import ru.samura.time_tracking_service.DTO.ArchivedShift;
+import ru.samura.time_tracking_service.archive.TimeEntryArchive;
+import ru.samura.time_tracking_service.custom_exception.MonthAlreadyArchivedException;
+import ru.samura.time_tracking_service.entity.ArchivedMonth;
+import ru.samura.time_tracking_service.repository.ArchivedMonthRepository;
+import ru.samura.time_tracking_service.repository.ReportSnapshotRepository;
+import ru.samura.time_tracking_service.repository.TimeEntryRepository;
+import ru.samura.time_tracking_service.response.ArchivedMonthResult;
+
+/**
+ * Перенос смен закрытых месяцев из {@code time_entry} в столбцовые файлы архива ({@link TimeEntryArchive}).
+ * <p>
+ * Таблица смен растёт на всю историю, хотя смены закрытого месяца больше не меняются и читаются редко —
+ * для выгрузки и пересчёта агрегатов. После переноса месяц хранится файлом в несколько байт на смену,
+ * а чтения месяца ({@link TimeEntryService}, {@link MonthlyHoursRollupService}, {@link TimeEntryExportService})
+ * объединяют строки таблицы с файлом — результат расчётов не меняется.
+ * <p>
+ * Перенос выполняется в одной транзакции: строка {@link ArchivedMonth} (она же блокировка месяца от повторного
+ * переноса), чтение смен с блокировкой, запись файла на диск, удаление тех же смен. Если транзакция не
+ * зафиксирована, файл удаляется; если процесс остановлен до фиксации, файл остаётся, но не читается.
+ * Файл начинает читаться после фиксации; другие экземпляры приложения узнают о нём в течение
+ * {@code time-tracking.archive.refresh-ms}.
+ *
+ * <p>
+ * ⚠️ Архивные смены не входят в историю смен сотрудника
+ * ({@code GET /time-entry/employees/{requesterId}/{employeeId}/shifts}) и не имеют идентификаторов.
+ * Месяц в архиве можно открыть заново ({@link ReportSnapshotService#reopenMonth}): новые смены попадут
+ * в таблицу и будут читаться вместе с архивом.
+ *
+ */
+@Slf4j
+@Service
+public class TimeEntryArchiveService {
+
+    /**
+     * Завершённые смены месяца — те же условия, что у {@link TimeEntryRepository#streamClosedShiftsByMonth}.
+     */
+    private static final String MONTH_PREDICATE = """
+        WHERE check_out IS NOT NULL
+          AND check_out >= ?
+          AND check_out < ?
+          AND register >= ?
+          AND register < ?
+        """;
+
+    private static final String SELECT_SQL = "SELECT employee_id, register, check_out, is_manual FROM time_entry "
+        + MONTH_PREDICATE + " FOR UPDATE";
+
+    private static final String DELETE_SQL = "DELETE FROM time_entry " + MONTH_PREDICATE;
+
+    private static final String INSERT_MONTH_SQL = """
+        INSERT INTO archived_month (year_month, archived_at, shift_count, file_bytes)
+        VALUES (?, ?, 0, 0)
+        """;
+
+    private static final String UPDATE_MONTH_SQL = """
+        UPDATE archived_month SET shift_count = ?, file_bytes = ?
+        WHERE year_month = ?
+        """;
+
+    @Autowired
+    private TimeEntryArchive timeEntryArchive;
+
+    @Autowired
+    private ArchivedMonthRepository archivedMonthRepository;
+
+    @Autowired
+    private ReportSnapshotRepository reportSnapshotRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Через сколько месяцев закрытый месяц переносится в архив по расписанию; {@code 0} — только вручную.
+     */
+    @Value("${time-tracking.archive.after-months:0}")
+    private int archiveAfterMonths;
+
+    /**
+     * Включает для чтения файлы месяцев, перенесённых в архив (в том числе другими экземплярами приложения).
+     * Вызывается при создании бина — до сверки агрегатов при старте — и раз в {@code time-tracking.archive.refresh-ms}.
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${time-tracking.archive.refresh-ms:60000}",
+               initialDelayString = "${time-tracking.archive.refresh-ms:60000}")
+    public void refreshArchivedMonths() {
+        Set<YearMonth> stored = timeEntryArchive.storedMonths();
+        for (ArchivedMonth archived : archivedMonthRepository.findAll()) {
+            YearMonth month = YearMonth.parse(archived.getYearMonth());
+            stored.remove(month);
+            if (!timeEntryArchive.isArchived(month) && !timeEntryArchive.activate(month)) {
+                log.error("Нет файла архива смен за {} ({} смен): смены месяца недоступны", month, archived.getShiftCount());
+            }
+        }
+        if (!stored.isEmpty()) {
+            log.warn("Файлы архива смен без подтверждённого переноса не читаются: {}", stored);
+        }
+    }
+
+    /**
+     * Переносит завершённые смены закрытого месяца из {@code time_entry} в файл архива.
+     *
+     * @param month прошедший закрытый месяц
+     * @return количество перенесённых смен и размер файла
+     * @throws IllegalArgumentException если месяц текущий, будущий или не закрыт
+     * @throws MonthAlreadyArchivedException если месяц уже в архиве
+     */
+    public ArchivedMonthResult archiveMonth(YearMonth month) {
+        if (!month.isBefore(YearMonth.now())) {
+            throw new IllegalArgumentException("Перенести в архив можно только прошедший месяц: " + month);
+        }
+        if (!reportSnapshotRepository.existsById(month.toString())) {
+            throw new IllegalArgumentException("Перенести в архив можно только закрытый месяц: " + month);
+        }
+        if (archivedMonthRepository.existsById(month.toString())) {
+            throw new MonthAlreadyArchivedException("Месяц уже в архиве: " + month);
+        }
+
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+        Object[] range = {
+            Timestamp.valueOf(from), Timestamp.valueOf(to), Timestamp.valueOf(from.minus(TimeEntryRepository.MAX_SHIFT_SPAN)),
+            Timestamp.valueOf(to)
+        };
+        boolean[] written = {false};
+        Set<UUID> employees = new HashSet<>();
+
+        ArchivedMonthResult result;
+        try {
+            result = new TransactionTemplate(transactionManager).execute(status -> {
+                // Строка месяца — первой: параллельный перенос того же месяца ждёт её и получает ошибку ключа,
+                // не перезаписывая файл
+                jdbcTemplate.update(INSERT_MONTH_SQL, month.toString(), Timestamp.valueOf(LocalDateTime.now()));
+
+                List<ArchivedShift> shifts = jdbcTemplate.query(SELECT_SQL, (resultSet, rowNum) -> new ArchivedShift(
+                    resultSet.getObject(1, UUID.class),
+                    resultSet.getTimestamp(2).toLocalDateTime(),
+                    resultSet.getTimestamp(3).toLocalDateTime(),
+                    resultSet.getBoolean(4)), range);
+                shifts.forEach(shift -> employees.add(shift.employeeId()));
+
+                written[0] = true;
+                long bytes = timeEntryArchive.write(month, shifts);
+
+                int deleted = jdbcTemplate.update(DELETE_SQL, range);
+                if (deleted != shifts.size()) {
+                    throw new IllegalStateException("Смены месяца " + month + " изменились во время переноса в архив");
+                }
+                jdbcTemplate.update(UPDATE_MONTH_SQL, shifts.size(), bytes, month.toString());
+                return new ArchivedMonthResult(month.toString(), shifts.size(), bytes);
+            });
+        } catch (DuplicateKeyException e) {
+            throw new MonthAlreadyArchivedException("Месяц уже в архиве: " + month, e);
+        } catch (RuntimeException e) {
+            if (written[0]) {
+                timeEntryArchive.discard(month);
+            }
+            throw e;
+        }
+
+        timeEntryArchive.activate(month);
+        // Перенесённые смены уходят из истории сотрудников
+        Cache shiftCache = cacheManager.getCache("shiftCache");
+        if (shiftCache != null) {
+            employees.forEach(shiftCache::evict);
+        }
+        log.info("Месяц {} перенесён в архив: смен {}, файл {} байт", month, result.shifts(), result.bytes());
+        return result;
+    }
+
+    /**
+     * Переносит в архив закрытые месяцы старше {@code time-tracking.archive.after-months} месяцев —
+     * ежедневно по расписанию {@code time-tracking.archive.cron}.
+     */
+    @Scheduled(cron = "${time-tracking.archive.cron:0 0 4 * * *}")
+    public void archiveClosedMonths() {
+        if (archiveAfterMonths <= 0) {
+            return;
+        }
+        YearMonth before = YearMonth.now().minusMonths(archiveAfterMonths);
+        Set<String> archived = archivedMonthRepository.findAll().stream()
+                                                      .map(ArchivedMonth::getYearMonth)
+                                                      .collect(Collectors.toSet());
+
+        for (String closed : reportSnapshotRepository.findClosedMonths()) {
+            YearMonth month = YearMonth.parse(closed);
+            if (month.isBefore(before) && !archived.contains(closed)) {
+                try {
+                    archiveMonth(month);
+                } catch (MonthAlreadyArchivedException e) {
+                    // Месяц переносится другим экземпляром
+                    log.info("Месяц {} не перенесён в архив: {}", month, e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package ru.samura.time_tracking_service.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ru.samura.time_tracking_service.DTO.ArchivedShift;
+import ru.samura.time_tracking_service.archive.TimeEntryArchive;
+import ru.samura.time_tracking_service.repository.TimeEntryRepository;
+
+/**
+ * Потоковая выгрузка записей времени за месяц для внешних систем расчёта зарплаты.
+ * <p>
+ * Строки читаются однонаправленным курсором JDBC ({@code TYPE_FORWARD_ONLY}, {@code fetchSize})
+ * и сразу пишутся в выходной поток — в памяти не накапливаются ни сущности, ни списки,
+ * поэтому потребление памяти не зависит от объёма месяца.
+ * Для месяца в архиве ({@link TimeEntryArchive}) после строк таблицы выгружаются смены из файла —
+ * без идентификатора смены.
+ *
+ * <p>
+ * ⚠️ PostgreSQL использует курсор с {@code fetchSize} только при выключенном autocommit,
+ * поэтому чтение выполняется внутри read-only транзакции.
+ *
+ */
+@Service
+public class TimeEntryExportService {
+
+    /**
+     * Количество строк, получаемых из БД за одно обращение к курсору.
+     */
+    static final int FETCH_SIZE = 1_000;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Метка времени ISO-8601 постоянной ширины: секунды и микросекунды (точность {@code timestamp} в PostgreSQL)
+     * выводятся всегда, в отличие от {@link LocalDateTime#toString()}, который опускает нулевые.
+     */
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSSSSS");
+
+    private static final String EXPORT_SQL = """
+        SELECT id, employee_id, register, check_out, is_manual
+        FROM time_entry
+        WHERE check_out >= ?
+          AND check_out < ?
+          AND register >= ?
+          AND register < ?
+        ORDER BY check_out
+        """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TimeEntryArchive timeEntryArchive;
+
+    /**
+     * Формат выгрузки.
+     */
+    public enum Format {
+        /** CSV с заголовком, разделитель — запятая. */
+        CSV("text/csv", "csv"),
+        /** Newline-delimited JSON: один JSON-объект на строку. */
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * Определяет формат по имени без учёта регистра ({@code csv}, {@code ndjson}).
+         *
+         * @param value имя формата
+         * @return формат
+         * @throws IllegalArgumentException если формат не поддерживается
+         */
+        public static Format fromValue(String value) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Неподдерживаемый формат выгрузки: " + value);
+        }
+    }
+
+    /**
+     * Выгружает все смены, завершённые в указанном месяце, в выходной поток.
+     *
+     * @param month отчётный месяц (по дате {@code check_out})
+     * @param format формат выгрузки
+     * @param outputStream поток ответа; не закрывается методом
+     * @return количество выгруженных строк
+     */
+    public long export(YearMonth month, Format format, OutputStream outputStream) {
+        Timestamp from = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+        // Ограничение по register отсекает секции time_entry, в которых смен месяца быть не может
+        Timestamp registerFrom = Timestamp.valueOf(month.atDay(1).atStartOfDay().minus(TimeEntryRepository.MAX_SHIFT_SPAN));
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        Long rows = transactionTemplate.execute(status -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+            long[] count = {0};
+
+            try {
+                if (format == Format.CSV) {
+                    writer.write("id,employee_id,check_in,check_out,is_manual\n");
+                }
+
+                jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(EXPORT_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(FETCH_SIZE);
+                    statement.setTimestamp(1, from);
+                    statement.setTimestamp(2, to);
+                    statement.setTimestamp(3, registerFrom);
+                    statement.setTimestamp(4, to);
+                    return statement;
+                }, resultSet -> {
+                    try {
+                        writeRow(writer, format, resultSet.getString(1), resultSet.getString(2),
+                                 resultSet.getTimestamp(3).toLocalDateTime(), resultSet.getTimestamp(4).toLocalDateTime(),
+                                 resultSet.getBoolean(5));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    count[0]++;
+                });
+
+                try (Stream<ArchivedShift> archived = timeEntryArchive.streamShifts(month)) {
+                    for (ArchivedShift shift : (Iterable<ArchivedShift>) archived::iterator) {
+                        writeRow(writer, format, null, shift.employeeId().toString(), shift.checkIn(), shift.checkOut(),
+                                 shift.manual());
+                        count[0]++;
+                    }
+                }
+
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return count[0];
+        });
+
+        return rows == null ? 0 : rows;
+    }
+
+    /**
+     * Пишет одну строку выгрузки. Значения — UUID, метки времени {@link #TIMESTAMP_FORMAT} и boolean,
+     * поэтому экранирование для CSV/JSON не требуется.
+     *
+     * @param writer буферизованный writer ответа
+     * @param format формат выгрузки
+     * @param id идентификатор смены; {@code null} для смены из архива — пустое значение в CSV, {@code null} в JSON
+     */
+    private void writeRow(Writer writer, Format format, String id, String employeeId, LocalDateTime checkInTime,
+                          LocalDateTime checkOutTime, boolean manual) throws IOException {
+        String checkIn = TIMESTAMP_FORMAT.format(checkInTime);
+        String checkOut = TIMESTAMP_FORMAT.format(checkOutTime);
+
+        if (format == Format.CSV) {
+            if (id != null) {
+                writer.write(id);
+            }
+            writer.write(',');
+            writer.write(employeeId);
+            writer.write(',');
+            writer.write(checkIn);
+            writer.write(',');
+            writer.write(checkOut);
+            writer.write(',');
+            writer.write(manual ? "true" : "false");
+            writer.write('\n');
+        } else {
+            if (id == null) {
+                writer.write("{\"id\":null,\"employeeId\":\"");
+            } else {
+                writer.write("{\"id\":\"");
+                writer.write(id);
+                writer.write("\",\"employeeId\":\"");
+            }
+            writer.write(employeeId);
+            writer.write("\",\"checkIn\":\"");
+            writer.write(checkIn);
+            writer.write("\",\"checkOut\":\"");
+            writer.write(checkOut);
+            writer.write("\",\"manual\":");
+            writer.write(manual ? "true" : "false");
+            writer.write("}\n");
+        }
+    }
+}
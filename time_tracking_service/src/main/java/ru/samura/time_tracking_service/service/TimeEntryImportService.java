@@ -0,0 +1,431 @@
+package ru.samura.time_tracking_service.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.samura.time_tracking_service.repository.EmployeeRepository;
+import ru.samura.time_tracking_service.repository.ReportSnapshotRepository;
+import ru.samura.time_tracking_service.repository.TimeEntryRepository;
+import ru.samura.time_tracking_service.response.TimeEntryImportResult;
+import ru.samura.time_tracking_service.response.TimeEntryImportResult.RejectedRow;
+
+/**
+ * Массовая загрузка исторических смен из CSV — при подключении площадки с многолетними данными
+ * старой системы учёта, где сохранение по одной сущности заняло бы часы.
+ * <p>
+ * Файл читается потоково и обрабатывается частями по {@code time-tracking.import.chunk-size} строк;
+ * в памяти находится только текущая часть. Для каждой части:
+ * <ol>
+ *   <li>сотрудники, ещё не встречавшиеся в файле, проверяются одним запросом
+ *       ({@link EmployeeRepository#findExistingIds}), результат запоминается до конца импорта;</li>
+ *   <li>в PostgreSQL создаются недостающие секции месяцев ({@link TimeEntryPartitionService#createPartitions});</li>
+ *   <li>строки загружаются в отдельной транзакции: в PostgreSQL — {@code COPY time_entry FROM STDIN},
+ *       в других СУБД (H2 в тестах) — JDBC-пакетом {@code INSERT}.</li>
+ * </ol>
+ * Строки с ошибкой (формат, уход раньше прихода, смена в будущем или длиннее
+ * {@link TimeEntryRepository#MAX_SHIFT_SPAN}, неизвестный сотрудник, закрытый месяц) отклоняются и попадают
+ * в отчёт с номером строки, остальные загружаются. После загрузки агрегаты затронутых месяцев пересчитываются
+ * по сменам ({@link MonthlyHoursRollupService#rebuild}) — одним чтением месяца вместо обновления на каждую часть.
+ *
+ * <p>
+ * Формат — как у выгрузки ({@link TimeEntryExportService}): заголовок и значения через запятую без кавычек.
+ * Обязательные столбцы — {@code employee_id}, {@code check_in}, {@code check_out}; необязательный — {@code is_manual};
+ * остальные (например, {@code id} выгрузки) пропускаются, идентификаторы смен создаются заново.
+ *
+ * <p>
+ * ⚠️ Импорт не идемпотентен: повторная загрузка того же файла продублирует смены. События прихода/ухода
+ * для загруженных смен не публикуются. При аварийной остановке процесса агрегаты уже загруженных месяцев
+ * остаются непересчитанными до {@link MonthlyHoursRollupService#reconcile(YearMonth)}.
+ *
+ */
+@Slf4j
+@Service
+public class TimeEntryImportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String COPY_SQL = "COPY time_entry (id, employee_id, register, check_out, is_manual) FROM STDIN";
+
+    private static final String INSERT_SQL = """
+        INSERT INTO time_entry (id, employee_id, register, check_out, is_manual)
+        VALUES (?, ?, ?, ?, ?)
+        """;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ReportSnapshotRepository reportSnapshotRepository;
+
+    @Autowired
+    private MonthlyHoursRollupService monthlyHoursRollupService;
+
+    @Autowired
+    private TimeEntryPartitionService timeEntryPartitionService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Количество строк в одной части (одна транзакция загрузки).
+     */
+    @Value("${time-tracking.import.chunk-size:10000}")
+    private int chunkSize;
+
+    /**
+     * Сколько первых отклонённых строк возвращается в отчёте с причиной.
+     */
+    @Value("${time-tracking.import.max-reported-rejections:1000}")
+    private int maxReportedRejections;
+
+    /**
+     * Загружает смены из CSV.
+     *
+     * @param input поток файла в UTF-8; не закрывается методом
+     * @return количество загруженных и отклонённых строк, отклонённые строки с причиной
+     * @throws IllegalArgumentException если в заголовке нет обязательных столбцов
+     * @throws IOException ошибка чтения потока
+     */
+    public TimeEntryImportResult importCsv(InputStream input) throws IOException {
+        long started = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+        Columns columns = Columns.parse(reader.readLine());
+        ImportRun run = new ImportRun(started, new HashSet<>(reportSnapshotRepository.findClosedMonths()));
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+
+        try {
+            long lineNumber = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    chunk.add(parseRow(lineNumber, line, columns, run));
+                } catch (IllegalArgumentException e) {
+                    run.reject(lineNumber, e.getMessage());
+                }
+                if (chunk.size() == chunkSize) {
+                    load(run, chunk);
+                    chunk.clear();
+                }
+            }
+            load(run, chunk);
+        } finally {
+            // Агрегаты пересчитываются и при ошибке чтения: загруженные части уже зафиксированы
+            for (YearMonth month : run.affectedMonths) {
+                monthlyHoursRollupService.rebuild(month);
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        log.info("Импорт смен завершён за {} мс: загружено {}, отклонено {}, месяцев пересчитано {}",
+                 elapsedMillis, run.imported, run.rejected, run.affectedMonths.size());
+        return new TimeEntryImportResult(run.imported, run.rejected, run.rejectedRows, elapsedMillis);
+    }
+
+    /**
+     * Разбирает и проверяет строку файла без обращения к БД.
+     *
+     * @throws IllegalArgumentException с причиной отклонения
+     */
+    private ImportRow parseRow(long lineNumber, String line, Columns columns, ImportRun run) {
+        String[] fields = line.split(",", -1);
+        if (fields.length < columns.width) {
+            throw new IllegalArgumentException("Ожидается столбцов: " + columns.width + ", в строке: " + fields.length);
+        }
+
+        UUID employeeId;
+        try {
+            employeeId = UUID.fromString(fields[columns.employeeId].trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Неверный идентификатор сотрудника: " + fields[columns.employeeId]);
+        }
+        LocalDateTime checkIn = parseTimestamp(fields[columns.checkIn]);
+        String checkOutValue = fields[columns.checkOut].trim();
+        if (checkOutValue.isEmpty()) {
+            throw new IllegalArgumentException("Не указано окончание смены: загружаются только закрытые смены");
+        }
+        LocalDateTime checkOut = parseTimestamp(checkOutValue);
+        boolean manual = columns.manual >= 0 && parseBoolean(fields[columns.manual]);
+
+        if (checkOut.isBefore(checkIn)) {
+            throw new IllegalArgumentException("Окончание смены раньше начала");
+        }
+        if (checkOut.isAfter(checkIn.plus(TimeEntryRepository.MAX_SHIFT_SPAN))) {
+            throw new IllegalArgumentException("Смена длиннее " + TimeEntryRepository.MAX_SHIFT_SPAN);
+        }
+        if (checkOut.isAfter(run.now)) {
+            throw new IllegalArgumentException("Смена заканчивается в будущем");
+        }
+        YearMonth month = YearMonth.from(checkOut);
+        if (run.closedMonths.contains(month.toString())) {
+            throw new IllegalArgumentException("Месяц " + month + " закрыт: откройте его заново перед импортом");
+        }
+
+        return new ImportRow(lineNumber, employeeId, checkIn, checkOut, manual);
+    }
+
+    /**
+     * Проверяет сотрудников части и загружает её строки в одной транзакции.
+     * Ошибка БД отклоняет всю часть — остальные части загружаются.
+     */
+    private void load(ImportRun run, List<ImportRow> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        Set<UUID> unchecked = new HashSet<>();
+        for (ImportRow row : chunk) {
+            if (!run.knownEmployees.contains(row.employeeId()) && !run.unknownEmployees.contains(row.employeeId())) {
+                unchecked.add(row.employeeId());
+            }
+        }
+        if (!unchecked.isEmpty()) {
+            List<UUID> existing = employeeRepository.findExistingIds(unchecked);
+            run.knownEmployees.addAll(existing);
+            existing.forEach(unchecked::remove);
+            run.unknownEmployees.addAll(unchecked);
+        }
+
+        List<ImportRow> rows = new ArrayList<>(chunk.size());
+        Set<UUID> employees = new HashSet<>();
+        Set<YearMonth> newPartitions = new TreeSet<>();
+        for (ImportRow row : chunk) {
+            if (run.unknownEmployees.contains(row.employeeId())) {
+                run.reject(row.line(), "Сотрудник не найден: " + row.employeeId());
+                continue;
+            }
+            rows.add(row);
+            employees.add(row.employeeId());
+            YearMonth checkInMonth = YearMonth.from(row.checkIn());
+            if (run.partitionedMonths.add(checkInMonth)) {
+                newPartitions.add(checkInMonth);
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        timeEntryPartitionService.createPartitions(newPartitions);
+
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                    if (connection.isWrapperFor(PGConnection.class)) {
+                        copy(connection.unwrap(PGConnection.class), rows);
+                    } else {
+                        insert(connection.prepareStatement(INSERT_SQL), rows);
+                    }
+                    return null;
+                }));
+        } catch (DataAccessException e) {
+            log.error("Не удалось загрузить часть файла (строки {}–{})", rows.get(0).line(), rows.get(rows.size() - 1).line(), e);
+            String reason = "Часть файла не загружена: " + e.getMostSpecificCause().getMessage();
+            for (ImportRow row : rows) {
+                run.reject(row.line(), reason);
+            }
+            return;
+        }
+
+        run.imported += rows.size();
+        for (ImportRow row : rows) {
+            run.affectedMonths.add(YearMonth.from(row.checkOut()));
+        }
+        Cache shiftCache = cacheManager.getCache("shiftCache");
+        if (shiftCache != null) {
+            employees.forEach(shiftCache::evict);
+        }
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - run.started) / 1_000_000);
+        log.info("Импорт смен: загружено {}, отклонено {}, {} строк/с",
+                 run.imported, run.rejected, (run.imported + run.rejected) * 1000 / elapsedMillis);
+    }
+
+    /**
+     * Загружает строки через {@code COPY ... FROM STDIN} (текстовый формат: табуляция между значениями).
+     * Значения — UUID, метки времени ISO-8601 и boolean, поэтому экранирование не требуется.
+     */
+    private static void copy(PGConnection connection, List<ImportRow> rows) throws SQLException {
+        StringBuilder buffer = new StringBuilder(rows.size() * 110);
+        for (ImportRow row : rows) {
+            buffer.append(UUID.randomUUID()).append('\t')
+                  .append(row.employeeId()).append('\t')
+                  .append(row.checkIn()).append('\t')
+                  .append(row.checkOut()).append('\t')
+                  .append(row.manual() ? 't' : 'f').append('\n');
+        }
+        try {
+            connection.getCopyAPI().copyIn(COPY_SQL, new StringReader(buffer.toString()));
+        } catch (IOException e) {
+            throw new SQLException("Ошибка передачи данных COPY", e);
+        }
+    }
+
+    private static void insert(PreparedStatement statement, List<ImportRow> rows) throws SQLException {
+        try (statement) {
+            for (ImportRow row : rows) {
+                statement.setObject(1, UUID.randomUUID());
+                statement.setObject(2, row.employeeId());
+                statement.setTimestamp(3, Timestamp.valueOf(row.checkIn()));
+                statement.setTimestamp(4, Timestamp.valueOf(row.checkOut()));
+                statement.setBoolean(5, row.manual());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Метка времени ISO-8601 ({@code 2024-03-01T08:00:00}) или с пробелом вместо {@code T}; выгрузка пишет её с микросекундами.
+     * Форматы {@code yyyy-MM-ddTHH:mm[:ss]} разбираются по позициям — вдвое быстрее {@link LocalDateTime#parse},
+     * который остаётся для дробных секунд.
+     *
+     * @throws IllegalArgumentException если значение не является меткой времени
+     */
+    static LocalDateTime parseTimestamp(String value) {
+        String v = value.trim();
+        int length = v.length();
+        try {
+            if ((length == 16 || length == 19) && v.charAt(4) == '-' && v.charAt(7) == '-'
+                && (v.charAt(10) == 'T' || v.charAt(10) == ' ') && v.charAt(13) == ':' && (length == 16 || v.charAt(16) == ':')) {
+                return LocalDateTime.of(digits(v, 0, 4), digits(v, 5, 7), digits(v, 8, 10),
+                                        digits(v, 11, 13), digits(v, 14, 16), length == 19 ? digits(v, 17, 19) : 0);
+            }
+            return LocalDateTime.parse(length > 10 && v.charAt(10) == ' ' ? v.substring(0, 10) + 'T' + v.substring(11) : v);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Неверная метка времени: " + value);
+        }
+    }
+
+    private static int digits(String value, int from, int to) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new DateTimeException(value);
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    static boolean parseBoolean(String value) {
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "", "false", "f", "0" -> false;
+            case "true", "t", "1" -> true;
+            default -> throw new IllegalArgumentException("Неверное значение is_manual: " + value);
+        };
+    }
+
+    /**
+     * Строка файла, прошедшая проверку формата.
+     */
+    private record ImportRow(long line, UUID employeeId, LocalDateTime checkIn, LocalDateTime checkOut, boolean manual) { }
+
+    /**
+     * Номера нужных столбцов по заголовку файла.
+     */
+    private static final class Columns {
+
+        private int employeeId = -1;
+        private int checkIn = -1;
+        private int checkOut = -1;
+        private int manual = -1;
+
+        /**
+         * Минимальное количество значений в строке — до последнего нужного столбца включительно.
+         */
+        private int width;
+
+        static Columns parse(String header) {
+            if (header == null) {
+                throw new IllegalArgumentException("Пустой файл: нет заголовка");
+            }
+            Columns columns = new Columns();
+            // Excel сохраняет UTF-8 с BOM
+            String[] names = header.replace("\uFEFF", "").split(",", -1);
+            for (int i = 0; i < names.length; i++) {
+                switch (names[i].trim().toLowerCase(Locale.ROOT)) {
+                    case "employee_id" -> columns.employeeId = i;
+                    case "check_in" -> columns.checkIn = i;
+                    case "check_out" -> columns.checkOut = i;
+                    case "is_manual" -> columns.manual = i;
+                    default -> { }
+                }
+            }
+            if (columns.employeeId < 0 || columns.checkIn < 0 || columns.checkOut < 0) {
+                throw new IllegalArgumentException("В заголовке нет обязательных столбцов employee_id, check_in, check_out: " + header);
+            }
+            columns.width = 1 + Math.max(Math.max(columns.employeeId, columns.checkIn), Math.max(columns.checkOut, columns.manual));
+            return columns;
+        }
+    }
+
+    /**
+     * Состояние одного импорта: счётчики, отклонённые строки и проверенные сотрудники.
+     */
+    private final class ImportRun {
+
+        private final long started;
+        private final LocalDateTime now = LocalDateTime.now();
+        private final Set<String> closedMonths;
+        private final Set<UUID> knownEmployees = new HashSet<>();
+        private final Set<UUID> unknownEmployees = new HashSet<>();
+        private final Set<YearMonth> partitionedMonths = new HashSet<>();
+        private final Set<YearMonth> affectedMonths = new TreeSet<>();
+        private final List<RejectedRow> rejectedRows = new ArrayList<>();
+        private long imported;
+        private long rejected;
+
+        ImportRun(long started, Set<String> closedMonths) {
+            this.started = started;
+            this.closedMonths = closedMonths;
+        }
+
+        void reject(long line, String reason) {
+            rejected++;
+            if (rejectedRows.size() < maxReportedRejections) {
+                rejectedRows.add(new RejectedRow(line, reason));
+            }
+        }
+    }
+}
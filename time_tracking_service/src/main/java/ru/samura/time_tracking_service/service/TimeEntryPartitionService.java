@@ -0,0 +1,244 @@
+package ru.samura.time_tracking_service.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.samura.time_tracking_service.entity.ArchivedMonth;
+import ru.samura.time_tracking_service.repository.ArchivedMonthRepository;
+
+/**
+ * Обслуживание секций таблицы {@code time_entry} (PostgreSQL, секционирование RANGE по {@code register} по месяцам).
+ * <p>
+ * При старте переводит обычную таблицу в секционированную ({@code db/time_entry_partitioning.sql},
+ * повторный запуск ничего не меняет). Затем ежедневно ({@code time-tracking.partitioning.cron}) и при старте:
+ * <ul>
+ *   <li>создаёт секции текущего и {@code months-ahead} следующих месяцев — вставки не попадают
+ *       в секцию по умолчанию;</li>
+ *   <li>отсоединяет секции старше {@code retention-months} месяцев и переносит их в схему
+ *       {@code archive-schema}. Отсоединяются только пустые секции месяцев, уже перенесённых в файлы архива
+ *       ({@link TimeEntryArchiveService}): смены из них читаются из архива, а в секции не осталось строк,
+ *       которые видят отчёты, выгрузка и история смен. Секция с оставшимися сменами (например, закрытыми
+ *       в следующем, ещё не перенесённом месяце) ждёт следующего обслуживания.</li>
+ * </ul>
+ *
+ * <p>
+ * На других СУБД (H2 в тестах) обслуживание не выполняется.
+ *
+ */
+@Slf4j
+@Service
+public class TimeEntryPartitionService {
+
+    static final String PARTITIONING_SCRIPT = "db/time_entry_partitioning.sql";
+
+    static final String PARTITION_PREFIX = "time_entry_";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    static final String LIST_PARTITIONS_SQL = """
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'time_entry'::regclass
+        """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ArchivedMonthRepository archivedMonthRepository;
+
+    @Value("${time-tracking.partitioning.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * Сколько месяцев после текущего должны иметь готовые секции.
+     */
+    @Value("${time-tracking.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    /**
+     * Сколько последних месяцев (включая текущий) остаются в {@code time_entry}; {@code 0} — не отсоединять.
+     */
+    @Value("${time-tracking.partitioning.retention-months:36}")
+    private int retentionMonths;
+
+    @Value("${time-tracking.partitioning.archive-schema:time_entry_archive}")
+    private String archiveSchema;
+
+    /**
+     * Переводит {@code time_entry} в секционированную таблицу (если это ещё не сделано) и обслуживает секции.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void partitionOnStartup() {
+        if (!isActive()) {
+            return;
+        }
+        jdbcTemplate.execute(partitioningScript());
+        maintainPartitions();
+    }
+
+    /**
+     * Создаёт секции на {@code months-ahead} месяцев вперёд и отсоединяет секции старше срока хранения.
+     * Ошибка с одной секцией не мешает обработке остальных.
+     */
+    @Scheduled(cron = "${time-tracking.partitioning.cron:0 0 2 * * *}")
+    public void maintainPartitions() {
+        if (!isActive()) {
+            return;
+        }
+        YearMonth current = YearMonth.now();
+
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            try {
+                jdbcTemplate.queryForObject("SELECT time_entry_create_partition(?)", String.class, Date.valueOf(month.atDay(1)));
+            } catch (DataAccessException e) {
+                // Например, секция по умолчанию уже содержит смены этого месяца
+                log.error("Не удалось создать секцию time_entry за {}", month, e);
+            }
+        }
+
+        if (retentionMonths <= 0) {
+            return;
+        }
+        YearMonth oldestRetained = current.minusMonths(retentionMonths - 1L);
+
+        for (String partition : expiredPartitions(oldestRetained)) {
+            try {
+                archive(partition);
+                log.info("Секция {} отсоединена от time_entry и перенесена в схему {}", partition, archiveSchema);
+            } catch (DataAccessException e) {
+                log.error("Не удалось перенести секцию {} в архив", partition, e);
+            }
+        }
+    }
+
+    /**
+     * Создаёт секции указанных месяцев, если их нет, — перед загрузкой исторических смен
+     * ({@link TimeEntryImportService}), чтобы они не попадали в секцию по умолчанию.
+     * Секции старше срока хранения будут перенесены в архив при следующем обслуживании.
+     *
+     * @param months месяцы начала загружаемых смен
+     */
+    public void createPartitions(Collection<YearMonth> months) {
+        if (months.isEmpty() || !isActive()) {
+            return;
+        }
+        for (YearMonth month : months) {
+            try {
+                jdbcTemplate.queryForObject("SELECT time_entry_create_partition(?)", String.class, Date.valueOf(month.atDay(1)));
+            } catch (DataAccessException e) {
+                log.error("Не удалось создать секцию time_entry за {}", month, e);
+            }
+        }
+    }
+
+    /**
+     * Пустые секции месяцев раньше {@code oldestRetained}, перенесённых в файлы архива,
+     * упорядоченные от старых к новым. Секция по умолчанию и секции с другими именами не учитываются.
+     *
+     * @param oldestRetained самый ранний месяц, который остаётся в {@code time_entry}
+     * @return имена секций для переноса в архивную схему
+     */
+    List<String> expiredPartitions(YearMonth oldestRetained) {
+        Set<String> archived = archivedMonthRepository.findAll().stream()
+                                                      .map(ArchivedMonth::getYearMonth)
+                                                      .collect(Collectors.toSet());
+        List<String> expired = new ArrayList<>();
+        for (String partition : jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class)) {
+            YearMonth month = partitionMonth(partition);
+            if (month != null && month.isBefore(oldestRetained) && archived.contains(month.toString())
+                && Boolean.FALSE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + quote(partition) + ")", Boolean.class))) {
+                expired.add(partition);
+            }
+        }
+        expired.sort(null);
+        return expired;
+    }
+
+    /**
+     * Имя секции месяца, совпадает с именем, которое создаёт {@code time_entry_create_partition}.
+     *
+     * @param month месяц
+     * @return имя секции, например {@code time_entry_2025_11}
+     */
+    static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+
+    /**
+     * Месяц секции по её имени.
+     *
+     * @param partition имя секции
+     * @return месяц или {@code null}, если имя не соответствует формату {@code time_entry_yyyy_MM}
+     */
+    static YearMonth partitionMonth(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Отсоединяет секцию и переносит её в архивную схему. {@code DETACH ... CONCURRENTLY} недоступен
+     * при наличии секции по умолчанию, поэтому родительская таблица блокируется на время отсоединения —
+     * для старой секции без вставок это быстро.
+     */
+    private void archive(String partition) {
+        jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + quote(archiveSchema));
+        jdbcTemplate.execute("ALTER TABLE time_entry DETACH PARTITION " + quote(partition));
+        jdbcTemplate.execute("ALTER TABLE " + quote(partition) + " SET SCHEMA " + quote(archiveSchema));
+    }
+
+    private boolean isActive() {
+        if (!enabled) {
+            return false;
+        }
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+            connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            log.warn("Секционирование time_entry поддерживается только в PostgreSQL, текущая СУБД: {}", database);
+            return false;
+        }
+        return true;
+    }
+
+    private static String quote(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+
+    private static String partitioningScript() {
+        try {
+            return new ClassPathResource(PARTITIONING_SCRIPT).getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,23 +1,46 @@
 package ru.samura.time_tracking_service.service;
 
-import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 
 import ru.samura.time_tracking_service.DTO.CalculationPayment;
 import ru.samura.time_tracking_service.DTO.EmployeeDTO;
+import ru.samura.time_tracking_service.DTO.ShiftPeriod;
+import ru.samura.time_tracking_service.DTO.ShiftView;
 import ru.samura.time_tracking_service.DTO.TimeEntryDTO;
+import ru.samura.time_tracking_service.archive.TimeEntryArchive;
 import ru.samura.time_tracking_service.custom_exception.ActiveShiftTodayException;
 import ru.samura.time_tracking_service.custom_exception.ClosedShiftTodayException;
 import ru.samura.time_tracking_service.custom_exception.NoShiftFoundException;
 import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.event.ClockEvent;
 import ru.samura.time_tracking_service.entity.TimeEntry;
 import ru.samura.time_tracking_service.repository.TimeEntryRepository;
 import ru.samura.time_tracking_service.response.TotalPaymentEmployeeResponse;
@@ -27,6 +50,7 @@ import ru.samura.time_tracking_service.response.TotalPaymentEmployeeResponse;
  * расчёт заработной платы за период.
  * <p>
  * Включает кеширование, валидацию состояния смены и агрегацию данных для отчётов.
+ * После каждого открытия/закрытия смены публикуется {@link ClockEvent}.
  * 
  */
 @Service
@@ -35,25 +59,97 @@ public class TimeEntryService {
     /**
      * Константа: количество рабочих дней в месяце, используемая при расчёте норматива.
      * <p>
-     * Используется в {@link #totalPaymentEmployee(EmployeeDTO, String)}.
+     * Используется в {@link #totalPaymentEmployee(EmployeeDTO, YearMonth)}.
      * 
      */
     final int WORKDAYS = 20;
 
+    /**
+     * Имя уникального ограничения «не более одной открытой смены сотрудника».
+     */
+    private static final String OPEN_SHIFT_CONSTRAINT = "uq_time_entry_open_shift";
+
+    /**
+     * Таймер {@code @Timed}-методов сервиса; метод и класс — в тегах {@code method}/{@code class}.
+     */
+    static final String SERVICE_TIMER = "time_tracking.service";
+
     @Autowired
     private TimeEntryRepository timeEntryRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MonthlyHoursRollupService monthlyHoursRollupService;
+
+    @Autowired
+    private TimeEntryArchive timeEntryArchive;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Максимальное число частей расчёта оплаты, выполняемых одновременно (каждая — в своём соединении с БД);
+     * {@code 1} — расчёт в вызывающем потоке одним запросом.
+     * Должно быть заметно меньше размера пула соединений, чтобы отчёт не отнимал соединения у открытия/закрытия смен.
+     */
+    @Value("${time-tracking.payroll.parallelism:1}")
+    private int payrollParallelism;
+
+    /**
+     * Количество сотрудников в одной части параллельного расчёта оплаты.
+     */
+    @Value("${time-tracking.payroll.chunk-size:1000}")
+    private int payrollChunkSize;
+
+    /**
+     * Период, сумма смен за который округляется до целых часов.
+     */
+    @Value("${time-tracking.payroll.rounding:month}")
+    private PayrollRounding payrollRounding;
+
+    /**
+     * Ограниченный пул для частей расчёта оплаты: не больше {@link #payrollParallelism} потоков
+     * на все одновременные отчёты; {@code null}, если параллельный режим выключен.
+     */
+    private ExecutorService payrollExecutor;
+
+    @PostConstruct
+    void startPayrollExecutor() {
+        if (payrollParallelism > 1) {
+            payrollExecutor = Executors.newFixedThreadPool(payrollParallelism,
+                                                           Thread.ofPlatform().name("payroll-", 1).daemon().factory());
+        }
+    }
+
+    @PreDestroy
+    void stopPayrollExecutor() {
+        if (payrollExecutor != null) {
+            payrollExecutor.shutdownNow();
+        }
+    }
+
     /**
      * Возвращает список всех смен сотрудника (активных и завершённых).
      * <p>
-     * Результат кешируется в {@code shiftCache} с ключом {@code employeeId}.
+     * Результат кешируется в {@code shiftCache} с ключом {@code employeeId}; запись сотрудника
+     * удаляется из кеша после каждого открытия/закрытия его смены
+     * ({@link ru.samura.time_tracking_service.cache.ShiftCacheEvictionListener}).
+     * Загрузка синхронизирована по ключу ({@code sync = true}), чтобы удаление не разминулось
+     * с параллельной загрузкой устаревших данных. В режиме виртуальных потоков загрузка выполняется
+     * вне этой блокировки ({@link ru.samura.time_tracking_service.cache.CacheConfiguration}).
+     * 
+     * <p>
+     * Смены читаются проекциями {@link ShiftView}: в кеше хранятся неизменяемые записи
+     * без сущностей и связанного сотрудника.
      * 
      *
      * @param employeeId идентификатор сотрудника
-     * @return список записей времени; может быть пустым
+     * @return список смен от новых к старым; может быть пустым
      */
-    @Cacheable(value = "shiftCache", key = "#id")
-    public List<TimeEntry> findShiftByEmployee(UUID employeeId) {
+    @Cacheable(value = "shiftCache", key = "#employeeId", sync = true)
+    public List<ShiftView> findShiftByEmployee(UUID employeeId) {
         return timeEntryRepository.findShiftsByEmployee(employeeId);
     }
 
@@ -61,18 +157,17 @@ public class TimeEntryService {
      * Проверяет, есть ли у сотрудника активная (не завершённая) смена сегодня.
      * <p>
      * Активной считается смена с {@code checkOut == null} и {@code checkIn} в текущей дате.
+     * Проверка выполняется одним запросом к открытой смене
+     * ({@link TimeEntryRepository#findOpenShiftByEmployee(UUID)}), без загрузки истории смен.
      * 
      *
      * @param employeeId идентификатор сотрудника
      * @return {@code true}, если активная смена сегодня существует; {@code false} — иначе
      */
     public boolean doesEmployeeHaveActiveShiftToday(UUID employeeId) {
-        List<TimeEntry> shifts = findShiftByEmployee(employeeId);
-
-        return shifts.stream().anyMatch(shift -> 
-            shift.getCheckOut() == null &&
-            shift.getCheckIn().toLocalDate().equals(LocalDate.now())
-        );
+        return timeEntryRepository.findOpenShiftByEmployee(employeeId)
+            .filter(shift -> shift.checkIn().toLocalDate().equals(LocalDate.now()))
+            .isPresent();
     }
 
     /**
@@ -81,34 +176,43 @@ public class TimeEntryService {
      * Учитывает только смены, у которых {@code checkOut != null}.
      * 
      *
-     * @param shift запись времени
+     * @param shift смена
      * @return {@code true}, если смена закрыта и обе временные метки относятся к сегодняшнему дню
      */
-    public boolean doesEmployeeHaveClosedShiftToday(TimeEntry shift) {
-        return shift.getCheckOut() != null && 
-               shift.getCheckIn().toLocalDate().equals(LocalDate.now()) &&
-               shift.getCheckOut().toLocalDate().equals(LocalDate.now());
+    public boolean doesEmployeeHaveClosedShiftToday(ShiftView shift) {
+        return shift.checkOut() != null && 
+               shift.checkIn().toLocalDate().equals(LocalDate.now()) &&
+               shift.checkOut().toLocalDate().equals(LocalDate.now());
     }
 
     /**
      * Регистрирует начало смены («приход») для сотрудника.
      * <p>
-     * Перед открытием проверяется отсутствие активной смены сегодня.
-     * Для HR устанавливается флаг {@code isManual = true}.
+     * Перед открытием проверяется отсутствие незакрытой смены — сегодняшней или начатой раньше
+     * (забытый «уход» нужно сначала отметить). Для HR устанавливается флаг {@code isManual = true}.
+     * 
+     * <p>
+     * Проверка выше — лишь быстрый путь: одновременные запросы (например, повторные сканы
+     * турникета) могут пройти её вместе. Окончательное решение принимает БД —
+     * уникальное ограничение {@code uq_time_entry_open_shift} пропускает только одну вставку,
+     * остальные получают {@link ActiveShiftTodayException}. Блокировок в приложении нет.
      * 
      *
      * @param employeeDTO данные сотрудника
      * @return DTO созданной смены
-     * @throws ActiveShiftTodayException если у сотрудника уже есть активная смена сегодня
+     * @throws ActiveShiftTodayException если у сотрудника уже есть незакрытая смена
      */
+    @Timed(value = SERVICE_TIMER, histogram = true)
     public TimeEntryDTO clockIn(EmployeeDTO employeeDTO) {
-        if (doesEmployeeHaveActiveShiftToday(employeeDTO.getId())) {
-            throw new ActiveShiftTodayException("У пользователя уже есть активная смена сегодня");
+        Optional<ShiftView> open = timeEntryRepository.findOpenShiftByEmployee(employeeDTO.getId());
+        if (open.isPresent()) {
+            throw new ActiveShiftTodayException(activeShiftMessage(open.get().checkIn(), LocalDate.now()));
         }
         TimeEntry timeEntry = new TimeEntry();
 
         timeEntry.setEmployee(employeeDTO.toEntity());
         timeEntry.setCheckIn(LocalDateTime.now());
+        timeEntry.setOpenShift(true);
 
         if (employeeDTO.getRole().equals(Role.HR)) {
             timeEntry.setManual(true);
@@ -116,104 +220,312 @@ public class TimeEntryService {
             timeEntry.setManual(false);
         }
 
-        TimeEntry savedTimeEntry = timeEntryRepository.save(timeEntry);
+        TimeEntry savedTimeEntry;
+        try {
+            savedTimeEntry = timeEntryRepository.saveAndFlush(timeEntry);
+        } catch (DataIntegrityViolationException e) {
+            if (!isOpenShiftConflict(e)) {
+                throw e;
+            }
+            throw new ActiveShiftTodayException("У пользователя уже есть незакрытая смена", e);
+        }
+
+        eventPublisher.publishEvent(new ClockEvent(ClockEvent.Type.CLOCK_IN, savedTimeEntry.getId(), employeeDTO.getId(),
+                                                   savedTimeEntry.getCheckIn(), savedTimeEntry.isManual()));
 
-        return TimeEntryDTO.fromEntity(savedTimeEntry);
+        return TimeEntryDTO.fromEntity(savedTimeEntry, employeeDTO);
+    }
+
+    /**
+     * Время закрытия смены с учётом наибольшей длительности смены.
+     * <p>
+     * Месячные выборки по {@code check_out} читают только смены, начатые не раньше
+     * {@link TimeEntryRepository#MAX_SHIFT_SPAN} до начала периода; поэтому каждый путь закрытия смены
+     * соблюдает эту длительность, иначе смена попала бы в агрегат, но не в расчёт по сменам.
+     * Смена длиннее — это забытый «уход», фактическое время которого неизвестно: она закрывается нулевой
+     * длительностью (в момент начала) и не оплачивается, пока HR не внесёт фактическое время.
+     *
+     * @param checkIn начало смены
+     * @param checkOut запрошенное время закрытия
+     * @return {@code checkOut} или {@code checkIn}, если смена длиннее {@code MAX_SHIFT_SPAN}
+     */
+    static LocalDateTime shiftEnd(LocalDateTime checkIn, LocalDateTime checkOut) {
+        return checkOut.isAfter(checkIn.plus(TimeEntryRepository.MAX_SHIFT_SPAN)) ? checkIn : checkOut;
+    }
+
+    /**
+     * Сообщение об отказе в открытии смены, пока не закрыта предыдущая.
+     *
+     * @param openCheckIn начало незакрытой смены
+     * @param day день новой смены
+     * @return текст для {@link ActiveShiftTodayException} и результатов пакетной обработки
+     */
+    static String activeShiftMessage(LocalDateTime openCheckIn, LocalDate day) {
+        if (openCheckIn.toLocalDate().equals(day)) {
+            return "У пользователя уже есть активная смена сегодня";
+        }
+        return "У пользователя есть незакрытая смена с " + openCheckIn.toLocalDate() + ": сначала отметьте уход";
+    }
+
+    /**
+     * Проверяет, что нарушено именно ограничение «одна открытая смена сотрудника»,
+     * а не другое (например, внешний ключ на несуществующего сотрудника).
+     *
+     * @param e исключение нарушения целостности
+     * @return {@code true}, если нарушено {@code uq_time_entry_open_shift}
+     */
+    private boolean isOpenShiftConflict(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violation
+            && violation.getConstraintName() != null
+            && violation.getConstraintName().toLowerCase().contains(OPEN_SHIFT_CONSTRAINT);
     }
 
     /**
      * Регистрирует окончание смены («уход») для сотрудника.
      * <p>
-     * Берёт последнюю смену из списка (предполагается, что она активна).
-     * Если смена уже закрыта сегодня — выбрасывается исключение.
+     * Закрывает текущую открытую смену сотрудника ({@link TimeEntryRepository#findOpenShiftByEmployee(UUID)}).
+     * Если открытой смены нет, по последней смене определяется причина:
+     * смена уже закрыта сегодня или закрывать нечего.
      * При вызове от HR устанавливается {@code isManual = true}.
      * 
+     * <p>
+     * Смена, открытая дольше {@link TimeEntryRepository#MAX_SHIFT_SPAN} (забытый «уход»), закрывается
+     * нулевой длительностью и помечается ручной — для проверки HR ({@link #shiftEnd}).
+     * 
+     * <p>
+     * Смена закрывается условным обновлением ({@link TimeEntryRepository#closeOpenShift}) и в той же
+     * транзакции учитывается в месячном агрегате ({@link MonthlyHoursRollupService#addShift}),
+     * поэтому одновременные закрытия одной смены не учитывают её дважды.
+     * 
      *
      * @param employeeDTO данные сотрудника
      * @param isHR {@code true}, если операцию выполняет HR-пользователь
      * @return DTO обновлённой (закрытой) смены
-     * @throws NoShiftFoundException если у сотрудника нет ни одной смены
+     * @throws NoShiftFoundException если у сотрудника нет открытой смены
      * @throws ClosedShiftTodayException если последняя смена уже закрыта сегодня
      */
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    @Transactional
     public TimeEntryDTO clockOut(EmployeeDTO employeeDTO, boolean isHR) {
-        TimeEntry shift = findShiftByEmployee(employeeDTO.getId()).stream().reduce((first, second) -> second)
-                    .orElseThrow(() -> new NoShiftFoundException("Нет смен для закрытия"));
+        ShiftView shift = timeEntryRepository.findOpenShiftByEmployee(employeeDTO.getId())
+                    .orElseThrow(() -> noOpenShiftException(employeeDTO.getId()));
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime checkOut = shiftEnd(shift.checkIn(), now);
+        boolean manual = isHR || shift.manual() || !checkOut.equals(now);
 
-        if (doesEmployeeHaveClosedShiftToday(shift)) {
-            throw new ClosedShiftTodayException("Нельзя перезакрыть закрытую смену");
+        // Смену закрыл параллельный запрос — повторно её не учитываем
+        if (timeEntryRepository.closeOpenShift(shift.id(), shift.checkIn(), checkOut, manual) == 0) {
+            throw noOpenShiftException(employeeDTO.getId());
         }
 
-        shift.setCheckOut(LocalDateTime.now());
+        ShiftView closed = new ShiftView(shift.id(), shift.checkIn(), checkOut, manual);
 
-        if (isHR) {
-            shift.setManual(true);
-        }
+        monthlyHoursRollupService.addShift(employeeDTO.getId(), closed.checkIn(), checkOut);
 
-        TimeEntry savedTimeEntry = timeEntryRepository.save(shift);
+        eventPublisher.publishEvent(new ClockEvent(ClockEvent.Type.CLOCK_OUT, closed.id(), employeeDTO.getId(),
+                                                   closed.checkOut(), closed.manual()));
 
-        return TimeEntryDTO.fromEntity(savedTimeEntry);
+        return TimeEntryDTO.fromView(closed, employeeDTO);
+    }
+
+    /**
+     * Формирует исключение для закрытия смены, когда открытой смены нет.
+     *
+     * @param employeeId идентификатор сотрудника
+     * @return {@link ClosedShiftTodayException}, если последняя смена закрыта сегодня,
+     *         иначе {@link NoShiftFoundException}
+     */
+    private RuntimeException noOpenShiftException(UUID employeeId) {
+        boolean closedToday = timeEntryRepository.findLatestShiftByEmployee(employeeId)
+            .filter(this::doesEmployeeHaveClosedShiftToday)
+            .isPresent();
+
+        if (closedToday) {
+            return new ClosedShiftTodayException("Нельзя перезакрыть закрытую смену");
+        }
+        return new NoShiftFoundException("Нет смен для закрытия");
     }
 
     /**
      * Рассчитывает заработную плату сотрудника за указанный месяц.
      * <p>
-     * Агрегирует все завершённые смены за месяц, суммирует часы,
+     * Берёт отработанное время из месячного агрегата — одна строка вместо всех смен месяца
+     * (пока агрегаты месяца не построены, {@link MonthlyHoursRollupService} суммирует смены сотрудника) —
+     * и округляет его до часов по правилу {@code time-tracking.payroll.rounding} ({@link PayrollRounding}):
+     * {@code shift} — сумма полных часов по сменам ({@link MonthlyHoursRollupService#totalHours}),
+     * {@code month} — полные часы суммы минут ({@link MonthlyHoursRollupService#totalMinutes}).
+     * Для {@code day} агрегата недостаточно — читаются смены сотрудника за месяц. Затем
      * сравнивает с нормативом ({@code WORKDAYS × workHoursPerDay}),
      * рассчитывает переработку (но не учитывает недоработку — {@code overtime} ≥ 0),
      * и итоговую оплату (без коэффициентов за переработку).
      * 
      *
      * @param employeeDTO данные сотрудника
-     * @param month месяц в формате {@code "yyyy-MM"} (например, {@code "2025-11"})
+     * @param month отчётный месяц
      * @return DTO с результатами расчёта
      */
-    public CalculationPayment totalPaymentEmployee(EmployeeDTO employeeDTO, String month) {
-        long totalHours = 0;
-        List<TimeEntry> timeEntries = timeEntryRepository.findShiftsForPaymentByEmployeeAndMonth(employeeDTO.getId(), month);
-        for (TimeEntry time : timeEntries) {
-            LocalDateTime checkIn = time.getCheckIn();
-            LocalDateTime checkOut = time.getCheckOut();
-
-            Duration duration = Duration.between(checkIn, checkOut);
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    public CalculationPayment totalPaymentEmployee(EmployeeDTO employeeDTO, YearMonth month) {
+        long totalHours = switch (payrollRounding) {
+            case SHIFT -> monthlyHoursRollupService.totalHours(employeeDTO.getId(), month);
+            case MONTH -> monthlyHoursRollupService.totalMinutes(employeeDTO.getId(), month) / 60;
+            case DAY -> readOnlyTransaction().execute(status -> {
+                WorkedHoursAccumulator worked = new WorkedHoursAccumulator(payrollRounding);
+                List<UUID> employeeIds = List.of(employeeDTO.getId());
+                try (Stream<ShiftPeriod> shifts = timeEntryArchive.withArchived(
+                    timeEntryRepository.streamClosedShiftsByEmployeesAndMonth(employeeIds, month), month, employeeIds)) {
+                    shifts.forEach(shift -> worked.add(shift.getCheckIn(), shift.getCheckOut()));
+                }
+                return worked.hours();
+            });
+        };
+        return calculatePayment(employeeDTO, totalHours);
+    }
 
-            totalHours += duration.toHours();
+    /**
+     * Рассчитывает заработную плату для списка сотрудников за указанный месяц.
+     * <p>
+     * Все завершённые смены месяца читаются <strong>одним</strong> потоковым запросом
+     * ({@link TimeEntryRepository#streamClosedShiftsByMonth(YearMonth)}, для месяца в архиве — вместе
+     * с файлом {@link TimeEntryArchive}) и суммируются по сотрудникам,
+     * вместо отдельного запроса на каждого сотрудника. Результат совпадает с вызовом
+     * {@link #totalPaymentEmployee(EmployeeDTO, YearMonth)} для каждого элемента списка.
+     * 
+     * <p>
+     * Если включён параллельный режим ({@code time-tracking.payroll.parallelism > 1}) и сотрудников больше
+     * {@code time-tracking.payroll.chunk-size}, список делится на части по {@code chunk-size} сотрудников.
+     * Каждая часть читает смены своих сотрудников отдельным запросом в собственной транзакции (и соединении)
+     * в ограниченном пуле {@link #payrollExecutor}; результаты частей собираются в порядке входного списка.
+     * Одновременно, по всем отчётам, занято не больше {@code parallelism} соединений.
+     * 
+     *
+     * @param employeeDTO список сотрудников
+     * @param month отчётный месяц
+     * @return список расчётов по каждому сотруднику (в порядке входного списка)
+     */
+    public List<CalculationPayment> totalPaymentEmployeeAll(List<EmployeeDTO> employeeDTO, YearMonth month) {
+        if (payrollExecutor != null && employeeDTO.size() > payrollChunkSize) {
+            return totalPaymentEmployeeAllParallel(employeeDTO, month);
         }
 
-        long expectedHours = WORKDAYS * employeeDTO.getWorkHoursPerDay();
-        long overtime = totalHours - expectedHours;
-        long payment = totalHours * employeeDTO.getHourlyRate();
-        return new CalculationPayment(employeeDTO, totalHours, expectedHours, overtime, payment);
+        return readOnlyTransaction().execute(status -> {
+            try (Stream<ShiftPeriod> shifts = timeEntryArchive.withArchived(
+                timeEntryRepository.streamClosedShiftsByMonth(month), month, null)) {
+                return calculatePayments(employeeDTO, shifts);
+            }
+        });
     }
 
     /**
-     * Рассчитывает заработную плату для списка сотрудников за указанный месяц.
+     * Параллельный расчёт оплаты по частям списка сотрудников.
      *
      * @param employeeDTO список сотрудников
-     * @param month месяц в формате {@code "yyyy-MM"}
-     * @return список расчётов по каждому сотруднику
+     * @param month отчётный месяц
+     * @return список расчётов по каждому сотруднику (в порядке входного списка)
      */
-    public List<CalculationPayment> totalPaymentEmployeeAll(List<EmployeeDTO> employeeDTO, String month) {
-        List<CalculationPayment> calculationPayments = new ArrayList<>();
+    private List<CalculationPayment> totalPaymentEmployeeAllParallel(List<EmployeeDTO> employeeDTO, YearMonth month) {
+        TransactionTemplate transactionTemplate = readOnlyTransaction();
+        List<Future<List<CalculationPayment>>> chunks = new ArrayList<>();
+
+        for (int from = 0; from < employeeDTO.size(); from += payrollChunkSize) {
+            List<EmployeeDTO> chunk = employeeDTO.subList(from, Math.min(from + payrollChunkSize, employeeDTO.size()));
+            List<UUID> employeeIds = chunk.stream().map(EmployeeDTO::getId).toList();
+
+            chunks.add(payrollExecutor.submit(() -> transactionTemplate.execute(status -> {
+                try (Stream<ShiftPeriod> shifts = timeEntryArchive.withArchived(
+                    timeEntryRepository.streamClosedShiftsByEmployeesAndMonth(employeeIds, month), month, employeeIds)) {
+                    return calculatePayments(chunk, shifts);
+                }
+            })));
+        }
+
+        List<CalculationPayment> calculationPayments = new ArrayList<>(employeeDTO.size());
+        try {
+            for (Future<List<CalculationPayment>> chunk : chunks) {
+                calculationPayments.addAll(chunk.get());
+            }
+        } catch (InterruptedException e) {
+            chunks.forEach(chunk -> chunk.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Расчёт оплаты прерван", e);
+        } catch (ExecutionException e) {
+            chunks.forEach(chunk -> chunk.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Ошибка расчёта оплаты", e.getCause());
+        }
+
+        return calculationPayments;
+    }
+
+    /**
+     * Суммирует время смен по сотрудникам и рассчитывает оплату каждого сотрудника списка.
+     * <p>
+     * Сумматоры ({@link WorkedHoursAccumulator}) создаются заранее, по одному на сотрудника:
+     * учёт смены — поиск в карте и сложение {@code long}, без создания объектов на каждую смену.
+     *
+     * @param employeeDTO сотрудники
+     * @param shifts завершённые смены (могут содержать смены сотрудников не из списка — они пропускаются)
+     * @return расчёты в порядке {@code employeeDTO}
+     */
+    private List<CalculationPayment> calculatePayments(List<EmployeeDTO> employeeDTO, Stream<ShiftPeriod> shifts) {
+        Map<UUID, WorkedHoursAccumulator> workedByEmployee = HashMap.newHashMap(employeeDTO.size());
+        for (EmployeeDTO dto : employeeDTO) {
+            workedByEmployee.put(dto.getId(), new WorkedHoursAccumulator(payrollRounding));
+        }
+
+        shifts.forEach(shift -> {
+            WorkedHoursAccumulator worked = workedByEmployee.get(shift.getEmployeeId());
+            if (worked != null) {
+                worked.add(shift.getCheckIn(), shift.getCheckOut());
+            }
+        });
+
+        List<CalculationPayment> calculationPayments = new ArrayList<>(employeeDTO.size());
 
         for (EmployeeDTO dto : employeeDTO) {
-            calculationPayments.add(totalPaymentEmployee(dto, month));
+            calculationPayments.add(calculatePayment(dto, workedByEmployee.get(dto.getId()).hours()));
         }
 
         return calculationPayments;
     }
 
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate;
+    }
+
+    /**
+     * Формирует итоговый расчёт по отработанным часам: норматив, переработка и оплата.
+     *
+     * @param employeeDTO данные сотрудника
+     * @param totalHours отработанные за месяц часы
+     * @return DTO с результатами расчёта
+     */
+    private CalculationPayment calculatePayment(EmployeeDTO employeeDTO, long totalHours) {
+        long expectedHours = WORKDAYS * employeeDTO.getWorkHoursPerDay();
+        long overtime = totalHours - expectedHours;
+        long payment = totalHours * employeeDTO.getHourlyRate();
+        return new CalculationPayment(employeeDTO, totalHours, expectedHours, overtime, payment);
+    }
+
     /**
      * Формирует список ответов для отчёта по заработной плате всех сотрудников за месяц.
      * <p>
      * Оборачивает результаты расчётов в {@link TotalPaymentEmployeeResponse}
      * с общим сообщением-заголовком.
+     * Транзакцию открывает сам расчёт ({@link #totalPaymentEmployeeAll}), поэтому в параллельном режиме
+     * поток запроса не держит соединение с БД, пока ждёт части расчёта.
      * 
      *
      * @param employeeDTOs список сотрудников
-     * @param month месяц в формате {@code "yyyy-MM"}
+     * @param month отчётный месяц
      * @return список ответов для API-отчёта
      */
-    public List<TotalPaymentEmployeeResponse> getTotalPaymentsForEmployees(List<EmployeeDTO> employeeDTOs, String month) {
+    public List<TotalPaymentEmployeeResponse> getTotalPaymentsForEmployees(List<EmployeeDTO> employeeDTOs, YearMonth month) {
         List<TotalPaymentEmployeeResponse> totalPaymentEmployeeResponses = new ArrayList<>();
 
         List<CalculationPayment> calculationPayments = totalPaymentEmployeeAll(employeeDTOs, month);
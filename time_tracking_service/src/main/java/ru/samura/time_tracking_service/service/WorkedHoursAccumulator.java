@@ -0,0 +1,92 @@
+package ru.samura.time_tracking_service.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Сумма отработанного времени одного сотрудника за месяц с округлением до часов по {@link PayrollRounding}.
+ * <p>
+ * Счётчики — примитивные {@code long} минут: добавление смены не создаёт объектов
+ * (ни {@link java.time.Duration}, ни упакованных {@code Long}), поэтому расчёт по всем сменам месяца
+ * не нагружает сборщик мусора. Для {@link PayrollRounding#DAY} минуты копятся по дням месяца
+ * в массиве, выделяемом один раз на сотрудника; порядок смен не важен.
+ *
+ */
+final class WorkedHoursAccumulator {
+
+    private static final int MINUTES_PER_HOUR = 60;
+
+    private final PayrollRounding rounding;
+
+    /**
+     * Минуты по дням месяца (индекс — число месяца), только для {@link PayrollRounding#DAY}.
+     */
+    private final long[] dayMinutes;
+
+    private long totalMinutes;
+
+    /**
+     * Сумма часов, округлённых по сменам, — для {@link PayrollRounding#SHIFT}.
+     */
+    private long shiftHours;
+
+    WorkedHoursAccumulator(PayrollRounding rounding) {
+        this.rounding = rounding;
+        this.dayMinutes = rounding == PayrollRounding.DAY ? new long[32] : null;
+    }
+
+    /**
+     * Учитывает завершённую смену.
+     *
+     * @param checkIn начало смены
+     * @param checkOut окончание смены; определяет день смены для {@link PayrollRounding#DAY}
+     */
+    void add(LocalDateTime checkIn, LocalDateTime checkOut) {
+        long minutes = shiftMinutes(checkIn, checkOut);
+        totalMinutes += minutes;
+        shiftHours += minutes / MINUTES_PER_HOUR;
+        if (dayMinutes != null) {
+            dayMinutes[checkOut.getDayOfMonth()] += minutes;
+        }
+    }
+
+    /**
+     * @return суммарная длительность смен в минутах, без округления
+     */
+    long totalMinutes() {
+        return totalMinutes;
+    }
+
+    /**
+     * @return отработанные часы, округлённые по правилу {@link PayrollRounding}
+     */
+    long hours() {
+        return switch (rounding) {
+            case SHIFT -> shiftHours;
+            case MONTH -> totalMinutes / MINUTES_PER_HOUR;
+            case DAY -> {
+                long hours = 0;
+                for (long minutes : dayMinutes) {
+                    hours += minutes / MINUTES_PER_HOUR;
+                }
+                yield hours;
+            }
+        };
+    }
+
+    /**
+     * Длительность смены в целых минутах — то же, что {@code Duration.between(checkIn, checkOut).toMinutes()}
+     * (неполная минута отбрасывается), но без создания {@link java.time.Duration}.
+     *
+     * @param checkIn начало смены
+     * @param checkOut окончание смены, не раньше начала
+     * @return число полных минут
+     */
+    static long shiftMinutes(LocalDateTime checkIn, LocalDateTime checkOut) {
+        long seconds = checkOut.toEpochSecond(ZoneOffset.UTC) - checkIn.toEpochSecond(ZoneOffset.UTC);
+        if (checkOut.getNano() < checkIn.getNano()) {
+            seconds--;
+        }
+        return seconds / 60;
+    }
+}
@@ -0,0 +1,176 @@
+package ru.samura.time_tracking_service.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import ru.samura.time_tracking_service.DTO.ClockEventRequest;
+import ru.samura.time_tracking_service.entity.ClockEventLogCheckpoint;
+import ru.samura.time_tracking_service.event.ClockEvent;
+import ru.samura.time_tracking_service.event.ClockEventLog;
+import ru.samura.time_tracking_service.repository.ClockEventLogCheckpointRepository;
+import ru.samura.time_tracking_service.response.BatchClockEventResult;
+import ru.samura.time_tracking_service.response.BatchClockEventResult.Status;
+
+/**
+ * Отложенная запись событий прихода/ухода ({@code time-tracking.clock-log.enabled=true}).
+ * <p>
+ * Запрос на приход/уход только дописывает событие в локальный журнал ({@link ClockEventLog}) и получает
+ * ответ после {@code fsync} — без обращения к {@code time_entry}. Фоновая задача ({@link #drain()})
+ * применяет накопленные события пакетами через {@link BatchClockService} — с теми же правилами,
+ * что и при прямой записи, — и в той же транзакции сдвигает отметку применённых событий
+ * ({@link ClockEventLogCheckpoint}). После падения применение продолжается с отметки:
+ * каждое событие журнала применяется ровно один раз.
+ *
+ * <p>
+ * ⚠️ Нарушения правил (повторный приход, уход без открытой смены, неизвестный сотрудник) обнаруживаются
+ * только при применении и записываются в лог — клиент уже получил {@code 202 Accepted}.
+ * Журнал локальный: каждый экземпляр сервиса должен иметь свой каталог и свой {@code node-id}.
+ *
+ *
+ * @see ClockEventLog
+ */
+@Slf4j
+@Service
+public class WriteBehindClockService {
+
+    @Autowired
+    private BatchClockService batchClockService;
+
+    @Autowired
+    private ClockEventLogCheckpointRepository checkpointRepository;
+
+    @Value("${time-tracking.clock-log.enabled:false}")
+    private boolean enabled;
+
+    @Value("${time-tracking.clock-log.directory:./data/clock-log}")
+    private Path directory;
+
+    /**
+     * Идентификатор экземпляра: ключ отметки применённых событий его журнала.
+     */
+    @Value("${time-tracking.clock-log.node-id:local}")
+    private String nodeId;
+
+    /**
+     * Максимальное количество событий, применяемых одной транзакцией (не больше {@code time-tracking.batch.max-events}).
+     */
+    @Value("${time-tracking.clock-log.drain-batch-size:1000}")
+    private int drainBatchSize;
+
+    /**
+     * Размер сегмента журнала, после которого полностью применённый сегмент заменяется новым.
+     */
+    @Value("${time-tracking.clock-log.segment-max-bytes:67108864}")
+    private long segmentMaxBytes;
+
+    private final ReentrantLock drainLock = new ReentrantLock();
+
+    private ClockEventLog clockEventLog;
+
+    private volatile long appliedSequence;
+
+    /**
+     * Открывает журнал и восстанавливает его после падения; применение начнётся с сохранённой отметки.
+     */
+    @PostConstruct
+    public void open() {
+        if (!enabled) {
+            return;
+        }
+        ClockEventLogCheckpoint checkpoint = checkpointRepository.findById(nodeId)
+            .orElseGet(() -> checkpointRepository.save(new ClockEventLogCheckpoint(nodeId, 0)));
+        appliedSequence = checkpoint.getAppliedSequence();
+        clockEventLog = ClockEventLog.open(directory, appliedSequence);
+        log.info("Журнал событий {} открыт: применены события до {}, записаны до {}",
+                 directory, appliedSequence, clockEventLog.durableSequence());
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (clockEventLog != null) {
+            clockEventLog.close();
+        }
+    }
+
+    /**
+     * @return {@code true}, если приход/уход записываются через журнал
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Дописывает событие в журнал с текущим временем и дожидается его {@code fsync}.
+     *
+     * @param employeeId идентификатор сотрудника
+     * @param type приход или уход
+     * @param manual уход фиксирует HR
+     * @return принятое событие (время — время прохода)
+     * @throws java.io.UncheckedIOException если событие не удалось записать — событие не принято
+     */
+    public ClockEventRequest record(UUID employeeId, ClockEvent.Type type, boolean manual) {
+        ClockEventRequest event = new ClockEventRequest(employeeId, type, LocalDateTime.now(), manual);
+        clockEventLog.append(event);
+        return event;
+    }
+
+    /**
+     * Применяет записанные события к {@code time_entry}, пока не применит все зафиксированные.
+     * Отклонённые события (нарушение правил, конфликт) считаются применёнными и записываются в лог.
+     * При ошибке БД применение повторяется со следующего запуска с сохранённой отметки.
+     */
+    @Scheduled(fixedDelayString = "${time-tracking.clock-log.drain-delay-ms:200}")
+    public void drain() {
+        if (!enabled || !drainLock.tryLock()) {
+            return;
+        }
+        try {
+            List<ClockEventLog.Entry> entries;
+            while (!(entries = clockEventLog.read(appliedSequence + 1, drainBatchSize)).isEmpty()) {
+                apply(entries);
+            }
+            clockEventLog.compact(appliedSequence, segmentMaxBytes);
+        } catch (RuntimeException e) {
+            log.error("Не удалось применить события журнала после {}", appliedSequence, e);
+            // Часть событий могла быть применена до ошибки
+            appliedSequence = checkpointRepository.findById(nodeId).orElseThrow().getAppliedSequence();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * @return номер последнего применённого события журнала
+     */
+    public long appliedSequence() {
+        return appliedSequence;
+    }
+
+    private void apply(List<ClockEventLog.Entry> entries) {
+        long firstSequence = entries.get(0).sequence();
+        List<ClockEventRequest> events = entries.stream().map(ClockEventLog.Entry::event).toList();
+
+        List<BatchClockEventResult> results = batchClockService.process(events,
+            index -> checkpointRepository.advance(nodeId, firstSequence + index));
+
+        for (BatchClockEventResult result : results) {
+            if (result.status() != Status.OK) {
+                log.warn("Событие журнала {} отклонено: {} {} сотрудника {} — {}", firstSequence + result.index(),
+                         result.status(), result.type(), result.employeeId(), result.message());
+            }
+        }
+        appliedSequence = entries.get(entries.size() - 1).sequence();
+    }
+}
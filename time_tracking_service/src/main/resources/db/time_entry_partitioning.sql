@@ -0,0 +1,86 @@
+-- Секционирование time_entry по месяцам (RANGE по register), только PostgreSQL.
+-- Выполняется TimeEntryPartitionService при старте целиком, одной командой; повторный запуск ничего не меняет.
+
+-- Создаёт секцию месяца, если её нет, и возвращает её имя.
+-- Уникальность открытой смены (employee_id, open_shift) поддерживается индексом каждой секции: уникальный
+-- индекс секционированной таблицы обязан включать register, а открытые смены разных месяцев лежат в разных
+-- секциях. Смену, открытую в прошлом месяце, до вставки находит TimeEntryService.clockIn
+-- (и пакетная обработка), поэтому индекс секции закрывает гонку одновременных открытий одного месяца.
+CREATE OR REPLACE FUNCTION time_entry_create_partition(month DATE) RETURNS TEXT AS $$
+DECLARE
+    start_at DATE := date_trunc('month', month)::DATE;
+    suffix TEXT := to_char(start_at, 'YYYY_MM');
+    partition_name TEXT := 'time_entry_' || suffix;
+BEGIN
+    IF to_regclass(partition_name) IS NULL THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF time_entry FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, start_at, (start_at + INTERVAL '1 month')::DATE);
+        EXECUTE format('CREATE UNIQUE INDEX %I ON %I (employee_id, open_shift)',
+                       'uq_time_entry_open_shift_' || suffix, partition_name);
+    END IF;
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Переносит обычную таблицу time_entry в секционированную: секции по месяцам существующих смен,
+-- секция по умолчанию для смен вне созданных месяцев. Выполняется в одной транзакции под эксклюзивной
+-- блокировкой таблицы — на больших таблицах запускать в окно обслуживания.
+DO $$
+DECLARE
+    first_month DATE;
+    last_month DATE;
+    partition_month DATE;
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = 'time_entry'::regclass) THEN
+        RETURN;
+    END IF;
+
+    LOCK TABLE time_entry IN ACCESS EXCLUSIVE MODE;
+
+    -- Освобождаем имена индексов и ограничений старой таблицы
+    ALTER TABLE time_entry RENAME TO time_entry_heap;
+    ALTER TABLE time_entry_heap DROP CONSTRAINT IF EXISTS uq_time_entry_open_shift;
+    ALTER INDEX IF EXISTS time_entry_pkey RENAME TO time_entry_heap_pkey;
+    DROP INDEX IF EXISTS idx_time_entry_employee_id;
+    DROP INDEX IF EXISTS idx_time_entry_register;
+    DROP INDEX IF EXISTS idx_time_entry_check_out;
+    DROP INDEX IF EXISTS idx_time_entry_employee_check_out;
+    DROP INDEX IF EXISTS idx_time_entry_open_shift;
+
+    -- Первичный ключ секционированной таблицы обязан включать ключ секционирования
+    CREATE TABLE time_entry (
+        id UUID NOT NULL DEFAULT gen_random_uuid(),
+        employee_id UUID NOT NULL REFERENCES employees(id) ON DELETE CASCADE,
+        register TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+        check_out TIMESTAMP WITHOUT TIME ZONE,
+        is_manual BOOLEAN NOT NULL DEFAULT FALSE,
+        open_shift BOOLEAN,
+        CONSTRAINT time_entry_pkey PRIMARY KEY (id, register)
+    ) PARTITION BY RANGE (register);
+
+    CREATE TABLE time_entry_default PARTITION OF time_entry DEFAULT;
+    CREATE UNIQUE INDEX uq_time_entry_open_shift_default ON time_entry_default (employee_id, open_shift);
+
+    SELECT date_trunc('month', MIN(register))::DATE, date_trunc('month', MAX(register))::DATE
+    INTO first_month, last_month
+    FROM time_entry_heap;
+
+    partition_month := first_month;
+    WHILE partition_month <= last_month LOOP
+        PERFORM time_entry_create_partition(partition_month);
+        partition_month := (partition_month + INTERVAL '1 month')::DATE;
+    END LOOP;
+
+    INSERT INTO time_entry (id, employee_id, register, check_out, is_manual, open_shift)
+    SELECT id, employee_id, register, check_out, is_manual, open_shift
+    FROM time_entry_heap;
+
+    DROP TABLE time_entry_heap;
+
+    -- Секционированные индексы: создаются в каждой секции, в том числе в будущих
+    CREATE INDEX idx_time_entry_employee_check_out ON time_entry (employee_id, check_out);
+    CREATE INDEX idx_time_entry_employee_register ON time_entry (employee_id, register);
+    CREATE INDEX idx_time_entry_check_out ON time_entry (check_out);
+    CREATE INDEX idx_time_entry_open_shift ON time_entry (employee_id) WHERE check_out IS NULL;
+END;
+$$;
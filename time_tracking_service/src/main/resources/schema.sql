@@ -11,16 +11,46 @@ CREATE TABLE IF NOT EXISTS employees (
     role role_enum NOT NULL
 );
 
--- Таблица записей времени
+-- Таблица записей времени. В PostgreSQL при time-tracking.partitioning.enabled=true переводится
+-- в секционированную по месяцам register (db/time_entry_partitioning.sql, TimeEntryPartitionService)
 CREATE TABLE IF NOT EXISTS time_entry (
     id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
     employee_id UUID NOT NULL REFERENCES employees(id) ON DELETE CASCADE,
     register TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     check_out TIMESTAMP WITHOUT TIME ZONE,
-    is_manual BOOLEAN NOT NULL DEFAULT FALSE
+    is_manual BOOLEAN NOT NULL DEFAULT FALSE,
+    -- TRUE у открытой смены, NULL после закрытия: не более одной открытой смены сотрудника
+    open_shift BOOLEAN,
+    CONSTRAINT uq_time_entry_open_shift UNIQUE (employee_id, open_shift)
 );
 
--- Индексы для производительности
-CREATE INDEX IF NOT EXISTS idx_time_entry_employee_id ON time_entry(employee_id);
-CREATE INDEX IF NOT EXISTS idx_time_entry_register ON time_entry(register);
-CREATE INDEX IF NOT EXISTS idx_time_entry_check_out ON time_entry(check_out);
\ No newline at end of file
+-- Месячные агрегаты отработанного времени (обновляются при закрытии смены, сверяются с time_entry по расписанию)
+CREATE TABLE IF NOT EXISTS monthly_hours_rollup (
+    employee_id UUID NOT NULL,
+    year_month VARCHAR(7) NOT NULL,
+    total_minutes BIGINT NOT NULL,
+    total_hours BIGINT NOT NULL,
+    shift_count INTEGER NOT NULL,
+    PRIMARY KEY (employee_id, year_month)
+);
+
+-- Месяцы, агрегаты которых построены по всем сменам (для остальных расчёт оплаты читает смены)
+CREATE TABLE IF NOT EXISTS monthly_hours_rollup_month (
+    year_month VARCHAR(7) PRIMARY KEY,
+    built_at TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
+-- Индексы для производительности (при секционировании пересоздаются на секционированной таблице,
+-- см. db/time_entry_partitioning.sql). Отдельные индексы по employee_id и register не нужны:
+-- employee_id — первый столбец составных индексов, по register таблица секционирована.
+-- История смен сотрудника: employee_id = ? ORDER BY register DESC
+CREATE INDEX IF NOT EXISTS idx_time_entry_employee_register ON time_entry(employee_id, register);
+CREATE INDEX IF NOT EXISTS idx_time_entry_check_out ON time_entry(check_out);
+-- Составной индекс для месячных выборок по сотруднику: employee_id = ? AND check_out >= ? AND check_out < ?
+CREATE INDEX IF NOT EXISTS idx_time_entry_employee_check_out ON time_entry(employee_id, check_out);
+
+-- Частичный индекс для поиска текущей открытой смены сотрудника (clock-in/clock-out)
+CREATE INDEX IF NOT EXISTS idx_time_entry_open_shift ON time_entry(employee_id) WHERE check_out IS NULL;
+
+-- Keyset-пагинация списка сотрудников по ФИО: (fio, id) > (?, ?) ORDER BY fio, id (столбец создаёт Hibernate — без кавычек)
+CREATE INDEX IF NOT EXISTS idx_employees_fio_id ON employees(fio, id);
@@ -0,0 +1,106 @@
+package ru.samura.time_tracking_service.archive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.StreamSupport;
+
+import org.junit.jupiter.api.Test;
+
+import ru.samura.time_tracking_service.DTO.ArchivedShift;
+
+/**
+ * Проверяет столбцовый формат архива смен: восстановление смен без потерь (включая дробные секунды,
+ * признак ручного закрытия и словарь на тысячи сотрудников), отбор по сотрудникам, размер и контрольную сумму.
+ */
+public class ColumnarShiftFileTests {
+
+    private static final YearMonth MONTH = YearMonth.of(2024, 3);
+
+    @Test
+    void testRoundTrip_RestoresShiftsInCheckInOrder() {
+        List<ArchivedShift> shifts = shifts(300, 5, new Random(1));
+        // Дробные секунды, смена из предыдущего месяца и нулевая смена
+        shifts.add(new ArchivedShift(UUID.randomUUID(), LocalDateTime.of(2024, 3, 4, 9, 0, 0, 123_456_000),
+                                     LocalDateTime.of(2024, 3, 4, 17, 59, 59, 999_999_000), true));
+        shifts.add(new ArchivedShift(UUID.randomUUID(), LocalDateTime.of(2024, 2, 29, 22, 0),
+                                     LocalDateTime.of(2024, 3, 1, 6, 0), false));
+        shifts.add(new ArchivedShift(UUID.randomUUID(), LocalDateTime.of(2024, 3, 31, 23, 59),
+                                     LocalDateTime.of(2024, 3, 31, 23, 59), false));
+
+        ColumnarShiftFile.Reader reader = ColumnarShiftFile.open(ColumnarShiftFile.encode(MONTH, shifts));
+
+        List<ArchivedShift> expected = new ArrayList<>(shifts);
+        expected.sort(Comparator.comparing(ArchivedShift::checkIn));
+        assertEquals(MONTH, reader.month());
+        assertEquals(shifts.size(), reader.rows());
+        assertEquals(expected, read(reader, null));
+    }
+
+    @Test
+    void testSpliterator_FiltersEmployees() {
+        List<ArchivedShift> shifts = shifts(20, 10, new Random(2));
+        UUID first = shifts.get(0).employeeId();
+        UUID second = shifts.get(10).employeeId();
+
+        ColumnarShiftFile.Reader reader = ColumnarShiftFile.open(ColumnarShiftFile.encode(MONTH, shifts));
+
+        List<ArchivedShift> expected = shifts.stream()
+                                             .filter(shift -> shift.employeeId().equals(first) || shift.employeeId().equals(second))
+                                             .sorted(Comparator.comparing(ArchivedShift::checkIn))
+                                             .toList();
+        assertEquals(20, expected.size());
+        assertEquals(expected, read(reader, Set.of(first, second, UUID.randomUUID())));
+        assertTrue(read(reader, Set.of(UUID.randomUUID())).isEmpty());
+    }
+
+    @Test
+    void testEncode_UsesFewBytesPerShift() {
+        List<ArchivedShift> shifts = shifts(200, 20, new Random(3));
+
+        ByteBuffer file = ColumnarShiftFile.encode(MONTH, shifts);
+
+        int dictionary = 200 * 16;
+        double bytesPerShift = (double) (file.remaining() - dictionary) / shifts.size();
+        assertTrue(bytesPerShift <= 8, "Байт на смену: " + bytesPerShift);
+    }
+
+    @Test
+    void testOpen_RejectsCorruptedFile() {
+        ByteBuffer file = ColumnarShiftFile.encode(MONTH, shifts(3, 3, new Random(4)));
+        file.put(file.limit() / 2, (byte) (file.get(file.limit() / 2) ^ 1));
+
+        assertThrows(IllegalStateException.class, () -> ColumnarShiftFile.open(file));
+        assertThrows(IllegalStateException.class, () -> ColumnarShiftFile.open(ByteBuffer.allocate(64)));
+    }
+
+    /**
+     * Смены с 9:00 до 17:00–19:00 с точностью до секунды, каждая пятая — закрыта вручную.
+     */
+    private static List<ArchivedShift> shifts(int employees, int shiftsPerEmployee, Random random) {
+        List<ArchivedShift> shifts = new ArrayList<>();
+        for (int e = 0; e < employees; e++) {
+            UUID employeeId = UUID.randomUUID();
+            for (int s = 0; s < shiftsPerEmployee; s++) {
+                LocalDateTime checkIn = MONTH.atDay(1 + s % 28).atTime(9, 0).plusSeconds(random.nextInt(600));
+                shifts.add(new ArchivedShift(employeeId, checkIn, checkIn.plusHours(8).plusSeconds(random.nextInt(7200)),
+                                             random.nextInt(5) == 0));
+            }
+        }
+        return shifts;
+    }
+
+    private static List<ArchivedShift> read(ColumnarShiftFile.Reader reader, Set<UUID> employeeIds) {
+        return StreamSupport.stream(reader.spliterator(employeeIds), false).toList();
+    }
+}
@@ -0,0 +1,74 @@
+package ru.samura.time_tracking_service.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import ru.samura.time_tracking_service.entity.Employee;
+import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.repository.EmployeeRepository;
+import ru.samura.time_tracking_service.service.EmployeeService;
+
+@SpringBootTest
+public class CacheConfigurationTests {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Test
+    void testCaches_AreBoundedCaffeineCaches() {
+        for (String name : new String[] {"employeeCache", "shiftCache", "getInfoAboutAllEmployee"}) {
+            CaffeineCache cache = assertInstanceOf(CaffeineCache.class, cacheManager.getCache(name));
+
+            assertTrue(cache.getNativeCache().policy().eviction().isPresent(), "Кеш " + name + " должен быть ограничен по размеру");
+            assertTrue(cache.getNativeCache().policy().expireAfterWrite().isPresent(), "Кеш " + name + " должен иметь TTL");
+            assertTrue(cache.getNativeCache().policy().isRecordingStats(), "Кеш " + name + " должен собирать статистику");
+        }
+
+        CaffeineCache employeeCache = (CaffeineCache) cacheManager.getCache("employeeCache");
+        assertEquals(10_000, employeeCache.getNativeCache().policy().eviction().get().getMaximum());
+        assertTrue(employeeCache.getNativeCache().policy().refreshAfterWrite().isPresent());
+    }
+
+    @Test
+    void testEmployeeCache_HitsAreExposedAsMetrics() {
+        Employee employee = new Employee();
+        employee.setFullName("Метрики Кеша");
+        employee.setEmail("cache-" + UUID.randomUUID() + "@company.com");
+        employee.setHourlyRate(1000);
+        employee.setWorkHoursPerDay(8);
+        employee.setRole(Role.EMPLOYEE);
+        UUID id = employeeRepository.save(employee).getId();
+
+        FunctionCounter hits = meterRegistry.find("cache.gets").tags("cache", "employeeCache", "result", "hit").functionCounter();
+        assertNotNull(hits, "Статистика employeeCache должна быть зарегистрирована в Micrometer");
+        double before = hits.count();
+
+        employeeService.getEmployeeInfo(id);
+        employeeService.getEmployeeInfo(id);
+
+        assertEquals(before + 1, hits.count(), "Повторное обращение должно считаться попаданием в кеш");
+
+        employeeRepository.deleteById(id);
+    }
+}
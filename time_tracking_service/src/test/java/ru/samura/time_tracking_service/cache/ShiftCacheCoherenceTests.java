@@ -0,0 +1,148 @@
+package ru.samura.time_tracking_service.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import ru.samura.time_tracking_service.DTO.EmployeeDTO;
+import ru.samura.time_tracking_service.DTO.ShiftView;
+import ru.samura.time_tracking_service.entity.Employee;
+import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.repository.EmployeeRepository;
+import ru.samura.time_tracking_service.service.TimeEntryService;
+
+/**
+ * Проверяет согласованность {@code shiftCache} с БД при записи смен, в том числе при
+ * одновременных чтениях и записях.
+ */
+@SpringBootTest
+public class ShiftCacheCoherenceTests {
+
+    private static final int SHIFTS = 25;
+    private static final int READERS = 8;
+
+    @Autowired
+    private TimeEntryService timeEntryService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<EmployeeDTO> employees = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        employees.add(saveEmployee());
+        employees.add(saveEmployee());
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (EmployeeDTO employee : employees) {
+            jdbcTemplate.update("DELETE FROM time_entry WHERE employee_id = ?", employee.getId());
+            employeeRepository.deleteById(employee.getId());
+        }
+    }
+
+    @Test
+    void testShiftCache_IsKeyedByEmployee() {
+        EmployeeDTO first = employees.get(0);
+        EmployeeDTO second = employees.get(1);
+
+        timeEntryService.clockIn(first);
+
+        assertEquals(1, timeEntryService.findShiftByEmployee(first.getId()).size());
+        assertTrue(timeEntryService.findShiftByEmployee(second.getId()).isEmpty(),
+                   "Смены одного сотрудника не должны возвращаться для другого");
+    }
+
+    @Test
+    void testShiftCache_EvictedOnClockInAndClockOut() {
+        EmployeeDTO employee = employees.get(0);
+        EmployeeDTO other = employees.get(1);
+
+        assertTrue(timeEntryService.findShiftByEmployee(employee.getId()).isEmpty());
+        timeEntryService.findShiftByEmployee(other.getId());
+
+        timeEntryService.clockIn(employee);
+        List<ShiftView> afterClockIn = timeEntryService.findShiftByEmployee(employee.getId());
+        assertEquals(1, afterClockIn.size(), "После открытия смены кеш не должен отдавать пустой список");
+        assertNull(afterClockIn.get(0).checkOut());
+
+        timeEntryService.clockOut(employee, false);
+        List<ShiftView> afterClockOut = timeEntryService.findShiftByEmployee(employee.getId());
+        assertEquals(1, afterClockOut.size());
+        assertTrue(afterClockOut.get(0).checkOut() != null, "После закрытия смены кеш не должен отдавать открытую смену");
+    }
+
+    @Test
+    void testShiftCache_ConsistentAfterInterleavedReadsAndWrites() throws Exception {
+        EmployeeDTO employee = employees.get(0);
+        ExecutorService executor = Executors.newFixedThreadPool(READERS + 1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int i = 0; i < READERS; i++) {
+                readers.add(executor.submit(() -> {
+                    while (writing.get()) {
+                        timeEntryService.findShiftByEmployee(employee.getId());
+                    }
+                }));
+            }
+
+            Future<?> writer = executor.submit(() -> {
+                try {
+                    for (int i = 0; i < SHIFTS; i++) {
+                        timeEntryService.clockIn(employee);
+                        timeEntryService.clockOut(employee, false);
+                    }
+                } finally {
+                    writing.set(false);
+                }
+            });
+
+            writer.get();
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<ShiftView> cached = timeEntryService.findShiftByEmployee(employee.getId());
+        Integer stored = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM time_entry WHERE employee_id = ?",
+                                                     Integer.class, employee.getId());
+
+        assertEquals(SHIFTS, stored);
+        assertEquals(SHIFTS, cached.size(), "После последней записи кеш должен совпадать с БД");
+        assertTrue(cached.stream().allMatch(shift -> shift.checkOut() != null), "В кеше не должно остаться открытых смен");
+    }
+
+    private EmployeeDTO saveEmployee() {
+        Employee employee = new Employee();
+        employee.setFullName("Кеш Смен");
+        employee.setEmail("shift-cache-" + UUID.randomUUID() + "@company.com");
+        employee.setHourlyRate(1000);
+        employee.setWorkHoursPerDay(8);
+        employee.setRole(Role.EMPLOYEE);
+        return EmployeeDTO.fromEntity(employeeRepository.save(employee));
+    }
+}
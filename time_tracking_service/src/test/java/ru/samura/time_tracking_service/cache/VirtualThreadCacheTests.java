@@ -0,0 +1,94 @@
+package ru.samura.time_tracking_service.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import ru.samura.time_tracking_service.DTO.EmployeeDTO;
+import ru.samura.time_tracking_service.DTO.ShiftView;
+import ru.samura.time_tracking_service.entity.Employee;
+import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.repository.EmployeeRepository;
+import ru.samura.time_tracking_service.service.TimeEntryService;
+
+/**
+ * Проверяет кеши в профиле {@code virtual-threads}: они асинхронные (загрузка не выполняется
+ * под блокировкой кеша) и остаются согласованными с БД при записи смен из виртуальных потоков.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:virtual-threads;DB_CLOSE_DELAY=-1;MODE=PostgreSQL")
+@ActiveProfiles("virtual-threads")
+public class VirtualThreadCacheTests {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TimeEntryService timeEntryService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private EmployeeDTO employeeDTO;
+
+    @BeforeEach
+    void setUp() {
+        Employee employee = new Employee();
+        employee.setFullName("Виртуальный Поток");
+        employee.setEmail("virtual-" + UUID.randomUUID() + "@company.com");
+        employee.setHourlyRate(1000);
+        employee.setWorkHoursPerDay(8);
+        employee.setRole(Role.EMPLOYEE);
+        employeeDTO = EmployeeDTO.fromEntity(employeeRepository.save(employee));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM time_entry WHERE employee_id = ?", employeeDTO.getId());
+        jdbcTemplate.update("DELETE FROM monthly_hours_rollup WHERE employee_id = ?", employeeDTO.getId());
+        employeeRepository.deleteById(employeeDTO.getId());
+    }
+
+    @Test
+    void testCaches_AreAsyncAndBounded() {
+        for (String name : new String[] {"employeeCache", "shiftCache", "getInfoAboutAllEmployee"}) {
+            CaffeineCache cache = assertInstanceOf(CaffeineCache.class, cacheManager.getCache(name));
+
+            assertNotNull(cache.getAsyncCache(), "Кеш " + name + " должен быть асинхронным");
+            assertTrue(cache.getNativeCache().policy().eviction().isPresent(), "Кеш " + name + " должен быть ограничен по размеру");
+        }
+    }
+
+    @Test
+    void testShiftCache_EvictedOnClockInAndClockOutFromVirtualThreads() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            assertTrue(executor.submit(() -> timeEntryService.findShiftByEmployee(employeeDTO.getId())).get().isEmpty());
+
+            executor.submit(() -> timeEntryService.clockIn(employeeDTO)).get();
+            List<ShiftView> afterClockIn = executor.submit(() -> timeEntryService.findShiftByEmployee(employeeDTO.getId())).get();
+            assertEquals(1, afterClockIn.size(), "После открытия смены кеш не должен отдавать пустой список");
+
+            executor.submit(() -> timeEntryService.clockOut(employeeDTO, false)).get();
+            List<ShiftView> afterClockOut = executor.submit(() -> timeEntryService.findShiftByEmployee(employeeDTO.getId())).get();
+            assertNotNull(afterClockOut.get(0).checkOut(), "После закрытия смены кеш не должен отдавать открытую смену");
+        }
+    }
+}
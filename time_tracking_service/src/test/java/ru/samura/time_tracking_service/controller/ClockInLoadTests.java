@@ -0,0 +1,190 @@
+package ru.samura.time_tracking_service.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+import ru.samura.time_tracking_service.TimeTrackingServiceApplication;
+import ru.samura.time_tracking_service.entity.Employee;
+import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.repository.EmployeeRepository;
+
+/**
+ * Нагрузочное сравнение режимов обработки запросов: одновременные «приходы»
+ * ({@code GET /time-entry/employees/{id}/clock-in}) разных сотрудников на пуле потоков Tomcat
+ * и в профиле {@code virtual-threads}. Для каждого режима пишет в лог пропускную способность, p50 и p99.
+ * <p>
+ * Приложение поднимается на случайном порту отдельно для каждого режима, каждый раз на своей БД.
+ * Пул соединений HikariCP в обоих режимах одинаковый ({@code -Dload.pool-size=50}, как в профиле
+ * {@code virtual-threads}), поэтому разница в результатах — только от модели потоков.
+ * По умолчанию это H2 в памяти, где запросы к БД почти не ждут ввода-вывода, — выигрыш виртуальных
+ * потоков на PostgreSQL заметно больше; для замера на нём передайте {@code -Dload.datasource-url=jdbc:postgresql://...}
+ * (вместе с {@code spring.datasource.*} для драйвера и учётных данных).
+ *
+ * <p>
+ * Запуск: {@code mvn -Pload-test test}; число «приходов» — {@code -Dload.clock-ins=10000}.
+ * Клиент и сервер работают в одном процессе, на каждое открытое соединение нужно два дескриптора;
+ * если {@code ulimit -n} меньше {@code 2 × clock-ins}, ограничьте соединения клиента
+ * {@code -Dload.max-connections=8000} — остальные запросы ждут свободное соединение, и это ожидание
+ * входит в их время ответа.
+ */
+@Slf4j
+@Tag("load")
+public class ClockInLoadTests {
+
+    private static final int CLOCK_INS = Integer.getInteger("load.clock-ins", 10_000);
+    private static final int MAX_CONNECTIONS = Integer.getInteger("load.max-connections", CLOCK_INS);
+    private static final int POOL_SIZE = Integer.getInteger("load.pool-size", 50);
+    private static final int WARMUP = 500;
+
+    @Test
+    void testClockIn_PlatformVsVirtualThreads() throws Exception {
+        LoadResult platform = run("platform");
+        LoadResult virtual = run("virtual-threads");
+
+        for (LoadResult result : List.of(platform, virtual)) {
+            log.info("{}: успешно {}, ошибок {}, {} запросов/с, p50 {} мс, p99 {} мс",
+                     result.mode(), result.ok(), CLOCK_INS - result.ok(), String.format("%.0f", result.throughput()),
+                     String.format("%.1f", result.p50Millis()), String.format("%.1f", result.p99Millis()));
+        }
+
+        // На пуле потоков часть запросов может не дождаться соединения из пула (ошибка 500) — это и сравнивается
+        assertEquals(CLOCK_INS, virtual.ok(), "Все «приходы» в виртуальных потоках должны завершиться успешно");
+    }
+
+    private LoadResult run(String mode) throws Exception {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(TimeTrackingServiceApplication.class);
+        if (mode.equals("virtual-threads")) {
+            builder.profiles(mode);
+        }
+
+        try (ConfigurableApplicationContext context = builder.run(
+                "--server.port=0",
+                "--spring.datasource.url=" + System.getProperty("load.datasource-url",
+                                                                "jdbc:h2:mem:load-" + mode + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL"),
+                "--spring.jpa.show-sql=false",
+                "--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                "--spring.datasource.hikari.minimum-idle=" + Math.min(10, POOL_SIZE),
+                "--spring.datasource.hikari.connection-timeout=10000",
+                "--server.tomcat.max-connections=20000",
+                "--server.tomcat.accept-count=1000")) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            List<UUID> employees = saveEmployees(context.getBean(EmployeeRepository.class), WARMUP + CLOCK_INS);
+
+            fire(port, employees.subList(0, WARMUP));
+            long started = System.nanoTime();
+            long[] latencies = fire(port, employees.subList(WARMUP, employees.size()));
+            long elapsed = System.nanoTime() - started;
+
+            LoadResult result = LoadResult.of(mode, latencies, elapsed);
+
+            Integer openShifts = context.getBean(JdbcTemplate.class)
+                .queryForObject("SELECT COUNT(*) FROM time_entry WHERE check_out IS NULL", Integer.class);
+            assertEquals(WARMUP + result.ok(), openShifts, "Каждый успешный «приход» открывает ровно одну смену");
+
+            return result;
+        }
+    }
+
+    /**
+     * Одновременно отправляет по одному «приходу» на каждого сотрудника.
+     *
+     * @return время ответа каждого запроса в наносекундах; {@code -1} — ответ не {@code 200 OK}
+     */
+    private long[] fire(int port, List<UUID> employees) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(30))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+        CountDownLatch start = new CountDownLatch(1);
+        Semaphore connections = new Semaphore(MAX_CONNECTIONS);
+        long[] latencies = new long[employees.size()];
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> requests = new ArrayList<>(employees.size());
+            for (int i = 0; i < employees.size(); i++) {
+                int index = i;
+                HttpRequest request = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/time-entry/employees/" + employees.get(i) + "/clock-in"))
+                    .timeout(Duration.ofMinutes(10))
+                    .GET()
+                    .build();
+
+                requests.add(executor.submit(() -> {
+                    start.await();
+                    long sent = System.nanoTime();
+                    connections.acquire();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        latencies[index] = response.statusCode() == 200 ? System.nanoTime() - sent : -1;
+                    } finally {
+                        connections.release();
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> request : requests) {
+                request.get();
+            }
+        }
+        return latencies;
+    }
+
+    private List<UUID> saveEmployees(EmployeeRepository employeeRepository, int count) {
+        List<Employee> employees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Employee employee = new Employee();
+            employee.setFullName("Нагрузка " + i);
+            employee.setEmail("load-" + i + "@company.com");
+            employee.setHourlyRate(1000);
+            employee.setWorkHoursPerDay(8);
+            employee.setRole(Role.EMPLOYEE);
+            employees.add(employee);
+        }
+        return employeeRepository.saveAll(employees).stream().map(Employee::getId).toList();
+    }
+
+    /**
+     * Итог прогона одного режима.
+     */
+    private record LoadResult(String mode, int ok, double throughput, double p50Millis, double p99Millis) {
+
+        static LoadResult of(String mode, long[] latencies, long elapsedNanos) {
+            long[] succeeded = Arrays.stream(latencies).filter(latency -> latency >= 0).sorted().toArray();
+            double seconds = elapsedNanos / 1e9;
+            return new LoadResult(mode, succeeded.length, succeeded.length / seconds,
+                                  percentile(succeeded, 0.50), percentile(succeeded, 0.99));
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1e6;
+        }
+    }
+}
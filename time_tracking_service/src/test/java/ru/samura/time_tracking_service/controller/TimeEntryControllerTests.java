@@ -1,12 +1,15 @@
 package ru.samura.time_tracking_service.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -16,17 +19,27 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ru.samura.time_tracking_service.DTO.ClockEventRequest;
 import ru.samura.time_tracking_service.DTO.EmployeeDTO;
+import ru.samura.time_tracking_service.DTO.ShiftView;
 import ru.samura.time_tracking_service.DTO.TimeEntryDTO;
 import ru.samura.time_tracking_service.custom_exception.ActiveShiftTodayException;
 import ru.samura.time_tracking_service.custom_exception.ClosedShiftTodayException;
 import ru.samura.time_tracking_service.custom_exception.NoShiftFoundException;
 import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.event.ClockEvent;
+import ru.samura.time_tracking_service.event.ClockEventStream;
+import ru.samura.time_tracking_service.response.BatchClockEventResult;
 import ru.samura.time_tracking_service.response.ClockInResponse;
 import ru.samura.time_tracking_service.response.ClockOutResponse;
+import ru.samura.time_tracking_service.service.BatchClockService;
 import ru.samura.time_tracking_service.service.EmployeeService;
 import ru.samura.time_tracking_service.service.TimeEntryService;
+import ru.samura.time_tracking_service.service.WriteBehindClockService;
 
 class TimeEntryControllerTests {
 
@@ -39,6 +52,15 @@ class TimeEntryControllerTests {
     @Mock
     private EmployeeService employeeService;
 
+    @Mock
+    private BatchClockService batchClockService;
+
+    @Mock
+    private WriteBehindClockService writeBehindClockService;
+
+    @Mock
+    private ClockEventStream clockEventStream;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -183,6 +205,142 @@ class TimeEntryControllerTests {
 
         assertEquals("Смена уже закрыта", exception.getMessage());
     }
-}
 
-       
+    @Test
+    void testClockOutByHR_WriteBehindAcceptsManualEvent() {
+        UUID hrId = UUID.randomUUID();
+        UUID employeeId = UUID.randomUUID();
+
+        EmployeeDTO hrDTO = new EmployeeDTO();
+        hrDTO.setId(hrId);
+        hrDTO.setRole(Role.HR);
+
+        ClockEventRequest event = new ClockEventRequest(employeeId, ClockEvent.Type.CLOCK_OUT, LocalDateTime.now(), true);
+
+        when(employeeService.getEmployeeInfo(hrId)).thenReturn(hrDTO);
+        when(employeeService.hasAccess(hrDTO, employeeId)).thenReturn(true);
+        when(writeBehindClockService.isEnabled()).thenReturn(true);
+        when(writeBehindClockService.record(employeeId, ClockEvent.Type.CLOCK_OUT, true)).thenReturn(event);
+
+        ResponseEntity<ClockOutResponse> response = timeEntryController.clockOutByHRForEmployee(hrId, employeeId);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertNull(response.getBody().timeEntryId());
+        assertEquals(event.getTimestamp(), response.getBody().checkOut());
+        verify(timeEntryService, never()).clockOut(any(), anyBoolean());
+    }
+
+    @Test
+    void testStreamClockEvents_HROnly() {
+        UUID hrId = UUID.randomUUID();
+        UUID employeeId = UUID.randomUUID();
+
+        EmployeeDTO hrDTO = new EmployeeDTO();
+        hrDTO.setId(hrId);
+        hrDTO.setRole(Role.HR);
+        EmployeeDTO employeeDTO = new EmployeeDTO();
+        employeeDTO.setId(employeeId);
+        employeeDTO.setRole(Role.EMPLOYEE);
+        SseEmitter emitter = new SseEmitter();
+
+        when(employeeService.getEmployeeInfo(hrId)).thenReturn(hrDTO);
+        when(employeeService.getEmployeeInfo(employeeId)).thenReturn(employeeDTO);
+        when(clockEventStream.subscribe("42")).thenReturn(emitter);
+
+        ResponseEntity<SseEmitter> response = timeEntryController.streamClockEvents(hrId, "42");
+        ResponseEntity<SseEmitter> denied = timeEntryController.streamClockEvents(employeeId, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(emitter, response.getBody());
+        assertEquals(HttpStatus.FORBIDDEN, denied.getStatusCode());
+        verify(clockEventStream, never()).subscribe(null);
+    }
+
+    @Test
+    void testGetShifts_OwnHistoryAndForbiddenForOtherEmployee() {
+        UUID employeeId = UUID.randomUUID();
+        UUID otherId = UUID.randomUUID();
+        EmployeeDTO employeeDTO = new EmployeeDTO();
+        employeeDTO.setId(employeeId);
+        employeeDTO.setRole(Role.EMPLOYEE);
+        List<ShiftView> shifts = List.of(new ShiftView(UUID.randomUUID(), LocalDateTime.now().minusHours(8), LocalDateTime.now(), false));
+
+        when(employeeService.getEmployeeInfo(employeeId)).thenReturn(employeeDTO);
+        when(employeeService.hasAccess(employeeDTO, employeeId)).thenReturn(true);
+        when(employeeService.hasAccess(employeeDTO, otherId)).thenReturn(false);
+        when(timeEntryService.findShiftByEmployee(employeeId)).thenReturn(shifts);
+
+        ResponseEntity<List<ShiftView>> response = timeEntryController.getShifts(employeeId, employeeId);
+        ResponseEntity<List<ShiftView>> denied = timeEntryController.getShifts(employeeId, otherId);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(shifts, response.getBody());
+        assertEquals(HttpStatus.FORBIDDEN, denied.getStatusCode());
+        verify(timeEntryService, never()).findShiftByEmployee(otherId);
+    }
+
+    @Test
+    void testClockBatch_ReturnsPerEventResults() {
+        UUID hrId = UUID.randomUUID();
+        UUID employeeId = UUID.randomUUID();
+        EmployeeDTO hrDTO = new EmployeeDTO();
+        hrDTO.setId(hrId);
+        hrDTO.setRole(Role.HR);
+        List<ClockEventRequest> events = List.of(new ClockEventRequest(employeeId, ClockEvent.Type.CLOCK_IN, LocalDateTime.now()));
+        List<BatchClockEventResult> results = List.of(new BatchClockEventResult(0, employeeId, ClockEvent.Type.CLOCK_IN,
+                                                                                BatchClockEventResult.Status.OK, UUID.randomUUID(), null));
+
+        when(employeeService.getEmployeeInfo(hrId)).thenReturn(hrDTO);
+        when(batchClockService.maxEvents()).thenReturn(10);
+        when(batchClockService.process(events)).thenReturn(results);
+
+        ResponseEntity<List<BatchClockEventResult>> response = timeEntryController.clockBatch(hrId, events);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(results, response.getBody());
+    }
+
+    @Test
+    void testClockBatch_ForbiddenForEmployee() {
+        UUID employeeId = UUID.randomUUID();
+        EmployeeDTO employeeDTO = new EmployeeDTO();
+        employeeDTO.setId(employeeId);
+        employeeDTO.setRole(Role.EMPLOYEE);
+
+        when(employeeService.getEmployeeInfo(employeeId)).thenReturn(employeeDTO);
+        when(batchClockService.maxEvents()).thenReturn(10);
+
+        ResponseEntity<List<BatchClockEventResult>> response = timeEntryController.clockBatch(
+            employeeId, List.of(new ClockEventRequest(employeeId, ClockEvent.Type.CLOCK_IN, LocalDateTime.now())));
+
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verify(batchClockService, never()).process(anyList());
+    }
+
+    @Test
+    void testClockEventRequest_ManualNotReadFromRequest() throws Exception {
+        ClockEventRequest event = new ObjectMapper().findAndRegisterModules().readValue(
+            "{\"employeeId\":\"" + UUID.randomUUID() + "\",\"type\":\"CLOCK_OUT\",\"manual\":true}",
+            ClockEventRequest.class);
+
+        assertFalse(event.isManual(), "Шлюз не может пометить смену ручной");
+    }
+
+    @Test
+    void testClockBatch_TooLarge() {
+        UUID hrId = UUID.randomUUID();
+        EmployeeDTO hrDTO = new EmployeeDTO();
+        hrDTO.setId(hrId);
+        hrDTO.setRole(Role.HR);
+        ClockEventRequest event = new ClockEventRequest(UUID.randomUUID(), ClockEvent.Type.CLOCK_IN, LocalDateTime.now());
+
+        when(employeeService.getEmployeeInfo(hrId)).thenReturn(hrDTO);
+        when(batchClockService.maxEvents()).thenReturn(1);
+
+        ResponseEntity<List<BatchClockEventResult>> response = timeEntryController.clockBatch(hrId, List.of(event, event));
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, response.getStatusCode());
+        verify(batchClockService, never()).process(anyList());
+    }
+}
@@ -0,0 +1,193 @@
+package ru.samura.time_tracking_service.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import ru.samura.time_tracking_service.DTO.ClockEventRequest;
+
+/**
+ * Проверяет локальный журнал событий: запись и чтение, восстановление после недописанной записи,
+ * продолжение нумерации после перезапуска, замену применённого сегмента и отказ после ошибки {@code fsync}.
+ */
+public class ClockEventLogTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testAppend_ReadReturnsEventsInOrder() throws IOException {
+        ClockEventRequest clockIn = event(ClockEvent.Type.CLOCK_IN, false);
+        ClockEventRequest clockOut = event(ClockEvent.Type.CLOCK_OUT, true);
+
+        try (ClockEventLog log = ClockEventLog.open(directory, 0)) {
+            assertEquals(1, log.append(clockIn));
+            assertEquals(2, log.append(clockOut));
+            assertEquals(2, log.durableSequence());
+
+            assertEquals(List.of(new ClockEventLog.Entry(1, clockIn), new ClockEventLog.Entry(2, clockOut)), log.read(1, 10));
+            assertEquals(List.of(new ClockEventLog.Entry(2, clockOut)), log.read(2, 10));
+            assertEquals(List.of(new ClockEventLog.Entry(1, clockIn)), log.read(1, 1));
+            assertTrue(log.read(3, 10).isEmpty());
+        }
+    }
+
+    @Test
+    void testOpen_DropsTornTailAndContinuesSequence() throws IOException {
+        ClockEventRequest first = event(ClockEvent.Type.CLOCK_IN, false);
+        try (ClockEventLog log = ClockEventLog.open(directory, 0)) {
+            log.append(first);
+            log.append(event(ClockEvent.Type.CLOCK_OUT, false));
+        }
+
+        // Падение во время записи: вторая запись повреждена, третья записана наполовину
+        Path segment = segment();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0x7f}), ClockEventLog.RECORD_SIZE + 20);
+            channel.write(ByteBuffer.wrap(new byte[ClockEventLog.RECORD_SIZE / 2]), 2L * ClockEventLog.RECORD_SIZE);
+        }
+
+        try (ClockEventLog log = ClockEventLog.open(directory, 0)) {
+            assertEquals(1, log.durableSequence());
+            assertEquals(ClockEventLog.RECORD_SIZE, Files.size(segment));
+            assertEquals(List.of(new ClockEventLog.Entry(1, first)), log.read(1, 10));
+            assertEquals(2, log.append(event(ClockEvent.Type.CLOCK_OUT, false)));
+        }
+    }
+
+    @Test
+    void testOpen_SequenceContinuesAfterAppliedCheckpoint() throws IOException {
+        try (ClockEventLog log = ClockEventLog.open(directory, 0)) {
+            log.append(event(ClockEvent.Type.CLOCK_IN, false));
+        }
+        Files.delete(segment());
+
+        // Журнал потерян, но события до 5 уже применены — номера не должны повториться
+        try (ClockEventLog log = ClockEventLog.open(directory, 5)) {
+            assertEquals(5, log.durableSequence());
+            assertEquals(6, log.append(event(ClockEvent.Type.CLOCK_IN, false)));
+        }
+    }
+
+    @Test
+    void testCompact_ReplacesOnlyFullyAppliedSegment() throws IOException {
+        try (ClockEventLog log = ClockEventLog.open(directory, 0)) {
+            for (int i = 0; i < 3; i++) {
+                log.append(event(ClockEvent.Type.CLOCK_IN, false));
+            }
+
+            assertFalse(log.compact(2, 0), "Неприменённые события не удаляются");
+            assertFalse(log.compact(3, 10L * ClockEventLog.RECORD_SIZE), "Сегмент меньше порога не заменяется");
+            assertTrue(log.compact(3, 0));
+
+            assertEquals(4, log.append(event(ClockEvent.Type.CLOCK_OUT, false)));
+            assertEquals(4, log.read(1, 10).get(0).sequence());
+        }
+        assertEquals(1, countSegments());
+
+        try (ClockEventLog log = ClockEventLog.open(directory, 3)) {
+            assertEquals(4, log.durableSequence());
+        }
+    }
+
+    @Test
+    void testAppend_ConcurrentAppendsGetDistinctDurableSequences() throws Exception {
+        try (ClockEventLog log = ClockEventLog.open(directory, 0);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Callable<Long>> appends = IntStream.range(0, 500)
+                .<Callable<Long>>mapToObj(i -> () -> log.append(event(ClockEvent.Type.CLOCK_IN, false)))
+                .toList();
+
+            List<Long> sequences = new ArrayList<>();
+            for (Future<Long> sequence : executor.invokeAll(appends)) {
+                sequences.add(sequence.get());
+            }
+            sequences.sort(null);
+
+            assertEquals(LongStream.rangeClosed(1, 500).boxed().toList(), sequences);
+            assertEquals(500, log.durableSequence());
+            assertEquals(500, log.read(1, 1000).size());
+        }
+    }
+
+    @Test
+    void testAppend_FsyncFailureTruncatesAndFailsClosed() throws IOException {
+        ClockEventRequest durable = event(ClockEvent.Type.CLOCK_IN, false);
+
+        try (ClockEventLog log = ClockEventLog.open(directory, 0)) {
+            log.append(durable);
+
+            // Диск отказал: запись доходит до файла, fsync — нет
+            FileChannel real = (FileChannel) ReflectionTestUtils.getField(log, "channel");
+            FileChannel failing = mock(FileChannel.class);
+            doAnswer(invocation -> real.write(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(failing).write(any(ByteBuffer.class), anyLong());
+            doAnswer(invocation -> real.truncate(invocation.getArgument(0))).when(failing).truncate(anyLong());
+            doThrow(new IOException("EIO")).when(failing).force(false);
+            ReflectionTestUtils.setField(log, "channel", failing);
+
+            try (real) {
+                assertThrows(UncheckedIOException.class, () -> log.append(event(ClockEvent.Type.CLOCK_OUT, false)));
+                assertThrows(UncheckedIOException.class, () -> log.append(event(ClockEvent.Type.CLOCK_OUT, false)),
+                             "После ошибки fsync журнал не принимает записи");
+
+                verify(failing, times(1)).write(any(ByteBuffer.class), anyLong());
+                assertEquals(1, log.durableSequence());
+                assertEquals(ClockEventLog.RECORD_SIZE, real.size(), "Незафиксированная запись удалена из файла");
+            }
+        }
+
+        // После перезапуска отклонённое событие не появляется — повтор клиента не создаст дубликат
+        try (ClockEventLog log = ClockEventLog.open(directory, 0)) {
+            assertEquals(List.of(new ClockEventLog.Entry(1, durable)), log.read(1, 10));
+            assertEquals(2, log.append(event(ClockEvent.Type.CLOCK_OUT, false)));
+        }
+    }
+
+    private Path segment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.findFirst().orElseThrow();
+        }
+    }
+
+    private long countSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private static ClockEventRequest event(ClockEvent.Type type, boolean manual) {
+        return new ClockEventRequest(UUID.randomUUID(), type, LocalDateTime.of(2025, 11, 3, 9, 15, 30, 123_456_789), manual);
+    }
+}
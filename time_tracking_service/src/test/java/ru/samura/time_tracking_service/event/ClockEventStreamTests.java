@@ -0,0 +1,157 @@
+package ru.samura.time_tracking_service.event;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import ru.samura.time_tracking_service.DTO.EmployeeDTO;
+import ru.samura.time_tracking_service.entity.Employee;
+import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.repository.EmployeeRepository;
+import ru.samura.time_tracking_service.service.TimeEntryService;
+
+/**
+ * Проверяет поток событий SSE: доставку после фиксации смены, повтор по {@code Last-Event-ID}
+ * из кольцевого буфера и отметки пропусков для медленных подписчиков.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:clock-stream;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+    "time-tracking.clock-stream.replay-size=4"
+})
+@AutoConfigureMockMvc
+public class ClockEventStreamTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ClockEventStream clockEventStream;
+
+    @Autowired
+    private TimeEntryService timeEntryService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private EmployeeDTO hr;
+
+    @BeforeEach
+    void setUp() {
+        Employee employee = new Employee();
+        employee.setFullName("Поток Кадровый");
+        employee.setEmail("stream-" + UUID.randomUUID() + "@company.com");
+        employee.setHourlyRate(1000);
+        employee.setWorkHoursPerDay(8);
+        employee.setRole(Role.HR);
+        hr = EmployeeDTO.fromEntity(employeeRepository.save(employee));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM time_entry WHERE employee_id = ?", hr.getId());
+        employeeRepository.deleteById(hr.getId());
+    }
+
+    @Test
+    void testStream_DeliversClockInAfterCommit() throws Exception {
+        MockHttpServletResponse response = subscribe(null);
+
+        timeEntryService.clockIn(hr);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> response.getContentAsString().contains("event:clock-in"));
+        String content = response.getContentAsString();
+        assertTrue(content.contains("id:" + clockEventStream.lastSequence()));
+        assertTrue(content.contains("\"employeeId\":\"" + hr.getId() + "\""));
+    }
+
+    @Test
+    void testLastEventId_ReplaysMissedEvents() throws Exception {
+        publish();
+        long seen = clockEventStream.lastSequence();
+        publish();
+        publish();
+
+        MockHttpServletResponse response = subscribe(seen);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> response.getContentAsString().contains("id:" + (seen + 2)));
+        String content = response.getContentAsString();
+        assertTrue(content.contains("id:" + (seen + 1)));
+        assertFalse(content.contains("id:" + seen + "\n"), "Полученное клиентом событие не повторяется");
+        assertFalse(content.contains("event:" + ClockEventStream.GAP_EVENT));
+    }
+
+    @Test
+    void testLastEventId_OutsideReplayBuffer_SendsGap() throws Exception {
+        publish();
+        long seen = clockEventStream.lastSequence();
+        // Буфер повтора — 4 события: первое после seen вытесняется
+        for (int i = 0; i < 5; i++) {
+            publish();
+        }
+
+        MockHttpServletResponse response = subscribe(seen);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> response.getContentAsString().contains("id:" + (seen + 5)));
+        String content = response.getContentAsString();
+        assertTrue(content.startsWith("event:gap\ndata:{\"from\":" + (seen + 1) + ",\"to\":" + (seen + 1) + "}"), content);
+        assertFalse(content.contains("id:" + (seen + 1) + "\n"));
+        assertTrue(content.contains("id:" + (seen + 2)));
+    }
+
+    @Test
+    void testSubscriberQueue_DropsOverflowWithSingleGap() {
+        ClockEventStream.SubscriberQueue queue = new ClockEventStream.SubscriberQueue(2);
+
+        for (long id = 1; id <= 5; id++) {
+            queue.offer(entry(id));
+        }
+        assertEquals(1, ((ClockEventStream.Entry) queue.poll()).id());
+
+        // Освободилось место: новое событие идёт после отметки пропуска
+        queue.offer(entry(6));
+
+        assertEquals(2, ((ClockEventStream.Entry) queue.poll()).id());
+        assertEquals(new ClockEventStream.Gap(3, 5), queue.poll());
+        assertEquals(6, ((ClockEventStream.Entry) queue.poll()).id());
+        assertNull(queue.poll());
+    }
+
+    private MockHttpServletResponse subscribe(Long lastEventId) throws Exception {
+        var request = get("/time-entry/employees/{hrId}/events", hr.getId());
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn().getResponse();
+    }
+
+    private void publish() {
+        clockEventStream.onClockEvent(new ClockEvent(ClockEvent.Type.CLOCK_OUT, UUID.randomUUID(), hr.getId(),
+                                                     LocalDateTime.now(), false));
+    }
+
+    private static ClockEventStream.Entry entry(long id) {
+        return new ClockEventStream.Entry(id, new ClockEvent(ClockEvent.Type.CLOCK_IN, UUID.randomUUID(), UUID.randomUUID(),
+                                                             LocalDateTime.now(), false));
+    }
+}
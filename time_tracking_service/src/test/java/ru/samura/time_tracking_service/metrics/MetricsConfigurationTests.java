@@ -0,0 +1,112 @@
+package ru.samura.time_tracking_service.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.ServletException;
+import ru.samura.time_tracking_service.custom_exception.ActiveShiftTodayException;
+import ru.samura.time_tracking_service.entity.Employee;
+import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.repository.EmployeeRepository;
+
+/**
+ * Проверяет метрики: таймеры эндпоинтов и методов сервиса, счётчики исключений,
+ * доля попаданий в кеши и пул соединений в {@code /actuator/prometheus}.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:metrics;DB_CLOSE_DELAY=-1;MODE=PostgreSQL")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+public class MetricsConfigurationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID hrId;
+
+    @BeforeEach
+    void setUp() {
+        Employee employee = new Employee();
+        employee.setFullName("Метрика Кадровая");
+        employee.setEmail("metrics-" + UUID.randomUUID() + "@company.com");
+        employee.setHourlyRate(1000);
+        employee.setWorkHoursPerDay(8);
+        employee.setRole(Role.HR);
+        hrId = employeeRepository.save(employee).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM time_entry WHERE employee_id = ?", hrId);
+        employeeRepository.deleteById(hrId);
+    }
+
+    @Test
+    void testClockIn_RecordsEndpointServiceAndExceptionMetrics() throws Exception {
+        String uri = "/time-entry/employees/{employeeId}/clock-in";
+        double exceptionsBefore = meterRegistry.counter(ExceptionMetricsResolver.METRIC, "exception", "ActiveShiftTodayException").count();
+        long clockInsBefore = clockInTimerCount("none");
+        long rejectedBefore = clockInTimerCount("ActiveShiftTodayException");
+
+        mockMvc.perform(get(uri, hrId)).andExpect(status().isOk());
+
+        ServletException repeated = assertThrows(ServletException.class, () -> mockMvc.perform(get(uri, hrId)));
+        assertTrue(repeated.getCause() instanceof ActiveShiftTodayException);
+
+        assertNotNull(meterRegistry.find("http.server.requests").tag("uri", uri).tag("status", "200").timer(),
+                      "Задержка эндпоинта с шаблоном пути в теге uri");
+        assertEquals(clockInsBefore + 1, clockInTimerCount("none"));
+        assertEquals(rejectedBefore + 1, clockInTimerCount("ActiveShiftTodayException"));
+        assertEquals(exceptionsBefore + 1,
+                     meterRegistry.counter(ExceptionMetricsResolver.METRIC, "exception", "ActiveShiftTodayException").count());
+    }
+
+    @Test
+    void testPrometheus_ExposesLatencyCacheAndPoolMetrics() throws Exception {
+        mockMvc.perform(get("/time-entry/employees/{employeeId}/clock-in", hrId)).andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+
+        assertTrue(scrape.contains("http_server_requests_seconds_bucket{"), "Гистограмма задержек эндпоинтов");
+        assertTrue(scrape.contains("time_tracking_service_seconds_bucket{"), "Гистограмма методов сервиса");
+        assertTrue(scrape.contains("time_tracking_exceptions_total{"), "Счётчики исключений");
+        assertTrue(scrape.contains("exception=\"NoShiftFoundException\""), "Счётчики исключений создаются при старте");
+        assertTrue(scrape.contains("cache_hit_ratio{"), "Доля попаданий в кеши");
+        assertTrue(scrape.contains("cache_gets_total{"), "Статистика кешей");
+        assertTrue(scrape.contains("hikaricp_connections_pending{"), "Ожидающие соединения потоки");
+        assertTrue(scrape.contains("hikaricp_connections_acquire_seconds_bucket{"), "Гистограмма ожидания соединения");
+    }
+
+    private long clockInTimerCount(String exception) {
+        Timer timer = meterRegistry.find("time_tracking.service").tag("method", "clockIn").tag("exception", exception).timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
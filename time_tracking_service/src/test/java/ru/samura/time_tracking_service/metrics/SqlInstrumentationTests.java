@@ -0,0 +1,149 @@
+package ru.samura.time_tracking_service.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import ru.samura.time_tracking_service.entity.Employee;
+import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.repository.EmployeeRepository;
+
+/**
+ * Проверяет инструментирование SQL: лог медленных запросов с временем, строками и вызывающим методом,
+ * поиск N+1 в пределах HTTP-запроса.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:sql-instrumentation;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+    // Каждый запрос считается медленным
+    "time-tracking.sql.slow-query-ms=0",
+    "time-tracking.sql.n-plus-one-threshold=5"
+})
+@ExtendWith(OutputCaptureExtension.class)
+public class SqlInstrumentationTests {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private SqlRequestScopeFilter sqlRequestScopeFilter;
+
+    private UUID employeeId;
+
+    @BeforeEach
+    void setUp() {
+        Employee employee = new Employee();
+        employee.setFullName("Запрос Медленный");
+        employee.setEmail("sql-" + UUID.randomUUID() + "@company.com");
+        employee.setHourlyRate(1000);
+        employee.setWorkHoursPerDay(8);
+        employee.setRole(Role.EMPLOYEE);
+        employeeId = employeeRepository.save(employee).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        employeeRepository.deleteById(employeeId);
+    }
+
+    @Test
+    void testDataSource_WrapsPoolWithoutHidingIt() throws Exception {
+        assertTrue(dataSource instanceof ProxyDataSource);
+        assertTrue(dataSource.isWrapperFor(HikariDataSource.class), "Пул доступен для метрик HikariCP");
+    }
+
+    @Test
+    void testSlowQuery_LogsRowsAndCaller(CapturedOutput output) {
+        List<UUID> ids = jdbcTemplate.queryForList("SELECT id FROM employees WHERE id = ? OR id = ?", UUID.class,
+                                                   employeeId, employeeId);
+        assertEquals(1, ids.size());
+        int updated = jdbcTemplate.update("UPDATE employees SET hourly_rate = hourly_rate WHERE id = ?", employeeId);
+        assertEquals(1, updated);
+
+        assertTrue(output.getOut().contains("строк: 1, вызов: SqlInstrumentationTests.testSlowQuery_LogsRowsAndCaller"),
+                   "Выборка: строки считаются по ResultSet, вызов — метод приложения");
+        assertTrue(output.getOut().contains("SELECT id FROM employees WHERE id = ? OR id = ?"));
+        assertTrue(output.getOut().contains("UPDATE employees SET hourly_rate = hourly_rate WHERE id = ?"));
+    }
+
+    @Test
+    void testSlowQuery_ExcludesCallerProcessingFromQueryTime(CapturedOutput output) {
+        // Вызывающий код обрабатывает строку дольше, чем драйвер её читает
+        jdbcTemplate.query("SELECT id FROM employees WHERE id = ?", (RowCallbackHandler) resultSet -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, employeeId);
+
+        Matcher matcher = Pattern.compile("Медленный SQL-запрос: (\\d+) мс \\(выполнение \\d+ мс, чтение \\d+ мс, результат открыт (\\d+) мс\\), "
+                                          + "строк: 1, вызов: SqlInstrumentationTests.testSlowQuery_ExcludesCallerProcessingFromQueryTime")
+                                 .matcher(output.getOut());
+        assertTrue(matcher.find(), output.getOut());
+        assertTrue(Long.parseLong(matcher.group(1)) < 300, "Обработка строк не входит во время запроса");
+        assertTrue(Long.parseLong(matcher.group(2)) >= 300, "Время открытого результата включает обработку строк");
+    }
+
+    @Test
+    void testSlowQuery_NamesRepositoryMethod(CapturedOutput output) {
+        employeeRepository.findById(employeeId);
+
+        assertTrue(output.getOut().contains("вызов: EmployeeRepository.findById <- SqlInstrumentationTests.testSlowQuery_NamesRepositoryMethod"),
+                   "Вызов через прокси репозитория определяется по интерфейсу");
+    }
+
+    @Test
+    void testRequestScope_WarnsAboutRepeatedStatement(CapturedOutput output) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/report/all");
+
+        sqlRequestScopeFilter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            // Запрос в цикле по сотрудникам вместо одного запроса на всех
+            for (int i = 0; i < 6; i++) {
+                employeeRepository.findById(employeeId);
+            }
+            employeeRepository.count();
+        });
+
+        String out = output.getOut();
+        assertTrue(out.contains("Возможный N+1: GET /report/all выполнил запрос 6 раз, вызов: EmployeeRepository.findById"));
+        assertEquals(1, out.split("Возможный N\\+1", -1).length - 1, "Однократный запрос не считается повторяющимся");
+    }
+
+    @Test
+    void testRequestScope_IgnoresStatementsOutsideRequests(CapturedOutput output) {
+        for (int i = 0; i < 6; i++) {
+            employeeRepository.findById(employeeId);
+        }
+
+        assertFalse(output.getOut().contains("Возможный N+1"));
+    }
+}
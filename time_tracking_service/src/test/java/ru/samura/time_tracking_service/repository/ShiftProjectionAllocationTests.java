@@ -0,0 +1,162 @@
+package ru.samura.time_tracking_service.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.sun.management.ThreadMXBean;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import ru.samura.time_tracking_service.DTO.EmployeeDTO;
+import ru.samura.time_tracking_service.DTO.ShiftView;
+import ru.samura.time_tracking_service.DTO.TimeEntryDTO;
+import ru.samura.time_tracking_service.entity.Employee;
+import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.entity.TimeEntry;
+
+/**
+ * Сравнивает чтение истории смен сотрудника через сущности (как до перехода на проекции:
+ * {@link TimeEntry} со связанным {@link Employee} и {@link EmployeeDTO} на каждую смену)
+ * и через проекции {@link ShiftView} — по результату и по объёму памяти, выделенной на один запрос.
+ * <p>
+ * Объём считается по {@link ThreadMXBean#getCurrentThreadAllocatedBytes()}; проекции должны выделять
+ * не больше {@link #MAX_PROJECTION_SHARE} от чтения сущностей (на истории из {@value #SHIFTS} смен — около половины).
+ */
+@Slf4j
+@DataJpaTest
+public class ShiftProjectionAllocationTests {
+
+    private static final int SHIFTS = 240;
+    private static final int WARMUP = 30;
+    private static final int ITERATIONS = 30;
+
+    /**
+     * Наибольшая доля памяти чтения сущностей, которую может выделять чтение проекций.
+     */
+    private static final double MAX_PROJECTION_SHARE = 0.75;
+
+    /**
+     * Прежний запрос {@code findShiftsByEmployee}: полные строки {@code time_entry} в сущности.
+     */
+    private static final String ENTITY_SQL = "SELECT * FROM time_entry WHERE employee_id = :employeeId ORDER BY register DESC";
+
+    @Autowired
+    private TimeEntryRepository timeEntryRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private EmployeeDTO employeeDTO;
+
+    @BeforeEach
+    void setUp() {
+        Employee employee = new Employee();
+        employee.setFullName("Проекция Смен");
+        employee.setEmail("projection-" + UUID.randomUUID() + "@company.com");
+        employee.setHourlyRate(1000);
+        employee.setWorkHoursPerDay(8);
+        employee.setRole(Role.EMPLOYEE);
+        employeeDTO = EmployeeDTO.fromEntity(employeeRepository.saveAndFlush(employee));
+
+        // Год истории: 240 смен, последняя открыта
+        List<Object[]> rows = new ArrayList<>();
+        LocalDateTime checkIn = LocalDateTime.of(2025, 1, 1, 9, 0);
+        for (int i = 0; i < SHIFTS; i++) {
+            checkIn = checkIn.plusDays(1);
+            rows.add(new Object[] {UUID.randomUUID(), employeeDTO.getId(), Timestamp.valueOf(checkIn),
+                                   i == SHIFTS - 1 ? null : Timestamp.valueOf(checkIn.plusHours(8)), i % 10 == 0});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO time_entry (id, employee_id, register, check_out, is_manual) VALUES (?, ?, ?, ?, ?)", rows);
+        entityManager.clear();
+    }
+
+    @Test
+    void testFindShiftsByEmployee_MatchesEntityReadWithoutLoadingEntities() {
+        List<TimeEntryDTO> expected = readEntities();
+        entityManager.clear();
+
+        List<TimeEntryDTO> actual = readProjections();
+
+        assertEquals(expected, actual, "Проекции дают те же смены в том же порядке");
+        assertNull(actual.get(0).getCheckOut(), "Новые смены первыми");
+        assertFalse(entityManager.unwrap(Session.class).getStatistics().getEntityCount() > 0,
+                    "Чтение проекций не должно помещать сущности в контекст персистентности");
+    }
+
+    @Test
+    void testFindShiftsByEmployee_AllocatesLessThanEntityRead() {
+        long entityBytes = allocatedPerRequest(this::readEntities);
+        long projectionBytes = allocatedPerRequest(this::readProjections);
+
+        double share = (double) projectionBytes / entityBytes;
+        log.info("История из {} смен: сущности {} байт/запрос, проекции {} байт/запрос ({}×)",
+                 SHIFTS, entityBytes, projectionBytes, String.format("%.1f", 1 / share));
+
+        assertTrue(share <= MAX_PROJECTION_SHARE,
+                   "Чтение проекций должно выделять не больше " + MAX_PROJECTION_SHARE + " памяти чтения сущностей, выделено " + share);
+    }
+
+    /**
+     * Прежний путь чтения: сущности и копия сотрудника в каждом DTO.
+     */
+    private List<TimeEntryDTO> readEntities() {
+        @SuppressWarnings("unchecked")
+        List<TimeEntry> shifts = entityManager.createNativeQuery(ENTITY_SQL, TimeEntry.class)
+            .setParameter("employeeId", employeeDTO.getId())
+            .getResultList();
+        return shifts.stream().map(TimeEntryDTO::fromEntity).toList();
+    }
+
+    /**
+     * Путь чтения через проекции: сотрудник уже известен (в сервисе — из {@code employeeCache}).
+     */
+    private List<TimeEntryDTO> readProjections() {
+        return timeEntryRepository.findShiftsByEmployee(employeeDTO.getId()).stream()
+            .map(shift -> TimeEntryDTO.fromView(shift, employeeDTO))
+            .toList();
+    }
+
+    /**
+     * Средний объём памяти, выделенной текущим потоком на один запрос. Каждый запрос начинается
+     * с пустого контекста персистентности, как отдельный HTTP-запрос.
+     */
+    private long allocatedPerRequest(Supplier<List<TimeEntryDTO>> request) {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP; i++) {
+            request.get();
+            entityManager.clear();
+        }
+
+        long total = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            assertEquals(SHIFTS, request.get().size());
+            total += threads.getCurrentThreadAllocatedBytes() - before;
+            entityManager.clear();
+        }
+        return total / ITERATIONS;
+    }
+}
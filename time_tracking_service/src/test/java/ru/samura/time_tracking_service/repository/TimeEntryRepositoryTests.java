@@ -0,0 +1,100 @@
+package ru.samura.time_tracking_service.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import ru.samura.time_tracking_service.entity.Employee;
+import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.entity.TimeEntry;
+
+@DataJpaTest
+public class TimeEntryRepositoryTests {
+
+    private static final int EMPLOYEES = 50;
+    private static final int MONTHS = 12;
+    private static final int SHIFTS_PER_MONTH = 20;
+
+    @Autowired
+    private TimeEntryRepository timeEntryRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<UUID> employeeIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < EMPLOYEES; i++) {
+            Employee employee = new Employee();
+            employee.setFullName("Сотрудник " + i);
+            employee.setEmail("employee" + i + "@company.com");
+            employee.setHourlyRate(1000);
+            employee.setWorkHoursPerDay(8);
+            employee.setRole(Role.EMPLOYEE);
+            employeeIds.add(employeeRepository.saveAndFlush(employee).getId());
+        }
+
+        // Год истории по каждому сотруднику: 50 × 12 × 20 смен
+        List<Object[]> rows = new ArrayList<>();
+        for (UUID employeeId : employeeIds) {
+            for (int month = 1; month <= MONTHS; month++) {
+                for (int day = 1; day <= SHIFTS_PER_MONTH; day++) {
+                    LocalDateTime checkIn = LocalDateTime.of(2025, month, day, 9, 0);
+                    rows.add(new Object[] {UUID.randomUUID(), employeeId,
+                                           Timestamp.valueOf(checkIn), Timestamp.valueOf(checkIn.plusHours(8))});
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO time_entry (id, employee_id, register, check_out, is_manual) VALUES (?, ?, ?, ?, FALSE)", rows);
+    }
+
+    @Test
+    void testFindShiftsForPaymentByEmployeeAndMonth_ReturnsHalfOpenRange() {
+        UUID employeeId = employeeIds.get(0);
+        LocalDateTime boundary = LocalDateTime.of(2025, 12, 1, 0, 0);
+        jdbcTemplate.update("INSERT INTO time_entry (id, employee_id, register, check_out, is_manual) VALUES (?, ?, ?, ?, FALSE)",
+                            UUID.randomUUID(), employeeId,
+                            Timestamp.valueOf(boundary.minusHours(8)), Timestamp.valueOf(boundary));
+
+        List<TimeEntry> november = timeEntryRepository.findShiftsForPaymentByEmployeeAndMonth(employeeId, YearMonth.of(2025, 11));
+        List<TimeEntry> december = timeEntryRepository.findShiftsForPaymentByEmployeeAndMonth(employeeId, YearMonth.of(2025, 12));
+
+        assertEquals(SHIFTS_PER_MONTH, november.size(), "Смена, закрытая ровно в 00:00 1-го числа, относится к следующему месяцу");
+        assertEquals(SHIFTS_PER_MONTH + 1, december.size());
+    }
+
+    @Test
+    void testFindShiftsForPaymentByEmployeeAndMonth_UsesEmployeeCheckOutIndex() {
+        NamedParameterJdbcTemplate namedJdbc = new NamedParameterJdbcTemplate(jdbcTemplate);
+        YearMonth month = YearMonth.of(2025, 11);
+
+        String plan = namedJdbc.queryForObject("EXPLAIN " + TimeEntryRepository.SHIFTS_FOR_PAYMENT_SQL,
+            Map.of("employeeId", employeeIds.get(0),
+                   "from", Timestamp.valueOf(month.atDay(1).atStartOfDay()),
+                   "to", Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay()),
+                   "registerFrom", Timestamp.valueOf(month.atDay(1).atStartOfDay().minus(TimeEntryRepository.MAX_SHIFT_SPAN))),
+            String.class);
+
+        assertTrue(plan.toUpperCase().contains("IDX_TIME_ENTRY_EMPLOYEE_CHECK_OUT"),
+                   "Запрос должен использовать составной индекс (employee_id, check_out), план: " + plan);
+    }
+}
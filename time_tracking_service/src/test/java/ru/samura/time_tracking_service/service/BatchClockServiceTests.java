@@ -0,0 +1,188 @@
+package ru.samura.time_tracking_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import ru.samura.time_tracking_service.DTO.ClockEventRequest;
+import ru.samura.time_tracking_service.entity.Employee;
+import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.event.ClockEvent;
+import ru.samura.time_tracking_service.repository.EmployeeRepository;
+import ru.samura.time_tracking_service.response.BatchClockEventResult;
+import ru.samura.time_tracking_service.response.BatchClockEventResult.Status;
+
+/**
+ * Проверяет пакетную обработку событий турникетов: результаты по каждому событию,
+ * запись смен и агрегатов, откат к обработке по одному событию при конфликте.
+ */
+@SpringBootTest
+public class BatchClockServiceTests {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 11, 3);
+
+    @Autowired
+    private BatchClockService batchClockService;
+
+    @Autowired
+    private MonthlyHoursRollupService monthlyHoursRollupService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID anna;
+    private UUID ivan;
+
+    @BeforeEach
+    void setUp() {
+        anna = saveEmployee();
+        ivan = saveEmployee();
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (UUID employeeId : List.of(anna, ivan)) {
+            jdbcTemplate.update("DELETE FROM time_entry WHERE employee_id = ?", employeeId);
+            jdbcTemplate.update("DELETE FROM monthly_hours_rollup WHERE employee_id = ?", employeeId);
+            employeeRepository.deleteById(employeeId);
+        }
+    }
+
+    @Test
+    void testProcess_ReturnsResultPerEvent() {
+        List<BatchClockEventResult> results = batchClockService.process(List.of(
+            event(anna, ClockEvent.Type.CLOCK_OUT, 18, 0),
+            event(anna, ClockEvent.Type.CLOCK_IN, 9, 0),
+            event(ivan, ClockEvent.Type.CLOCK_IN, 8, 30),
+            event(UUID.randomUUID(), ClockEvent.Type.CLOCK_IN, 9, 0),
+            event(ivan, ClockEvent.Type.CLOCK_IN, 8, 31),
+            event(anna, ClockEvent.Type.CLOCK_OUT, 18, 5),
+            new ClockEventRequest(null, ClockEvent.Type.CLOCK_IN, null)));
+
+        assertEquals(List.of(Status.OK, Status.OK, Status.OK, Status.USER_NOT_FOUND,
+                             Status.ACTIVE_SHIFT_TODAY, Status.CLOSED_SHIFT_TODAY, Status.INVALID_EVENT),
+                     results.stream().map(BatchClockEventResult::status).toList());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).index(), "Результаты возвращаются в порядке событий запроса");
+        }
+        assertEquals(results.get(0).timeEntryId(), results.get(1).timeEntryId(), "Приход и уход относятся к одной смене");
+
+        assertEquals(1, countShifts(anna, "check_out IS NOT NULL"), "Смена Анны записана сразу закрытой");
+        assertEquals(1, countShifts(ivan, "check_out IS NULL"));
+        assertEquals(9, monthlyHoursRollupService.totalHours(anna, YearMonth.from(DAY)));
+    }
+
+    @Test
+    void testProcess_ClosesShiftOpenedEarlier() {
+        batchClockService.process(List.of(event(anna, ClockEvent.Type.CLOCK_IN, 9, 0)));
+
+        List<BatchClockEventResult> results = batchClockService.process(List.of(
+            event(anna, ClockEvent.Type.CLOCK_OUT, 17, 30),
+            event(anna, ClockEvent.Type.CLOCK_IN, 19, 0)));
+
+        assertEquals(List.of(Status.OK, Status.OK), results.stream().map(BatchClockEventResult::status).toList());
+        assertEquals(1, countShifts(anna, "check_out IS NOT NULL"));
+        assertEquals(1, countShifts(anna, "check_out IS NULL"), "Повторный приход в тот же день после ухода разрешён");
+        assertEquals(8, monthlyHoursRollupService.totalHours(anna, YearMonth.from(DAY)));
+    }
+
+    @Test
+    void testProcess_ForgottenShiftIsNotPaid() {
+        batchClockService.process(List.of(event(anna, ClockEvent.Type.CLOCK_IN, 9, 0)));
+
+        // Уход отмечен через 40 дней: смена закрывается нулевой длительностью и помечается ручной
+        List<BatchClockEventResult> results = batchClockService.process(List.of(
+            new ClockEventRequest(anna, ClockEvent.Type.CLOCK_OUT, DAY.plusDays(40).atTime(18, 0))));
+
+        assertEquals(Status.OK, results.get(0).status());
+        assertEquals(1, countShifts(anna, "check_out = TIMESTAMP '2025-11-03 09:00:00' AND is_manual"));
+        assertEquals(0, monthlyHoursRollupService.totalMinutes(anna, YearMonth.from(DAY)), "Время забытой смены не оплачивается");
+    }
+
+    @Test
+    void testProcess_ConflictFailsOnlyConflictingEvent() {
+        // Закрытая смена с неснятым признаком open_shift = TRUE: сервис по check_out не видит открытой смены,
+        // а уникальный ключ (employee_id, open_shift) отклоняет вставку новой — как при параллельно открытой смене
+        jdbcTemplate.update("""
+            INSERT INTO time_entry (id, employee_id, register, check_out, is_manual, open_shift)
+            VALUES (?, ?, ?, ?, FALSE, TRUE)
+            """, UUID.randomUUID(), anna, Timestamp.valueOf(DAY.atTime(6, 0)), Timestamp.valueOf(DAY.atTime(7, 0)));
+
+        List<BatchClockEventResult> results = batchClockService.process(List.of(
+            event(anna, ClockEvent.Type.CLOCK_IN, 9, 0),
+            event(ivan, ClockEvent.Type.CLOCK_IN, 9, 0)));
+
+        assertEquals(Status.CONFLICT, results.get(0).status());
+        assertEquals(Status.OK, results.get(1).status());
+        assertNotNull(results.get(1).timeEntryId());
+        assertEquals(1, countShifts(ivan, "check_out IS NULL"), "Событие без конфликта применено отдельно");
+    }
+
+    @Test
+    void testProcess_RejectsFutureAndClosedMonthEvents() {
+        YearMonth closed = YearMonth.of(2025, 9);
+        jdbcTemplate.update("""
+            INSERT INTO report_snapshot (year_month, closed_at, employee_count, etag, payload)
+            VALUES (?, CURRENT_TIMESTAMP, 0, 'closed', X'')
+            """, closed.toString());
+        try {
+            List<BatchClockEventResult> results = batchClockService.process(List.of(
+                new ClockEventRequest(anna, ClockEvent.Type.CLOCK_IN, LocalDateTime.now().plusHours(1)),
+                new ClockEventRequest(anna, ClockEvent.Type.CLOCK_IN, closed.atDay(10).atTime(9, 0)),
+                new ClockEventRequest(ivan, ClockEvent.Type.CLOCK_IN, LocalDateTime.now().plusMinutes(1))));
+
+            assertEquals(List.of(Status.INVALID_EVENT, Status.CLOSED_MONTH, Status.OK),
+                         results.stream().map(BatchClockEventResult::status).toList(),
+                         "Отклоняются проходы позже допустимого расхождения часов и в закрытом месяце");
+            assertEquals(0, countShifts(anna, "TRUE"));
+        } finally {
+            jdbcTemplate.update("DELETE FROM report_snapshot WHERE year_month = ?", closed.toString());
+        }
+    }
+
+    @Test
+    void testProcess_RejectsTooLargeBatch() {
+        List<ClockEventRequest> events = new ArrayList<>(Collections.nCopies(10_001, event(anna, ClockEvent.Type.CLOCK_IN, 9, 0)));
+
+        assertThrows(IllegalArgumentException.class, () -> batchClockService.process(events));
+    }
+
+    private ClockEventRequest event(UUID employeeId, ClockEvent.Type type, int hour, int minute) {
+        return new ClockEventRequest(employeeId, type, LocalDateTime.of(DAY, LocalTime.of(hour, minute)));
+    }
+
+    private int countShifts(UUID employeeId, String condition) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM time_entry WHERE employee_id = ? AND " + condition,
+                                           Integer.class, employeeId);
+    }
+
+    private UUID saveEmployee() {
+        Employee employee = new Employee();
+        employee.setFullName("Турникет Пакетный");
+        employee.setEmail("batch-" + UUID.randomUUID() + "@company.com");
+        employee.setHourlyRate(1000);
+        employee.setWorkHoursPerDay(8);
+        employee.setRole(Role.EMPLOYEE);
+        return employeeRepository.save(employee).getId();
+    }
+}
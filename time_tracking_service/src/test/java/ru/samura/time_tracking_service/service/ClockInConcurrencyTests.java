@@ -0,0 +1,131 @@
+package ru.samura.time_tracking_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import ru.samura.time_tracking_service.DTO.EmployeeDTO;
+import ru.samura.time_tracking_service.custom_exception.ActiveShiftTodayException;
+import ru.samura.time_tracking_service.entity.Employee;
+import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.repository.EmployeeRepository;
+
+/**
+ * Нагрузочная проверка атомарности открытия смены: одновременные «приходы» одного сотрудника
+ * должны создать ровно одну открытую смену. Незакрытая смена прошлого дня тоже не даёт открыть новую —
+ * и в сервисе, и на уровне ограничения БД.
+ */
+@SpringBootTest
+public class ClockInConcurrencyTests {
+
+    private static final int THREADS = 64;
+
+    @Autowired
+    private TimeEntryService timeEntryService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private EmployeeDTO employeeDTO;
+
+    @BeforeEach
+    void setUp() {
+        Employee employee = new Employee();
+        employee.setFullName("Турникет Тестовый");
+        employee.setEmail("turnstile-" + UUID.randomUUID() + "@company.com");
+        employee.setHourlyRate(1000);
+        employee.setWorkHoursPerDay(8);
+        employee.setRole(Role.EMPLOYEE);
+        employeeDTO = EmployeeDTO.fromEntity(employeeRepository.save(employee));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM time_entry WHERE employee_id = ?", employeeDTO.getId());
+        employeeRepository.deleteById(employeeDTO.getId());
+    }
+
+    @Test
+    void testClockIn_ConcurrentScansCreateSingleOpenShift() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        timeEntryService.clockIn(employeeDTO);
+                        return true;
+                    } catch (ActiveShiftTodayException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int succeeded = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    succeeded++;
+                }
+            }
+
+            Integer openShifts = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM time_entry WHERE employee_id = ? AND check_out IS NULL",
+                Integer.class, employeeDTO.getId());
+
+            assertEquals(1, succeeded, "Смену должен открыть ровно один запрос, остальные — получить ActiveShiftTodayException");
+            assertEquals(1, openShifts, "В БД должна остаться ровно одна открытая смена");
+            assertTrue(timeEntryService.doesEmployeeHaveActiveShiftToday(employeeDTO.getId()));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testClockIn_RejectedWhilePreviousDayShiftOpen() {
+        LocalDateTime yesterday = LocalDateTime.now().minusDays(1);
+        insertOpenShift(yesterday);
+
+        ActiveShiftTodayException exception = assertThrows(ActiveShiftTodayException.class,
+                                                           () -> timeEntryService.clockIn(employeeDTO));
+        assertEquals("У пользователя есть незакрытая смена с " + yesterday.toLocalDate() + ": сначала отметьте уход",
+                     exception.getMessage());
+
+        // Ограничение БД не зависит от дня смены: вставка в обход сервиса тоже отклоняется
+        assertThrows(DataIntegrityViolationException.class, () -> insertOpenShift(LocalDateTime.now()));
+
+        Integer openShifts = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM time_entry WHERE employee_id = ? AND check_out IS NULL",
+            Integer.class, employeeDTO.getId());
+        assertEquals(1, openShifts);
+    }
+
+    private void insertOpenShift(LocalDateTime checkIn) {
+        jdbcTemplate.update("INSERT INTO time_entry (id, employee_id, register, is_manual, open_shift) VALUES (?, ?, ?, FALSE, TRUE)",
+                            UUID.randomUUID(), employeeDTO.getId(), Timestamp.valueOf(checkIn));
+    }
+}
@@ -0,0 +1,116 @@
+package ru.samura.time_tracking_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+
+import ru.samura.time_tracking_service.DTO.EmployeeDTO;
+import ru.samura.time_tracking_service.entity.Employee;
+import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.repository.EmployeeRepository;
+import ru.samura.time_tracking_service.response.EmployeePageResponse;
+import ru.samura.time_tracking_service.service.EmployeeService.SortKey;
+
+/**
+ * Проверяет keyset-пагинацию списка сотрудников: обход всех страниц возвращает каждого сотрудника
+ * ровно один раз в порядке сортировки, размер страницы ограничен, чужой курсор отклоняется.
+ */
+@DataJpaTest
+@Import(EmployeeService.class)
+public class EmployeePaginationTests {
+
+    private static final int EMPLOYEES = 23;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < EMPLOYEES; i++) {
+            // Однофамильцы (i % 5) — порядок внутри одинаковых ФИО задаёт id
+            Employee employee = new Employee();
+            employee.setFullName("Employee " + (i % 5));
+            employee.setEmail("page-" + i + "@company.com");
+            employee.setHourlyRate(1000);
+            employee.setWorkHoursPerDay(8);
+            employee.setRole(Role.EMPLOYEE);
+            employeeRepository.save(employee);
+        }
+        employeeRepository.flush();
+    }
+
+    @Test
+    void testGetEmployeesPage_WalksAllEmployeesById() {
+        List<EmployeeDTO> employees = walk(SortKey.ID, 10);
+
+        assertEquals(EMPLOYEES, employees.size());
+        assertEquals(EMPLOYEES, new HashSet<>(employees.stream().map(EmployeeDTO::getId).toList()).size(),
+                     "Сотрудник не должен повторяться на разных страницах");
+        assertEquals(employeeRepository.findFirstPageOrderById(Limit.of(EMPLOYEES))
+                         .stream().map(Employee::getId).toList(),
+                     employees.stream().map(EmployeeDTO::getId).toList(), "Порядок страниц совпадает с порядком id в БД");
+    }
+
+    @Test
+    void testGetEmployeesPage_WalksAllEmployeesByFullName() {
+        List<EmployeeDTO> employees = walk(SortKey.FULL_NAME, 4);
+
+        assertEquals(EMPLOYEES, employees.size());
+        Set<UUID> ids = new HashSet<>(employees.stream().map(EmployeeDTO::getId).toList());
+        assertEquals(EMPLOYEES, ids.size(), "Однофамильцы на границе страницы не теряются и не повторяются");
+
+        List<EmployeeDTO> sorted = new ArrayList<>(employees);
+        sorted.sort(Comparator.comparing(EmployeeDTO::getFullName));
+        assertEquals(sorted.stream().map(EmployeeDTO::getFullName).toList(),
+                     employees.stream().map(EmployeeDTO::getFullName).toList());
+    }
+
+    @Test
+    void testGetEmployeesPage_LimitsPageSize() {
+        EmployeePageResponse page = employeeService.getEmployeesPage(SortKey.ID, null, 100_000);
+
+        assertEquals(EMPLOYEES, page.employees().size(), "Страница не больше max-page-size и не больше числа сотрудников");
+        assertNull(page.nextCursor(), "Последняя страница без курсора");
+
+        EmployeePageResponse single = employeeService.getEmployeesPage(SortKey.ID, null, 0);
+        assertEquals(1, single.employees().size());
+        assertNotNull(single.nextCursor());
+    }
+
+    @Test
+    void testGetEmployeesPage_RejectsForeignOrBrokenCursor() {
+        String byId = employeeService.getEmployeesPage(SortKey.ID, null, 5).nextCursor();
+
+        assertThrows(IllegalArgumentException.class, () -> employeeService.getEmployeesPage(SortKey.FULL_NAME, byId, 5));
+        assertThrows(IllegalArgumentException.class, () -> employeeService.getEmployeesPage(SortKey.ID, "не-курсор", 5));
+    }
+
+    private List<EmployeeDTO> walk(SortKey sort, int limit) {
+        List<EmployeeDTO> employees = new ArrayList<>();
+        String cursor = null;
+        do {
+            EmployeePageResponse page = employeeService.getEmployeesPage(sort, cursor, limit);
+            employees.addAll(page.employees());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return employees;
+    }
+}
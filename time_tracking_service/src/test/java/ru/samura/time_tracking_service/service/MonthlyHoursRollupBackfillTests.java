@@ -0,0 +1,113 @@
+package ru.samura.time_tracking_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import ru.samura.time_tracking_service.entity.Employee;
+import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.repository.EmployeeRepository;
+import ru.samura.time_tracking_service.repository.MonthlyHoursRollupRepository;
+
+/**
+ * Проверяет оплату за месяц, агрегаты которого не построены (смены записаны в обход закрытия смены
+ * и месяц старше сверяемых по расписанию): {@code /payment} считает по сменам и совпадает с {@code /payment-all},
+ * а построение агрегатов при старте не меняет результат.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:rollup-backfill;DB_CLOSE_DELAY=-1;MODE=PostgreSQL")
+@AutoConfigureMockMvc
+public class MonthlyHoursRollupBackfillTests {
+
+    private static final YearMonth MONTH = YearMonth.now().minusMonths(6);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MonthlyHoursRollupService monthlyHoursRollupService;
+
+    @Autowired
+    private MonthlyHoursRollupRepository monthlyHoursRollupRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Employee hr;
+
+    @BeforeEach
+    void setUp() {
+        hr = new Employee();
+        hr.setFullName("Агрегат Исторический");
+        hr.setEmail("backfill-" + UUID.randomUUID() + "@company.com");
+        hr.setHourlyRate(1000);
+        hr.setWorkHoursPerDay(8);
+        hr.setRole(Role.HR);
+        hr = employeeRepository.save(hr);
+
+        // 9ч и 7ч59м — смены до появления агрегатов, без строки monthly_hours_rollup
+        insertShift(MONTH.atDay(3).atTime(9, 0), MONTH.atDay(3).atTime(18, 0));
+        insertShift(MONTH.atDay(4).atTime(9, 0), MONTH.atDay(4).atTime(16, 59));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM time_entry WHERE employee_id = ?", hr.getId());
+        jdbcTemplate.update("DELETE FROM monthly_hours_rollup WHERE employee_id = ?", hr.getId());
+        jdbcTemplate.update("DELETE FROM monthly_hours_rollup_month");
+        employeeRepository.deleteById(hr.getId());
+    }
+
+    @Test
+    void testPayment_WithoutRollupRow_MatchesPaymentAll() throws Exception {
+        assertFalse(monthlyHoursRollupRepository.isMonthBuilt(MONTH.toString()));
+
+        mockMvc.perform(get("/report/{id}/payment", hr.getId()).param("month", MONTH.toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalHours").value(16))
+            .andExpect(jsonPath("$.pay").value(16 * 1000));
+        mockMvc.perform(get("/report/{id}/payment-all", hr.getId()).param("month", MONTH.toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[?(@.employeeDTO.id == '" + hr.getId() + "')].totalHours").value(16));
+    }
+
+    @Test
+    void testBuildMissingMonths_BuildsHistoryOnce() throws Exception {
+        monthlyHoursRollupService.buildMissingMonths();
+
+        assertTrue(monthlyHoursRollupRepository.isMonthBuilt(MONTH.toString()));
+        assertEquals(16 * 60 + 59, monthlyHoursRollupService.totalMinutes(hr.getId(), MONTH));
+        mockMvc.perform(get("/report/{id}/payment", hr.getId()).param("month", MONTH.toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalHours").value(16));
+
+        // Построенный месяц повторно не пересчитывается: смена в обход сервиса в агрегат не попадает
+        insertShift(MONTH.atDay(5).atTime(9, 0), MONTH.atDay(5).atTime(17, 0));
+        monthlyHoursRollupService.buildMissingMonths();
+        assertEquals(16 * 60 + 59, monthlyHoursRollupService.totalMinutes(hr.getId(), MONTH));
+    }
+
+    private void insertShift(LocalDateTime checkIn, LocalDateTime checkOut) {
+        jdbcTemplate.update("INSERT INTO time_entry (id, employee_id, register, check_out, is_manual) VALUES (?, ?, ?, ?, FALSE)",
+                            UUID.randomUUID(), hr.getId(), Timestamp.valueOf(checkIn), Timestamp.valueOf(checkOut));
+    }
+}
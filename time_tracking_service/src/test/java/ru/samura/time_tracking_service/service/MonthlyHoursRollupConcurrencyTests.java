@@ -0,0 +1,89 @@
+package ru.samura.time_tracking_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ru.samura.time_tracking_service.entity.MonthlyHoursRollup;
+import ru.samura.time_tracking_service.repository.MonthlyHoursRollupRepository;
+
+/**
+ * Нагрузочная проверка атомарности агрегата: одновременные первые закрытия смен сотрудника за месяц
+ * должны создать одну строку агрегата, не откатив ни одну транзакцию ошибкой ключа.
+ */
+@SpringBootTest
+public class MonthlyHoursRollupConcurrencyTests {
+
+    private static final int THREADS = 32;
+
+    private static final YearMonth MONTH = YearMonth.of(2025, 11);
+
+    private final UUID employeeId = UUID.randomUUID();
+
+    @Autowired
+    private MonthlyHoursRollupService monthlyHoursRollupService;
+
+    @Autowired
+    private MonthlyHoursRollupRepository monthlyHoursRollupRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM monthly_hours_rollup WHERE employee_id = ?", employeeId);
+    }
+
+    @Test
+    void testAdd_ConcurrentFirstClosesShareOneRow() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<Future<?>> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    transactionTemplate.executeWithoutResult(
+                        status -> monthlyHoursRollupService.add(employeeId, MONTH, 90, 1, 1));
+                    return null;
+                }));
+            }
+            start.countDown();
+
+            // Ни одно закрытие не должно упасть на вставке строки агрегата
+            for (Future<?> result : results) {
+                result.get();
+            }
+
+            MonthlyHoursRollup rollup = monthlyHoursRollupRepository
+                .findById(new MonthlyHoursRollup.Key(employeeId, MONTH.toString()))
+                .orElseThrow();
+
+            assertEquals(THREADS, rollup.getShiftCount());
+            assertEquals(THREADS * 90L, rollup.getTotalMinutes());
+            assertEquals(THREADS, rollup.getTotalHours());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package ru.samura.time_tracking_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import ru.samura.time_tracking_service.DTO.EmployeeDTO;
+import ru.samura.time_tracking_service.DTO.RollupDrift;
+import ru.samura.time_tracking_service.archive.TimeEntryArchive;
+import ru.samura.time_tracking_service.entity.Employee;
+import ru.samura.time_tracking_service.entity.MonthlyHoursRollup;
+import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.repository.EmployeeRepository;
+import ru.samura.time_tracking_service.repository.MonthlyHoursRollupRepository;
+
+/**
+ * Проверяет инкрементальное обновление месячного агрегата при закрытии смены и сверку с исходными сменами.
+ * База — H2 в режиме PostgreSQL, как у остальных тестов: запросы агрегатов используют {@code ON CONFLICT}.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:monthly-hours-rollup;DB_CLOSE_DELAY=-1;MODE=PostgreSQL")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TimeEntryService.class, MonthlyHoursRollupService.class, TimeEntryArchive.class})
+public class MonthlyHoursRollupServiceTests {
+
+    private static final YearMonth MONTH = YearMonth.of(2025, 11);
+
+    @Autowired
+    private TimeEntryService timeEntryService;
+
+    @Autowired
+    private MonthlyHoursRollupService monthlyHoursRollupService;
+
+    @Autowired
+    private MonthlyHoursRollupRepository monthlyHoursRollupRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private EmployeeDTO employeeDTO;
+
+    @BeforeEach
+    void setUp() {
+        Employee employee = new Employee();
+        employee.setFullName("Агрегат Тестовый");
+        employee.setEmail("rollup@company.com");
+        employee.setHourlyRate(1000);
+        employee.setWorkHoursPerDay(8);
+        employee.setRole(Role.EMPLOYEE);
+        employeeDTO = EmployeeDTO.fromEntity(employeeRepository.saveAndFlush(employee));
+    }
+
+    @Test
+    void testClockOut_IncrementsRollupOfCurrentMonth() {
+        YearMonth current = YearMonth.now();
+
+        timeEntryService.clockIn(employeeDTO);
+        timeEntryService.clockOut(employeeDTO, false);
+
+        MonthlyHoursRollup rollup = monthlyHoursRollupRepository
+            .findById(new MonthlyHoursRollup.Key(employeeDTO.getId(), current.toString()))
+            .orElseThrow();
+
+        assertEquals(1, rollup.getShiftCount());
+        assertEquals(0, rollup.getTotalHours(), "Смена короче часа — ноль полных часов");
+        assertTrue(monthlyHoursRollupService.reconcile(current).isEmpty(), "Инкрементальный агрегат совпадает со сменами");
+    }
+
+    @Test
+    void testTotalPaymentEmployee_ReadsRollup() {
+        // 9ч и 7ч59м: по сменам 9 + 7 = 16 полных часов, хотя в сумме 16ч59м
+        saveRollup(9 * 60 + 7 * 60 + 59, 16, 2);
+        monthlyHoursRollupRepository.markMonthBuilt(MONTH.toString(), LocalDateTime.now());
+
+        assertEquals(16, timeEntryService.totalPaymentEmployee(employeeDTO, MONTH).getTotalHours());
+        assertEquals(16 * 1000, timeEntryService.totalPaymentEmployee(employeeDTO, MONTH).getPay());
+        assertEquals(0, timeEntryService.totalPaymentEmployee(employeeDTO, MONTH.minusMonths(1)).getTotalHours());
+    }
+
+    @Test
+    void testTotalPaymentEmployee_AppliesRoundingPolicy() {
+        // 3-го: 4ч59м + 4ч59м, 4-го: 59м — по сменам 8ч, по дням 9ч, за месяц 10ч57м
+        saveShift(LocalDateTime.of(2025, 11, 3, 6, 0), LocalDateTime.of(2025, 11, 3, 10, 59));
+        saveShift(LocalDateTime.of(2025, 11, 3, 12, 0), LocalDateTime.of(2025, 11, 3, 16, 59));
+        saveShift(LocalDateTime.of(2025, 11, 4, 9, 0), LocalDateTime.of(2025, 11, 4, 9, 59));
+        monthlyHoursRollupService.reconcile(MONTH);
+
+        try {
+            ReflectionTestUtils.setField(timeEntryService, "payrollRounding", PayrollRounding.SHIFT);
+            assertEquals(8, timeEntryService.totalPaymentEmployee(employeeDTO, MONTH).getTotalHours());
+            ReflectionTestUtils.setField(timeEntryService, "payrollRounding", PayrollRounding.DAY);
+            assertEquals(9, timeEntryService.totalPaymentEmployee(employeeDTO, MONTH).getTotalHours());
+            ReflectionTestUtils.setField(timeEntryService, "payrollRounding", PayrollRounding.MONTH);
+            assertEquals(10, timeEntryService.totalPaymentEmployee(employeeDTO, MONTH).getTotalHours());
+            assertEquals(10 * 1000, timeEntryService.totalPaymentEmployee(employeeDTO, MONTH).getPay());
+        } finally {
+            ReflectionTestUtils.setField(timeEntryService, "payrollRounding", PayrollRounding.MONTH);
+        }
+    }
+
+    @Test
+    void testReconcile_ReportsAndFixesDrift() {
+        saveShift(LocalDateTime.of(2025, 11, 3, 9, 0), LocalDateTime.of(2025, 11, 3, 18, 0));
+        saveShift(LocalDateTime.of(2025, 11, 4, 9, 0), LocalDateTime.of(2025, 11, 4, 16, 59));
+
+        // Агрегат отстал: учтена только одна смена
+        saveRollup(9 * 60, 9, 1);
+
+        List<RollupDrift> drifts = monthlyHoursRollupService.reconcile(MONTH);
+
+        assertEquals(1, drifts.size());
+        RollupDrift drift = drifts.get(0);
+        assertEquals(9 * 60 + 7 * 60 + 59, drift.getExpectedMinutes());
+        assertEquals(9 * 60, drift.getActualMinutes());
+        assertEquals(2, drift.getExpectedShifts());
+        assertEquals(16, monthlyHoursRollupService.totalHours(employeeDTO.getId(), MONTH));
+        assertTrue(monthlyHoursRollupService.reconcile(MONTH).isEmpty(), "Повторная сверка не находит расхождений");
+    }
+
+    @Test
+    void testReconcile_RemovesRollupWithoutShifts() {
+        saveRollup(480, 8, 1);
+
+        List<RollupDrift> drifts = monthlyHoursRollupService.reconcile(MONTH);
+
+        assertEquals(1, drifts.size());
+        assertEquals(0, drifts.get(0).getExpectedShifts());
+        assertEquals(0, monthlyHoursRollupService.totalHours(employeeDTO.getId(), MONTH));
+    }
+
+    private void saveShift(LocalDateTime checkIn, LocalDateTime checkOut) {
+        jdbcTemplate.update("INSERT INTO time_entry (id, employee_id, register, check_out, is_manual) VALUES (?, ?, ?, ?, FALSE)",
+                            UUID.randomUUID(), employeeDTO.getId(), Timestamp.valueOf(checkIn), Timestamp.valueOf(checkOut));
+    }
+
+    private void saveRollup(long minutes, long hours, int shifts) {
+        jdbcTemplate.update("""
+            INSERT INTO monthly_hours_rollup (employee_id, year_month, total_minutes, total_hours, shift_count)
+            VALUES (?, ?, ?, ?, ?)
+            """, employeeDTO.getId(), MONTH.toString(), minutes, hours, shifts);
+    }
+}
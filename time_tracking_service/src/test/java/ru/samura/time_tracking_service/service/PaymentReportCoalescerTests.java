@@ -0,0 +1,162 @@
+package ru.samura.time_tracking_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ru.samura.time_tracking_service.DTO.EmployeeDTO;
+import ru.samura.time_tracking_service.custom_exception.UserNotFoundException;
+import ru.samura.time_tracking_service.response.TotalPaymentEmployeeResponse;
+
+/**
+ * Проверяет объединение одновременных запросов отчёта: один расчёт на месяц, общий результат и исключение
+ * для ожидающих запросов, отсутствие кеширования после завершения и метрики сэкономленных расчётов.
+ */
+public class PaymentReportCoalescerTests {
+
+    private static final YearMonth MONTH = YearMonth.of(2025, 11);
+
+    private static final int REQUESTS = 8;
+
+    @InjectMocks
+    private PaymentReportCoalescer paymentReportCoalescer;
+
+    @Mock
+    private TimeEntryService timeEntryService;
+
+    @Mock
+    private EmployeeService employeeService;
+
+    @Spy
+    private MeterRegistry registry = new SimpleMeterRegistry();
+
+    private final List<EmployeeDTO> employees = List.of(new EmployeeDTO());
+
+    private final ExecutorService requests = Executors.newFixedThreadPool(REQUESTS);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        paymentReportCoalescer.registerMetrics();
+        when(employeeService.getInfoAboutAllEmployee()).thenReturn(employees);
+    }
+
+    @AfterEach
+    void tearDown() {
+        requests.shutdownNow();
+    }
+
+    @Test
+    void testConcurrentRequests_ShareOneComputation() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<TotalPaymentEmployeeResponse> report = List.of(new TotalPaymentEmployeeResponse("Отчет за месяц: " + MONTH,
+                                                                                               employees.get(0), 160L, 160L, 0L, 160_000L));
+        when(timeEntryService.getTotalPaymentsForEmployees(employees, MONTH)).thenAnswer(invocation -> {
+            release.await();
+            return new ArrayList<>(report);
+        });
+
+        List<Future<List<TotalPaymentEmployeeResponse>>> responses = submit(REQUESTS, MONTH);
+        // Все запросы, кроме первого, ждут его расчёта
+        awaitCoalesced(REQUESTS - 1);
+        release.countDown();
+
+        List<TotalPaymentEmployeeResponse> first = responses.get(0).get(5, TimeUnit.SECONDS);
+        assertEquals(report, first);
+        for (Future<List<TotalPaymentEmployeeResponse>> response : responses) {
+            assertSame(first, response.get(5, TimeUnit.SECONDS));
+        }
+        verify(timeEntryService, times(1)).getTotalPaymentsForEmployees(any(), eq(MONTH));
+        assertEquals(1, registry.get(PaymentReportCoalescer.COMPUTATIONS_METRIC).counter().count());
+        assertEquals(0, registry.get(PaymentReportCoalescer.IN_FLIGHT_METRIC).gauge().value());
+
+        // После завершения результат не хранится: следующий запрос считает заново
+        paymentReportCoalescer.paymentsForAllEmployees(MONTH);
+        verify(timeEntryService, times(2)).getTotalPaymentsForEmployees(any(), eq(MONTH));
+    }
+
+    @Test
+    void testConcurrentRequests_ShareFailure() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(timeEntryService.getTotalPaymentsForEmployees(employees, MONTH)).thenAnswer(invocation -> {
+            release.await();
+            throw new UserNotFoundException("Сотрудники не найдены");
+        });
+
+        List<Future<List<TotalPaymentEmployeeResponse>>> responses = submit(3, MONTH);
+        awaitCoalesced(2);
+        release.countDown();
+
+        for (Future<List<TotalPaymentEmployeeResponse>> response : responses) {
+            Exception failure = assertThrows(Exception.class, () -> response.get(5, TimeUnit.SECONDS));
+            assertEquals(UserNotFoundException.class, failure.getCause().getClass());
+        }
+        verify(timeEntryService, times(1)).getTotalPaymentsForEmployees(any(), eq(MONTH));
+    }
+
+    @Test
+    void testDifferentMonths_ComputedSeparately() throws Exception {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        when(timeEntryService.getTotalPaymentsForEmployees(eq(employees), any())).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            bothStarted.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+
+        List<Future<List<TotalPaymentEmployeeResponse>>> responses = new ArrayList<>(submit(1, MONTH));
+        responses.addAll(submit(1, MONTH.plusMonths(1)));
+        for (Future<List<TotalPaymentEmployeeResponse>> response : responses) {
+            response.get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(0, bothStarted.getCount(), "Расчёты разных месяцев выполняются одновременно");
+        assertEquals(2, registry.get(PaymentReportCoalescer.COMPUTATIONS_METRIC).counter().count());
+        assertEquals(0, registry.get(PaymentReportCoalescer.COALESCED_METRIC).counter().count());
+    }
+
+    private List<Future<List<TotalPaymentEmployeeResponse>>> submit(int count, YearMonth month) throws InterruptedException {
+        List<Future<List<TotalPaymentEmployeeResponse>>> responses = new ArrayList<>();
+        responses.add(requests.submit(() -> paymentReportCoalescer.paymentsForAllEmployees(month)));
+        // Первый запрос начинает расчёт до остальных
+        while (count > 1 && registry.get(PaymentReportCoalescer.IN_FLIGHT_METRIC).gauge().value() == 0) {
+            Thread.sleep(1);
+        }
+        for (int i = 1; i < count; i++) {
+            responses.add(requests.submit(() -> paymentReportCoalescer.paymentsForAllEmployees(month)));
+        }
+        return responses;
+    }
+
+    private void awaitCoalesced(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get(PaymentReportCoalescer.COALESCED_METRIC).counter().count() < expected
+            && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(expected, registry.get(PaymentReportCoalescer.COALESCED_METRIC).counter().count());
+    }
+}
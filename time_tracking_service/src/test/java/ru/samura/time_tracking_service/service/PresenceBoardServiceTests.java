@@ -0,0 +1,160 @@
+package ru.samura.time_tracking_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import ru.samura.time_tracking_service.DTO.EmployeeDTO;
+import ru.samura.time_tracking_service.DTO.ShiftPeriod;
+import ru.samura.time_tracking_service.entity.Employee;
+import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.event.ClockEvent;
+import ru.samura.time_tracking_service.repository.EmployeeRepository;
+import ru.samura.time_tracking_service.repository.TimeEntryRepository;
+
+/**
+ * Проверяет табло присутствия: обновление при открытии/закрытии смены, восстановление из БД
+ * и доступ к эндпоинту.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:presence;DB_CLOSE_DELAY=-1;MODE=PostgreSQL")
+@AutoConfigureMockMvc
+public class PresenceBoardServiceTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PresenceBoardService presenceBoardService;
+
+    @Autowired
+    private TimeEntryService timeEntryService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private EmployeeDTO hr;
+
+    private EmployeeDTO employee;
+
+    @BeforeEach
+    void setUp() {
+        hr = saveEmployee(Role.HR);
+        employee = saveEmployee(Role.EMPLOYEE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (EmployeeDTO dto : new EmployeeDTO[] {hr, employee}) {
+            jdbcTemplate.update("DELETE FROM time_entry WHERE employee_id = ?", dto.getId());
+            employeeRepository.deleteById(dto.getId());
+        }
+        presenceBoardService.rebuild();
+    }
+
+    @Test
+    void testClockInClockOut_UpdatesBoard() throws Exception {
+        timeEntryService.clockIn(employee);
+
+        assertTrue(presenceBoardService.isOnShift(employee.getId()));
+        mockMvc.perform(get("/employee/{id}/on-shift", hr.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.count").value(1))
+            .andExpect(jsonPath("$.employees[0].employeeId").value(employee.getId().toString()));
+
+        timeEntryService.clockOut(employee, false);
+
+        assertFalse(presenceBoardService.isOnShift(employee.getId()));
+        mockMvc.perform(get("/employee/{id}/on-shift", hr.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.count").value(0));
+    }
+
+    @Test
+    void testRebuild_ReadsOpenShiftsFromDatabase() {
+        // Смена открыта в обход сервиса (другим экземпляром) — табло о ней не знает до восстановления
+        jdbcTemplate.update("INSERT INTO time_entry (id, employee_id, register, is_manual) VALUES (?, ?, ?, FALSE)",
+                            UUID.randomUUID(), employee.getId(), Timestamp.valueOf(LocalDateTime.now().minusHours(1)));
+        assertFalse(presenceBoardService.isOnShift(employee.getId()));
+
+        presenceBoardService.rebuild();
+        assertTrue(presenceBoardService.isOnShift(employee.getId()));
+
+        jdbcTemplate.update("UPDATE time_entry SET check_out = ? WHERE employee_id = ?",
+                            Timestamp.valueOf(LocalDateTime.now()), employee.getId());
+        presenceBoardService.rebuild();
+        assertFalse(presenceBoardService.isOnShift(employee.getId()));
+    }
+
+    @Test
+    void testRebuild_KeepsClockOutCommittedDuringRead() {
+        PresenceBoardService board = new PresenceBoardService();
+        TimeEntryRepository timeEntryRepository = mock(TimeEntryRepository.class);
+        ReflectionTestUtils.setField(board, "timeEntryRepository", timeEntryRepository);
+        UUID employeeId = employee.getId();
+        LocalDateTime checkIn = LocalDateTime.now().minusHours(8);
+        ShiftPeriod staleShift = mock(ShiftPeriod.class);
+        when(staleShift.getEmployeeId()).thenReturn(employeeId);
+        when(staleShift.getCheckIn()).thenReturn(checkIn);
+
+        board.onClockEvent(new ClockEvent(ClockEvent.Type.CLOCK_IN, UUID.randomUUID(), employeeId, checkIn, false));
+        when(timeEntryRepository.findOpenShifts()).thenAnswer(invocation -> {
+            // Уход зафиксирован, пока шло чтение: смена прочитана ещё открытой
+            board.onClockEvent(new ClockEvent(ClockEvent.Type.CLOCK_OUT, UUID.randomUUID(), employeeId, LocalDateTime.now(), false));
+            return List.of(staleShift);
+        });
+        board.rebuild();
+
+        assertFalse(board.isOnShift(employeeId), "Закрытие во время восстановления не отменяется прочитанной открытой сменой");
+    }
+
+    @Test
+    void testLateClockOut_DoesNotRemoveNewerShift() {
+        LocalDateTime now = LocalDateTime.now();
+
+        presenceBoardService.onClockEvent(new ClockEvent(ClockEvent.Type.CLOCK_IN, UUID.randomUUID(), employee.getId(), now, false));
+        // Закрытие прошлой смены пришло после открытия новой
+        presenceBoardService.onClockEvent(new ClockEvent(ClockEvent.Type.CLOCK_OUT, UUID.randomUUID(), employee.getId(),
+                                                         now.minusHours(1), false));
+
+        assertTrue(presenceBoardService.isOnShift(employee.getId()));
+    }
+
+    @Test
+    void testOnShift_ForbiddenForEmployee() throws Exception {
+        mockMvc.perform(get("/employee/{id}/on-shift", employee.getId()))
+            .andExpect(status().isForbidden())
+            .andExpect(jsonPath("$.count").value(0));
+    }
+
+    private EmployeeDTO saveEmployee(Role role) {
+        Employee entity = new Employee();
+        entity.setFullName("Табло " + role);
+        entity.setEmail("presence-" + UUID.randomUUID() + "@company.com");
+        entity.setHourlyRate(1000);
+        entity.setWorkHoursPerDay(8);
+        entity.setRole(role);
+        return EmployeeDTO.fromEntity(employeeRepository.save(entity));
+    }
+}
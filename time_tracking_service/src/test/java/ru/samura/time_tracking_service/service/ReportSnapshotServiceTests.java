@@ -0,0 +1,200 @@
+package ru.samura.time_tracking_service.service;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import ru.samura.time_tracking_service.DTO.ClosedMonthReport;
+import ru.samura.time_tracking_service.DTO.EmployeeDTO;
+import ru.samura.time_tracking_service.custom_exception.MonthAlreadyClosedException;
+import ru.samura.time_tracking_service.entity.Employee;
+import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.entity.TimeEntry;
+import ru.samura.time_tracking_service.repository.EmployeeRepository;
+import ru.samura.time_tracking_service.repository.ReportSnapshotRepository;
+import ru.samura.time_tracking_service.repository.TimeEntryRepository;
+import ru.samura.time_tracking_service.response.TotalPaymentEmployeeResponse;
+
+/**
+ * Проверяет закрытые месяцы: отчёты из снимка, {@code ETag}/{@code If-None-Match}
+ * и двоичный формат снимка.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:report-snapshot;DB_CLOSE_DELAY=-1;MODE=PostgreSQL")
+@AutoConfigureMockMvc
+public class ReportSnapshotServiceTests {
+
+    private static final YearMonth MONTH = YearMonth.now().minusMonths(1);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReportSnapshotService reportSnapshotService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private TimeEntryRepository timeEntryRepository;
+
+    @Autowired
+    private ReportSnapshotRepository reportSnapshotRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Employee hr;
+
+    @BeforeEach
+    void setUp() {
+        hr = new Employee();
+        hr.setFullName("Снимок Кадровый");
+        hr.setEmail("snapshot-" + UUID.randomUUID() + "@company.com");
+        hr.setHourlyRate(1000);
+        hr.setWorkHoursPerDay(8);
+        hr.setRole(Role.HR);
+        hr = employeeRepository.save(hr);
+
+        saveShift(MONTH.atDay(10).atTime(9, 0), MONTH.atDay(10).atTime(17, 0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        reportSnapshotService.reopenMonth(MONTH);
+        jdbcTemplate.update("DELETE FROM time_entry WHERE employee_id = ?", hr.getId());
+        employeeRepository.deleteById(hr.getId());
+    }
+
+    @Test
+    void testClosedMonth_ServedFromSnapshotWithETag() throws Exception {
+        String etag = mockMvc.perform(post("/report/{id}/close", hr.getId()).param("month", MONTH.toString()))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        mockMvc.perform(get("/report/{id}/payment-all", hr.getId()).param("month", MONTH.toString()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, etag))
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].totalHours").value(8));
+
+        // Повторный опрос с той же версией — без тела
+        mockMvc.perform(get("/report/{id}/payment-all", hr.getId()).param("month", MONTH.toString())
+                            .header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified());
+
+        // Смена, добавленная после закрытия, в отчёт закрытого месяца не попадает
+        saveShift(MONTH.atDay(11).atTime(9, 0), MONTH.atDay(11).atTime(17, 0));
+
+        String employeeEtag = mockMvc.perform(get("/report/{id}/payment", hr.getId()).param("month", MONTH.toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalHours").value(8))
+            .andExpect(jsonPath("$.message").value("Отчет за месяц: " + MONTH))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(employeeEtag);
+        assertFalse(employeeEtag.equals(etag), "Версия отчёта сотрудника отличается от версии отчёта всех");
+
+        mockMvc.perform(get("/report/{id}/payment", hr.getId()).param("month", MONTH.toString())
+                            .header(HttpHeaders.IF_NONE_MATCH, employeeEtag))
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testReopenMonth_ReturnsToLiveCalculation() throws Exception {
+        mockMvc.perform(post("/report/{id}/close", hr.getId()).param("month", MONTH.toString()))
+            .andExpect(status().isCreated());
+        mockMvc.perform(post("/report/{id}/close", hr.getId()).param("month", MONTH.toString()))
+            .andExpect(status().isConflict());
+        mockMvc.perform(post("/report/{id}/close", hr.getId()).param("month", YearMonth.now().toString()))
+            .andExpect(status().isBadRequest());
+
+        saveShift(MONTH.atDay(11).atTime(9, 0), MONTH.atDay(11).atTime(17, 0));
+
+        mockMvc.perform(delete("/report/{id}/close", hr.getId()).param("month", MONTH.toString()))
+            .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/report/{id}/close", hr.getId()).param("month", MONTH.toString()))
+            .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/report/{id}/payment-all", hr.getId()).param("month", MONTH.toString()))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+            .andExpect(jsonPath("$[0].totalHours").value(16));
+    }
+
+    @Test
+    void testCloseMonth_ConcurrentClosesKeepFirstSnapshot() throws Exception {
+        int threads = 4;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ClosedMonthReport>> closes = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int i = 0; i < threads; i++) {
+                closes.add(executor.submit(() -> {
+                    start.await();
+                    return reportSnapshotService.closeMonth(MONTH);
+                }));
+            }
+            start.countDown();
+        }
+
+        List<ClosedMonthReport> closed = new ArrayList<>();
+        for (Future<ClosedMonthReport> close : closes) {
+            try {
+                closed.add(close.get());
+            } catch (ExecutionException e) {
+                assertInstanceOf(MonthAlreadyClosedException.class, e.getCause());
+            }
+        }
+        assertEquals(1, closed.size(), "Месяц закрывается ровно один раз");
+        assertEquals(closed.get(0).etag(), reportSnapshotRepository.findById(MONTH.toString()).orElseThrow().getEtag());
+    }
+
+    @Test
+    void testEncodeDecode_RoundTrip() {
+        EmployeeDTO employee = EmployeeDTO.fromEntity(hr);
+        EmployeeDTO noRole = EmployeeDTO.fromEntity(hr);
+        noRole.setId(UUID.randomUUID());
+        noRole.setRole(null);
+        List<TotalPaymentEmployeeResponse> payments = List.of(
+            new TotalPaymentEmployeeResponse("Отчет за месяц: " + MONTH, employee, 170L, 160L, 10L, 175_000L),
+            new TotalPaymentEmployeeResponse("Отчет за месяц: " + MONTH, noRole, 0L, 160L, -160L, 0L));
+
+        assertEquals(payments, ReportSnapshotService.decode(MONTH, ReportSnapshotService.encode(payments)));
+    }
+
+    private void saveShift(LocalDateTime checkIn, LocalDateTime checkOut) {
+        TimeEntry timeEntry = new TimeEntry();
+        timeEntry.setEmployee(hr);
+        timeEntry.setCheckIn(checkIn);
+        timeEntry.setCheckOut(checkOut);
+        timeEntryRepository.save(timeEntry);
+    }
+}
@@ -0,0 +1,196 @@
+package ru.samura.time_tracking_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import ru.samura.time_tracking_service.DTO.CalculationPayment;
+import ru.samura.time_tracking_service.DTO.EmployeeDTO;
+import ru.samura.time_tracking_service.archive.TimeEntryArchive;
+import ru.samura.time_tracking_service.entity.Employee;
+import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.repository.EmployeeRepository;
+
+/**
+ * Проверяет перенос закрытого месяца в архив: смены удаляются из {@code time_entry}, а расчёт оплаты
+ * при любом округлении, сверка агрегатов и выгрузка дают те же результаты, что и до переноса.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:time-entry-archive;DB_CLOSE_DELAY=-1;MODE=PostgreSQL")
+@AutoConfigureMockMvc
+public class TimeEntryArchiveServiceTests {
+
+    private static final YearMonth MONTH = YearMonth.now().minusMonths(3);
+
+    @DynamicPropertySource
+    static void archiveDirectory(DynamicPropertyRegistry registry) throws IOException {
+        registry.add("time-tracking.archive.directory", Files.createTempDirectory("time-entry-archive")::toString);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TimeEntryService timeEntryService;
+
+    @Autowired
+    private MonthlyHoursRollupService monthlyHoursRollupService;
+
+    @Autowired
+    private ReportSnapshotService reportSnapshotService;
+
+    @Autowired
+    private TimeEntryExportService timeEntryExportService;
+
+    @Autowired
+    private TimeEntryArchive timeEntryArchive;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Employee hr;
+
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        hr = employeeRepository.save(employee("Архив Кадровый", Role.HR));
+        employee = employeeRepository.save(employee("Архив Сотрудник", Role.EMPLOYEE));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM time_entry WHERE employee_id IN (?, ?)", hr.getId(), employee.getId());
+        jdbcTemplate.update("DELETE FROM monthly_hours_rollup WHERE employee_id IN (?, ?)", hr.getId(), employee.getId());
+        employeeRepository.deleteById(hr.getId());
+        employeeRepository.deleteById(employee.getId());
+    }
+
+    @Test
+    void testArchiveMonth_KeepsReportsAndExport() throws Exception {
+        // Смена с прошлого месяца, две смены в один день, дробные секунды и смена следующего месяца
+        insertShift(employee, MONTH.minusMonths(1).atEndOfMonth().atTime(22, 0), MONTH.atDay(1).atTime(6, 0), false);
+        insertShift(employee, MONTH.atDay(2).atTime(9, 0), MONTH.atDay(2).atTime(12, 40), true);
+        insertShift(employee, MONTH.atDay(2).atTime(13, 0), MONTH.atDay(2).atTime(17, 50), false);
+        insertShift(hr, MONTH.atDay(3).atTime(9, 0, 0, 250_000_000), MONTH.atDay(3).atTime(17, 59, 59, 750_000_000), false);
+        insertShift(employee, MONTH.plusMonths(1).atDay(1).atTime(9, 0), MONTH.plusMonths(1).atDay(1).atTime(17, 0), false);
+        monthlyHoursRollupService.rebuild(MONTH);
+
+        List<EmployeeDTO> employees = List.of(EmployeeDTO.fromEntity(hr), EmployeeDTO.fromEntity(employee));
+        List<CalculationPayment> paymentsBefore = timeEntryService.totalPaymentEmployeeAll(employees, MONTH);
+        CalculationPayment dayRoundedBefore = dayRounded(EmployeeDTO.fromEntity(employee));
+        String exportBefore = export(MONTH);
+        assertEquals(4, timeEntryService.findShiftByEmployee(employee.getId()).size());
+        reportSnapshotService.closeMonth(MONTH);
+
+        mockMvc.perform(post("/report/{id}/archive", hr.getId()).param("month", MONTH.toString()))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.month").value(MONTH.toString()))
+            .andExpect(jsonPath("$.shifts").value(4));
+
+        assertTrue(timeEntryArchive.isArchived(MONTH));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM time_entry WHERE employee_id IN (?, ?)",
+                                                    Integer.class, hr.getId(), employee.getId()),
+                     "В таблице остаётся только смена следующего месяца");
+        assertEquals(1, timeEntryService.findShiftByEmployee(employee.getId()).size(),
+                     "История из кеша не должна содержать перенесённые смены");
+
+        assertEquals(paymentsBefore, timeEntryService.totalPaymentEmployeeAll(employees, MONTH));
+        assertEquals(dayRoundedBefore, dayRounded(EmployeeDTO.fromEntity(employee)));
+        assertTrue(monthlyHoursRollupService.reconcile(MONTH).isEmpty(), "Сверка учитывает смены из архива");
+        assertEquals(8 * 60 + 220 + 290, monthlyHoursRollupService.totalMinutes(employee.getId(), MONTH));
+
+        // Те же строки, но без идентификаторов смен и в порядке начала смены
+        String exportAfter = export(MONTH);
+        assertEquals(sortedWithoutIds(exportBefore), sortedWithoutIds(exportAfter));
+        assertTrue(exportAfter.contains("\n," + hr.getId() + "," + MONTH.atDay(3) + "T09:00:00.250000,"));
+    }
+
+    @Test
+    void testArchiveMonth_RejectsOpenCurrentRepeatedAndNonHR() throws Exception {
+        YearMonth month = MONTH.minusMonths(1);
+        insertShift(employee, month.atDay(5).atTime(9, 0), month.atDay(5).atTime(17, 0), false);
+
+        mockMvc.perform(post("/report/{id}/archive", hr.getId()).param("month", month.toString()))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/report/{id}/archive", hr.getId()).param("month", YearMonth.now().toString()))
+            .andExpect(status().isBadRequest());
+
+        reportSnapshotService.closeMonth(month);
+        mockMvc.perform(post("/report/{id}/archive", employee.getId()).param("month", month.toString()))
+            .andExpect(status().isForbidden());
+        assertFalse(timeEntryArchive.isArchived(month));
+
+        mockMvc.perform(post("/report/{id}/archive", hr.getId()).param("month", month.toString()))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.shifts").value(1));
+        mockMvc.perform(post("/report/{id}/archive", hr.getId()).param("month", month.toString()))
+            .andExpect(status().isConflict());
+
+        assertEquals(1, timeEntryArchive.streamShifts(month, List.of(employee.getId())).count());
+    }
+
+    private CalculationPayment dayRounded(EmployeeDTO employeeDTO) {
+        TimeEntryService target = AopTestUtils.getUltimateTargetObject(timeEntryService);
+        Object rounding = ReflectionTestUtils.getField(target, "payrollRounding");
+        ReflectionTestUtils.setField(target, "payrollRounding", PayrollRounding.DAY);
+        try {
+            return timeEntryService.totalPaymentEmployee(employeeDTO, MONTH);
+        } finally {
+            ReflectionTestUtils.setField(target, "payrollRounding", rounding);
+        }
+    }
+
+    private String export(YearMonth month) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        timeEntryExportService.export(month, TimeEntryExportService.Format.CSV, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> sortedWithoutIds(String csv) {
+        return csv.lines().skip(1).map(line -> line.substring(line.indexOf(','))).sorted().toList();
+    }
+
+    private void insertShift(Employee owner, LocalDateTime checkIn, LocalDateTime checkOut, boolean manual) {
+        jdbcTemplate.update("INSERT INTO time_entry (id, employee_id, register, check_out, is_manual) VALUES (?, ?, ?, ?, ?)",
+                            UUID.randomUUID(), owner.getId(), Timestamp.valueOf(checkIn), Timestamp.valueOf(checkOut), manual);
+    }
+
+    private static Employee employee(String fullName, Role role) {
+        Employee employee = new Employee();
+        employee.setFullName(fullName);
+        employee.setEmail("archive-" + UUID.randomUUID() + "@company.com");
+        employee.setHourlyRate(1000);
+        employee.setWorkHoursPerDay(8);
+        employee.setRole(role);
+        return employee;
+    }
+}
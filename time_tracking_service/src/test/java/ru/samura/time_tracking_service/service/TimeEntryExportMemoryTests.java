@@ -0,0 +1,128 @@
+package ru.samura.time_tracking_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.time.YearMonth;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import ru.samura.time_tracking_service.archive.TimeEntryArchive;
+import ru.samura.time_tracking_service.entity.Employee;
+import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.repository.EmployeeRepository;
+
+/**
+ * Проверяет постоянное потребление памяти потоковой выгрузкой 1 млн записей.
+ * <p>
+ * Выполняется в отдельной JVM с кучей 64 МБ ({@code @Tag("constrained-heap")}, см. {@code pom.xml}):
+ * выгрузка, которая собирает все строки в памяти, падает с {@link OutOfMemoryError}. Поэтому БД —
+ * файловая H2, а смены вставляются частями без транзакции теста: строки лежат на диске, а не в куче.
+ */
+@Tag("constrained-heap")
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:file:./target/h2/time-entry-export;MODE=PostgreSQL;CACHE_SIZE=8192")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TimeEntryExportService.class, TimeEntryArchive.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TimeEntryExportMemoryTests {
+
+    private static final int ROWS = 1_000_000;
+    private static final int INSERT_CHUNK = 100_000;
+    private static final int SAMPLE_EVERY = 100_000;
+    private static final long MAX_HEAP_GROWTH = 16L * 1024 * 1024;
+    private static final YearMonth MONTH = YearMonth.of(2025, 11);
+
+    @Autowired
+    private TimeEntryExportService timeEntryExportService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID employeeId;
+
+    @BeforeEach
+    void setUp() {
+        Employee employee = new Employee();
+        employee.setFullName("Выгрузка Нагрузочная");
+        employee.setEmail("export-" + UUID.randomUUID() + "@company.com");
+        employee.setHourlyRate(1000);
+        employee.setWorkHoursPerDay(8);
+        employee.setRole(Role.EMPLOYEE);
+        employeeId = employeeRepository.save(employee).getId();
+
+        // Смены в пределах ноября: смещение check_out в секундах от начала месяца
+        for (int first = 1; first <= ROWS; first += INSERT_CHUNK) {
+            jdbcTemplate.update("""
+                INSERT INTO time_entry (id, employee_id, register, check_out, is_manual)
+                SELECT RANDOM_UUID(7), ?,
+                       DATEADD(SECOND, MOD(X, 2000000), TIMESTAMP '2025-11-01 00:00:00'),
+                       DATEADD(SECOND, MOD(X, 2000000) + 28800, TIMESTAMP '2025-11-01 00:00:00'),
+                       FALSE
+                FROM SYSTEM_RANGE(?, ?)
+                """, employeeId, first, first + INSERT_CHUNK - 1);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("TRUNCATE TABLE time_entry");
+        employeeRepository.deleteById(employeeId);
+    }
+
+    @Test
+    void testExport_MillionRowsWithConstantMemory() {
+        HeapSamplingOutputStream out = new HeapSamplingOutputStream();
+        long rows = timeEntryExportService.export(MONTH, TimeEntryExportService.Format.NDJSON, out);
+
+        assertEquals(ROWS, rows);
+        assertEquals(ROWS, out.lines);
+        assertTrue(out.maxHeapGrowth < MAX_HEAP_GROWTH,
+                   "Живой объём кучи не должен расти с числом выгруженных строк, рост: " + out.maxHeapGrowth + " байт");
+    }
+
+    /**
+     * Выходной поток, который отбрасывает данные, считает строки и каждые {@link #SAMPLE_EVERY} строк
+     * замеряет живой объём кучи после сборки мусора.
+     */
+    private static class HeapSamplingOutputStream extends OutputStream {
+
+        private final long baseline = liveHeap();
+        private long lines;
+        private long maxHeapGrowth;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n' && ++lines % SAMPLE_EVERY == 0) {
+                maxHeapGrowth = Math.max(maxHeapGrowth, liveHeap() - baseline);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+
+        private static long liveHeap() {
+            Runtime runtime = Runtime.getRuntime();
+            System.gc();
+            return runtime.totalMemory() - runtime.freeMemory();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package ru.samura.time_tracking_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import ru.samura.time_tracking_service.archive.TimeEntryArchive;
+import ru.samura.time_tracking_service.entity.Employee;
+import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.repository.EmployeeRepository;
+
+/**
+ * Проверяет формат строк потоковой выгрузки; потребление памяти на 1 млн записей —
+ * {@link TimeEntryExportMemoryTests}.
+ */
+@DataJpaTest
+@Import({TimeEntryExportService.class, TimeEntryArchive.class})
+public class TimeEntryExportServiceTests {
+
+    private static final YearMonth MONTH = YearMonth.of(2025, 11);
+
+    @Autowired
+    private TimeEntryExportService timeEntryExportService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID employeeId;
+
+    @BeforeEach
+    void setUp() {
+        Employee employee = new Employee();
+        employee.setFullName("Выгрузка Тестовая");
+        employee.setEmail("export@company.com");
+        employee.setHourlyRate(1000);
+        employee.setWorkHoursPerDay(8);
+        employee.setRole(Role.EMPLOYEE);
+        employeeId = employeeRepository.saveAndFlush(employee).getId();
+    }
+
+    @Test
+    void testExport_CsvAndNdjsonRows() {
+        jdbcTemplate.update("""
+            INSERT INTO time_entry (id, employee_id, register, check_out, is_manual)
+            VALUES (?, ?, TIMESTAMP '2025-11-03 09:00:00', TIMESTAMP '2025-11-03 17:00:00', TRUE)
+            """, UUID.fromString("00000000-0000-0000-0000-000000000001"), employeeId);
+        jdbcTemplate.update("""
+            INSERT INTO time_entry (id, employee_id, register, check_out, is_manual)
+            VALUES (?, ?, TIMESTAMP '2025-11-30 16:00:00', TIMESTAMP '2025-12-01 00:00:00', FALSE)
+            """, UUID.randomUUID(), employeeId);
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+
+        assertEquals(1, timeEntryExportService.export(MONTH, TimeEntryExportService.Format.CSV, csv));
+        assertEquals(1, timeEntryExportService.export(MONTH, TimeEntryExportService.Format.NDJSON, ndjson));
+
+        assertEquals("id,employee_id,check_in,check_out,is_manual\n"
+                         + "00000000-0000-0000-0000-000000000001," + employeeId + ",2025-11-03T09:00:00.000000,2025-11-03T17:00:00.000000,true\n",
+                     csv.toString(StandardCharsets.UTF_8));
+        assertEquals("{\"id\":\"00000000-0000-0000-0000-000000000001\",\"employeeId\":\"" + employeeId
+                         + "\",\"checkIn\":\"2025-11-03T09:00:00.000000\",\"checkOut\":\"2025-11-03T17:00:00.000000\",\"manual\":true}\n",
+                     ndjson.toString(StandardCharsets.UTF_8));
+    }
+}
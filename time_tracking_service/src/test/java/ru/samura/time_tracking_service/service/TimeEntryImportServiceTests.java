@@ -0,0 +1,167 @@
+package ru.samura.time_tracking_service.service;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import ru.samura.time_tracking_service.entity.Employee;
+import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.repository.EmployeeRepository;
+
+/**
+ * Проверяет импорт исторических смен из CSV: загрузку частями, отклонение ошибочных строк
+ * с номером и причиной, пересчёт месячных агрегатов и доступ только для HR.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:time-entry-import;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+    // Несколько частей на небольшом файле
+    "time-tracking.import.chunk-size=2",
+    "time-tracking.import.max-reported-rejections=3"
+})
+@AutoConfigureMockMvc
+public class TimeEntryImportServiceTests {
+
+    private static final YearMonth MONTH = YearMonth.now().minusMonths(2);
+
+    private static final String HEADER = "id,employee_id,check_in,check_out,is_manual\n";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MonthlyHoursRollupService monthlyHoursRollupService;
+
+    @Autowired
+    private ReportSnapshotService reportSnapshotService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Employee hr;
+
+    @BeforeEach
+    void setUp() {
+        hr = new Employee();
+        hr.setFullName("Импорт Кадровый");
+        hr.setEmail("import-" + UUID.randomUUID() + "@company.com");
+        hr.setHourlyRate(1000);
+        hr.setWorkHoursPerDay(8);
+        hr.setRole(Role.HR);
+        hr = employeeRepository.save(hr);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reportSnapshotService.reopenMonth(MONTH);
+        jdbcTemplate.update("DELETE FROM time_entry WHERE employee_id = ?", hr.getId());
+        jdbcTemplate.update("DELETE FROM monthly_hours_rollup WHERE employee_id = ?", hr.getId());
+        employeeRepository.deleteById(hr.getId());
+    }
+
+    @Test
+    void testImport_LoadsValidRowsAndRejectsInvalid() throws Exception {
+        String csv = HEADER
+            + "," + hr.getId() + "," + MONTH.atDay(3).atTime(9, 0) + "," + MONTH.atDay(3).atTime(17, 30) + ",false\n"
+            // id выгрузки пропускается, метки времени с пробелом — как в выгрузках других систем
+            + UUID.randomUUID() + "," + hr.getId() + "," + MONTH.atDay(4) + " 09:00:00," + MONTH.atDay(4) + " 18:00:00,true\n"
+            + "," + UUID.randomUUID() + "," + MONTH.atDay(4).atTime(9, 0) + "," + MONTH.atDay(4).atTime(17, 0) + ",false\n"
+            + "," + hr.getId() + "," + MONTH.atDay(5).atTime(17, 0) + "," + MONTH.atDay(5).atTime(9, 0) + ",false\n"
+            + "," + hr.getId() + ",вчера," + MONTH.atDay(6).atTime(17, 0) + ",false\n"
+            + "," + hr.getId() + "," + MONTH.atDay(7).atTime(9, 0) + ",,false\n"
+            + "\n"
+            + "," + hr.getId() + "," + MONTH.atDay(8).atTime(8, 0) + "," + MONTH.atDay(8).atTime(12, 15) + ",\n";
+
+        mockMvc.perform(post("/report/{id}/import", hr.getId()).contentType("text/csv").content(csv))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.imported").value(3))
+            .andExpect(jsonPath("$.rejected").value(4))
+            // В ответе — только первые max-reported-rejections отклонённых строк
+            .andExpect(jsonPath("$.rejectedRows", hasSize(3)))
+            .andExpect(jsonPath("$.rejectedRows[*].line", containsInAnyOrder(5, 6, 7)))
+            .andExpect(jsonPath("$.rejectedRows[0].reason").value("Окончание смены раньше начала"));
+
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM time_entry WHERE employee_id = ?",
+                                                    Integer.class, hr.getId()));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM time_entry WHERE employee_id = ? AND is_manual",
+                                                    Integer.class, hr.getId()));
+        // 8ч30м + 9ч + 4ч15м
+        assertEquals(510 + 540 + 255, monthlyHoursRollupService.totalMinutes(hr.getId(), MONTH));
+    }
+
+    @Test
+    void testImport_RejectsUnknownEmployeeAndClosedMonth() throws Exception {
+        reportSnapshotService.closeMonth(MONTH);
+        UUID unknown = UUID.randomUUID();
+        YearMonth open = MONTH.plusMonths(1);
+
+        String csv = "employee_id,check_out,check_in\n"
+            + unknown + "," + open.atDay(2).atTime(17, 0) + "," + open.atDay(2).atTime(9, 0) + "\n"
+            + hr.getId() + "," + MONTH.atDay(2).atTime(17, 0) + "," + MONTH.atDay(2).atTime(9, 0) + "\n"
+            + hr.getId() + "," + open.atDay(3).atTime(17, 0) + "," + open.atDay(3).atTime(9, 0) + "\n";
+
+        mockMvc.perform(post("/report/{id}/import", hr.getId()).contentType("text/csv").content(csv))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.imported").value(1))
+            .andExpect(jsonPath("$.rejected").value(2))
+            .andExpect(jsonPath("$.rejectedRows[0].line").value(3))
+            .andExpect(jsonPath("$.rejectedRows[0].reason", containsString("закрыт")))
+            .andExpect(jsonPath("$.rejectedRows[1].line").value(2))
+            .andExpect(jsonPath("$.rejectedRows[1].reason").value("Сотрудник не найден: " + unknown));
+
+        assertEquals(0, monthlyHoursRollupService.totalMinutes(hr.getId(), MONTH));
+        assertEquals(8 * 60, monthlyHoursRollupService.totalMinutes(hr.getId(), open));
+    }
+
+    @Test
+    void testImport_RequiresHRAndHeader() throws Exception {
+        mockMvc.perform(post("/report/{id}/import", hr.getId()).contentType("text/csv").content("employee,start,end\n"))
+            .andExpect(status().isBadRequest());
+
+        Employee employee = new Employee();
+        employee.setFullName("Импорт Сотрудник");
+        employee.setEmail("import-" + UUID.randomUUID() + "@company.com");
+        employee.setHourlyRate(1000);
+        employee.setWorkHoursPerDay(8);
+        employee.setRole(Role.EMPLOYEE);
+        employee = employeeRepository.save(employee);
+        try {
+            mockMvc.perform(post("/report/{id}/import", employee.getId()).contentType("text/csv").content(HEADER))
+                .andExpect(status().isForbidden());
+        } finally {
+            employeeRepository.deleteById(employee.getId());
+        }
+    }
+
+    @Test
+    void testParseTimestamp_FastPathMatchesIso() {
+        assertEquals(LocalDateTime.of(2024, 2, 29, 8, 5), TimeEntryImportService.parseTimestamp("2024-02-29T08:05"));
+        assertEquals(LocalDateTime.of(2024, 2, 29, 8, 5, 7), TimeEntryImportService.parseTimestamp(" 2024-02-29 08:05:07 "));
+        assertEquals(LocalDateTime.of(2024, 2, 29, 8, 5, 7, 250_000_000),
+                     TimeEntryImportService.parseTimestamp("2024-02-29 08:05:07.25"));
+
+        assertThrows(IllegalArgumentException.class, () -> TimeEntryImportService.parseTimestamp("2023-02-29T08:05"));
+        assertThrows(IllegalArgumentException.class, () -> TimeEntryImportService.parseTimestamp("2024-02-29T8:05:07"));
+        assertThrows(IllegalArgumentException.class, () -> TimeEntryImportService.parseTimestamp("2024-0a-29T08:05"));
+    }
+}
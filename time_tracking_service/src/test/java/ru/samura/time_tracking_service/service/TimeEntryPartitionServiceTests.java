@@ -0,0 +1,136 @@
+package ru.samura.time_tracking_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Date;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import ru.samura.time_tracking_service.entity.ArchivedMonth;
+import ru.samura.time_tracking_service.repository.ArchivedMonthRepository;
+
+/**
+ * Проверяет обслуживание секций {@code time_entry}: создание секций на месяцы вперёд,
+ * перенос в архивную схему пустых секций перенесённых в архив месяцев старше срока хранения
+ * и отключение вне PostgreSQL.
+ */
+public class TimeEntryPartitionServiceTests {
+
+    private static final String CREATE_PARTITION_SQL = "SELECT time_entry_create_partition(?)";
+
+    @InjectMocks
+    private TimeEntryPartitionService timeEntryPartitionService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ArchivedMonthRepository archivedMonthRepository;
+
+    private final YearMonth current = YearMonth.now();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(timeEntryPartitionService, "enabled", true);
+        ReflectionTestUtils.setField(timeEntryPartitionService, "monthsAhead", 3);
+        ReflectionTestUtils.setField(timeEntryPartitionService, "retentionMonths", 36);
+        ReflectionTestUtils.setField(timeEntryPartitionService, "archiveSchema", "time_entry_archive");
+
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("PostgreSQL");
+    }
+
+    @Test
+    void testMaintainPartitions_CreatesCurrentAndUpcomingMonths() {
+        when(jdbcTemplate.queryForList(TimeEntryPartitionService.LIST_PARTITIONS_SQL, String.class)).thenReturn(List.of());
+
+        timeEntryPartitionService.maintainPartitions();
+
+        for (int i = 0; i <= 3; i++) {
+            verify(jdbcTemplate).queryForObject(CREATE_PARTITION_SQL, String.class, Date.valueOf(current.plusMonths(i).atDay(1)));
+        }
+        verify(jdbcTemplate, times(4)).queryForObject(eq(CREATE_PARTITION_SQL), eq(String.class), any(Date.class));
+    }
+
+    @Test
+    void testMaintainPartitions_ArchivesOnlyEmptyArchivedPartitionsOlderThanRetention() {
+        YearMonth oldest = current.minusMonths(40);
+        YearMonth newest = current.minusMonths(36);
+        String expiredOldest = TimeEntryPartitionService.partitionName(oldest);
+        String expiredNewest = TimeEntryPartitionService.partitionName(newest);
+        String notArchived = TimeEntryPartitionService.partitionName(current.minusMonths(38));
+        String notEmpty = TimeEntryPartitionService.partitionName(current.minusMonths(37));
+        String retained = TimeEntryPartitionService.partitionName(current.minusMonths(35));
+        when(jdbcTemplate.queryForList(TimeEntryPartitionService.LIST_PARTITIONS_SQL, String.class))
+            .thenReturn(List.of(retained, "time_entry_default", expiredNewest, notArchived, notEmpty,
+                                TimeEntryPartitionService.partitionName(current), expiredOldest));
+        when(archivedMonthRepository.findAll()).thenReturn(List.of(
+            new ArchivedMonth(oldest.toString(), null, 0, 0),
+            new ArchivedMonth(current.minusMonths(37).toString(), null, 0, 0),
+            new ArchivedMonth(newest.toString(), null, 0, 0),
+            new ArchivedMonth(current.minusMonths(35).toString(), null, 0, 0)));
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class))).thenReturn(false);
+        when(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM \"" + notEmpty + "\")", Boolean.class)).thenReturn(true);
+
+        assertEquals(List.of(expiredOldest, expiredNewest), timeEntryPartitionService.expiredPartitions(current.minusMonths(35)));
+
+        timeEntryPartitionService.maintainPartitions();
+
+        verify(jdbcTemplate).execute("ALTER TABLE time_entry DETACH PARTITION \"" + expiredOldest + "\"");
+        verify(jdbcTemplate).execute("ALTER TABLE \"" + expiredOldest + "\" SET SCHEMA \"time_entry_archive\"");
+        verify(jdbcTemplate).execute("ALTER TABLE time_entry DETACH PARTITION \"" + expiredNewest + "\"");
+        verify(jdbcTemplate, never()).execute("ALTER TABLE time_entry DETACH PARTITION \"" + notArchived + "\"");
+        verify(jdbcTemplate, never()).execute("ALTER TABLE time_entry DETACH PARTITION \"" + notEmpty + "\"");
+        verify(jdbcTemplate, never()).execute("ALTER TABLE time_entry DETACH PARTITION \"" + retained + "\"");
+        verify(jdbcTemplate, never()).execute("ALTER TABLE time_entry DETACH PARTITION \"time_entry_default\"");
+    }
+
+    @Test
+    void testMaintainPartitions_FailedMonthDoesNotStopOthers() {
+        when(jdbcTemplate.queryForObject(CREATE_PARTITION_SQL, String.class, Date.valueOf(current.atDay(1))))
+            .thenThrow(new DataIntegrityViolationException("updated partition constraint for default partition would be violated"));
+        when(jdbcTemplate.queryForList(TimeEntryPartitionService.LIST_PARTITIONS_SQL, String.class)).thenReturn(List.of());
+
+        timeEntryPartitionService.maintainPartitions();
+
+        verify(jdbcTemplate).queryForObject(CREATE_PARTITION_SQL, String.class, Date.valueOf(current.plusMonths(3).atDay(1)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPartitionOnStartup_SkippedOutsidePostgres() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("H2");
+
+        timeEntryPartitionService.partitionOnStartup();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(String.class), any(Date.class));
+    }
+
+    @Test
+    void testPartitionMonth_ParsesOnlyMonthlyPartitions() {
+        assertEquals(YearMonth.of(2025, 11), TimeEntryPartitionService.partitionMonth("time_entry_2025_11"));
+        assertNull(TimeEntryPartitionService.partitionMonth("time_entry_default"));
+        assertNull(TimeEntryPartitionService.partitionMonth("monthly_hours_rollup"));
+    }
+}
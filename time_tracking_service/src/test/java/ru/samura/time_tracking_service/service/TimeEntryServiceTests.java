@@ -3,15 +3,20 @@ package ru.samura.time_tracking_service.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -19,12 +24,16 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 
 
 
 import ru.samura.time_tracking_service.DTO.EmployeeDTO;
+import ru.samura.time_tracking_service.DTO.ShiftView;
 import ru.samura.time_tracking_service.DTO.TimeEntryDTO;
 import ru.samura.time_tracking_service.custom_exception.ActiveShiftTodayException;
+import ru.samura.time_tracking_service.custom_exception.ClosedShiftTodayException;
+import ru.samura.time_tracking_service.custom_exception.NoShiftFoundException;
 import ru.samura.time_tracking_service.entity.Role;
 import ru.samura.time_tracking_service.entity.TimeEntry;
 import ru.samura.time_tracking_service.repository.TimeEntryRepository;
@@ -37,6 +46,12 @@ public class TimeEntryServiceTests {
     @Mock
     private TimeEntryRepository timeEntryRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private MonthlyHoursRollupService monthlyHoursRollupService;
+
     @BeforeEach
     void setUp(){
         MockitoAnnotations.openMocks(this);
@@ -56,7 +71,7 @@ public class TimeEntryServiceTests {
         timeEntry.setCheckIn(LocalDateTime.now()); // Устанавливаем checkIn
         
         // Настройка мока
-        when(timeEntryRepository.save(any(TimeEntry.class))).thenReturn(timeEntry);
+        when(timeEntryRepository.saveAndFlush(any(TimeEntry.class))).thenReturn(timeEntry);
         
         // Вызов метода clockIn
         TimeEntryDTO result = timeEntryService.clockIn(currentUser);
@@ -65,8 +80,8 @@ public class TimeEntryServiceTests {
         assertNotNull(result.getCheckIn(), "Поле checkIn не должно быть null");
         assertFalse(result.isManual(), "isManual должно быть false");
 
-        // Проверка, что метод save был вызван один раз
-        verify(timeEntryRepository, times(1)).save(any(TimeEntry.class));
+        // Проверка, что смена была сохранена один раз
+        verify(timeEntryRepository, times(1)).saveAndFlush(any(TimeEntry.class));
     }
 
     @Test
@@ -77,14 +92,11 @@ public class TimeEntryServiceTests {
         currentUser.setId(targetEmployeeId);
         currentUser.setRole(Role.EMPLOYEE);
 
-        // Создание активной смены
-        TimeEntry activeShift = new TimeEntry();
-        activeShift.setCheckIn(LocalDateTime.now());
-        activeShift.setEmployee(currentUser.toEntity());
-        activeShift.setCheckOut(null); // Указываем, что смена активна
+        // Создание активной смены (checkOut == null)
+        ShiftView activeShift = new ShiftView(UUID.randomUUID(), LocalDateTime.now(), null, false);
 
-        // Настройка мока для метода findShiftByEmployee
-        when(timeEntryRepository.findShiftsByEmployee(targetEmployeeId)).thenReturn(List.of(activeShift));
+        // Настройка мока для поиска открытой смены
+        when(timeEntryRepository.findOpenShiftByEmployee(targetEmployeeId)).thenReturn(Optional.of(activeShift));
 
         // Ожидание исключения при попытке регистрации второй смены
         ActiveShiftTodayException exception = assertThrows(ActiveShiftTodayException.class, () -> {
@@ -95,5 +107,83 @@ public class TimeEntryServiceTests {
         assertEquals("У пользователя уже есть активная смена сегодня", exception.getMessage());
     }
 
+    @Test
+    void testClockOut_ClosesOpenShiftWithoutLoadingHistory() {
+        EmployeeDTO currentUser = new EmployeeDTO();
+        UUID targetEmployeeId = UUID.randomUUID();
+        currentUser.setId(targetEmployeeId);
+        currentUser.setRole(Role.EMPLOYEE);
+
+        ShiftView openShift = new ShiftView(UUID.randomUUID(), LocalDateTime.now().minusHours(8), null, false);
+
+        when(timeEntryRepository.findOpenShiftByEmployee(targetEmployeeId)).thenReturn(Optional.of(openShift));
+        when(timeEntryRepository.closeOpenShift(eq(openShift.id()), eq(openShift.checkIn()), any(LocalDateTime.class), eq(true))).thenReturn(1);
+
+        TimeEntryDTO result = timeEntryService.clockOut(currentUser, true);
+
+        assertNotNull(result.getCheckOut(), "Смена должна быть закрыта");
+        assertTrue(result.isManual(), "Закрытие HR помечается как ручное");
+        assertSame(currentUser, result.getEmployee(), "Сотрудник смены не копируется");
+        verify(timeEntryRepository, never()).findShiftsByEmployee(any(UUID.class));
+        verify(monthlyHoursRollupService).addShift(targetEmployeeId, openShift.checkIn(), result.getCheckOut());
+    }
+
+    @Test
+    void testClockOut_ForgottenShiftIsNotPaidAndManual() {
+        EmployeeDTO currentUser = new EmployeeDTO();
+        UUID targetEmployeeId = UUID.randomUUID();
+        currentUser.setId(targetEmployeeId);
+        currentUser.setRole(Role.EMPLOYEE);
+
+        // Уход не отмечен больше месяца: смена длиннее MAX_SHIFT_SPAN
+        ShiftView openShift = new ShiftView(UUID.randomUUID(), LocalDateTime.now().minusDays(40), null, false);
+
+        when(timeEntryRepository.findOpenShiftByEmployee(targetEmployeeId)).thenReturn(Optional.of(openShift));
+        when(timeEntryRepository.closeOpenShift(openShift.id(), openShift.checkIn(), openShift.checkIn(), true)).thenReturn(1);
+
+        TimeEntryDTO result = timeEntryService.clockOut(currentUser, false);
+
+        assertEquals(openShift.checkIn(), result.getCheckOut(), "Забытая смена закрывается нулевой длительностью");
+        assertTrue(result.isManual(), "Забытая смена помечается как ручная для проверки HR");
+        verify(monthlyHoursRollupService).addShift(targetEmployeeId, openShift.checkIn(), openShift.checkIn());
+    }
+
+    @Test
+    void testClockOut_ClosedConcurrentlyIsNotCountedTwice() {
+        EmployeeDTO currentUser = new EmployeeDTO();
+        UUID targetEmployeeId = UUID.randomUUID();
+        currentUser.setId(targetEmployeeId);
+        currentUser.setRole(Role.EMPLOYEE);
+
+        ShiftView openShift = new ShiftView(UUID.randomUUID(), LocalDateTime.now().minusHours(8), null, false);
+
+        // Смену успел закрыть другой запрос: условное обновление не изменило строк
+        when(timeEntryRepository.findOpenShiftByEmployee(targetEmployeeId)).thenReturn(Optional.of(openShift));
+        when(timeEntryRepository.closeOpenShift(eq(openShift.id()), eq(openShift.checkIn()), any(LocalDateTime.class), eq(false))).thenReturn(0);
+        when(timeEntryRepository.findLatestShiftByEmployee(targetEmployeeId)).thenReturn(Optional.empty());
+
+        assertThrows(NoShiftFoundException.class, () -> timeEntryService.clockOut(currentUser, false));
+        verify(monthlyHoursRollupService, never()).addShift(any(UUID.class), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
 
+    @Test
+    void testClockOut_NoOpenShift() {
+        EmployeeDTO currentUser = new EmployeeDTO();
+        UUID targetEmployeeId = UUID.randomUUID();
+        currentUser.setId(targetEmployeeId);
+        currentUser.setRole(Role.EMPLOYEE);
+
+        // Последняя смена уже закрыта сегодня
+        ShiftView closedShift = new ShiftView(UUID.randomUUID(), LocalDateTime.now(), LocalDateTime.now(), false);
+
+        when(timeEntryRepository.findLatestShiftByEmployee(targetEmployeeId)).thenReturn(Optional.of(closedShift));
+
+        assertThrows(ClosedShiftTodayException.class, () -> timeEntryService.clockOut(currentUser, false));
+
+        // Смен нет совсем
+        when(timeEntryRepository.findLatestShiftByEmployee(targetEmployeeId)).thenReturn(Optional.empty());
+
+        assertThrows(NoShiftFoundException.class, () -> timeEntryService.clockOut(currentUser, false));
+        verify(timeEntryRepository, never()).closeOpenShift(any(UUID.class), any(LocalDateTime.class), any(LocalDateTime.class), anyBoolean());
+    }
 }
@@ -0,0 +1,109 @@
+package ru.samura.time_tracking_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import ru.samura.time_tracking_service.DTO.CalculationPayment;
+import ru.samura.time_tracking_service.DTO.EmployeeDTO;
+import ru.samura.time_tracking_service.entity.Employee;
+import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.repository.EmployeeRepository;
+import ru.samura.time_tracking_service.response.TotalPaymentEmployeeResponse;
+
+/**
+ * Проверяет параллельный расчёт оплаты частями: результат и порядок совпадают
+ * с расчётом по каждому сотруднику отдельно.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:parallel-payroll;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+    "time-tracking.payroll.parallelism=3",
+    "time-tracking.payroll.chunk-size=2"})
+public class TotalPaymentEmployeeAllParallelTests {
+
+    private static final YearMonth MONTH = YearMonth.of(2025, 11);
+    private static final int EMPLOYEES = 7;
+
+    @Autowired
+    private TimeEntryService timeEntryService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<EmployeeDTO> employees = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < EMPLOYEES; i++) {
+            Employee employee = new Employee();
+            employee.setFullName("Сотрудник " + i);
+            employee.setEmail("parallel-" + UUID.randomUUID() + "@company.com");
+            employee.setHourlyRate(1000 + i * 100);
+            employee.setWorkHoursPerDay(8);
+            employee.setRole(Role.EMPLOYEE);
+            employees.add(EmployeeDTO.fromEntity(employeeRepository.save(employee)));
+        }
+
+        // У i-го сотрудника i смен по 8ч59м (до часов округляется сумма за месяц) и одна смена вне месяца
+        for (int i = 0; i < EMPLOYEES; i++) {
+            UUID employeeId = employees.get(i).getId();
+            for (int day = 1; day <= i; day++) {
+                saveShift(employeeId, LocalDateTime.of(2025, 11, day, 9, 0), LocalDateTime.of(2025, 11, day, 17, 59));
+            }
+            saveShift(employeeId, LocalDateTime.of(2025, 12, 1, 9, 0), LocalDateTime.of(2025, 12, 1, 18, 0));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (EmployeeDTO employee : employees) {
+            jdbcTemplate.update("DELETE FROM time_entry WHERE employee_id = ?", employee.getId());
+            employeeRepository.deleteById(employee.getId());
+        }
+    }
+
+    @Test
+    void testTotalPaymentEmployeeAll_ParallelMatchesPerEmployeeCalculation() {
+        List<CalculationPayment> expected = new ArrayList<>();
+        for (EmployeeDTO employee : employees) {
+            // Один сотрудник — меньше части, расчёт идёт последовательно
+            expected.addAll(timeEntryService.totalPaymentEmployeeAll(List.of(employee), MONTH));
+        }
+
+        List<CalculationPayment> result = timeEntryService.totalPaymentEmployeeAll(employees, MONTH);
+
+        assertEquals(expected, result, "Параллельный расчёт должен совпадать с расчётом по каждому сотруднику");
+        for (int i = 0; i < EMPLOYEES; i++) {
+            assertEquals(employees.get(i).getId(), result.get(i).getEmployeeDTO().getId(), "Порядок входного списка сохраняется");
+            assertEquals((8L * 60 + 59) * i / 60, result.get(i).getTotalHours());
+        }
+    }
+
+    @Test
+    void testGetTotalPaymentsForEmployees_Parallel() {
+        List<TotalPaymentEmployeeResponse> responses = timeEntryService.getTotalPaymentsForEmployees(employees, MONTH);
+
+        assertEquals(EMPLOYEES, responses.size());
+        assertEquals((8L * 60 + 59) * 6 / 60 * 1600, responses.get(6).pay(), "6 смен по 8ч59м — 53 часа");
+    }
+
+    private void saveShift(UUID employeeId, LocalDateTime checkIn, LocalDateTime checkOut) {
+        jdbcTemplate.update("INSERT INTO time_entry (id, employee_id, register, check_out, is_manual) VALUES (?, ?, ?, ?, FALSE)",
+                            UUID.randomUUID(), employeeId, Timestamp.valueOf(checkIn), Timestamp.valueOf(checkOut));
+    }
+}
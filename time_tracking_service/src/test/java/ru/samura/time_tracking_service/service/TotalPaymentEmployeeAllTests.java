@@ -0,0 +1,116 @@
+package ru.samura.time_tracking_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import ru.samura.time_tracking_service.DTO.CalculationPayment;
+import ru.samura.time_tracking_service.DTO.EmployeeDTO;
+import ru.samura.time_tracking_service.archive.TimeEntryArchive;
+import ru.samura.time_tracking_service.entity.Employee;
+import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.entity.TimeEntry;
+import ru.samura.time_tracking_service.repository.EmployeeRepository;
+import ru.samura.time_tracking_service.repository.TimeEntryRepository;
+
+/**
+ * Проверяет, что расчёт оплаты по всем сотрудникам одним запросом
+ * даёт тот же результат, что и расчёт по каждому сотруднику отдельно.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:monthly-hours-rollup;DB_CLOSE_DELAY=-1;MODE=PostgreSQL")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TimeEntryService.class, MonthlyHoursRollupService.class, TimeEntryArchive.class})
+public class TotalPaymentEmployeeAllTests {
+
+    private static final YearMonth MONTH = YearMonth.of(2025, 11);
+
+    @Autowired
+    private TimeEntryService timeEntryService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private TimeEntryRepository timeEntryRepository;
+
+    private final List<EmployeeDTO> employees = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Employee anna = saveEmployee("Анна Петрова", "anna@company.com", 1000, 8, Role.EMPLOYEE);
+        Employee ivan = saveEmployee("Иван Сидоров", "ivan@company.com", 1200, 8, Role.EMPLOYEE);
+        Employee hr = saveEmployee("HR Менеджер", "hr@company.com", 1500, 6, Role.HR);
+        Employee idle = saveEmployee("Без смен", "idle@company.com", 900, 8, Role.EMPLOYEE);
+
+        // Обычные смены в отчётном месяце, включая 7ч59м (минуты отбрасываются)
+        saveShift(anna, LocalDateTime.of(2025, 11, 3, 9, 0), LocalDateTime.of(2025, 11, 3, 18, 0));
+        saveShift(anna, LocalDateTime.of(2025, 11, 4, 9, 0), LocalDateTime.of(2025, 11, 4, 16, 59));
+        saveShift(ivan, LocalDateTime.of(2025, 11, 5, 8, 30), LocalDateTime.of(2025, 11, 5, 20, 45));
+        saveShift(hr, LocalDateTime.of(2025, 11, 28, 10, 0), LocalDateTime.of(2025, 11, 28, 15, 0));
+
+        // Ночная смена, начатая в прошлом месяце, учитывается по дате окончания
+        saveShift(ivan, LocalDateTime.of(2025, 10, 31, 22, 0), LocalDateTime.of(2025, 11, 1, 6, 0));
+
+        // Смены вне отчётного месяца и активная смена — не учитываются
+        saveShift(anna, LocalDateTime.of(2025, 12, 1, 9, 0), LocalDateTime.of(2025, 12, 1, 18, 0));
+        saveShift(hr, LocalDateTime.of(2025, 10, 10, 9, 0), LocalDateTime.of(2025, 10, 10, 18, 0));
+        saveShift(ivan, LocalDateTime.of(2025, 11, 30, 9, 0), null);
+
+        for (Employee employee : List.of(anna, ivan, hr, idle)) {
+            employees.add(EmployeeDTO.fromEntity(employee));
+        }
+    }
+
+    @Test
+    void testTotalPaymentEmployeeAll_MatchesPerEmployeeCalculation() {
+        List<CalculationPayment> expected = new ArrayList<>();
+        for (EmployeeDTO employee : employees) {
+            expected.add(timeEntryService.totalPaymentEmployee(employee, MONTH));
+        }
+
+        List<CalculationPayment> result = timeEntryService.totalPaymentEmployeeAll(employees, MONTH);
+
+        assertEquals(expected, result, "Расчёт одним запросом должен совпадать с расчётом по каждому сотруднику");
+    }
+
+    @Test
+    void testTotalPaymentEmployeeAll_AggregatesHoursPerEmployee() {
+        List<CalculationPayment> result = timeEntryService.totalPaymentEmployeeAll(employees, MONTH);
+
+        assertEquals(4, result.size());
+        assertEquals(9 + 7, result.get(0).getTotalHours(), "Анна: 9ч + 7ч59м → 16 полных часов");
+        assertEquals(12 + 8, result.get(1).getTotalHours(), "Иван: 12ч15м + ночная смена 8ч");
+        assertEquals(5, result.get(2).getTotalHours());
+        assertEquals(0, result.get(3).getTotalHours(), "Сотрудник без смен получает нулевой расчёт");
+        assertEquals(16 * 1000, result.get(0).getPay());
+        assertEquals(5 - 20 * 6, result.get(2).getOvertime());
+    }
+
+    private Employee saveEmployee(String fullName, String email, int hourlyRate, int workHoursPerDay, Role role) {
+        Employee employee = new Employee();
+        employee.setFullName(fullName);
+        employee.setEmail(email);
+        employee.setHourlyRate(hourlyRate);
+        employee.setWorkHoursPerDay(workHoursPerDay);
+        employee.setRole(role);
+        return employeeRepository.save(employee);
+    }
+
+    private void saveShift(Employee employee, LocalDateTime checkIn, LocalDateTime checkOut) {
+        TimeEntry timeEntry = new TimeEntry();
+        timeEntry.setEmployee(employee);
+        timeEntry.setCheckIn(checkIn);
+        timeEntry.setCheckOut(checkOut);
+        timeEntryRepository.save(timeEntry);
+    }
+}
@@ -0,0 +1,134 @@
+package ru.samura.time_tracking_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.Combinators;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+
+/**
+ * Сверяет {@link WorkedHoursAccumulator} с эталонной реализацией на {@link Duration}
+ * на случайных сменах месяца (jqwik), плюс примеры округления по каждому правилу.
+ */
+public class WorkedHoursAccumulatorTests {
+
+    private static final YearMonth MONTH = YearMonth.of(2025, 11);
+
+    /**
+     * Завершённая смена.
+     */
+    record Shift(LocalDateTime checkIn, LocalDateTime checkOut) { }
+
+    @Property
+    void hoursMatchReference(@ForAll("shifts") List<Shift> shifts, @ForAll PayrollRounding rounding) {
+        assertEquals(referenceHours(shifts, rounding), accumulate(shifts, rounding).hours());
+    }
+
+    @Property
+    void shiftMinutesMatchDuration(@ForAll("shift") Shift shift) {
+        assertEquals(Duration.between(shift.checkIn(), shift.checkOut()).toMinutes(),
+                     WorkedHoursAccumulator.shiftMinutes(shift.checkIn(), shift.checkOut()));
+    }
+
+    @Property
+    void coarserRoundingNeverLosesMore(@ForAll("shifts") List<Shift> shifts) {
+        long byShift = accumulate(shifts, PayrollRounding.SHIFT).hours();
+        long byDay = accumulate(shifts, PayrollRounding.DAY).hours();
+        WorkedHoursAccumulator month = accumulate(shifts, PayrollRounding.MONTH);
+
+        assertTrue(byShift <= byDay && byDay <= month.hours());
+        assertTrue(month.hours() * 60 <= month.totalMinutes() && month.totalMinutes() < month.hours() * 60 + 60,
+                   "За месяц теряется меньше часа");
+        assertTrue(month.hours() - byShift <= shifts.size(), "По сменам теряется меньше часа на смену");
+    }
+
+    @Property
+    void resultDoesNotDependOnShiftOrder(@ForAll("shifts") List<Shift> shifts, @ForAll PayrollRounding rounding,
+                                         @ForAll Random random) {
+        List<Shift> shuffled = new ArrayList<>(shifts);
+        Collections.shuffle(shuffled, random);
+
+        assertEquals(accumulate(shifts, rounding).hours(), accumulate(shuffled, rounding).hours());
+    }
+
+    @Test
+    void testRounding_Examples() {
+        // Смены 7ч59м и 6ч59м в один день и ночная смена 22:00–06:30, отнесённая к дню окончания
+        List<Shift> shifts = List.of(
+            new Shift(MONTH.atDay(3).atTime(9, 0), MONTH.atDay(3).atTime(16, 59)),
+            new Shift(MONTH.atDay(3).atTime(17, 0), MONTH.atDay(3).atTime(23, 59)),
+            new Shift(MONTH.atDay(4).atTime(22, 0), MONTH.atDay(5).atTime(6, 30)));
+
+        assertEquals(7 + 6 + 8, accumulate(shifts, PayrollRounding.SHIFT).hours());
+        assertEquals(14 + 8, accumulate(shifts, PayrollRounding.DAY).hours(), "3-е: 14ч58м, 5-е: 8ч30м");
+        assertEquals(23, accumulate(shifts, PayrollRounding.MONTH).hours(), "Всего 23ч28м");
+        assertEquals(23 * 60 + 28, accumulate(shifts, PayrollRounding.MONTH).totalMinutes());
+    }
+
+    @Provide
+    Arbitrary<List<Shift>> shifts() {
+        return shift().list().ofMaxSize(200);
+    }
+
+    /**
+     * Смена до 16 часов с окончанием в {@link #MONTH}, с секундами и наносекундами.
+     */
+    @Provide
+    Arbitrary<Shift> shift() {
+        long monthSeconds = MONTH.lengthOfMonth() * 86_400L;
+        return Combinators.combine(
+                Arbitraries.longs().between(0, monthSeconds - 1),
+                Arbitraries.integers().between(0, 999_999_999),
+                Arbitraries.longs().between(0, 16 * 3_600),
+                Arbitraries.integers().between(0, 999_999_999))
+            .as((end, endNano, length, startNano) -> {
+                LocalDateTime checkOut = MONTH.atDay(1).atStartOfDay().plusSeconds(end).withNano(endNano);
+                LocalDateTime checkIn = checkOut.minusSeconds(length).withNano(startNano);
+                return new Shift(checkIn.isAfter(checkOut) ? checkOut : checkIn, checkOut);
+            });
+    }
+
+    private static WorkedHoursAccumulator accumulate(List<Shift> shifts, PayrollRounding rounding) {
+        WorkedHoursAccumulator accumulator = new WorkedHoursAccumulator(rounding);
+        for (Shift shift : shifts) {
+            accumulator.add(shift.checkIn(), shift.checkOut());
+        }
+        return accumulator;
+    }
+
+    /**
+     * Эталон: длительность смены — {@link Duration}, усечённая до минут; суммы по сменам, дням
+     * окончания или месяцу округляются {@link Duration#toHours()}.
+     */
+    private static long referenceHours(List<Shift> shifts, PayrollRounding rounding) {
+        Map<String, Duration> periods = new HashMap<>();
+        for (int i = 0; i < shifts.size(); i++) {
+            Shift shift = shifts.get(i);
+            Duration duration = Duration.between(shift.checkIn(), shift.checkOut()).truncatedTo(ChronoUnit.MINUTES);
+            String period = switch (rounding) {
+                case SHIFT -> "shift-" + i;
+                case DAY -> shift.checkOut().toLocalDate().toString();
+                case MONTH -> MONTH.toString();
+            };
+            periods.merge(period, duration, Duration::plus);
+        }
+        return periods.values().stream().mapToLong(Duration::toHours).sum();
+    }
+}
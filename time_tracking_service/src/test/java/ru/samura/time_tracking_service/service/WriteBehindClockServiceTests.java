@@ -0,0 +1,146 @@
+package ru.samura.time_tracking_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import ru.samura.time_tracking_service.entity.Employee;
+import ru.samura.time_tracking_service.entity.Role;
+import ru.samura.time_tracking_service.event.ClockEvent;
+import ru.samura.time_tracking_service.repository.ClockEventLogCheckpointRepository;
+import ru.samura.time_tracking_service.repository.EmployeeRepository;
+
+/**
+ * Проверяет отложенную запись прихода/ухода: события из журнала применяются к {@code time_entry}
+ * с теми же правилами, что и прямые запросы, отметка применённых событий сохраняется в БД,
+ * а после перезапуска журнал не применяется повторно.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:write-behind;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+    "time-tracking.clock-log.enabled=true",
+    "time-tracking.clock-log.node-id=write-behind-test",
+    "time-tracking.clock-log.drain-batch-size=2",
+    // Применение журнала вызывается тестами явно
+    "time-tracking.clock-log.drain-delay-ms=3600000"
+})
+public class WriteBehindClockServiceTests {
+
+    private static final String NODE_ID = "write-behind-test";
+
+    @DynamicPropertySource
+    static void clockLogDirectory(DynamicPropertyRegistry registry) throws IOException {
+        registry.add("time-tracking.clock-log.directory", Files.createTempDirectory("clock-log")::toString);
+    }
+
+    @Autowired
+    private WriteBehindClockService writeBehindClockService;
+
+    @Autowired
+    private ClockEventLogCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID anna;
+    private UUID ivan;
+
+    @BeforeEach
+    void setUp() {
+        anna = saveEmployee();
+        ivan = saveEmployee();
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (UUID employeeId : List.of(anna, ivan)) {
+            jdbcTemplate.update("DELETE FROM time_entry WHERE employee_id = ?", employeeId);
+            jdbcTemplate.update("DELETE FROM monthly_hours_rollup WHERE employee_id = ?", employeeId);
+            employeeRepository.deleteById(employeeId);
+        }
+    }
+
+    @Test
+    void testDrain_AppliesRecordedEventsAndAdvancesCheckpoint() {
+        long before = writeBehindClockService.appliedSequence();
+
+        writeBehindClockService.record(anna, ClockEvent.Type.CLOCK_IN, false);
+        writeBehindClockService.record(ivan, ClockEvent.Type.CLOCK_IN, false);
+        writeBehindClockService.record(anna, ClockEvent.Type.CLOCK_OUT, true);
+
+        assertEquals(0, countShifts(anna, "TRUE"), "До применения журнала time_entry не изменяется");
+
+        writeBehindClockService.drain();
+
+        assertEquals(1, countShifts(anna, "check_out IS NOT NULL AND is_manual"), "Уход от HR закрывает смену как ручную");
+        assertEquals(1, countShifts(ivan, "check_out IS NULL"));
+        assertEquals(before + 3, writeBehindClockService.appliedSequence());
+        assertEquals(before + 3, checkpoint());
+    }
+
+    @Test
+    void testDrain_RejectedEventIsAppliedOnce() {
+        long before = writeBehindClockService.appliedSequence();
+
+        writeBehindClockService.record(anna, ClockEvent.Type.CLOCK_OUT, false);
+        writeBehindClockService.drain();
+
+        assertEquals(0, countShifts(anna, "TRUE"), "Уход без открытой смены отклоняется при применении");
+        assertEquals(before + 1, checkpoint());
+    }
+
+    @Test
+    void testReopen_DoesNotApplyJournalTwice() throws IOException {
+        writeBehindClockService.record(anna, ClockEvent.Type.CLOCK_IN, false);
+        writeBehindClockService.drain();
+        long applied = checkpoint();
+
+        // Перезапуск: журнал открывается заново, отметка читается из БД
+        writeBehindClockService.close();
+        writeBehindClockService.open();
+        writeBehindClockService.drain();
+
+        assertEquals(1, countShifts(anna, "TRUE"));
+        assertEquals(applied, checkpoint());
+
+        writeBehindClockService.record(anna, ClockEvent.Type.CLOCK_OUT, false);
+        writeBehindClockService.drain();
+
+        assertEquals(1, countShifts(anna, "check_out IS NOT NULL"), "Нумерация после перезапуска продолжается");
+        assertTrue(checkpoint() > applied);
+    }
+
+    private long checkpoint() {
+        return checkpointRepository.findById(NODE_ID).orElseThrow().getAppliedSequence();
+    }
+
+    private int countShifts(UUID employeeId, String condition) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM time_entry WHERE employee_id = ? AND " + condition,
+                                           Integer.class, employeeId);
+    }
+
+    private UUID saveEmployee() {
+        Employee employee = new Employee();
+        employee.setFullName("Журнал Отложенный");
+        employee.setEmail("write-behind-" + UUID.randomUUID() + "@company.com");
+        employee.setHourlyRate(1000);
+        employee.setWorkHoursPerDay(8);
+        employee.setRole(Role.EMPLOYEE);
+        return employeeRepository.save(employee).getId();
+    }
+}